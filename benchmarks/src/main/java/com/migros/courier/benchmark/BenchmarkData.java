@@ -0,0 +1,67 @@
+package com.migros.courier.benchmark;
+
+import com.migros.courier.dto.StoreInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark'larda kullanılan, sabit tohumla üretilen tekrarlanabilir test verileri.
+ * Koordinatlar İstanbul civarındaki yaklaşık 60 km x 60 km'lik bir alana dağıtılır.
+ */
+final class BenchmarkData {
+    static final double MIN_LAT = 40.80;
+    static final double MAX_LAT = 41.30;
+    static final double MIN_LNG = 28.60;
+    static final double MAX_LNG = 29.40;
+
+    private BenchmarkData() {
+    }
+
+    static List<StoreInfo> stores(int count, long seed) {
+        Random random = new Random(seed);
+        List<StoreInfo> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stores.add(new StoreInfo(null, "Mağaza " + i, randomLat(random), randomLng(random)));
+        }
+        return stores;
+    }
+
+    static double[][] points(int count, long seed) {
+        Random random = new Random(seed);
+        double[][] points = new double[count][2];
+        for (int i = 0; i < count; i++) {
+            points[i][0] = randomLat(random);
+            points[i][1] = randomLng(random);
+        }
+        return points;
+    }
+
+    /**
+     * Konum takibi için noktalar üretir; her onuncu nokta rastgele bir mağazanın 100 metre yakınına düşer.
+     */
+    static double[][] trackingPoints(List<StoreInfo> stores, int count, long seed) {
+        Random random = new Random(seed);
+        double[][] points = new double[count][2];
+        for (int i = 0; i < count; i++) {
+            if (i % 10 == 0 && !stores.isEmpty()) {
+                StoreInfo store = stores.get(random.nextInt(stores.size()));
+                points[i][0] = store.lat() + (random.nextDouble() - 0.5) * 0.0005;
+                points[i][1] = store.lng() + (random.nextDouble() - 0.5) * 0.0005;
+            } else {
+                points[i][0] = randomLat(random);
+                points[i][1] = randomLng(random);
+            }
+        }
+        return points;
+    }
+
+    static double randomLat(Random random) {
+        return MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT);
+    }
+
+    static double randomLng(Random random) {
+        return MIN_LNG + random.nextDouble() * (MAX_LNG - MIN_LNG);
+    }
+}
@@ -0,0 +1,89 @@
+package com.migros.courier.benchmark;
+
+import com.migros.courier.CourierApplication;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.service.LocationTrackingService;
+import com.migros.courier.service.StoreService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Eşzamanlı isteklerde {@link LocationTrackingService#trackLocation} verimini, kurye bazlı sharding
+ * açıkken ve kapalıyken (isteği karşılayan iş parçacığında işleme) karşılaştırır.
+ * <p>
+ * {@code courierCount = 1} tüm isteklerin aynı kuryeye geldiği en kötü durumu, büyük değerler ise
+ * kuryelerin shard'lara dağıldığı gerçek trafiği temsil eder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Threads(8)
+public class ConcurrentTrackLocationBenchmark {
+    private static final int POINT_COUNT = 4096;
+
+    @Param({"true", "false"})
+    private boolean sharding;
+
+    @Param({"1", "1000"})
+    private int courierCount;
+
+    private ConfigurableApplicationContext context;
+    private LocationTrackingService locationTrackingService;
+    private double[][] points;
+    private LocalDateTime start;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(CourierApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--courier.sharding.enabled=" + sharding,
+                "--logging.level.root=WARN",
+                "--logging.level.com.migros.courier=WARN");
+        locationTrackingService = context.getBean(LocationTrackingService.class);
+        points = BenchmarkData.trackingPoints(context.getBean(StoreService.class).getAllStores(), POINT_COUNT, 21);
+        start = LocalDateTime.now();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void trackLocation() {
+        long i = sequence.getAndIncrement();
+        double[] point = points[(int) (i & (POINT_COUNT - 1))];
+
+        CourierLocation location = new CourierLocation();
+        location.setCourierId("courier-" + ThreadLocalRandom.current().nextInt(courierCount));
+        location.setLat(point[0]);
+        location.setLng(point[1]);
+        location.setTimestamp(start.plusSeconds(i));
+        locationTrackingService.trackLocation(location);
+    }
+}
@@ -0,0 +1,53 @@
+package com.migros.courier.benchmark;
+
+import com.migros.courier.util.DistanceCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Her konum bildiriminde çalışan {@link DistanceCalculator#calculateDistance} maliyetini ölçer.
+ * Karşılaştırma için yaklaşık mesafe hesabı da ölçülür.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class DistanceCalculatorBenchmark {
+    private static final int POINT_COUNT = 1024;
+
+    private double[][] points;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        points = BenchmarkData.points(POINT_COUNT, 42);
+    }
+
+    @Benchmark
+    public double haversine() {
+        double[] from = points[cursor];
+        double[] to = points[(cursor + 1) & (POINT_COUNT - 1)];
+        cursor = (cursor + 1) & (POINT_COUNT - 1);
+        return DistanceCalculator.calculateDistance(from[0], from[1], to[0], to[1]);
+    }
+
+    @Benchmark
+    public double approximate() {
+        double[] from = points[cursor];
+        double[] to = points[(cursor + 1) & (POINT_COUNT - 1)];
+        cursor = (cursor + 1) & (POINT_COUNT - 1);
+        return DistanceCalculator.approximateDistance(from[0], from[1], to[0], to[1]);
+    }
+}
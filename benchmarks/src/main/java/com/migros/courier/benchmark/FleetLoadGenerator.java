@@ -0,0 +1,434 @@
+package com.migros.courier.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migros.courier.CourierApplication;
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.service.LocationTrackingService;
+import com.migros.courier.service.StoreCatalog;
+import com.migros.courier.service.StoreService;
+import com.migros.courier.util.DistanceCalculator;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@code stores.json} mağazaları arasında hareket eden sanal bir kurye filosuyla uygulamaya yük üretir.
+ * <p>
+ * Her kurye kendi sanal iş parçacığında {@link SimulatedCourier} rotasını izler. İstekler toplamda
+ * {@code --rate} istek/sn olacak şekilde önceden planlanmış zamanlarda gönderilir (açık döngü). Yanıt süresi
+ * isteğin planlanan zamanından ölçülür; böylece uygulama yavaşladığında bekleyen istekler de gecikmeye yansır
+ * (coordinated omission). Servis süresi ise isteğin gerçekten gönderildiği andan ölçülür. Her iki süre
+ * HdrHistogram ile tutulur.
+ * <p>
+ * Sonunda filonun ürettiği konumlardan beklenen mağaza girişi sayısı, uygulamanın kaydettiği girişlerle
+ * karşılaştırılır. Uygulama {@code --mode=in-process} ile aynı JVM'de (web sunucusu olmadan) başlatılır ya da
+ * {@code --mode=http} ile çalışan bir sunucunun REST API'si kullanılır:
+ * <pre>
+ * ./run.sh load --couriers=2000 --rate=5000 --duration=60s
+ * ./run.sh load --mode=http --url=http://localhost:8080 --couriers=500 --rate=1000
+ * </pre>
+ * Tanınmayan {@code --} argümanları in-process modda uygulamaya iletilir
+ * (ör. {@code --courier.location.persistence.mode=write-behind}).
+ */
+public final class FleetLoadGenerator {
+    private static final int NEIGHBOUR_COUNT = 8;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Options options;
+    private final LoadTarget target;
+    private final ConcurrentHistogram responseTimes = new ConcurrentHistogram(3);
+    private final ConcurrentHistogram serviceTimes = new ConcurrentHistogram(3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicReference<String> firstFailure = new AtomicReference<>();
+
+    private FleetLoadGenerator(Options options, LoadTarget target) {
+        this.options = options;
+        this.target = target;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        try (LoadTarget target = options.http ? new HttpTarget(options.url) : new InProcessTarget(options.appArgs)) {
+            new FleetLoadGenerator(options, target).run();
+        }
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        List<StoreInfo> stores = target.stores();
+        if (stores.isEmpty()) {
+            throw new IllegalStateException("Uygulamada mağaza yok");
+        }
+        Duration visitInterval = Duration.ofMinutes(target.visitIntervalMinutes(options.visitIntervalMinutes));
+        StoreCatalog catalog = StoreCatalog.of(0, stores);
+        int[][] neighbours = nearestStores(stores);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        LocalDateTime simulationStart = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        List<SimulatedCourier> couriers = new ArrayList<>(options.couriers);
+        for (int c = 0; c < options.couriers; c++) {
+            couriers.add(new SimulatedCourier("load-" + runId + "-" + c, stores, neighbours, catalog, visitInterval,
+                    options.seed + c, options.speedMetersPerSecond, options.pingInterval, options.dwell,
+                    simulationStart));
+        }
+
+        System.out.printf(Locale.ROOT, "Filo yük testi başlıyor: %s, %d kurye, %d mağaza, hedef %.0f istek/sn, %d sn%n",
+                options.http ? options.url : "in-process", options.couriers, stores.size(), options.rate,
+                options.duration.toSeconds());
+
+        double nanosPerRequest = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + options.duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> runs = new ArrayList<>(couriers.size());
+            for (int c = 0; c < couriers.size(); c++) {
+                int slot = c;
+                SimulatedCourier courier = couriers.get(c);
+                runs.add(executor.submit(() -> drive(courier, slot, couriers.size(), nanosPerRequest,
+                        startNanos, endNanos)));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long expectedEntries = 0;
+        long recordedEntries = 0;
+        for (SimulatedCourier courier : couriers) {
+            expectedEntries += courier.getExpectedEntries();
+            recordedEntries += target.countEntries(courier.getCourierId());
+        }
+        report(System.out, elapsedNanos, expectedEntries, recordedEntries);
+        if (options.histogramFile != null) {
+            try (PrintStream out = new PrintStream(options.histogramFile, StandardCharsets.UTF_8)) {
+                responseTimes.outputPercentileDistribution(out, 1_000_000.0);
+            }
+            System.out.println("Yanıt süresi dağılımı (ms) yazıldı: " + options.histogramFile);
+        }
+    }
+
+    /**
+     * Kuryenin {@code k}. bildirimini {@code start + (k * courierCount + slot) * nanosPerRequest} anında gönderir.
+     * Bir istek geciktiğinde sonraki istek beklemeden gönderilir ve gecikme planlanan zamandan ölçülür.
+     */
+    private Void drive(SimulatedCourier courier, int slot, int courierCount, double nanosPerRequest,
+                       long startNanos, long endNanos) {
+        for (long k = 0; ; k++) {
+            long intended = startNanos + (long) ((k * courierCount + slot) * nanosPerRequest);
+            if (intended >= endNanos) {
+                return null;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            CourierLocation location = courier.next();
+            long sendNanos = System.nanoTime();
+            boolean accepted;
+            try {
+                target.send(location);
+                accepted = true;
+            } catch (Exception e) {
+                accepted = false;
+                failures.increment();
+                firstFailure.compareAndSet(null, e.toString());
+            }
+            long doneNanos = System.nanoTime();
+            responseTimes.recordValue(doneNanos - intended);
+            serviceTimes.recordValue(doneNanos - sendNanos);
+            requests.increment();
+            if (accepted) {
+                courier.accepted(location);
+            }
+        }
+    }
+
+    private void report(PrintStream out, long elapsedNanos, long expectedEntries, long recordedEntries) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf(Locale.ROOT, """
+                        Filo yük testi sonucu
+                          İstek: %d, Hatalı: %d%s
+                          Süre: %.1f sn, Verim: %.0f istek/sn (hedef %.0f)
+                          Yanıt süresi (planlanan zamandan): %s
+                          Servis süresi (gönderimden):       %s
+                          Mağaza girişi: beklenen %d, kaydedilen %d, fark %d
+                        """,
+                requests.sum(), failures.sum(),
+                firstFailure.get() == null ? "" : " (ilk hata: " + firstFailure.get() + ")",
+                seconds, requests.sum() / seconds, options.rate,
+                percentiles(responseTimes), percentiles(serviceTimes),
+                expectedEntries, recordedEntries, recordedEntries - expectedEntries);
+    }
+
+    private static String percentiles(Histogram histogram) {
+        StringBuilder text = new StringBuilder();
+        for (double percentile : PERCENTILES) {
+            text.append(String.format(Locale.ROOT, "p%s %.2f ms, ", stripZero(percentile),
+                    histogram.getValueAtPercentile(percentile) / 1e6));
+        }
+        return text.append(String.format(Locale.ROOT, "max %.2f ms", histogram.getMaxValue() / 1e6)).toString();
+    }
+
+    private static String stripZero(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    /**
+     * Her mağaza için kendisi hariç en yakın {@value #NEIGHBOUR_COUNT} mağazanın indeksleri.
+     */
+    private static int[][] nearestStores(List<StoreInfo> stores) {
+        int[][] neighbours = new int[stores.size()][];
+        Integer[] order = new Integer[stores.size()];
+        double[] distances = new double[stores.size()];
+        for (int i = 0; i < stores.size(); i++) {
+            StoreInfo from = stores.get(i);
+            for (int j = 0; j < stores.size(); j++) {
+                StoreInfo to = stores.get(j);
+                distances[j] = DistanceCalculator.approximateDistance(from.lat(), from.lng(), to.lat(), to.lng());
+                order[j] = j;
+            }
+            Arrays.sort(order, Comparator.comparingDouble(j -> distances[j]));
+            int count = Math.min(NEIGHBOUR_COUNT, stores.size() - 1);
+            neighbours[i] = new int[count];
+            for (int n = 0, k = 0; n < count; k++) {
+                if (order[k] != i) {
+                    neighbours[i][n++] = order[k];
+                }
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Yükün gönderildiği uygulama.
+     */
+    private interface LoadTarget extends AutoCloseable {
+
+        List<StoreInfo> stores() throws Exception;
+
+        /**
+         * Uygulamanın mükerrer giriş aralığı; bilinemiyorsa verilen değer.
+         */
+        int visitIntervalMinutes(int fallback);
+
+        void send(CourierLocation location) throws Exception;
+
+        long countEntries(String courierId) throws Exception;
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Uygulamayı aynı JVM'de web sunucusu olmadan başlatır ve servisleri doğrudan çağırır.
+     */
+    private static final class InProcessTarget implements LoadTarget {
+        private final ConfigurableApplicationContext context;
+        private final LocationTrackingService locationTrackingService;
+        private final StoreService storeService;
+
+        private InProcessTarget(List<String> appArgs) {
+            List<String> args = new ArrayList<>(List.of(
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.migros.courier=WARN"));
+            args.addAll(appArgs);
+            SpringApplication application = new SpringApplication(CourierApplication.class);
+            application.setWebApplicationType(WebApplicationType.NONE);
+            context = application.run(args.toArray(String[]::new));
+            locationTrackingService = context.getBean(LocationTrackingService.class);
+            storeService = context.getBean(StoreService.class);
+        }
+
+        @Override
+        public List<StoreInfo> stores() {
+            return storeService.getAllStores();
+        }
+
+        @Override
+        public int visitIntervalMinutes(int fallback) {
+            return context.getEnvironment().getProperty("store.visit.min-interval-minutes", Integer.class, fallback);
+        }
+
+        @Override
+        public void send(CourierLocation location) {
+            locationTrackingService.trackLocation(location);
+        }
+
+        @Override
+        public long countEntries(String courierId) {
+            return storeService.forEachCourierEntry(courierId, null, null, entry -> {
+            });
+        }
+
+        @Override
+        public void close() {
+            context.close();
+        }
+    }
+
+    /**
+     * Çalışan bir sunucunun REST API'sini kullanır.
+     */
+    private static final class HttpTarget implements LoadTarget {
+        private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        private final String baseUrl;
+
+        private HttpTarget(String baseUrl) {
+            this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        }
+
+        @Override
+        public List<StoreInfo> stores() throws Exception {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/store"))
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readValue(response.body(), new TypeReference<>() {
+            });
+        }
+
+        @Override
+        public int visitIntervalMinutes(int fallback) {
+            return fallback;
+        }
+
+        @Override
+        public void send(CourierLocation location) throws Exception {
+            String body = String.format(Locale.ROOT,
+                    "{\"courierId\":\"%s\",\"lat\":%.7f,\"lng\":%.7f,\"timestamp\":\"%s\"}",
+                    location.getCourierId(), location.getLat(), location.getLng(), location.getTimestamp());
+            HttpResponse<Void> response = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/courier/location"))
+                            .header("Content-Type", "application/json")
+                            .timeout(Duration.ofSeconds(30))
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+        }
+
+        @Override
+        public long countEntries(String courierId) throws Exception {
+            URI uri = URI.create(baseUrl + "/api/v1/courier/"
+                    + URLEncoder.encode(courierId, StandardCharsets.UTF_8) + "/entries/stream");
+            HttpResponse<java.util.stream.Stream<String>> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.ofLines());
+            try (java.util.stream.Stream<String> lines = response.body()) {
+                return lines.filter(line -> !line.isBlank()).count();
+            }
+        }
+
+        @Override
+        public void close() {
+            client.close();
+        }
+    }
+
+    /**
+     * {@code --ad=değer} biçimindeki komut satırı seçenekleri.
+     */
+    private static final class Options {
+        private int couriers = 1000;
+        private double rate = 1000;
+        private Duration duration = Duration.ofSeconds(60);
+        private boolean http;
+        private String url = "http://localhost:8080";
+        private double speedMetersPerSecond = 8;
+        private Duration pingInterval = Duration.ofSeconds(5);
+        private Duration dwell = Duration.ofMinutes(3);
+        private int visitIntervalMinutes = 1;
+        private long seed = 42;
+        private String histogramFile;
+        private final List<String> appArgs = new ArrayList<>();
+
+        private static Options parse(String[] args) {
+            Options options = new Options();
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("Geçersiz argüman: " + arg + " (beklenen --ad=değer)");
+                }
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+            values.forEach((name, value) -> {
+                switch (name) {
+                    case "couriers" -> options.couriers = Integer.parseInt(value);
+                    case "rate" -> options.rate = Double.parseDouble(value);
+                    case "duration" -> options.duration = parseDuration(value);
+                    case "mode" -> options.http = switch (value) {
+                        case "http" -> true;
+                        case "in-process" -> false;
+                        default -> throw new IllegalArgumentException("Geçersiz mod: " + value);
+                    };
+                    case "url" -> options.url = value;
+                    case "speed" -> options.speedMetersPerSecond = Double.parseDouble(value);
+                    case "ping-interval" -> options.pingInterval = parseDuration(value);
+                    case "dwell" -> options.dwell = parseDuration(value);
+                    case "visit-interval-minutes" -> options.visitIntervalMinutes = Integer.parseInt(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "histogram" -> options.histogramFile = value;
+                    default -> options.appArgs.add("--" + name + "=" + value);
+                }
+            });
+            if (options.couriers <= 0 || options.rate <= 0) {
+                throw new IllegalArgumentException("Kurye sayısı ve istek hızı pozitif olmalıdır");
+            }
+            return options;
+        }
+
+        /**
+         * {@code 90s}, {@code 5m}, {@code 1h} veya saniye olarak sayı.
+         */
+        private static Duration parseDuration(String value) {
+            char unit = value.charAt(value.length() - 1);
+            if (Character.isDigit(unit)) {
+                return Duration.ofSeconds(Long.parseLong(value));
+            }
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            return switch (unit) {
+                case 's' -> Duration.ofSeconds(amount);
+                case 'm' -> Duration.ofMinutes(amount);
+                case 'h' -> Duration.ofHours(amount);
+                default -> throw new IllegalArgumentException("Geçersiz süre: " + value);
+            };
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.migros.courier.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.util.CourierLocationBinaryCodec;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Konum gövdesinin çözümleme maliyetini karşılaştırır: Jackson ile JSON ayrıştırma (ve tekil
+ * endpoint'teki gibi bean validation) ile sabit düzenli ikili format.
+ * <p>
+ * JSON, Spring Boot'un kullandığı ayarlarla ({@code JavaTimeModule} dahil) oluşturulan bir
+ * {@link ObjectMapper} ile, ikili format {@link CourierLocationBinaryCodec} ile çözülür.
+ * Sonuçlar gövde başına süredir; nokta başına maliyet için {@code batchSize}'a bölünmelidir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class LocationDecodingBenchmark {
+    private static final TypeReference<List<CourierLocation>> LOCATION_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "1000"})
+    private int batchSize;
+
+    private ObjectMapper objectMapper;
+    private Validator validator;
+    private byte[] jsonBody;
+    private byte[] binaryBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        validator = Validation.byDefaultProvider().configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()
+                .getValidator();
+
+        double[][] points = BenchmarkData.points(batchSize, 7);
+        LocalDateTime start = LocalDateTime.of(2024, 3, 3, 10, 0, 0, 250_000_000);
+        List<CourierLocation> locations = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            locations.add(new CourierLocation("courier-" + (i % 100), points[i][0], points[i][1],
+                    start.plusSeconds(i)));
+        }
+        jsonBody = objectMapper.writeValueAsBytes(locations);
+        binaryBody = CourierLocationBinaryCodec.encode(locations);
+    }
+
+    @Benchmark
+    public List<CourierLocation> json() throws IOException {
+        return objectMapper.readValue(jsonBody, LOCATION_LIST);
+    }
+
+    @Benchmark
+    public int jsonValidated() throws IOException {
+        int violations = 0;
+        for (CourierLocation location : objectMapper.readValue(jsonBody, LOCATION_LIST)) {
+            Set<ConstraintViolation<CourierLocation>> result = validator.validate(location);
+            violations += result.size();
+        }
+        return violations;
+    }
+
+    @Benchmark
+    public List<CourierLocation> binary() {
+        return CourierLocationBinaryCodec.decode(new ByteArrayInputStream(binaryBody), batchSize);
+    }
+}
@@ -0,0 +1,76 @@
+package com.migros.courier.benchmark;
+
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.util.DistanceCalculator;
+import com.migros.courier.util.StoreSpatialIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bir konuma 100 metre içindeki mağazaların bulunma maliyetini farklı katalog boyutlarında ölçer.
+ * <p>
+ * {@code indexed}, {@code LocationTrackingService}'in kullandığı {@link StoreSpatialIndex} yolunu;
+ * {@code linearScan} ise indeks öncesindeki tüm mağazaları tek tek kontrol eden yolu ölçer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class NearbyStoreLookupBenchmark {
+    private static final double RADIUS_METERS = 100.0;
+    private static final int POINT_COUNT = 1024;
+
+    @Param({"5", "1000", "100000"})
+    private int storeCount;
+
+    private List<StoreInfo> stores;
+    private StoreSpatialIndex index;
+    private double[][] points;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        stores = BenchmarkData.stores(storeCount, 7);
+        index = StoreSpatialIndex.of(stores, RADIUS_METERS);
+        points = BenchmarkData.points(POINT_COUNT, 13);
+    }
+
+    @Benchmark
+    public List<StoreInfo> indexed() {
+        double[] point = nextPoint();
+        return index.findWithinRadius(point[0], point[1]);
+    }
+
+    @Benchmark
+    public List<StoreInfo> linearScan() {
+        double[] point = nextPoint();
+        List<StoreInfo> result = new ArrayList<>();
+        for (StoreInfo store : stores) {
+            if (DistanceCalculator.calculateDistance(point[0], point[1], store.lat(), store.lng()) <= RADIUS_METERS) {
+                result.add(store);
+            }
+        }
+        return result;
+    }
+
+    private double[] nextPoint() {
+        double[] point = points[cursor];
+        cursor = (cursor + 1) & (POINT_COUNT - 1);
+        return point;
+    }
+}
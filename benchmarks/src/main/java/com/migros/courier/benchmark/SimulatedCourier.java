@@ -0,0 +1,144 @@
+package com.migros.courier.benchmark;
+
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.service.StoreCatalog;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Mağazalar arasında düz bir rota üzerinde sabit hızla ilerleyen ve hedef mağazada bir süre bekleyen sanal kurye.
+ * <p>
+ * Her konuma birkaç metrelik GPS gürültüsü eklenir; bekleme sırasında konum mağazanın giriş yarıçapı içinde
+ * dolaşır. Sonraki hedef, bulunulan mağazaya en yakın birkaç mağazadan rastgele seçilir. Konum zamanı duvar
+ * saatinden bağımsız olarak her bildirimde {@code pingInterval} kadar ilerler.
+ * <p>
+ * Kabul edilen her konum için uygulamanın giriş kuralı (yarıçap içindeki mağaza, ziyaret aralığında aynı
+ * mağazaya giriş yoksa yeni giriş) bağımsız olarak uygulanır ve beklenen giriş sayısı tutulur.
+ * Bir kuryenin metotları aynı anda tek bir iş parçacığından çağrılmalıdır.
+ */
+final class SimulatedCourier {
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final double GPS_NOISE_METERS = 5.0;
+    private static final double DWELL_RADIUS_METERS = 40.0;
+
+    private final String courierId;
+    private final List<StoreInfo> stores;
+    private final int[][] neighbours;
+    private final StoreCatalog catalog;
+    private final Duration visitInterval;
+    private final Random random;
+    private final double stepMeters;
+    private final int dwellPings;
+    private final Duration pingInterval;
+    private final Map<UUID, LocalDateTime> lastEntries = new HashMap<>();
+
+    private double lat;
+    private double lng;
+    private int target;
+    private int dwellRemaining;
+    private LocalDateTime time;
+    private long expectedEntries;
+
+    /**
+     * @param neighbours Her mağaza için en yakın mağazaların indeksleri
+     */
+    SimulatedCourier(String courierId, List<StoreInfo> stores, int[][] neighbours, StoreCatalog catalog,
+                     Duration visitInterval, long seed, double speedMetersPerSecond, Duration pingInterval,
+                     Duration dwell, LocalDateTime start) {
+        this.courierId = courierId;
+        this.stores = stores;
+        this.neighbours = neighbours;
+        this.catalog = catalog;
+        this.visitInterval = visitInterval;
+        this.random = new Random(seed);
+        this.stepMeters = speedMetersPerSecond * pingInterval.toMillis() / 1000.0;
+        this.dwellPings = (int) Math.max(1, dwell.toMillis() / Math.max(1, pingInterval.toMillis()));
+        this.pingInterval = pingInterval;
+
+        int origin = random.nextInt(stores.size());
+        this.lat = stores.get(origin).lat();
+        this.lng = stores.get(origin).lng();
+        this.target = nextTarget(origin);
+        // Kuryelerin bildirimleri aynı saniyeye yığılmasın
+        this.time = start.plusNanos((long) (random.nextDouble() * pingInterval.toNanos()));
+    }
+
+    String getCourierId() {
+        return courierId;
+    }
+
+    long getExpectedEntries() {
+        return expectedEntries;
+    }
+
+    /**
+     * Kuryeyi bir bildirim aralığı kadar ilerletir ve yeni konumu döndürür.
+     */
+    CourierLocation next() {
+        time = time.plus(pingInterval);
+        StoreInfo store = stores.get(target);
+        if (dwellRemaining > 0) {
+            dwellRemaining--;
+            if (dwellRemaining == 0) {
+                target = nextTarget(target);
+            }
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double radius = random.nextDouble() * DWELL_RADIUS_METERS;
+            return location(offsetLat(store.lat(), radius * Math.sin(angle)),
+                    offsetLng(store.lat(), store.lng(), radius * Math.cos(angle)));
+        }
+
+        double northMeters = (store.lat() - lat) * METERS_PER_DEGREE;
+        double eastMeters = (store.lng() - lng) * METERS_PER_DEGREE * Math.cos(Math.toRadians(lat));
+        double remaining = Math.hypot(northMeters, eastMeters);
+        if (remaining <= stepMeters) {
+            lat = store.lat();
+            lng = store.lng();
+            dwellRemaining = (int) Math.max(1, dwellPings * (0.5 + random.nextDouble()));
+        } else {
+            double fraction = stepMeters / remaining;
+            lat += (store.lat() - lat) * fraction;
+            lng += (store.lng() - lng) * fraction;
+        }
+        return location(offsetLat(lat, random.nextGaussian() * GPS_NOISE_METERS),
+                offsetLng(lat, lng, random.nextGaussian() * GPS_NOISE_METERS));
+    }
+
+    /**
+     * Uygulamanın kabul ettiği konum için beklenen mağaza girişlerini sayar.
+     */
+    void accepted(CourierLocation location) {
+        LocalDateTime threshold = location.getTimestamp().minus(visitInterval);
+        for (StoreInfo store : catalog.findNearby(location.getLat(), location.getLng())) {
+            LocalDateTime lastEntry = lastEntries.get(store.id());
+            if (lastEntry == null || !lastEntry.isAfter(threshold)) {
+                lastEntries.put(store.id(), location.getTimestamp());
+                expectedEntries++;
+            }
+        }
+    }
+
+    private int nextTarget(int current) {
+        int[] candidates = neighbours[current];
+        return candidates.length == 0 ? current : candidates[random.nextInt(candidates.length)];
+    }
+
+    private CourierLocation location(double pointLat, double pointLng) {
+        return new CourierLocation(courierId, pointLat, pointLng, time);
+    }
+
+    private static double offsetLat(double lat, double northMeters) {
+        return lat + northMeters / METERS_PER_DEGREE;
+    }
+
+    private static double offsetLng(double lat, double lng, double eastMeters) {
+        return lng + eastMeters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(lat)));
+    }
+}
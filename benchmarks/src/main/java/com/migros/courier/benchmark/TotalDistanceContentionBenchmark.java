@@ -0,0 +1,57 @@
+package com.migros.courier.benchmark;
+
+import com.migros.courier.service.CourierStateStore;
+import com.migros.courier.service.StoreService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StoreService#updateTotalDistance} metodunu eşzamanlı iş parçacıklarıyla ölçer.
+ * <p>
+ * {@code courierCount = 1} tüm iş parçacıklarının aynı kurye anahtarında yarıştığı en kötü durumu,
+ * büyük değerler ise gerçek trafiğe yakın dağınık erişimi temsil eder. Metot depolara erişmediği için
+ * servis Spring bağlamı olmadan oluşturulur.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Threads(4)
+public class TotalDistanceContentionBenchmark {
+
+    @Param({"1", "1000"})
+    private int courierCount;
+
+    private StoreService storeService;
+    private String[] courierIds;
+
+    @Setup
+    public void setUp() {
+        storeService = new StoreService(null, null, null, new CourierStateStore(), null);
+        courierIds = new String[courierCount];
+        for (int i = 0; i < courierCount; i++) {
+            courierIds[i] = "courier-" + i;
+        }
+    }
+
+    @Benchmark
+    public void updateTotalDistance() {
+        String courierId = courierIds[ThreadLocalRandom.current().nextInt(courierIds.length)];
+        storeService.updateTotalDistance(courierId, 12.5);
+    }
+}
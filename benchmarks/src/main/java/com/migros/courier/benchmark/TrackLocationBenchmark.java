@@ -0,0 +1,95 @@
+package com.migros.courier.benchmark;
+
+import com.migros.courier.CourierApplication;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.service.LocationTrackingService;
+import com.migros.courier.service.StoreService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LocationTrackingService#trackLocation} metodunu uçtan uca, in-memory H2 ile ölçer:
+ * doğrulama, mesafe güncelleme, yakın mağaza arama, giriş kaydı ve konum kaydı dahildir.
+ * <p>
+ * Spring bağlamı web sunucusu olmadan bir kez ayağa kaldırılır. Konumların yaklaşık onda biri
+ * bir mağazanın 100 metre yakınına düşer; böylece giriş kaydı yolu da ölçüme dahil olur.
+ * <p>
+ * Write-behind modu {@code ack-before-flush} ile çalıştırılır; tek iş parçacıklı bir ölçümde
+ * {@code flush-before-ack} yalnızca flush aralığını ölçerdi. Eşzamanlı istekler altında sharding
+ * karşılaştırması için {@link ConcurrentTrackLocationBenchmark}'a bakınız.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class TrackLocationBenchmark {
+    private static final int POINT_COUNT = 4096;
+
+    @Param({"sync", "write-behind"})
+    private String persistenceMode;
+
+    @Param({"1000"})
+    private int courierCount;
+
+    private ConfigurableApplicationContext context;
+    private LocationTrackingService locationTrackingService;
+    private double[][] points;
+    private LocalDateTime timestamp;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(CourierApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--courier.location.persistence.mode=" + persistenceMode,
+                "--courier.location.persistence.durability=ack-before-flush",
+                "--logging.level.root=WARN",
+                "--logging.level.com.migros.courier=WARN");
+        locationTrackingService = context.getBean(LocationTrackingService.class);
+
+        List<StoreInfo> stores = context.getBean(StoreService.class).getAllStores();
+        points = BenchmarkData.trackingPoints(stores, POINT_COUNT, 21);
+        timestamp = LocalDateTime.now();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void trackLocation() {
+        int i = cursor++;
+        double[] point = points[i & (POINT_COUNT - 1)];
+        timestamp = timestamp.plusSeconds(1);
+
+        CourierLocation location = new CourierLocation();
+        location.setCourierId("courier-" + (i % courierCount));
+        location.setLat(point[0]);
+        location.setLng(point[1]);
+        location.setTimestamp(timestamp);
+        locationTrackingService.trackLocation(location);
+    }
+}
@@ -21,6 +21,19 @@ case "$1" in
     echo "StoreService testleri çalıştırılıyor..."
     mvn test -Dtest=StoreServiceTest
     ;;
+  "bench")
+    echo "Benchmark'lar çalıştırılıyor..."
+    # Sonuçlar sürümler arası karşılaştırma için JSON olarak saklanır; ek JMH argümanları iletilir (örn. ./run.sh bench NearbyStore)
+    mvn -q install -DskipTests && mvn -q -f benchmarks/pom.xml package && \
+      java -jar benchmarks/target/benchmarks.jar -rf json -rff "benchmarks/target/jmh-result.json" "${@:2}"
+    ;;
+  "load")
+    echo "Filo yük testi çalıştırılıyor..."
+    # Ek argümanlar yük üreticisine iletilir (örn. ./run.sh load --couriers=2000 --rate=5000 --duration=60s)
+    mvn -q install -DskipTests && mvn -q -f benchmarks/pom.xml package && \
+      java --add-modules=jdk.incubator.vector -cp benchmarks/target/benchmarks.jar \
+        com.migros.courier.benchmark.FleetLoadGenerator "${@:2}"
+    ;;
   *)
     echo "Kullanım: ./run.sh [komut]"
     echo "Komutlar:"
@@ -29,5 +42,7 @@ case "$1" in
     echo "  build        - Projeyi derle"
     echo "  test-location - Konum servis testlerini çalıştır"
     echo "  test-store   - Mağaza servis testlerini çalıştır"
+    echo "  bench        - JMH benchmark'larını çalıştır (sonuç: benchmarks/target/jmh-result.json)"
+    echo "  load         - Sanal kurye filosuyla yük testi yap (gecikme yüzdelikleri ve giriş sayısı kontrolü)"
     ;;
 esac 
\ No newline at end of file
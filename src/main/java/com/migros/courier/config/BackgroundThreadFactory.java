@@ -0,0 +1,50 @@
+package com.migros.courier.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Uygulamanın kendi arka plan iş parçacıklarını (shard'lar, write-behind yazıcısı) oluşturur.
+ * <p>
+ * {@code spring.threads.virtual.enabled=true} ise Tomcat ve zamanlanmış görevlerle birlikte bu
+ * iş parçacıkları da sanal (virtual) olarak oluşturulur; aksi halde daemon platform iş parçacıkları kullanılır.
+ */
+@Component
+public class BackgroundThreadFactory {
+    private final boolean virtual;
+
+    public BackgroundThreadFactory(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Başlatılmamış, verilen isimde bir iş parçacığı oluşturur.
+     *
+     * @param name İş parçacığı adı
+     * @param task Çalıştırılacak görev
+     * @return Yeni iş parçacığı
+     */
+    public Thread newThread(String name, Runnable task) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name).unstarted(task);
+        }
+        return Thread.ofPlatform().name(name).daemon(true).unstarted(task);
+    }
+
+    /**
+     * Her çağrıda aynı isimde iş parçacığı üreten bir {@link ThreadFactory} döndürür.
+     *
+     * @param name İş parçacığı adı
+     * @return Thread factory
+     */
+    public ThreadFactory named(String name) {
+        return task -> newThread(name, task);
+    }
+}
@@ -0,0 +1,54 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kuryelerin birden fazla uygulama düğümüne dağıtıldığı küme modu ayarları.
+ * <p>
+ * Etkin olduğunda her kurye, kurye ID'sinin tutarlı hash'i ile tek bir düğüme atanır; son konum ve toplam
+ * mesafe yalnızca o düğümde tutulur. Kapalıyken uygulama tek düğüm olarak çalışır.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.cluster")
+public class CourierClusterProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Bu düğümün diğer düğümlerce erişilen adresi; küme üyeliğinde düğüm adı olarak kullanılır.
+     */
+    private String selfUrl = "http://localhost:8080";
+
+    /**
+     * Açılışta katılım isteği gönderilecek düğüm adresleri. Boşsa veya hiçbirine erişilemezse
+     * düğüm tek üyeli yeni bir küme başlatır.
+     */
+    private List<String> seeds = new ArrayList<>();
+
+    /**
+     * Düğüm başına hash halkasındaki nokta sayısı.
+     */
+    private int virtualNodes = 128;
+
+    /**
+     * Düğümler arası isteklerin bağlantı ve yanıt zaman aşımı.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Diğer düğümlerin yoklanma aralığı (milisaniye).
+     */
+    private long heartbeatIntervalMs = 5_000;
+
+    /**
+     * Art arda bu kadar yoklamaya yanıt vermeyen düğüm kümeden çıkarılır.
+     */
+    private int failureThreshold = 3;
+}
@@ -0,0 +1,33 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Kurye bazlı tek yazıcılı (single-writer) işleme ayarları.
+ * <p>
+ * Etkin olduğunda her kuryenin konumları, kurye ID'sinin hash'i ile seçilen sabit bir shard
+ * iş parçacığında sırayla işlenir. Kapalıyken konumlar isteği karşılayan iş parçacığında işlenir.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.sharding")
+public class CourierShardingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Shard (iş parçacığı) sayısı. 0 verilirse işlemci sayısı kullanılır.
+     */
+    private int shardCount = 0;
+
+    /**
+     * Her shard kuyruğunun alabileceği en fazla görev sayısı.
+     */
+    private int queueCapacity = 10_000;
+
+    public int resolveShardCount() {
+        return shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+    }
+}
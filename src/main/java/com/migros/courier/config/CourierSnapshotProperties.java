@@ -0,0 +1,29 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Kurye durum (toplam mesafe ve son konum) snapshot ayarları.
+ * <p>
+ * Snapshot yalnızca kalıcı bir veritabanı ile anlamlıdır; in-memory H2 ile
+ * yeniden başlatmada konum geçmişi de silindiği için varsayılan olarak kapalıdır.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.snapshot")
+public class CourierSnapshotProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Snapshot dosyasının yolu.
+     */
+    private String path = "data/courier-state.snapshot";
+
+    /**
+     * İki snapshot arasındaki süre (milisaniye).
+     */
+    private long intervalMs = 300_000;
+}
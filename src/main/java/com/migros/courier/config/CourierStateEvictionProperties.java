@@ -0,0 +1,41 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Boşta kalan kurye durumlarının bellekten çıkarılma ayarları.
+ * <p>
+ * Çıkarılan kuryelerin toplam mesafesi ve son konumu veritabanına yazılır ve bir sonraki
+ * konum bildiriminde oradan yüklenir.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.state.eviction")
+public class CourierStateEvictionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Bu süre boyunca erişilmeyen kurye bellekten çıkarılır.
+     */
+    private Duration idleTtl = Duration.ofHours(6);
+
+    /**
+     * Bellekte tutulacak en fazla kurye sayısı. Aşıldığında en uzun süredir erişilmeyen kuryeler çıkarılır.
+     */
+    private int maxEntries = 1_000_000;
+
+    /**
+     * İki çıkarma turu arasındaki süre (milisaniye).
+     */
+    private long intervalMs = 60_000;
+
+    /**
+     * Tek bir JDBC batch'inde saklanan kurye sayısı.
+     */
+    private int batchSize = 1000;
+}
@@ -0,0 +1,34 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Konum geçmişinden toplam mesafe ve mağaza girişlerini yeniden hesaplayan geri doldurma işinin ayarları.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.backfill")
+public class LocationBackfillProperties {
+
+    /**
+     * Aynı anda işlenen kurye sayısı. 0 ise işlemci sayısı kullanılır; bağlantı havuzu boyutunu aşmamalıdır.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Bir görevin bölünmeden sırayla işlediği en fazla kurye sayısı.
+     */
+    private int couriersPerTask = 16;
+
+    /**
+     * Mağaza girişlerinin veritabanına gönderildiği parça boyutu.
+     */
+    private int batchSize = 500;
+
+    /**
+     * İlerlemenin kaç kuryede bir loglanacağı.
+     */
+    private int progressLogInterval = 1000;
+}
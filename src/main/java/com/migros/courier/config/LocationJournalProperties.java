@@ -0,0 +1,69 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Konum günlüğü (journal) ayarları. Yalnızca {@code courier.location.persistence.mode=journal} olduğunda kullanılır.
+ * <p>
+ * Günlük, sabit boyutlu ve belleğe eşlenmiş (memory-mapped) segment dosyalarından oluşur. Dosyaya eşlenmiş
+ * yazmalar uygulama çökse bile işletim sisteminin sayfa önbelleğinde kalır; {@code fsync} ayarı yalnızca
+ * işletim sistemi çökmesine veya elektrik kesintisine karşı ne kadar veri kaybedilebileceğini belirler.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.location.journal")
+public class LocationJournalProperties {
+
+    /**
+     * Segment dosyalarının bulunduğu dizin.
+     */
+    private String directory = "data/journal";
+
+    /**
+     * Tek bir segment dosyasının boyutu. Dolan segment kapatılır ve yenisine geçilir.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    private Fsync fsync = Fsync.INTERVAL;
+
+    /**
+     * {@code interval} modunda iki fsync arasındaki süre.
+     */
+    private Duration fsyncInterval = Duration.ofMillis(100);
+
+    /**
+     * Günlükten veritabanına tek transaction'da yazılacak en fazla konum sayısı.
+     */
+    private int applyBatchSize = 1000;
+
+    /**
+     * Günlükte yeni kayıt yokken veritabanı yazıcısının bekleme süresi.
+     */
+    private Duration applyInterval = Duration.ofMillis(100);
+
+    /**
+     * Veritabanına tamamen yazılmış olsa da silinmeyen en fazla segment sayısı (etkin segment dahil).
+     * Açılışta kurye durumu saklanan segmentlerden yeniden kurulur.
+     */
+    private int retainedSegments = 8;
+
+    public enum Fsync {
+        /**
+         * Her yazmadan sonra istek yanıtlanmadan önce diske zorlanır; eşzamanlı yazmalar tek fsync'i paylaşır.
+         */
+        ALWAYS,
+        /**
+         * Arka planda belirli aralıklarla diske zorlanır; işletim sistemi çökerse son aralık kaybolabilir.
+         */
+        INTERVAL,
+        /**
+         * Diske yazma zamanı işletim sistemine bırakılır; yalnızca kapanışta zorlanır.
+         */
+        NEVER
+    }
+}
@@ -0,0 +1,30 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Kurye konumlarının günlük tablolara bölünmesi ve saklama süresi ayarları.
+ * <p>
+ * Etkinleştirildiğinde konumlar, konum zamanının gününe göre {@code courier_location_pYYYYMMDD}
+ * tablolarına yazılır. Saklama süresi dolan günler önce kurye/saat özetlerine indirgenir,
+ * ardından tablo olarak tek seferde silinir.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.location.partitioning")
+public class LocationPartitioningProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Ham konumların saklanacağı gün sayısı. Bugünden bu kadar gün öncesine ait tablolar silinir.
+     */
+    private int retentionDays = 30;
+
+    /**
+     * Tablo hazırlama, özetleme ve silme işlerinin çalışma aralığı (milisaniye).
+     */
+    private long maintenanceIntervalMs = 3_600_000;
+}
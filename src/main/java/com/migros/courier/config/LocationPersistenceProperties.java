@@ -0,0 +1,71 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Kurye konumlarının veritabanına yazılma biçimini belirleyen ayarlar.
+ * <p>
+ * {@code sync} modunda her konum istek içinde JPA ile kaydedilir.
+ * {@code write-behind} modunda konumlar sınırlı bir bellek tamponuna alınır ve
+ * arka plandaki yazıcı tarafından JDBC batch insert'leri ile boşaltılır.
+ * {@code journal} modunda konumlar diskteki yalnızca-ekleme günlüğüne yazıldığında onaylanır;
+ * tablolar günlükten asenkron doldurulur (bkz. {@link LocationJournalProperties}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.location.persistence")
+public class LocationPersistenceProperties {
+
+    private Mode mode = Mode.SYNC;
+
+    /**
+     * Write-behind modunda isteğin ne zaman yanıtlanacağı.
+     */
+    private Durability durability = Durability.FLUSH_BEFORE_ACK;
+
+    /**
+     * Tamponun alabileceği en fazla konum sayısı.
+     */
+    private int bufferCapacity = 10_000;
+
+    /**
+     * Tek bir batch insert'te yazılacak en fazla konum sayısı.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Batch dolmasa bile tamponun boşaltılacağı en uzun bekleme süresi.
+     */
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /**
+     * Tampon doluyken yeni konumun yer açılması için bekleyeceği süre.
+     */
+    private Duration enqueueTimeout = Duration.ofSeconds(1);
+
+    /**
+     * {@code flush-before-ack} modunda yazma onayı için beklenecek en uzun süre.
+     */
+    private Duration ackTimeout = Duration.ofSeconds(5);
+
+    public enum Mode {
+        SYNC,
+        WRITE_BEHIND,
+        JOURNAL
+    }
+
+    public enum Durability {
+        /**
+         * Konum veritabanına yazılana kadar istek bekletilir.
+         */
+        FLUSH_BEFORE_ACK,
+        /**
+         * Konum tampona alındığı anda istek yanıtlanır; uygulama çökerse tampondaki konumlar kaybolabilir.
+         */
+        ACK_BEFORE_FLUSH
+    }
+}
@@ -0,0 +1,48 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Kurye konumları kaydedilmeden önce uygulanan rota sadeleştirme ayarları.
+ * <p>
+ * Sadeleştirme yalnızca kaydedilen konumları etkiler; toplam mesafe ve mağaza girişi kontrolleri
+ * her ham konumu görmeye devam eder. Snapshot sonrası yeniden oynatma kayıtlı konumlarla yapıldığı için
+ * kurtarılan mesafe, sadeleştirilen aralıklarda en fazla {@code tolerance-meters} kadar sapabilir.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.location.simplification")
+public class LocationSimplificationProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Son tutulan noktaya bu mesafeden (metre) yakın yeni noktalar duran kurye kabul edilip atılır.
+     */
+    private double deadBandMeters = 10.0;
+
+    /**
+     * Atlanan noktaların kaydedilen rota parçasına olabilecek en büyük uzaklığı (metre).
+     */
+    private double toleranceMeters = 15.0;
+
+    /**
+     * Kaydedilmeden bekletilebilecek en fazla nokta sayısı (ileriye bakma penceresi).
+     */
+    private int maxWindow = 20;
+
+    /**
+     * Bu süreden uzun aralıklarla en az bir nokta kaydedilir; aynı süre boyunca konum göndermeyen
+     * kuryelerin bekleyen noktaları da kaydedilir.
+     */
+    private Duration maxGap = Duration.ofMinutes(5);
+
+    /**
+     * Konum göndermeyi bırakan kuryelerin bekleyen noktalarının kontrol edilme aralığı (milisaniye).
+     */
+    private long idleFlushIntervalMs = 60_000;
+}
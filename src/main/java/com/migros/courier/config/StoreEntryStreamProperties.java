@@ -0,0 +1,31 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Mağaza girişi canlı olay akışı (Server-Sent Events) ayarları.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.entries.stream")
+public class StoreEntryStreamProperties {
+
+    /**
+     * Bir abone için bekletilebilecek en fazla olay sayısı. Dolduğunda abone bağlantısı kapatılır.
+     */
+    private int bufferSize = 256;
+
+    /**
+     * Aynı anda bağlı olabilecek en fazla abone sayısı.
+     */
+    private int maxSubscribers = 100;
+
+    /**
+     * Olay olmadığında bağlantının canlı tutulması için gönderilen yorum satırının aralığı.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+}
@@ -0,0 +1,25 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Mağaza kataloğu içe aktarım ayarları.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.stores.import")
+public class StoreImportProperties {
+
+    /**
+     * Mağaza dosyasının konumu ({@code classpath:} veya {@code file:} önekli Spring kaynak yolu).
+     */
+    private String location = "classpath:stores.json";
+
+    /**
+     * Tek JDBC batch'i ve transaction'ı içinde yazılan mağaza sayısı. Bellekte aynı anda en fazla bu kadar
+     * okunmuş kayıt tutulur.
+     */
+    private int chunkSize = 1_000;
+}
@@ -0,0 +1,38 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Mağaza ziyaret istatistikleri (saatlik/günlük sayaçlar) ayarları.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.stores.stats")
+public class StoreVisitStatsProperties {
+
+    /**
+     * Bellekte tutulan saatlik dilim sayısı. Bundan daha geç gelen girişler saatlik sayaçlara eklenmez.
+     */
+    private int retainedHours = 48;
+
+    /**
+     * Bellekte tutulan günlük dilim sayısı. Bundan daha geç gelen girişler günlük sayaçlara eklenmez.
+     * Giriş alan her gün, mağaza başına 4KB'lık bir tekil kurye taslağı tutar; bellek üst sınırı
+     * yaklaşık {@code mağaza sayısı × (retainedDays + 1) × 4KB}'tır.
+     */
+    private int retainedDays = 30;
+
+    /**
+     * Giriş zamanının sunucu saatinin ne kadar ilerisinde olabileceği (saniye). Daha ileri zamanlı girişler
+     * (ör. saati ileri kurulu cihaz) pencereleri ileri kaydırmaması için dilimlere eklenmez, yalnızca toplam
+     * sayaçlara eklenir.
+     */
+    private long futureToleranceSeconds = 300;
+
+    /**
+     * Değişen sayaçların özet tablosuna yazılma aralığı (milisaniye).
+     */
+    private long flushIntervalMs = 60_000;
+}
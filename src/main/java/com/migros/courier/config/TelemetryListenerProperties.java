@@ -0,0 +1,52 @@
+package com.migros.courier.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * HTTP yerine doğrudan TCP/UDP ile konum gönderen araç içi cihazlar için dinleyici ayarları.
+ * <p>
+ * Her mesaj {@code kuryeId,enlem,boylam,epochMilisaniye} biçiminde bir satırdır ve {@code \n} ile biter.
+ * TCP bağlantısında satırlar akış halinde gelir; UDP'de bir datagram bir veya daha fazla satır taşır.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courier.telemetry")
+public class TelemetryListenerProperties {
+
+    private boolean enabled = false;
+
+    private String bindAddress = "0.0.0.0";
+
+    /**
+     * TCP portu. 0: rastgele boş port, negatif: TCP kapalı.
+     */
+    private int tcpPort = 5050;
+
+    /**
+     * UDP portu. 0: rastgele boş port, negatif: UDP kapalı.
+     */
+    private int udpPort = 5051;
+
+    /**
+     * Aynı anda açık olabilecek en fazla TCP bağlantısı. Fazlası kabul edilip hemen kapatılır.
+     */
+    private int maxConnections = 1_000;
+
+    /**
+     * Bir satırın en fazla uzunluğu (bayt). Bu uzunlukta satır sonu gelmeyen TCP bağlantısı kapatılır.
+     */
+    private int maxLineLength = 256;
+
+    /**
+     * Takip servisine tek seferde verilecek en fazla konum sayısı.
+     */
+    private int maxBatchSize = 1_000;
+
+    /**
+     * İşlenmeyi bekleyebilecek en fazla batch sayısı. Dolduğunda dinleyici okumayı bekletir;
+     * TCP'de gönderici yavaşlar, UDP'de datagramlar işletim sistemi tarafından düşürülür.
+     */
+    private int queueCapacity = 64;
+}
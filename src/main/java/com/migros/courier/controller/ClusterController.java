@@ -0,0 +1,94 @@
+package com.migros.courier.controller;
+
+import com.migros.courier.dto.ClusterView;
+import com.migros.courier.dto.CourierHandoff;
+import com.migros.courier.dto.LocationBatchItemResult;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.service.CourierClusterService;
+import com.migros.courier.service.LocationTrackingService;
+import com.migros.courier.service.StoreService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Küme düğümlerinin birbirini çağırdığı API. Bu uçlar konumları yeniden yönlendirmez; yalnızca
+ * bu düğümün kendi durumunu okur veya değiştirir.
+ */
+@RestController
+@RequestMapping("/api/v1/cluster")
+@RequiredArgsConstructor
+@Tag(name = "Cluster API", description = "Küme üyeliği ve düğümler arası kurye yönlendirme API'leri")
+public class ClusterController {
+
+    private final CourierClusterService clusterService;
+    private final LocationTrackingService locationTrackingService;
+    private final StoreService storeService;
+
+    @GetMapping("/view")
+    @Operation(summary = "Bu düğümün bildiği küme üyeliği")
+    public ResponseEntity<ClusterView> getView() {
+        return ResponseEntity.ok(clusterService.getView());
+    }
+
+    @PutMapping("/view")
+    @Operation(summary = "Yeni küme üyeliğini uygular ve sahipliği değişen kuryeleri devreder")
+    public ResponseEntity<Void> applyView(@RequestBody ClusterView view) {
+        requireEnabled();
+        clusterService.applyView(view);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/join")
+    @Operation(summary = "Düğümü kümeye ekler ve yeni üyeliği tüm düğümlere gönderir")
+    public ResponseEntity<ClusterView> join(@RequestParam String url) {
+        requireEnabled();
+        return ResponseEntity.ok(clusterService.join(url));
+    }
+
+    @PostMapping("/locations")
+    @Operation(summary = "Başka düğümün ilettiği, bu düğüme ait kuryelerin konumlarını işler")
+    public ResponseEntity<List<LocationBatchItemResult>> trackForwardedLocations(
+            @RequestBody List<CourierLocation> locations) {
+        requireEnabled();
+        // İletilen liste, toplu kayıt isteğinin bir parçası olduğundan aynı üst sınıra tabidir
+        if (locations.size() > CourierController.MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Tek istekte en fazla " + CourierController.MAX_BATCH_SIZE + " konum iletilebilir");
+        }
+        return ResponseEntity.ok(locationTrackingService.trackForwardedLocations(locations));
+    }
+
+    @PostMapping("/handoff")
+    @Operation(summary = "Başka düğümden devredilen kurye durumlarını devralır")
+    public ResponseEntity<Void> acceptHandoff(@RequestBody CourierHandoff handoff) {
+        requireEnabled();
+        clusterService.acceptHandoff(handoff);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/couriers/{courierId}/total-distance")
+    @Operation(summary = "Kuryenin bu düğümdeki toplam mesafesi")
+    public ResponseEntity<Double> getLocalTotalDistance(@PathVariable String courierId) {
+        return ResponseEntity.ok(storeService.getTotalTravelDistance(courierId));
+    }
+
+    private void requireEnabled() {
+        if (!clusterService.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Küme modu kapalı");
+        }
+    }
+}
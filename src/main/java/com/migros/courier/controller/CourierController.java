@@ -1,25 +1,56 @@
 package com.migros.courier.controller;
 
-import com.migros.courier.dto.CourierEntryResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migros.courier.dto.BackfillProgress;
+import com.migros.courier.dto.CourierEntryCursor;
+import com.migros.courier.dto.CourierEntryPage;
+import com.migros.courier.dto.CourierHourlySummaryResponse;
+import com.migros.courier.dto.LocationBatchItemResult;
 import com.migros.courier.model.CourierLocation;
+import com.migros.courier.service.CourierClusterService;
+import com.migros.courier.service.LocationBackfillService;
+import com.migros.courier.service.LocationRetentionService;
 import com.migros.courier.service.LocationTrackingService;
 import com.migros.courier.service.StoreService;
+import com.migros.courier.util.CourierLocationBinaryCodec;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
+@Validated
 @RequestMapping("/api/v1/courier")
 @RequiredArgsConstructor
 @Tag(name = "Courier API", description = "Kurye takip ve mesafe hesaplama API'leri")
 public class CourierController {
+    static final int MAX_BATCH_SIZE = 10_000;
+
     private final LocationTrackingService locationTrackingService;
     private final StoreService storeService;
+    private final LocationRetentionService locationRetentionService;
+    private final LocationBackfillService locationBackfillService;
+    private final CourierClusterService clusterService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/location")
     @Operation(summary = "Kurye lokasyonu kaydet")
@@ -28,15 +59,130 @@ public class CourierController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/locations/batch")
+    @Operation(summary = "Birden fazla kurye lokasyonunu toplu kaydet")
+    public ResponseEntity<List<LocationBatchItemResult>> trackLocations(
+            @RequestBody
+            @NotEmpty(message = "Konum listesi boş olamaz")
+            @Size(max = MAX_BATCH_SIZE, message = "Tek istekte en fazla " + MAX_BATCH_SIZE + " konum gönderilebilir")
+            List<CourierLocation> locations) {
+        return ResponseEntity.ok(locationTrackingService.trackLocations(locations));
+    }
+
+    @PostMapping(value = "/location", consumes = CourierLocationBinaryCodec.MEDIA_TYPE_VALUE)
+    @Operation(summary = "Kurye lokasyonunu ikili formatta kaydet")
+    public ResponseEntity<Void> trackBinaryLocation(InputStream body) {
+        List<CourierLocation> locations = decodeBinary(body, 1);
+        if (locations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Gövde bir konum içermelidir");
+        }
+        locationTrackingService.trackLocation(locations.getFirst());
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping(value = "/locations/batch", consumes = CourierLocationBinaryCodec.MEDIA_TYPE_VALUE)
+    @Operation(summary = "Birden fazla kurye lokasyonunu ikili formatta toplu kaydet")
+    public ResponseEntity<List<LocationBatchItemResult>> trackBinaryLocations(InputStream body) {
+        List<CourierLocation> locations = decodeBinary(body, MAX_BATCH_SIZE);
+        if (locations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Gövde en az bir konum içermelidir");
+        }
+        return ResponseEntity.ok(locationTrackingService.trackLocations(locations));
+    }
+
+    private static List<CourierLocation> decodeBinary(InputStream body, int maxCount) {
+        try {
+            return CourierLocationBinaryCodec.decode(body, maxCount);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@link Validated} ile doğrulanan parametre kısıtları (ör. toplu kayıt boyutu) ihlal edildiğinde 400 döner.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ProblemDetail> handleConstraintViolation(ConstraintViolationException e) {
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
     @GetMapping("/{courierId}/total-distance")
     @Operation(summary = "Kurye toplam mesafe sorgula")
     public ResponseEntity<Double> getTotalDistance(@PathVariable String courierId) {
+        // Küme modunda mesafe yalnızca kuryenin sahibi olan düğümde günceldir
+        Optional<String> owner = clusterService.remoteOwner(courierId);
+        if (owner.isPresent()) {
+            return ResponseEntity.ok(clusterService.fetchTotalDistance(owner.get(), courierId));
+        }
         return ResponseEntity.ok(storeService.getTotalTravelDistance(courierId));
     }
 
     @GetMapping("/{courierId}/entries")
-    public ResponseEntity<List<CourierEntryResponse>> getCourierEntries(@PathVariable String courierId) {
-        List<CourierEntryResponse> entries = storeService.getCourierEntries(courierId);
-        return ResponseEntity.ok(entries);
+    @Operation(summary = "Kurye mağaza girişlerini zaman sırasıyla sayfalı sorgula")
+    public ResponseEntity<CourierEntryPage> getCourierEntries(
+            @PathVariable String courierId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        CourierEntryCursor after = null;
+        if (cursor != null) {
+            try {
+                after = CourierEntryCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        }
+        return ResponseEntity.ok(storeService.getCourierEntries(courierId, from, to, after, limit));
+    }
+
+    @GetMapping(value = "/{courierId}/entries/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Kurye mağaza girişlerinin tamamını satır başına bir JSON olarak akıt")
+    public ResponseEntity<StreamingResponseBody> streamCourierEntries(
+            @PathVariable String courierId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> {
+            try {
+                storeService.forEachCourierEntry(courierId, from, to, entry -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(entry));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/{courierId}/hourly-summaries")
+    @Operation(summary = "Saklama süresi dolan konumların kurye/saat özetlerini sorgula")
+    public ResponseEntity<List<CourierHourlySummaryResponse>> getHourlySummaries(
+            @PathVariable String courierId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(locationRetentionService.getHourlySummaries(courierId, from, to));
+    }
+
+    @PostMapping("/admin/backfill")
+    @Operation(summary = "Toplam mesafeleri ve mağaza girişlerini konum geçmişinden yeniden hesaplar; " +
+            "jobId verilirse yarıda kalan iş kaldığı yerden devam eder")
+    public ResponseEntity<BackfillProgress> startBackfill(@RequestParam(required = false) String jobId) {
+        try {
+            return ResponseEntity.accepted().body(locationBackfillService.start(jobId));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/admin/backfill")
+    @Operation(summary = "Çalışan veya son çalışan geri doldurma işinin ilerlemesi")
+    public ResponseEntity<BackfillProgress> getBackfillProgress() {
+        return ResponseEntity.of(locationBackfillService.getProgress());
     }
 }
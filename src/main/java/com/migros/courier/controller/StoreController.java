@@ -1,30 +1,95 @@
 package com.migros.courier.controller;
 
-import com.migros.courier.model.Store;
+import com.migros.courier.dto.BusiestStoreResponse;
+import com.migros.courier.dto.StoreCatalogResponse;
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.dto.StoreRequest;
+import com.migros.courier.dto.StoreVisitStatsResponse;
+import com.migros.courier.model.StoreVisitStats;
+import com.migros.courier.service.StoreEntryBroadcaster;
 import com.migros.courier.service.StoreService;
+import com.migros.courier.service.StoreVisitAnalytics;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/store")
 @Tag(name = "Store API", description = "Migros mağazaları ile ilgili işlemler")
 public class StoreController {
+    private static final int MAX_TOP_LIMIT = 100;
+
     private final StoreService storeService;
+    private final StoreEntryBroadcaster storeEntryBroadcaster;
+    private final StoreVisitAnalytics storeVisitAnalytics;
 
-    public StoreController(StoreService storeService) {
+    public StoreController(StoreService storeService, StoreEntryBroadcaster storeEntryBroadcaster,
+                           StoreVisitAnalytics storeVisitAnalytics) {
         this.storeService = storeService;
+        this.storeEntryBroadcaster = storeEntryBroadcaster;
+        this.storeVisitAnalytics = storeVisitAnalytics;
     }
 
     @GetMapping
     @Operation(summary = "Tüm Migros mağazalarını listeler")
-    public ResponseEntity<List<Store>> getAllStores() {
-        List<Store> stores = storeService.getAllStores();
+    public ResponseEntity<List<StoreInfo>> getAllStores() {
+        List<StoreInfo> stores = storeService.getAllStores();
         return ResponseEntity.ok(stores);
     }
+
+    @PutMapping("/admin/stores")
+    @Operation(summary = "Mağaza ekler veya aynı adlı mağazanın koordinatlarını günceller")
+    public ResponseEntity<StoreInfo> saveStore(@Valid @RequestBody StoreRequest request) {
+        return ResponseEntity.ok(storeService.saveStore(request.name(), request.lat(), request.lng()));
+    }
+
+    @PostMapping("/admin/reload")
+    @Operation(summary = "Mağazaları mağaza dosyasından yeniden içe aktarır")
+    public ResponseEntity<StoreCatalogResponse> reloadStores() {
+        return ResponseEntity.ok(storeService.reloadStores());
+    }
+
+    @GetMapping(value = "/entries/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Mağaza girişlerini Server-Sent Events ile canlı izle (mağaza veya kurye filtreli)")
+    public SseEmitter streamStoreEntries(@RequestParam(required = false) UUID storeId,
+                                         @RequestParam(required = false) String courierId) {
+        return storeEntryBroadcaster.subscribe(storeId, courierId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Mağaza girişi akışı abone sınırına ulaştı"));
+    }
+
+    @GetMapping("/{storeId}/stats")
+    @Operation(summary = "Mağazanın toplam, günlük ve saatlik giriş sayıları ile farklı kurye sayıları")
+    public ResponseEntity<StoreVisitStatsResponse> getStoreStats(@PathVariable UUID storeId,
+                                                                 @RequestParam(defaultValue = "24") int hours,
+                                                                 @RequestParam(defaultValue = "7") int days) {
+        return storeVisitAnalytics.getStats(storeId, hours, days)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Mağaza bulunamadı: " + storeId));
+    }
+
+    @GetMapping("/stats/top")
+    @Operation(summary = "Güncel saatte (HOUR), bugün (DAY) veya tüm zamanlarda (TOTAL) en çok giriş alan mağazalar")
+    public ResponseEntity<List<BusiestStoreResponse>> getBusiestStores(
+            @RequestParam(defaultValue = "DAY") StoreVisitStats.Granularity granularity,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(storeVisitAnalytics.getBusiestStores(granularity,
+                Math.clamp(limit, 1, MAX_TOP_LIMIT)));
+    }
 }
@@ -0,0 +1,38 @@
+package com.migros.courier.dto;
+
+/**
+ * Geri doldurma işinin ilerlemesi.
+ *
+ * @param jobId              İş ID; iş yarıda kaldıysa aynı ID ile yeniden başlatılır
+ * @param status             İşin durumu
+ * @param totalCouriers      Konum geçmişi olan kurye sayısı
+ * @param skippedCouriers    Önceki çalıştırmada tamamlandığı için atlanan kurye sayısı
+ * @param processedCouriers  Bu çalıştırmada tamamlanan kurye sayısı
+ * @param failedCouriers     Hata nedeniyle tamamlanamayan kurye sayısı
+ * @param points             Okunan konum sayısı
+ * @param entries            Yazılan mağaza girişi sayısı
+ * @param elapsedMillis      Geçen süre (milisaniye)
+ */
+public record BackfillProgress(String jobId,
+                               Status status,
+                               long totalCouriers,
+                               long skippedCouriers,
+                               long processedCouriers,
+                               long failedCouriers,
+                               long points,
+                               long entries,
+                               long elapsedMillis) {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * Saniyede okunan konum sayısı.
+     */
+    public double pointsPerSecond() {
+        return points * 1000.0 / Math.max(1, elapsedMillis);
+    }
+}
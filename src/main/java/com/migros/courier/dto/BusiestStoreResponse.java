@@ -0,0 +1,9 @@
+package com.migros.courier.dto;
+
+import java.util.UUID;
+
+/**
+ * En yoğun mağazalar listesinin bir satırı. Saatlik sıralamada farklı kurye sayısı {@code null}'dır.
+ */
+public record BusiestStoreResponse(UUID storeId, String storeName, long visits, Long uniqueCouriers) {
+}
@@ -0,0 +1,13 @@
+package com.migros.courier.dto;
+
+import java.util.List;
+
+/**
+ * Küme üyeliğinin bir sürümü. Her üyelik değişikliğinde sürüm artırılır; düğümler yalnızca
+ * bildikleri sürümden yeni olan görünümü uygular.
+ *
+ * @param version Üyelik sürümü
+ * @param members Sıralı düğüm adresleri
+ */
+public record ClusterView(long version, List<String> members) {
+}
@@ -0,0 +1,42 @@
+package com.migros.courier.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Kurye giriş kayıtlarında keyset sayfalama imleci.
+ * Kayıtlar {@code (timestamp, id)} sırasıyla döndürüldüğü için imleç, önceki sayfanın son kaydının
+ * bu iki değerini taşır; sonraki sayfa bu kayıttan sonra başlar. İstemciye opak bir metin olarak verilir.
+ */
+public record CourierEntryCursor(LocalDateTime timestamp, UUID id) {
+    private static final String SEPARATOR = "|";
+
+    public static CourierEntryCursor after(CourierEntryResponse entry) {
+        return new CourierEntryCursor(entry.getEntryTime(), entry.getEntryId());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException İmleç bu sınıf tarafından üretilmemişse
+     */
+    public static CourierEntryCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Geçersiz imleç: " + cursor);
+            }
+            return new CourierEntryCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    UUID.fromString(value.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Geçersiz imleç: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.migros.courier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Kurye giriş kayıtlarının bir sayfası.
+ * {@code nextCursor} sonraki sayfanın isteğinde {@code cursor} parametresi olarak gönderilir;
+ * son sayfada {@code null} döner.
+ */
+@Data
+@AllArgsConstructor
+public class CourierEntryPage {
+    private List<CourierEntryResponse> entries;
+    private String nextCursor;
+}
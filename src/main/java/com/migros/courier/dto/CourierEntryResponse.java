@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @AllArgsConstructor
@@ -11,4 +12,5 @@ public class CourierEntryResponse {
     private String storeId;
     private String storeName;
     private LocalDateTime entryTime;
+    private UUID entryId;
 }
@@ -0,0 +1,14 @@
+package com.migros.courier.dto;
+
+import com.migros.courier.service.CourierState;
+
+import java.util.List;
+
+/**
+ * Sahipliği başka düğüme geçen kuryelerin yeni sahibine gönderilen durumu.
+ *
+ * @param states Son konum ve saklanan kopyaya göre toplam mesafe farkı
+ * @param visits Mükerrer giriş kontrolü için son mağaza girişleri
+ */
+public record CourierHandoff(List<CourierState> states, List<RecentStoreVisit> visits) {
+}
@@ -0,0 +1,20 @@
+package com.migros.courier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class CourierHourlySummaryResponse {
+    private LocalDateTime hourStart;
+    private int pointCount;
+    private double distanceMeters;
+    private double minLat;
+    private double maxLat;
+    private double minLng;
+    private double maxLng;
+    private LocalDateTime firstTimestamp;
+    private LocalDateTime lastTimestamp;
+}
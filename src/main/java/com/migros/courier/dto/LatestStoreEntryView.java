@@ -0,0 +1,15 @@
+package com.migros.courier.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Kurye ve mağaza çifti için son giriş zamanını taşıyan sorgu projeksiyonu.
+ */
+public interface LatestStoreEntryView {
+    String getCourierId();
+
+    UUID getStoreId();
+
+    LocalDateTime getLastEntryTime();
+}
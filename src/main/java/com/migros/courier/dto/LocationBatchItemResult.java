@@ -0,0 +1,39 @@
+package com.migros.courier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Toplu konum gönderiminde her bir noktanın işlenme sonucu.
+ * Sonuçlar, istek gövdesindeki sırayla ({@code index}) döndürülür.
+ * <p>
+ * {@code REJECTED} noktalar geçersizdir ve yeniden gönderilmemelidir; {@code FAILED} noktalar geçici bir hata
+ * nedeniyle işlenmemiştir ve yeniden gönderilebilir.
+ */
+@Data
+@AllArgsConstructor
+public class LocationBatchItemResult {
+    private int index;
+    private String courierId;
+    private Status status;
+    private int storeEntries;
+    private String message;
+
+    public enum Status {
+        ACCEPTED,
+        REJECTED,
+        FAILED
+    }
+
+    public static LocationBatchItemResult accepted(int index, String courierId, int storeEntries) {
+        return new LocationBatchItemResult(index, courierId, Status.ACCEPTED, storeEntries, null);
+    }
+
+    public static LocationBatchItemResult rejected(int index, String courierId, String message) {
+        return new LocationBatchItemResult(index, courierId, Status.REJECTED, 0, message);
+    }
+
+    public static LocationBatchItemResult failed(int index, String courierId, String message) {
+        return new LocationBatchItemResult(index, courierId, Status.FAILED, 0, message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.migros.courier.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Konum geçmişinin yeniden oynatılmasında kullanılan hafif konum projeksiyonu.
+ * Entity yerine kullanıldığı için persistence context'te birikmez.
+ */
+public record LocationPoint(String courierId, double lat, double lng, LocalDateTime timestamp) {
+}
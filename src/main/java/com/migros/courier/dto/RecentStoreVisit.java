@@ -0,0 +1,10 @@
+package com.migros.courier.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Mükerrer giriş kontrolü için bellekte tutulan, kurye ve mağaza çiftine ait son giriş zamanı.
+ */
+public record RecentStoreVisit(String courierId, UUID storeId, LocalDateTime entryTime) {
+}
@@ -0,0 +1,7 @@
+package com.migros.courier.dto;
+
+/**
+ * Mağaza kataloğunun yeniden yüklenmesi sonrası etkin sürüm bilgisi ve içe aktarım özeti.
+ */
+public record StoreCatalogResponse(long version, int storeCount, StoreImportResult lastImport) {
+}
@@ -0,0 +1,12 @@
+package com.migros.courier.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Kuryenin bir mağazaya girişi kaydedildiğinde yayınlanan olay.
+ * Girişin kaydedildiği transaction commit edildikten sonra abonelere iletilir.
+ */
+public record StoreEntryEvent(UUID entryId, String courierId, UUID storeId, String storeName,
+                              LocalDateTime entryTime) {
+}
@@ -0,0 +1,19 @@
+package com.migros.courier.dto;
+
+/**
+ * Mağaza içe aktarımının özeti.
+ *
+ * @param read          Dosyadan okunan kayıt sayısı
+ * @param upserted      Yeni eklenen veya koordinatı değişen mağaza sayısı
+ * @param skipped       Geçersiz olduğu için atlanan kayıt sayısı
+ * @param elapsedMillis İçe aktarım süresi (milisaniye)
+ */
+public record StoreImportResult(long read, long upserted, long skipped, long elapsedMillis) {
+
+    /**
+     * Saniyede okunan kayıt sayısı.
+     */
+    public double recordsPerSecond() {
+        return read * 1000.0 / Math.max(1, elapsedMillis);
+    }
+}
@@ -0,0 +1,15 @@
+package com.migros.courier.dto;
+
+import com.migros.courier.model.Store;
+
+import java.util.UUID;
+
+/**
+ * Mağaza kataloğunda tutulan, JPA'dan bağımsız değişmez mağaza bilgisi.
+ */
+public record StoreInfo(UUID id, String name, double lat, double lng) {
+
+    public static StoreInfo from(Store store) {
+        return new StoreInfo(store.getId(), store.getName(), store.getLat(), store.getLng());
+    }
+}
@@ -0,0 +1,19 @@
+package com.migros.courier.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Mağaza ekleme veya güncelleme isteği. Mağazalar ada göre eşleştirilir.
+ */
+public record StoreRequest(
+        @NotBlank(message = "Mağaza adı boş olamaz")
+        String name,
+        @DecimalMin(value = "-90.0", message = "Enlem -90 ile 90 arasında olmalıdır")
+        @DecimalMax(value = "90.0", message = "Enlem -90 ile 90 arasında olmalıdır")
+        double lat,
+        @DecimalMin(value = "-180.0", message = "Boylam -180 ile 180 arasında olmalıdır")
+        @DecimalMax(value = "180.0", message = "Boylam -180 ile 180 arasında olmalıdır")
+        double lng) {
+}
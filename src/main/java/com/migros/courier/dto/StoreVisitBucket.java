@@ -0,0 +1,9 @@
+package com.migros.courier.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bir mağazanın saatlik veya günlük giriş sayısı. Saatlik dilimlerde farklı kurye sayısı tutulmaz ({@code null}).
+ */
+public record StoreVisitBucket(LocalDateTime start, long visits, Long uniqueCouriers) {
+}
@@ -0,0 +1,12 @@
+package com.migros.courier.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mağazanın toplam, günlük ve saatlik giriş istatistikleri. Farklı kurye sayıları yaklaşık değerdir.
+ * Dilimler eskiden yeniye sıralıdır ve son dilim güncel saat/gündür.
+ */
+public record StoreVisitStatsResponse(UUID storeId, String storeName, long totalVisits, long uniqueCouriers,
+                                      List<StoreVisitBucket> hourly, List<StoreVisitBucket> daily) {
+}
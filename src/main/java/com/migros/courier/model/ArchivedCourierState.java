@@ -0,0 +1,40 @@
+package com.migros.courier.model;
+
+import com.migros.courier.model.base.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Boşta kaldığı için bellekten çıkarılan kuryenin durumu.
+ * Son konum zamanı nanosaniye hassasiyetini korumak için epoch saniye ve nanosaniye olarak ayrı tutulur;
+ * konumu olmayan kuryede {@code lastEpochSecond} boştur.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_archived_courier_state_courier", columnNames = "courierId"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedCourierState extends BaseEntity {
+
+    @Column(nullable = false)
+    private String courierId;
+
+    @Column(nullable = false)
+    private double totalDistance;
+
+    @Column(nullable = false)
+    private double lastLat;
+
+    @Column(nullable = false)
+    private double lastLng;
+
+    private Long lastEpochSecond;
+
+    @Column(nullable = false)
+    private int lastNano;
+}
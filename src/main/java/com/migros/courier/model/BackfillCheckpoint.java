@@ -0,0 +1,46 @@
+package com.migros.courier.model;
+
+import com.migros.courier.model.base.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Geri doldurma işinde yeniden hesaplanması tamamlanan kurye. Kuryenin mağaza girişleriyle aynı
+ * transaction'da yazılır; iş aynı ID ile yeniden başlatıldığında bu kuryeler atlanır.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_backfill_checkpoint_job_courier",
+        columnNames = {"jobId", "courierId"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class BackfillCheckpoint extends BaseEntity {
+
+    @Column(nullable = false)
+    private String jobId;
+
+    @Column(nullable = false)
+    private String courierId;
+
+    @Column(nullable = false)
+    private long pointCount;
+
+    @Column(nullable = false)
+    private int entryCount;
+
+    @Column(nullable = false)
+    private double distanceMeters;
+
+    public BackfillCheckpoint(String jobId, String courierId, long pointCount, int entryCount, double distanceMeters) {
+        this.jobId = jobId;
+        this.courierId = courierId;
+        this.pointCount = pointCount;
+        this.entryCount = entryCount;
+        this.distanceMeters = distanceMeters;
+    }
+}
@@ -9,6 +9,7 @@ import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_courier_entry_courier_time", columnList = "courierId, timestamp, id"))
 @Getter
 @Setter
 public class CourierEntry extends BaseEntity {
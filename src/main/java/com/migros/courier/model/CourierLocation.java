@@ -3,6 +3,8 @@ package com.migros.courier.model;
 import com.migros.courier.model.base.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -13,6 +15,10 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_courier_location_created", columnList = "created"),
+        @Index(name = "idx_courier_location_courier_time", columnList = "courierId, timestamp")
+})
 @Getter
 @Setter
 @NoArgsConstructor
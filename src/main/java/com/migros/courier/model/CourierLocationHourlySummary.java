@@ -0,0 +1,55 @@
+package com.migros.courier.model;
+
+import com.migros.courier.model.base.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Saklama süresi dolan ham konumlardan üretilen kurye/saat özeti.
+ * Mesafe, saatin noktaları arasındaki ardışık Haversine mesafelerinin toplamıdır.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_courier_location_hourly_summary",
+        columnNames = {"courierId", "hourStart"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class CourierLocationHourlySummary extends BaseEntity {
+
+    @Column(nullable = false)
+    private String courierId;
+
+    @Column(nullable = false)
+    private LocalDateTime hourStart;
+
+    @Column(nullable = false)
+    private int pointCount;
+
+    @Column(nullable = false)
+    private double distanceMeters;
+
+    @Column(nullable = false)
+    private double minLat;
+
+    @Column(nullable = false)
+    private double maxLat;
+
+    @Column(nullable = false)
+    private double minLng;
+
+    @Column(nullable = false)
+    private double maxLng;
+
+    @Column(nullable = false)
+    private LocalDateTime firstTimestamp;
+
+    @Column(nullable = false)
+    private LocalDateTime lastTimestamp;
+}
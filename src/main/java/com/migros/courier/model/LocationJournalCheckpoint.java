@@ -0,0 +1,39 @@
+package com.migros.courier.model;
+
+import com.migros.courier.model.base.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Konum günlüğünün veritabanına yazıldığı son konum. Günlükten okunan konumlarla aynı transaction'da
+ * güncellenir; böylece yeniden başlatmada hiçbir konum iki kez yazılmaz.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_location_journal_checkpoint_journal",
+        columnNames = {"journal"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class LocationJournalCheckpoint extends BaseEntity {
+
+    /**
+     * Günlük dizininin mutlak yolu.
+     */
+    @Column(nullable = false)
+    private String journal;
+
+    @Column(nullable = false)
+    private long segment;
+
+    @Column(name = "segment_offset", nullable = false)
+    private int offset;
+
+    public LocationJournalCheckpoint(String journal) {
+        this.journal = journal;
+    }
+}
@@ -0,0 +1,32 @@
+package com.migros.courier.model;
+
+import com.migros.courier.model.base.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Özetlere eklenmiş ancak tablosu henüz silinmemiş gün. Özetlerle aynı transaction'da yazılır; böylece tablo
+ * silinmeden önce yarıda kalan bir bakım, sonraki çalışmada günü özetlere ikinci kez eklemez.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_location_partition_rollup_day",
+        columnNames = {"partitionDay"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class LocationPartitionRollup extends BaseEntity {
+
+    @Column(nullable = false)
+    private LocalDate partitionDay;
+
+    public LocationPartitionRollup(LocalDate partitionDay) {
+        this.partitionDay = partitionDay;
+    }
+}
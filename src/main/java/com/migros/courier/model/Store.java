@@ -4,7 +4,9 @@ import com.migros.courier.model.base.BaseEntity;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import lombok.*;
 
 import java.util.HashSet;
@@ -13,6 +15,7 @@ import java.util.Set;
 @Setter
 @Getter
 @Entity
+@Table(indexes = @Index(name = "idx_store_name", columnList = "name"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Store extends BaseEntity {
@@ -0,0 +1,63 @@
+package com.migros.courier.model;
+
+import com.migros.courier.model.base.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bir mağazanın bir zaman dilimindeki giriş sayısı. Sayaçlar bellekte artırılır ve periyodik olarak
+ * son yazımdan bu yana eklenen farkla bu tablodaki değere eklenir.
+ * <p>
+ * Günlük ve toplam dilimlerde farklı kurye sayısı, {@link com.migros.courier.util.HyperLogLog} taslağı olarak
+ * tutulur; toplam dilimin başlangıcı {@link #TOTAL_BUCKET_START} sabitidir.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_store_visit_stats_bucket",
+        columnNames = {"storeId", "granularity", "bucketStart"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class StoreVisitStats extends BaseEntity {
+    public static final LocalDateTime TOTAL_BUCKET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Column(nullable = false)
+    private UUID storeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long visitCount;
+
+    @Column(length = 4096)
+    private byte[] courierSketch;
+
+    public StoreVisitStats(UUID storeId, Granularity granularity, LocalDateTime bucketStart, long visitCount,
+                           byte[] courierSketch) {
+        this.storeId = storeId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.visitCount = visitCount;
+        this.courierSketch = courierSketch;
+    }
+
+    public enum Granularity {
+        HOUR,
+        DAY,
+        TOTAL
+    }
+}
@@ -0,0 +1,66 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.service.CourierState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bellekten çıkarılan kurye durumlarını JDBC batch {@code MERGE} ile kurye ID'sine göre ekler veya günceller.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ArchivedCourierStateJdbcWriter {
+    private static final String UPSERT_SQL =
+            "MERGE INTO archived_courier_state s " +
+                    "USING (VALUES (CAST(? AS VARCHAR), CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION), " +
+                    "CAST(? AS DOUBLE PRECISION), CAST(? AS BIGINT), CAST(? AS INTEGER))) " +
+                    "AS v (courier_id, total_distance, last_lat, last_lng, last_epoch_second, last_nano) " +
+                    "ON s.courier_id = v.courier_id " +
+                    "WHEN MATCHED THEN " +
+                    "UPDATE SET total_distance = v.total_distance, last_lat = v.last_lat, last_lng = v.last_lng, " +
+                    "last_epoch_second = v.last_epoch_second, last_nano = v.last_nano, updated = ? " +
+                    "WHEN NOT MATCHED THEN " +
+                    "INSERT (id, courier_id, total_distance, last_lat, last_lng, last_epoch_second, last_nano, " +
+                    "created, updated, deleted) " +
+                    "VALUES (?, v.courier_id, v.total_distance, v.last_lat, v.last_lng, v.last_epoch_second, " +
+                    "v.last_nano, ?, ?, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Kurye durumlarını tek bir JDBC batch'i olarak yazar.
+     *
+     * @param states Yazılacak durumlar
+     */
+    public void upsertAll(List<CourierState> states) {
+        if (states.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, states, states.size(), (ps, state) -> {
+            ps.setString(1, state.courierId());
+            ps.setDouble(2, state.totalDistance());
+            ps.setDouble(3, state.lastLat());
+            ps.setDouble(4, state.lastLng());
+            if (state.lastTimestamp() == null) {
+                ps.setNull(5, Types.BIGINT);
+                ps.setInt(6, 0);
+            } else {
+                ps.setLong(5, state.lastTimestamp().toEpochSecond(ZoneOffset.UTC));
+                ps.setInt(6, state.lastTimestamp().getNano());
+            }
+            ps.setTimestamp(7, now);
+            ps.setObject(8, UUID.randomUUID());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+        });
+    }
+}
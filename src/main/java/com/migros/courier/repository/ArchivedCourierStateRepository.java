@@ -0,0 +1,14 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.model.ArchivedCourierState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ArchivedCourierStateRepository extends JpaRepository<ArchivedCourierState, UUID> {
+
+    Optional<ArchivedCourierState> findByCourierId(String courierId);
+}
@@ -0,0 +1,17 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.model.BackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BackfillCheckpointRepository extends JpaRepository<BackfillCheckpoint, UUID> {
+
+    @Query("SELECT c.courierId FROM BackfillCheckpoint c WHERE c.jobId = :jobId")
+    List<String> findCourierIdsByJobId(@Param("jobId") String jobId);
+}
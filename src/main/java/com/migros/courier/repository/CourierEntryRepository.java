@@ -1,16 +1,65 @@
 package com.migros.courier.repository;
 
+import com.migros.courier.dto.CourierEntryResponse;
+import com.migros.courier.dto.LatestStoreEntryView;
 import com.migros.courier.model.CourierEntry;
-import com.migros.courier.model.Store;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
 public interface CourierEntryRepository extends JpaRepository<CourierEntry, Long> {
-    boolean existsByStoreAndCourierIdAndTimestampAfter(Store store, String courierId, LocalDateTime time);
+    /**
+     * Kuryenin mağazaya verilen zamandan sonra girişi olup olmadığını kontrol eder. Mükerrer giriş kontrolünde
+     * yalnızca belleğin kapsamadığı eski konumlar için kullanılır.
+     */
+    boolean existsByStoreIdAndCourierIdAndTimestampAfter(UUID storeId, String courierId, LocalDateTime time);
 
-    List<CourierEntry> findByCourierId(String courierId);
+    /**
+     * Kuryenin {@code [from, to)} aralığındaki giriş kayıtlarının ilk sayfasını
+     * {@code (timestamp, id)} sırasıyla, mağaza adıyla birlikte tek sorguda getirir.
+     */
+    @Query("SELECT new com.migros.courier.dto.CourierEntryResponse(CAST(s.id AS String), s.name, e.timestamp, e.id) " +
+            "FROM CourierEntry e JOIN e.store s " +
+            "WHERE e.courierId = :courierId AND e.timestamp >= :from AND e.timestamp < :to " +
+            "ORDER BY e.timestamp, e.id")
+    List<CourierEntryResponse> findEntryPage(@Param("courierId") String courierId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             Limit limit);
+
+    /**
+     * İmleçteki {@code (afterTime, afterId)} kaydından sonraki giriş kayıtlarını getirir.
+     * OFFSET kullanılmadığı için sayfa maliyeti, kaçıncı sayfada olunduğundan bağımsızdır.
+     */
+    @Query("SELECT new com.migros.courier.dto.CourierEntryResponse(CAST(s.id AS String), s.name, e.timestamp, e.id) " +
+            "FROM CourierEntry e JOIN e.store s " +
+            "WHERE e.courierId = :courierId AND e.timestamp < :to " +
+            "AND (e.timestamp > :afterTime OR (e.timestamp = :afterTime AND e.id > :afterId)) " +
+            "ORDER BY e.timestamp, e.id")
+    List<CourierEntryResponse> findEntryPageAfter(@Param("courierId") String courierId,
+                                                  @Param("afterTime") LocalDateTime afterTime,
+                                                  @Param("afterId") UUID afterId,
+                                                  @Param("to") LocalDateTime to,
+                                                  Limit limit);
+
+    @Query("SELECT e.courierId AS courierId, e.store.id AS storeId, MAX(e.timestamp) AS lastEntryTime " +
+            "FROM CourierEntry e WHERE e.timestamp > :since GROUP BY e.courierId, e.store.id")
+    List<LatestStoreEntryView> findLatestEntriesSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Kuryenin verilen aralıktaki (uçlar dahil) giriş kayıtlarını siler. Geçmişin yeniden hesaplanan kısmı
+     * değiştirilmeden önce çağrılır.
+     */
+    @Modifying
+    @Query("DELETE FROM CourierEntry e WHERE e.courierId = :courierId AND e.timestamp BETWEEN :from AND :until")
+    int deleteByCourierIdBetween(@Param("courierId") String courierId, @Param("from") LocalDateTime from,
+                                 @Param("until") LocalDateTime until);
 }
@@ -0,0 +1,72 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.model.CourierLocationHourlySummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Kurye/saat özetlerini JDBC batch {@code MERGE} ile mevcut özetlere ekler. Nokta sayısı ve mesafe toplanır,
+ * sınırlayıcı kutu ve ilk/son zaman genişletilir; böylece aynı saate sonradan gelen noktalar mevcut özeti
+ * değiştirmez, ona eklenir.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CourierLocationHourlySummaryJdbcWriter {
+    private static final String MERGE_SQL =
+            "MERGE INTO courier_location_hourly_summary s " +
+                    "USING (VALUES (CAST(? AS VARCHAR), CAST(? AS TIMESTAMP), CAST(? AS INT), " +
+                    "CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION), " +
+                    "CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION), CAST(? AS TIMESTAMP), " +
+                    "CAST(? AS TIMESTAMP))) " +
+                    "AS v (courier_id, hour_start, point_count, distance_meters, min_lat, max_lat, min_lng, max_lng, " +
+                    "first_timestamp, last_timestamp) " +
+                    "ON s.courier_id = v.courier_id AND s.hour_start = v.hour_start " +
+                    "WHEN MATCHED THEN " +
+                    "UPDATE SET point_count = s.point_count + v.point_count, " +
+                    "distance_meters = s.distance_meters + v.distance_meters, " +
+                    "min_lat = LEAST(s.min_lat, v.min_lat), max_lat = GREATEST(s.max_lat, v.max_lat), " +
+                    "min_lng = LEAST(s.min_lng, v.min_lng), max_lng = GREATEST(s.max_lng, v.max_lng), " +
+                    "first_timestamp = LEAST(s.first_timestamp, v.first_timestamp), " +
+                    "last_timestamp = GREATEST(s.last_timestamp, v.last_timestamp), updated = ? " +
+                    "WHEN NOT MATCHED THEN " +
+                    "INSERT (id, courier_id, hour_start, point_count, distance_meters, min_lat, max_lat, min_lng, " +
+                    "max_lng, first_timestamp, last_timestamp, created, updated, deleted) " +
+                    "VALUES (?, v.courier_id, v.hour_start, v.point_count, v.distance_meters, v.min_lat, v.max_lat, " +
+                    "v.min_lng, v.max_lng, v.first_timestamp, v.last_timestamp, ?, ?, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Özetleri tek bir JDBC batch'i olarak mevcut özetlere ekler.
+     *
+     * @param summaries Eklenecek özetler
+     */
+    public void mergeAll(List<CourierLocationHourlySummary> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(MERGE_SQL, summaries, summaries.size(), (ps, summary) -> {
+            ps.setString(1, summary.getCourierId());
+            ps.setTimestamp(2, Timestamp.valueOf(summary.getHourStart()));
+            ps.setInt(3, summary.getPointCount());
+            ps.setDouble(4, summary.getDistanceMeters());
+            ps.setDouble(5, summary.getMinLat());
+            ps.setDouble(6, summary.getMaxLat());
+            ps.setDouble(7, summary.getMinLng());
+            ps.setDouble(8, summary.getMaxLng());
+            ps.setTimestamp(9, Timestamp.valueOf(summary.getFirstTimestamp()));
+            ps.setTimestamp(10, Timestamp.valueOf(summary.getLastTimestamp()));
+            ps.setTimestamp(11, now);
+            ps.setObject(12, UUID.randomUUID());
+            ps.setTimestamp(13, now);
+            ps.setTimestamp(14, now);
+        });
+    }
+}
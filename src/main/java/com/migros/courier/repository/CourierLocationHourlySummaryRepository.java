@@ -0,0 +1,26 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.model.CourierLocationHourlySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CourierLocationHourlySummaryRepository extends JpaRepository<CourierLocationHourlySummary, Long> {
+
+    List<CourierLocationHourlySummary> findByCourierIdAndHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStart(
+            String courierId, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT DISTINCT s.courierId FROM CourierLocationHourlySummary s")
+    List<String> findDistinctCourierIds();
+
+    /**
+     * Kuryenin özete indirgenmiş saatlerindeki toplam mesafe (metre).
+     */
+    @Query("SELECT COALESCE(SUM(s.distanceMeters), 0) FROM CourierLocationHourlySummary s WHERE s.courierId = :courierId")
+    double sumDistanceByCourierId(@Param("courierId") String courierId);
+}
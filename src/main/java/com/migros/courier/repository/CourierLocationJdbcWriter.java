@@ -0,0 +1,148 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.model.CourierLocationHourlySummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Kurye konumlarını JPA'yı atlayarak JDBC batch insert ile yazar.
+ * Yüksek hacimli yazma yollarında (write-behind) entity yaşam döngüsü maliyetinden kaçınmak için kullanılır.
+ * Günlük tablolara bölme etkinse konumlar, konum zamanının gününe ait tabloya yazılır. Yazma yolunda tablo
+ * oluşturulmaz: saklama süresi dolmuş bir güne ait gecikmeli konumlar kurye/saat özetlerine eklenir, tablosu
+ * hazırlanmamış günlerin (ör. yarından sonraki zamanlar) konumları ana tabloya yazılır; ana tablodaki konumlar da
+ * saklama süresi dolunca özetlenip silinir. Yazım boyunca {@link LocationPartitionRepository#beginWrite() yazıcı
+ * kilidi} tutulur.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class CourierLocationJdbcWriter {
+    private static final String INSERT_SQL =
+            "INSERT INTO %s (id, courier_id, lat, lng, timestamp, created, updated, deleted) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocationPartitionRepository partitionRepository;
+    private final CourierLocationHourlySummaryJdbcWriter summaryWriter;
+
+    public boolean isPartitioned() {
+        return partitionRepository.isEnabled();
+    }
+
+    /**
+     * Konumları tek bir JDBC batch'i olarak yazar. ID'si olmayan konumlara yeni UUID atanır.
+     *
+     * @param locations Yazılacak konumlar
+     */
+    public void insertAll(List<CourierLocation> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (!isPartitioned()) {
+            insertInto("courier_location", locations, now);
+            return;
+        }
+        Map<LocalDate, List<CourierLocation>> byDay = new TreeMap<>();
+        for (CourierLocation location : locations) {
+            byDay.computeIfAbsent(LocationPartitionRepository.partitionOf(location.getTimestamp()),
+                    day -> new ArrayList<>()).add(location);
+        }
+        boolean releasedOnCompletion = partitionRepository.beginWrite();
+        try {
+            insertPartitioned(byDay, now);
+        } finally {
+            if (!releasedOnCompletion) {
+                partitionRepository.endWrite();
+            }
+        }
+    }
+
+    private void insertPartitioned(Map<LocalDate, List<CourierLocation>> byDay, Timestamp now) {
+        List<CourierLocation> late = new ArrayList<>();
+        List<CourierLocation> unpartitioned = new ArrayList<>();
+        byDay.forEach((day, dayLocations) -> {
+            if (partitionRepository.isExpired(day)) {
+                late.addAll(dayLocations);
+            } else if (partitionRepository.hasPartition(day)) {
+                insertInto(LocationPartitionRepository.tableName(day), dayLocations, now);
+            } else {
+                unpartitioned.addAll(dayLocations);
+            }
+        });
+        if (!late.isEmpty()) {
+            summaryWriter.mergeAll(summarize(late));
+            log.warn("Saklama süresi dolmuş günlere ait {} gecikmeli konum saatlik özetlere eklendi", late.size());
+        }
+        if (!unpartitioned.isEmpty()) {
+            insertInto("courier_location", unpartitioned, now);
+            log.warn("Tablosu hazırlanmamış günlere ait {} konum ana tabloya yazıldı", unpartitioned.size());
+        }
+    }
+
+    /**
+     * Gecikmeli konumlardan kurye/saat özetleri üretir. Günün diğer noktaları silinmiş olduğundan
+     * mesafe hesaplanmaz; nokta sayısı, sınırlayıcı kutu ve ilk/son zaman mevcut özetle birleştirilir.
+     */
+    private static List<CourierLocationHourlySummary> summarize(List<CourierLocation> locations) {
+        Map<String, CourierLocationHourlySummary> summaries = new LinkedHashMap<>();
+        for (CourierLocation location : locations) {
+            LocalDateTime hourStart = location.getTimestamp().truncatedTo(ChronoUnit.HOURS);
+            CourierLocationHourlySummary summary = summaries.get(location.getCourierId() + '|' + hourStart);
+            if (summary == null) {
+                summary = new CourierLocationHourlySummary();
+                summary.setCourierId(location.getCourierId());
+                summary.setHourStart(hourStart);
+                summary.setMinLat(location.getLat());
+                summary.setMaxLat(location.getLat());
+                summary.setMinLng(location.getLng());
+                summary.setMaxLng(location.getLng());
+                summary.setFirstTimestamp(location.getTimestamp());
+                summary.setLastTimestamp(location.getTimestamp());
+                summaries.put(location.getCourierId() + '|' + hourStart, summary);
+            } else {
+                summary.setMinLat(Math.min(summary.getMinLat(), location.getLat()));
+                summary.setMaxLat(Math.max(summary.getMaxLat(), location.getLat()));
+                summary.setMinLng(Math.min(summary.getMinLng(), location.getLng()));
+                summary.setMaxLng(Math.max(summary.getMaxLng(), location.getLng()));
+                if (location.getTimestamp().isBefore(summary.getFirstTimestamp())) {
+                    summary.setFirstTimestamp(location.getTimestamp());
+                }
+                if (location.getTimestamp().isAfter(summary.getLastTimestamp())) {
+                    summary.setLastTimestamp(location.getTimestamp());
+                }
+            }
+            summary.setPointCount(summary.getPointCount() + 1);
+        }
+        return new ArrayList<>(summaries.values());
+    }
+
+    private void insertInto(String table, List<CourierLocation> locations, Timestamp now) {
+        jdbcTemplate.batchUpdate(INSERT_SQL.formatted(table), locations, locations.size(), (ps, location) -> {
+            if (location.getId() == null) {
+                location.setId(UUID.randomUUID());
+            }
+            ps.setObject(1, location.getId());
+            ps.setString(2, location.getCourierId());
+            ps.setDouble(3, location.getLat());
+            ps.setDouble(4, location.getLng());
+            ps.setTimestamp(5, Timestamp.valueOf(location.getTimestamp()));
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+    }
+}
@@ -1,9 +1,42 @@
 package com.migros.courier.repository;
 
+import com.migros.courier.dto.LocationPoint;
 import com.migros.courier.model.CourierLocation;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface CourierLocationRepository extends JpaRepository<CourierLocation, Long> {
-} 
\ No newline at end of file
+
+    /**
+     * Verilen zamandan sonra kaydedilen konumları kurye ve konum zamanı sırasıyla akış olarak döndürür.
+     * Çağıran, akışı bir transaction içinde tüketmeli ve kapatmalıdır.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.migros.courier.dto.LocationPoint(l.courierId, l.lat, l.lng, l.timestamp) " +
+            "FROM CourierLocation l WHERE l.created >= :since ORDER BY l.courierId, l.timestamp")
+    Stream<LocationPoint> streamCreatedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT DISTINCT l.courierId FROM CourierLocation l")
+    List<String> findDistinctCourierIds();
+
+    /**
+     * Kuryenin tüm konumlarını konum zamanı sırasıyla akış olarak döndürür.
+     * Çağıran, akışı bir transaction içinde tüketmeli ve kapatmalıdır.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.migros.courier.dto.LocationPoint(l.courierId, l.lat, l.lng, l.timestamp) " +
+            "FROM CourierLocation l WHERE l.courierId = :courierId ORDER BY l.timestamp")
+    Stream<LocationPoint> streamByCourierId(@Param("courierId") String courierId);
+}
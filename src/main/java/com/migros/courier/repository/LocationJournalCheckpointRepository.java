@@ -0,0 +1,14 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.model.LocationJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface LocationJournalCheckpointRepository extends JpaRepository<LocationJournalCheckpoint, UUID> {
+
+    Optional<LocationJournalCheckpoint> findByJournal(String journal);
+}
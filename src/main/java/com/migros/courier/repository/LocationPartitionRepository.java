@@ -0,0 +1,287 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.config.LocationPartitioningProperties;
+import com.migros.courier.dto.LocationPoint;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Kurye konumlarının günlük tablolarını ({@code courier_location_pYYYYMMDD}) yöneten JDBC deposu.
+ * <p>
+ * Her gün, ana {@code courier_location} tablosuyla aynı kolonlara sahip ayrı bir tabloda tutulur.
+ * Böylece saklama süresi dolan bir gün, satır satır silmek yerine tek bir {@code DROP TABLE} ile kaldırılır.
+ * <p>
+ * Tablolar yazma yolunda oluşturulmaz: açılışta ve her bakımda saklama penceresindeki günlerin ve yarının
+ * tabloları önceden hazırlanır. Var olduğu bilinen tablolar bellekte tutulur; yazıcı konumu yalnızca hazır bir
+ * tabloya yazar, saklama süresi dolmuş günlerin konumlarını ise tablo açmadan özetlere ekler.
+ * <p>
+ * Yazıcılar gün tablolarına yazarken paylaşımlı kilidi transaction'ları bitene kadar tutar; bakım, saklama
+ * penceresini özel kilitle ilerletir. Pencere ilerledikten sonra süresi dolan bir günün tablosuna commit
+ * edilmemiş ya da yeni gelen satır kalmaz; gün güvenle özetlenip silinir.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class LocationPartitionRepository {
+    private static final String BASE_TABLE = "courier_location";
+    private static final String PARTITION_PREFIX = BASE_TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String POINT_COLUMNS = "courier_id, lat, lng, timestamp";
+    private static final RowMapper<LocationPoint> POINT_MAPPER = (rs, rowNum) -> new LocationPoint(
+            rs.getString(1), rs.getDouble(2), rs.getDouble(3), rs.getTimestamp(4).toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocationPartitioningProperties properties;
+
+    private final Set<LocalDate> knownPartitions = ConcurrentHashMap.newKeySet();
+    // Yazıcılar paylaşımlı, saklama penceresini ilerleten bakım özel kilidi alır
+    private final ReentrantReadWriteLock retentionLock = new ReentrantReadWriteLock();
+    // Saklama penceresinin ilk günü; bundan önceki günlerin tabloları özetlenip silinir
+    private volatile LocalDate retainedFrom;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void prepareOnStartup() {
+        if (isEnabled()) {
+            preparePartitions(LocalDate.now());
+        }
+    }
+
+    /**
+     * Saklama penceresindeki günlerin ve yarının tablolarını yoksa oluşturur ve pencerenin başlangıcını günceller.
+     * Başlangıç, tablolar özetlenmeden önce ve yazıcıların kilidi bırakmasını bekleyerek güncellenir; metot
+     * döndükten sonra süresi dolan günlere gelen konumlar silinmek üzere olan tabloya yazılmaz.
+     *
+     * @param today Referans gün
+     * @return Saklama penceresinin ilk günü
+     * @throws IllegalStateException çağıran iş parçacığı yazıcı kilidini tutuyorsa
+     */
+    public LocalDate preparePartitions(LocalDate today) {
+        LocalDate from = today.minusDays(properties.getRetentionDays());
+        if (retentionLock.getReadHoldCount() > 0) {
+            throw new IllegalStateException("Konum yazan bir transaction içinde saklama penceresi ilerletilemez");
+        }
+        retentionLock.writeLock().lock();
+        try {
+            retainedFrom = from;
+        } finally {
+            retentionLock.writeLock().unlock();
+        }
+        for (LocalDate day = from; !day.isAfter(today.plusDays(1)); day = day.plusDays(1)) {
+            ensurePartition(day);
+        }
+        return from;
+    }
+
+    /**
+     * Gün tablolarına yazmadan önce paylaşımlı kilidi alır. Çağıran bir transaction içindeyse kilit transaction
+     * bitince bırakılır ve {@code true} döner; değilse çağıran {@link #endWrite()} ile bırakmalıdır.
+     *
+     * @return true: kilit transaction sonunda bırakılacak
+     */
+    public boolean beginWrite() {
+        retentionLock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                retentionLock.readLock().unlock();
+            }
+        });
+        return true;
+    }
+
+    public void endWrite() {
+        retentionLock.readLock().unlock();
+    }
+
+    /**
+     * Günün saklama süresinin dolup dolmadığını döndürür. Bu günlerin konumları tabloya yazılmaz.
+     */
+    public boolean isExpired(LocalDate day) {
+        LocalDate from = retainedFrom;
+        return from != null && day.isBefore(from);
+    }
+
+    /**
+     * Günün tablosu hazırlanmış mı. Yazma yolunda DDL çalıştırılmaması için yalnızca bellekteki kayda bakılır.
+     */
+    public boolean hasPartition(LocalDate day) {
+        return knownPartitions.contains(day);
+    }
+
+    /**
+     * Konum zamanına göre konumun yazılacağı günü döndürür.
+     */
+    public static LocalDate partitionOf(LocalDateTime timestamp) {
+        return timestamp.toLocalDate();
+    }
+
+    public static String tableName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+    }
+
+    /**
+     * Günün tablosunu ve indekslerini yoksa oluşturur.
+     *
+     * @param day Gün
+     * @return Tablo adı
+     */
+    public String ensurePartition(LocalDate day) {
+        String table = tableName(day);
+        if (knownPartitions.contains(day)) {
+            return table;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "id UUID PRIMARY KEY, " +
+                "courier_id VARCHAR(255) NOT NULL, " +
+                "lat DOUBLE PRECISION NOT NULL, " +
+                "lng DOUBLE PRECISION NOT NULL, " +
+                "timestamp TIMESTAMP(6) NOT NULL, " +
+                "created TIMESTAMP(6), " +
+                "updated TIMESTAMP(6), " +
+                "deleted BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_created ON " + table + " (created)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_courier ON " + table +
+                " (courier_id, timestamp)");
+        knownPartitions.add(day);
+        log.info("Konum tablosu hazırlandı: {}", table);
+        return table;
+    }
+
+    /**
+     * Veritabanında var olan günlük tabloları eski günden yeniye sıralı döndürür.
+     */
+    public List<LocalDate> findPartitions() {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables WHERE LOWER(table_name) LIKE ?",
+                String.class, PARTITION_PREFIX + "%");
+        List<LocalDate> days = new ArrayList<>(tables.size());
+        for (String table : tables) {
+            String suffix = table.toLowerCase(Locale.ROOT).substring(PARTITION_PREFIX.length());
+            if (suffix.length() == 8 && suffix.chars().allMatch(Character::isDigit)) {
+                days.add(LocalDate.parse(suffix, PARTITION_SUFFIX));
+            }
+        }
+        Collections.sort(days);
+        knownPartitions.addAll(days);
+        return days;
+    }
+
+    /**
+     * Günün tablosunu tüm satırlarıyla birlikte siler.
+     */
+    public void dropPartition(LocalDate day) {
+        String table = tableName(day);
+        knownPartitions.remove(day);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        log.info("Konum tablosu silindi: {}", table);
+    }
+
+    /**
+     * Günün konumlarını kurye ve konum zamanı sırasıyla akış olarak döndürür.
+     * Çağıran, akışı kapatmalıdır.
+     */
+    public Stream<LocationPoint> streamPartition(LocalDate day) {
+        return jdbcTemplate.queryForStream("SELECT " + POINT_COLUMNS + " FROM " + tableName(day) +
+                " ORDER BY courier_id, timestamp", POINT_MAPPER);
+    }
+
+    /**
+     * Ana tablodaki verilen zamandan eski konumları kurye ve konum zamanı sırasıyla akış olarak döndürür.
+     * Tablosu hazırlanmamış günlere yazılan konumlar ana tabloda kalır. Çağıran, akışı kapatmalıdır.
+     */
+    public Stream<LocationPoint> streamBaseTableBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.queryForStream("SELECT " + POINT_COLUMNS + " FROM " + BASE_TABLE +
+                " WHERE timestamp < ? ORDER BY courier_id, timestamp", POINT_MAPPER, Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * Ana tablodaki verilen zamandan eski konumları siler.
+     *
+     * @return Silinen konum sayısı
+     */
+    public int deleteBaseTableBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + BASE_TABLE + " WHERE timestamp < ?", Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * Ana tablo ve tüm günlük tablolarda konumu olan kuryeleri döndürür.
+     */
+    public List<String> findCourierIds() {
+        List<String> tables = allTables();
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < tables.size(); i++) {
+            sql.append(i > 0 ? " UNION " : "").append("SELECT courier_id FROM ").append(tables.get(i));
+        }
+        return jdbcTemplate.queryForList(sql.toString(), String.class);
+    }
+
+    /**
+     * Kuryenin ana tablo ve tüm günlük tablolardaki konumlarını konum zamanı sırasıyla akış olarak döndürür.
+     * Çağıran, akışı kapatmalıdır.
+     */
+    public Stream<LocationPoint> streamCourierHistory(String courierId) {
+        List<String> tables = allTables();
+        StringBuilder sql = new StringBuilder();
+        Object[] args = new Object[tables.size()];
+        for (int i = 0; i < tables.size(); i++) {
+            sql.append(i > 0 ? " UNION ALL " : "").append("SELECT ").append(POINT_COLUMNS).append(" FROM ")
+                    .append(tables.get(i)).append(" WHERE courier_id = ?");
+            args[i] = courierId;
+        }
+        sql.append(" ORDER BY 4");
+        return jdbcTemplate.queryForStream(sql.toString(), POINT_MAPPER, args);
+    }
+
+    private List<String> allTables() {
+        List<String> tables = new ArrayList<>();
+        tables.add(BASE_TABLE);
+        findPartitions().forEach(day -> tables.add(tableName(day)));
+        return tables;
+    }
+
+    /**
+     * Verilen zamandan sonra kaydedilen konumları ana tablo ve tüm günlük tablolardan birlikte,
+     * kurye ve konum zamanı sırasıyla akış olarak döndürür. Çağıran, akışı kapatmalıdır.
+     */
+    public Stream<LocationPoint> streamCreatedSince(LocalDateTime since) {
+        List<String> tables = allTables();
+        StringBuilder sql = new StringBuilder();
+        Object[] args = new Object[tables.size()];
+        for (int i = 0; i < tables.size(); i++) {
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT ").append(POINT_COLUMNS).append(" FROM ").append(tables.get(i))
+                    .append(" WHERE created >= ?");
+            args[i] = Timestamp.valueOf(since);
+        }
+        sql.append(" ORDER BY 1, 4");
+        return jdbcTemplate.queryForStream(sql.toString(), POINT_MAPPER, args);
+    }
+}
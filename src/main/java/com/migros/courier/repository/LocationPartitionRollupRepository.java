@@ -0,0 +1,21 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.model.LocationPartitionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Repository
+public interface LocationPartitionRollupRepository extends JpaRepository<LocationPartitionRollup, UUID> {
+
+    boolean existsByPartitionDay(LocalDate partitionDay);
+
+    @Modifying
+    @Query("DELETE FROM LocationPartitionRollup r WHERE r.partitionDay = :day")
+    int deleteByPartitionDay(@Param("day") LocalDate day);
+}
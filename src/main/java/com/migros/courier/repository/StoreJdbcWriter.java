@@ -0,0 +1,60 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.dto.StoreInfo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mağazaları JPA'yı atlayarak JDBC batch {@code MERGE} ile ada göre ekler veya günceller.
+ * Mevcut mağazaların ID'si korunur; böylece geçmiş giriş kayıtları aynı mağazaya bağlı kalır.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StoreJdbcWriter {
+    private static final String UPSERT_SQL =
+            "MERGE INTO store s " +
+                    "USING (VALUES (CAST(? AS UUID), CAST(? AS VARCHAR), CAST(? AS DOUBLE PRECISION), " +
+                    "CAST(? AS DOUBLE PRECISION))) AS v (id, name, lat, lng) ON s.name = v.name " +
+                    "WHEN MATCHED AND (s.lat <> v.lat OR s.lng <> v.lng) THEN " +
+                    "UPDATE SET lat = v.lat, lng = v.lng, updated = ? " +
+                    "WHEN NOT MATCHED THEN " +
+                    "INSERT (id, name, lat, lng, created, updated, deleted) " +
+                    "VALUES (v.id, v.name, v.lat, v.lng, ?, ?, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Mağazaları tek bir JDBC batch'i olarak yazar. Koordinatı değişmeyen mevcut mağazalara dokunulmaz.
+     *
+     * @param stores Yazılacak mağazalar
+     * @return Eklenen veya güncellenen mağaza sayısı
+     */
+    public int upsertAll(List<StoreInfo> stores) {
+        if (stores.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, stores, stores.size(), (ps, store) -> {
+            ps.setObject(1, store.id() != null ? store.id() : UUID.randomUUID());
+            ps.setString(2, store.name());
+            ps.setDouble(3, store.lat());
+            ps.setDouble(4, store.lng());
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+        int changed = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                changed += Math.max(count, 0);
+            }
+        }
+        return changed;
+    }
+}
@@ -1,9 +1,23 @@
 package com.migros.courier.repository;
 
+import com.migros.courier.dto.StoreInfo;
 import com.migros.courier.model.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
 @Repository
-public interface StoreRepository extends JpaRepository<Store, Long> {
-} 
\ No newline at end of file
+public interface StoreRepository extends JpaRepository<Store, UUID> {
+
+    Optional<Store> findFirstByName(String name);
+
+    /**
+     * Tüm mağazaları entity oluşturmadan katalog değerleri olarak okur.
+     */
+    @Query("SELECT new com.migros.courier.dto.StoreInfo(s.id, s.name, s.lat, s.lng) FROM Store s")
+    List<StoreInfo> findAllInfo();
+}
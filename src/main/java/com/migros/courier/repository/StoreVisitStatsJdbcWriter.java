@@ -0,0 +1,93 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.model.StoreVisitStats;
+import com.migros.courier.util.HyperLogLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mağaza ziyaret sayaçlarını JDBC batch {@code MERGE} ile mağaza, dilim türü ve dilim başlangıcına göre
+ * tabloya ekler. Giriş sayısı, son yazımdan bu yana eklenen fark olarak gönderilir ve tablodaki değere eklenir;
+ * kurye taslağı tablodaki taslakla birleştirilir. Böylece küme modunda aynı dilimi yazan düğümler birbirinin
+ * sayaçlarını ezmez.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StoreVisitStatsJdbcWriter {
+    private static final String SELECT_SKETCH_SQL =
+            "SELECT courier_sketch FROM store_visit_stats " +
+                    "WHERE store_id = ? AND granularity = ? AND bucket_start = ? FOR UPDATE";
+    private static final String MERGE_SQL =
+            "MERGE INTO store_visit_stats s " +
+                    "USING (VALUES (CAST(? AS UUID), CAST(? AS VARCHAR), CAST(? AS TIMESTAMP), CAST(? AS BIGINT), " +
+                    "CAST(? AS VARBINARY))) " +
+                    "AS v (store_id, granularity, bucket_start, visit_count, courier_sketch) " +
+                    "ON s.store_id = v.store_id AND s.granularity = v.granularity AND s.bucket_start = v.bucket_start " +
+                    "WHEN MATCHED THEN " +
+                    "UPDATE SET visit_count = s.visit_count + v.visit_count, courier_sketch = COALESCE(v.courier_sketch, s.courier_sketch), " +
+                    "updated = ? " +
+                    "WHEN NOT MATCHED THEN " +
+                    "INSERT (id, store_id, granularity, bucket_start, visit_count, courier_sketch, " +
+                    "created, updated, deleted) " +
+                    "VALUES (?, v.store_id, v.granularity, v.bucket_start, v.visit_count, v.courier_sketch, ?, ?, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Sayaç farklarını tek bir transaction'da tabloya ekler. Taslağı olan dilimlerin satırları, taslak
+     * birleştirilip yazılana kadar kilitlenir. Aynı dilimi ilk kez iki düğüm aynı anda eklerse biri tekil
+     * anahtar hatası alır; çağıran dilimleri bir sonraki yazımda yeniden dener.
+     *
+     * @param deltas Giriş sayısı son yazımdan bu yana eklenen fark olan sayaçlar
+     */
+    @Transactional
+    public void addAll(List<StoreVisitStats> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<StoreVisitStats> rows = new ArrayList<>(deltas.size());
+        for (StoreVisitStats delta : deltas) {
+            rows.add(new StoreVisitStats(delta.getStoreId(), delta.getGranularity(), delta.getBucketStart(),
+                    delta.getVisitCount(), delta.getCourierSketch() == null ? null : mergedSketch(delta)));
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(MERGE_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setObject(1, row.getStoreId());
+            ps.setString(2, row.getGranularity().name());
+            ps.setTimestamp(3, Timestamp.valueOf(row.getBucketStart()));
+            ps.setLong(4, row.getVisitCount());
+            if (row.getCourierSketch() == null) {
+                ps.setNull(5, Types.VARBINARY);
+            } else {
+                ps.setBytes(5, row.getCourierSketch());
+            }
+            ps.setTimestamp(6, now);
+            ps.setObject(7, UUID.randomUUID());
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        });
+    }
+
+    /**
+     * Dilimin tablodaki taslağını kilitleyerek okur ve gönderilen taslakla birleştirir.
+     */
+    private byte[] mergedSketch(StoreVisitStats delta) {
+        List<byte[]> stored = jdbcTemplate.query(SELECT_SKETCH_SQL, (rs, rowNum) -> rs.getBytes(1),
+                delta.getStoreId(), delta.getGranularity().name(), Timestamp.valueOf(delta.getBucketStart()));
+        if (stored.isEmpty() || stored.getFirst() == null) {
+            return delta.getCourierSketch();
+        }
+        HyperLogLog merged = HyperLogLog.fromByteArray(stored.getFirst());
+        merged.merge(HyperLogLog.fromByteArray(delta.getCourierSketch()));
+        return merged.toByteArray();
+    }
+}
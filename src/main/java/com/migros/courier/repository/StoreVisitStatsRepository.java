@@ -0,0 +1,16 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.model.StoreVisitStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StoreVisitStatsRepository extends JpaRepository<StoreVisitStats, UUID> {
+
+    List<StoreVisitStats> findByGranularityAndBucketStartGreaterThanEqual(StoreVisitStats.Granularity granularity,
+                                                                          LocalDateTime from);
+}
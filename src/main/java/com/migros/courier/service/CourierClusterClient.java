@@ -0,0 +1,94 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.CourierClusterProperties;
+import com.migros.courier.dto.ClusterView;
+import com.migros.courier.dto.CourierHandoff;
+import com.migros.courier.dto.LocationBatchItemResult;
+import com.migros.courier.model.CourierLocation;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.util.List;
+
+/**
+ * Küme düğümlerinin birbirinin {@code /api/v1/cluster} API'sini çağırdığı HTTP istemcisi.
+ * Hatalar {@link org.springframework.web.client.RestClientException} olarak iletilir.
+ */
+@Component
+public class CourierClusterClient {
+    private static final String CLUSTER_PATH = "/api/v1/cluster";
+
+    private final RestClient restClient;
+
+    public CourierClusterClient(RestClient.Builder restClientBuilder, CourierClusterProperties properties) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getRequestTimeout())
+                .build());
+        requestFactory.setReadTimeout(properties.getRequestTimeout());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Düğümün kümeye katılmasını ister.
+     *
+     * @param node Katılım isteğini karşılayan üye
+     * @param url  Katılan düğümün adresi
+     * @return Katılım sonrası küme görünümü
+     */
+    public ClusterView join(String node, String url) {
+        return restClient.post()
+                .uri(node + CLUSTER_PATH + "/join?url={url}", url)
+                .retrieve()
+                .body(ClusterView.class);
+    }
+
+    public ClusterView fetchView(String node) {
+        return restClient.get()
+                .uri(node + CLUSTER_PATH + "/view")
+                .retrieve()
+                .body(ClusterView.class);
+    }
+
+    public void pushView(String node, ClusterView view) {
+        restClient.put()
+                .uri(node + CLUSTER_PATH + "/view")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(view)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    /**
+     * Konumları sahibi olan düğümde işletir. Sonuçlar gönderilen listenin sırasıyla döner.
+     */
+    public List<LocationBatchItemResult> forward(String node, List<CourierLocation> locations) {
+        return restClient.post()
+                .uri(node + CLUSTER_PATH + "/locations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(locations)
+                .retrieve()
+                .body(new ParameterizedTypeReference<>() {
+                });
+    }
+
+    public void handoff(String node, CourierHandoff handoff) {
+        restClient.post()
+                .uri(node + CLUSTER_PATH + "/handoff")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(handoff)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    public Double fetchTotalDistance(String node, String courierId) {
+        return restClient.get()
+                .uri(node + CLUSTER_PATH + "/couriers/{courierId}/total-distance", courierId)
+                .retrieve()
+                .body(Double.class);
+    }
+}
@@ -0,0 +1,384 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.CourierClusterProperties;
+import com.migros.courier.dto.ClusterView;
+import com.migros.courier.dto.CourierHandoff;
+import com.migros.courier.dto.LocationBatchItemResult;
+import com.migros.courier.dto.RecentStoreVisit;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.util.ConsistentHashRing;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Küme modunda kuryelerin düğümlere dağıtımını, üyeliği ve düğümler arası durum devrini yöneten servis.
+ * <p>
+ * Her kurye, üyelerden oluşan {@link ConsistentHashRing} ile tek bir düğüme atanır. Sahibi olmadığı kuryenin
+ * konumunu alan düğüm konumu sahibine iletir; böylece bir kuryenin son konumu ve toplam mesafesi yalnızca
+ * bir düğümde güncellenir.
+ * <p>
+ * Üyelik sürümlü bir {@link ClusterView} olarak tutulur. Katılım isteğini karşılayan üye yeni görünümü
+ * tüm üyelere gönderir; kapanan düğüm kendini çıkaran görünümü gönderir; art arda yoklamalara yanıt vermeyen
+ * düğüm kümeden çıkarılır. Yeni görünümü uygulayan her düğüm, sahipliği başka düğüme geçen kuryeleri
+ * bellekten çıkarıp durumlarını yeni sahiplerine devreder. Çıkarma işlemi kuryenin shard'ında yapılır;
+ * böylece daha önce kuyruğa girmiş bildirimler devirden önce uygulanır.
+ * <p>
+ * Devredilen durum, saklanan kopyaya ({@link CourierStateArchive}) göre fark olarak gönderilir; yeni sahip
+ * kuryeyi devirden önce saklanan kopyadan yüklemiş olsa da geçmiş iki kez sayılmaz.
+ * <p>
+ * Yanıt vermeden düşen düğümün bellekteki durumu kaybolur; o kuryeler yeni sahiplerinde, veritabanında
+ * saklanan durumdan ({@link CourierStateArchive}) veya sıfırdan devam eder. Mağaza girişleri ve konum geçmişi
+ * için düğümlerin ortak bir veritabanı kullanması beklenir.
+ */
+@Slf4j
+@Service
+public class CourierClusterService {
+    private static final int HANDOFF_BATCH_SIZE = 5_000;
+
+    private final CourierClusterProperties properties;
+    private final CourierClusterClient client;
+    private final CourierStateStore courierStateStore;
+    private final StoreService storeService;
+    private final CourierShardExecutor shardExecutor;
+    private final TrackingMetrics trackingMetrics;
+    private final String self;
+    // Yeni görünüm önerileri sırayla yapılır; görünümün uygulanması ayrı kilitle korunur. Kilitler altında
+    // HTTP çağrısı yapılabildiği için monitor yerine ReentrantLock kullanılır
+    private final ReentrantLock membershipLock = new ReentrantLock();
+    private final ReentrantLock viewLock = new ReentrantLock();
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder handedOff = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    private volatile ClusterView view;
+    private volatile ConsistentHashRing ring;
+    private volatile boolean leaving;
+
+    public CourierClusterService(CourierClusterProperties properties, CourierClusterClient client,
+                                 CourierStateStore courierStateStore, StoreService storeService,
+                                 CourierShardExecutor shardExecutor, TrackingMetrics trackingMetrics) {
+        this.properties = properties;
+        this.client = client;
+        this.courierStateStore = courierStateStore;
+        this.storeService = storeService;
+        this.shardExecutor = shardExecutor;
+        this.trackingMetrics = trackingMetrics;
+        this.self = normalize(properties.getSelfUrl());
+        this.view = new ClusterView(0, List.of(self));
+        this.ring = ConsistentHashRing.of(view.members(), properties.getVirtualNodes());
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        trackingMetrics.registerFunctionCounter("cluster.forwarded", "Sahibi olan düğüme iletilen konumlar",
+                forwarded, LongAdder::sum);
+        trackingMetrics.registerFunctionCounter("cluster.handed_off", "Başka düğüme devredilen kurye durumları",
+                handedOff, LongAdder::sum);
+        trackingMetrics.registerFunctionCounter("cluster.received", "Başka düğümden devralınan kurye durumları",
+                received, LongAdder::sum);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public ClusterView getView() {
+        return view;
+    }
+
+    /**
+     * Kuryenin sahibi başka bir düğümse o düğümün adresini döndürür.
+     *
+     * @param courierId Kurye ID
+     * @return Sahip düğüm; küme modu kapalıysa veya kurye bu düğüme aitse boş
+     */
+    public Optional<String> remoteOwner(String courierId) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        String owner = ring.ownerOf(courierId);
+        return owner.equals(self) ? Optional.empty() : Optional.of(owner);
+    }
+
+    /**
+     * Konumları sahibi olan düğümde işletir. Karşı düğüm konumları yeniden yönlendirmez.
+     *
+     * @return Gönderilen listenin sırasıyla işlem sonuçları
+     * @throws RestClientException düğüme erişilemediğinde veya işlem başarısız olduğunda
+     */
+    public List<LocationBatchItemResult> forward(String owner, List<CourierLocation> locations) {
+        List<LocationBatchItemResult> results = client.forward(owner, locations);
+        forwarded.add(locations.size());
+        return results;
+    }
+
+    public Double fetchTotalDistance(String owner, String courierId) {
+        return client.fetchTotalDistance(owner, courierId);
+    }
+
+    /**
+     * Açılışta {@code seeds} listesindeki ilk erişilebilir üye üzerinden kümeye katılır. Snapshot kurtarması gibi
+     * sahipliğe bağlı açılış işleri katılımdan sonra çalışsın diye ilk sırada çalışır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void joinCluster() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        log.info("Küme modu etkin. Düğüm: {}, Sanal düğüm: {}, Seed sayısı: {}",
+                self, properties.getVirtualNodes(), properties.getSeeds().size());
+        if (!joinThrough(properties.getSeeds().stream().map(CourierClusterService::normalize).toList())) {
+            log.info("Erişilebilir seed düğümü yok, tek üyeli küme başlatıldı. Düğüm: {}", self);
+        }
+    }
+
+    private boolean joinThrough(List<String> nodes) {
+        for (String node : nodes) {
+            if (node.equals(self)) {
+                continue;
+            }
+            try {
+                applyView(client.join(node, self));
+                log.info("Kümeye katılındı. Aracı düğüm: {}, Üyeler: {}", node, view.members());
+                return true;
+            } catch (RestClientException e) {
+                log.warn("Kümeye katılım başarısız - Aracı düğüm: {}, Hata: {}", node, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Düğümü üyelere ekler ve yeni görünümü tüm üyelere gönderir. Üye zaten listedeyse (yeniden başlayan
+     * düğüm) görünüm yine de sürümü artırılarak gönderilir.
+     *
+     * @param url Katılan düğümün adresi
+     * @return Yeni küme görünümü
+     */
+    public ClusterView join(String url) {
+        String node = normalize(url);
+        membershipLock.lock();
+        try {
+            ClusterView current = view;
+            List<String> members = Stream.concat(current.members().stream(), Stream.of(node))
+                    .distinct().sorted().toList();
+            ClusterView next = new ClusterView(current.version() + 1, members);
+            log.info("Düğüm kümeye katılıyor - Düğüm: {}, Üye sayısı: {}, Sürüm: {}",
+                    node, members.size(), next.version());
+            publish(next);
+            return next;
+        } finally {
+            membershipLock.unlock();
+        }
+    }
+
+    /**
+     * Bilinen sürümden yeni olan görünümü uygular ve sahipliği başka düğüme geçen kuryeleri devreder.
+     * Görünüm ve kuryelerin bellekten çıkarılması kilit altında yapılır; devir HTTP çağrıları kilit
+     * bırakıldıktan sonra yapılır, böylece yavaş bir düğüm sonraki görünümlerin uygulanmasını bekletmez.
+     *
+     * @return true: görünüm uygulandı, false: eski veya aynı sürüm olduğu için yok sayıldı
+     */
+    public boolean applyView(ClusterView next) {
+        Map<String, List<CourierState>> statesByOwner;
+        viewLock.lock();
+        try {
+            if (next.version() <= view.version() || next.members().isEmpty()) {
+                return false;
+            }
+            ConsistentHashRing nextRing = ConsistentHashRing.of(next.members(), properties.getVirtualNodes());
+            view = new ClusterView(next.version(), nextRing.getNodes());
+            ring = nextRing;
+            failures.keySet().retainAll(next.members());
+            log.info("Küme görünümü güncellendi - Sürüm: {}, Üyeler: {}", next.version(), nextRing.getNodes());
+            statesByOwner = detachForeign(nextRing);
+        } finally {
+            viewLock.unlock();
+        }
+        statesByOwner.forEach((owner, states) -> {
+            for (int from = 0; from < states.size(); from += HANDOFF_BATCH_SIZE) {
+                handoff(owner, states.subList(from, Math.min(from + HANDOFF_BATCH_SIZE, states.size())));
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Kapanışta düğümü kümeden çıkaran görünümü gönderir ve tüm kuryelerini yeni sahiplerine devreder.
+     * Web sunucusu bu aşamada henüz istek almaya devam eder.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void leaveCluster() {
+        if (!properties.isEnabled() || leaving) {
+            return;
+        }
+        leaving = true;
+        membershipLock.lock();
+        try {
+            ClusterView current = view;
+            if (!current.members().contains(self) || current.members().size() == 1) {
+                return;
+            }
+            List<String> remaining = current.members().stream().filter(member -> !member.equals(self)).toList();
+            log.info("Düğüm kümeden ayrılıyor - Düğüm: {}, Kalan üyeler: {}", self, remaining);
+            publish(new ClusterView(current.version() + 1, remaining));
+        } finally {
+            membershipLock.unlock();
+        }
+    }
+
+    /**
+     * Diğer üyeleri yoklar. Kaçırılmış yeni görünümü uygular, art arda yanıt vermeyen üyeyi kümeden çıkarır
+     * ve bu düğüm yanlışlıkla çıkarıldıysa kümeye yeniden katılır.
+     */
+    @Scheduled(fixedDelayString = "${courier.cluster.heartbeat-interval-ms:5000}",
+            initialDelayString = "${courier.cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (!properties.isEnabled() || leaving) {
+            return;
+        }
+        for (String member : view.members()) {
+            if (member.equals(self)) {
+                continue;
+            }
+            try {
+                ClusterView remote = client.fetchView(member);
+                failures.remove(member);
+                applyView(remote);
+            } catch (RestClientException e) {
+                int count = failures.merge(member, 1, Integer::sum);
+                log.warn("Küme üyesi yanıt vermedi - Düğüm: {}, Art arda hata: {}, Hata: {}",
+                        member, count, e.getMessage());
+                if (count >= properties.getFailureThreshold()) {
+                    removeMember(member);
+                }
+            }
+        }
+        ClusterView current = view;
+        if (!current.members().contains(self)) {
+            joinThrough(current.members());
+        }
+    }
+
+    private void removeMember(String member) {
+        membershipLock.lock();
+        try {
+            ClusterView current = view;
+            if (!current.members().contains(member)) {
+                return;
+            }
+            List<String> remaining = current.members().stream().filter(m -> !m.equals(member)).toList();
+            log.warn("Yanıt vermeyen düğüm kümeden çıkarılıyor - Düğüm: {}, Kalan üyeler: {}", member, remaining);
+            publish(new ClusterView(current.version() + 1, remaining));
+        } finally {
+            membershipLock.unlock();
+        }
+    }
+
+    /**
+     * Görünümü önce diğer üyelere gönderir, sonra bu düğümde uygular. Erişilemeyen üye, yoklama sırasında
+     * yeni görünümü kendisi alır.
+     */
+    private void publish(ClusterView next) {
+        for (String member : next.members()) {
+            if (member.equals(self)) {
+                continue;
+            }
+            try {
+                client.pushView(member, next);
+            } catch (RestClientException e) {
+                log.warn("Küme görünümü gönderilemedi - Düğüm: {}, Sürüm: {}, Hata: {}",
+                        member, next.version(), e.getMessage());
+            }
+        }
+        applyView(next);
+    }
+
+    /**
+     * Sahipliği başka düğüme geçen kuryeleri her shard'da, o shard'ın iş parçacığında bellekten çıkarır.
+     *
+     * @return Yeni sahiplerine göre gruplanmış kurye durumları
+     */
+    private Map<String, List<CourierState>> detachForeign(ConsistentHashRing current) {
+        List<CompletableFuture<List<CourierState>>> detached = new ArrayList<>(shardExecutor.getShardCount());
+        for (int shard = 0; shard < shardExecutor.getShardCount(); shard++) {
+            int target = shard;
+            detached.add(shardExecutor.submit(shard, () -> courierStateStore.detach(courierId ->
+                    shardExecutor.shardOf(courierId) == target && !current.ownerOf(courierId).equals(self))));
+        }
+
+        Map<String, List<CourierState>> statesByOwner = new HashMap<>();
+        for (CompletableFuture<List<CourierState>> shardResult : detached) {
+            for (CourierState state : CourierShardExecutor.await(shardResult)) {
+                statesByOwner.computeIfAbsent(current.ownerOf(state.courierId()), k -> new ArrayList<>()).add(state);
+            }
+        }
+        return statesByOwner;
+    }
+
+    /**
+     * Kurye durumlarını saklanan kopyalarına göre fark olarak ve son mağaza girişleriyle yeni sahibine gönderir.
+     * Gönderilemeyen durumlar belleğe geri eklenir ve bir sonraki görünüm değişikliğinde yeniden devredilir.
+     */
+    private void handoff(String owner, List<CourierState> states) {
+        Set<String> courierIds = new HashSet<>(states.size() * 2);
+        states.forEach(state -> courierIds.add(state.courierId()));
+        List<RecentStoreVisit> visits = storeService.findRecentVisits(courierIds::contains);
+        List<CourierState> deltas = states.stream().map(courierStateStore::relativeToStored).toList();
+        try {
+            client.handoff(owner, new CourierHandoff(deltas, visits));
+            handedOff.add(states.size());
+            log.info("Kurye durumları devredildi - Düğüm: {}, Kurye: {}, Ziyaret kaydı: {}",
+                    owner, states.size(), visits.size());
+        } catch (RestClientException e) {
+            deltas.forEach(courierStateStore::merge);
+            log.error("Kurye durumları devredilemedi, bellekte tutuluyor - Düğüm: {}, Kurye: {}, Hata: {}",
+                    owner, states.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Başka düğümden devredilen kurye durumlarını ve son mağaza girişlerini ekler. Durumlar saklanan kopyaya göre
+     * fark olarak gelir; devir tamamlanmadan bu düğümde işlenmiş bildirimler ve yüklenmiş saklanan kopya korunur
+     * ({@link CourierStateStore#merge}).
+     */
+    public void acceptHandoff(CourierHandoff handoff) {
+        handoff.states().forEach(courierStateStore::merge);
+        storeService.recordRecentVisits(handoff.visits());
+        received.add(handoff.states().size());
+        log.info("Kurye durumları devralındı - Kurye: {}, Ziyaret kaydı: {}",
+                handoff.states().size(), handoff.visits().size());
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,143 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.CourierShardingProperties;
+import com.migros.courier.exception.LocationTrackingException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Kurye işlemlerini kurye ID'sine göre sabit bir shard iş parçacığına yönlendiren yürütücü.
+ * <p>
+ * Her shard tek iş parçacıklı bir yürütücüdür; aynı kuryenin tüm görevleri aynı shard'a düştüğü için
+ * kurye bazlı durum (son konum, mükerrer giriş kontrolü) her an tek bir iş parçacığı tarafından
+ * değiştirilir ve kilit gerektirmez. Farklı kuryeler shard'lara dağılarak paralel işlenir.
+ * <p>
+ * Sharding kapalıysa görevler çağıran iş parçacığında çalıştırılır.
+ */
+@Slf4j
+@Component
+public class CourierShardExecutor {
+    private final boolean enabled;
+    private final int shardCount;
+    private final ThreadPoolExecutor[] shards;
+
+    public CourierShardExecutor(CourierShardingProperties properties, BackgroundThreadFactory threadFactory,
+                                MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.shardCount = enabled ? properties.resolveShardCount() : 1;
+        this.shards = new ThreadPoolExecutor[enabled ? shardCount : 0];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                    threadFactory.named("courier-shard-" + i));
+            Gauge.builder("courier.shard.queue.depth", shards[i], executor -> executor.getQueue().size())
+                    .description("Shard kuyruğunda bekleyen görev sayısı")
+                    .tag("shard", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        if (enabled) {
+            log.info("Kurye sharding etkin. Shard sayısı: {}, Kuyruk kapasitesi: {}, Sanal iş parçacığı: {}",
+                    shardCount, properties.getQueueCapacity(), threadFactory.isVirtual());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Kuryenin bağlı olduğu shard'ı döndürür. Aynı kurye her zaman aynı shard'a düşer.
+     *
+     * @param courierId Kurye ID
+     * @return Shard numarası ({@code 0 .. shardCount-1})
+     */
+    public int shardOf(String courierId) {
+        int hash = courierId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    /**
+     * Görevi kuryenin shard'ında çalıştırır ve sonucunu bekler.
+     *
+     * @param courierId Kurye ID
+     * @param task      Çalıştırılacak görev
+     * @return Görevin sonucu
+     */
+    public <T> T execute(String courierId, Supplier<T> task) {
+        return await(submit(shardOf(courierId), task));
+    }
+
+    /**
+     * Görevi verilen shard'ın kuyruğuna ekler.
+     *
+     * @param shard Shard numarası
+     * @param task  Çalıştırılacak görev
+     * @return Görevin sonucunu taşıyan future
+     * @throws LocationTrackingException shard kuyruğu doluysa
+     */
+    public <T> CompletableFuture<T> submit(int shard, Supplier<T> task) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, shards[shard]);
+        } catch (RejectedExecutionException e) {
+            throw new LocationTrackingException(String.format("Shard kuyruğu dolu. Shard: %d", shard), e);
+        }
+    }
+
+    /**
+     * Future tamamlanana kadar bekler; görevin fırlattığı çalışma zamanı hatasını olduğu gibi iletir.
+     */
+    public static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LocationTrackingException("Shard görevi beklenirken kesildi", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new LocationTrackingException("Shard görevi başarısız oldu", e.getCause());
+        }
+    }
+
+    /**
+     * Kuyruktaki görevlerin tamamlanmasını bekleyip shard iş parçacıklarını durdurur.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            try {
+                if (!shard.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("Shard kuyruğu kapanışta boşaltılamadı. Bekleyen görev: {}", shard.getQueue().size());
+                    shard.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                shard.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.migros.courier.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bir kuryenin snapshot'a yazılan veya bellekten çıkarılırken saklanan durumu: toplam mesafe ve uygulanan son konum.
+ * Yalnızca mesafesi bilinen, henüz konumu olmayan kuryede {@code lastTimestamp} {@code null} olur.
+ */
+public record CourierState(String courierId,
+                           double totalDistance,
+                           double lastLat,
+                           double lastLng,
+                           LocalDateTime lastTimestamp) {
+}
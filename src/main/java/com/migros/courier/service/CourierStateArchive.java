@@ -0,0 +1,51 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.CourierStateEvictionProperties;
+import com.migros.courier.model.ArchivedCourierState;
+import com.migros.courier.repository.ArchivedCourierStateJdbcWriter;
+import com.migros.courier.repository.ArchivedCourierStateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Bellekten çıkarılan kurye durumlarını veritabanında saklar ve kurye yeniden konum bildirdiğinde geri okur.
+ * Çıkarma kapalıyken veritabanına gidilmez.
+ */
+@Component
+@RequiredArgsConstructor
+public class CourierStateArchive implements CourierStateStore.Loader {
+
+    private final ArchivedCourierStateRepository archivedStateRepository;
+    private final ArchivedCourierStateJdbcWriter archivedStateWriter;
+    private final CourierStateEvictionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public CourierState load(String courierId) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        return archivedStateRepository.findByCourierId(courierId)
+                .map(CourierStateArchive::toState)
+                .orElse(null);
+    }
+
+    /**
+     * Kurye durumlarını tek bir işlemde ekler veya günceller.
+     */
+    public void saveAll(List<CourierState> states) {
+        transactionTemplate.executeWithoutResult(status -> archivedStateWriter.upsertAll(states));
+    }
+
+    private static CourierState toState(ArchivedCourierState archived) {
+        LocalDateTime lastTimestamp = archived.getLastEpochSecond() == null ? null
+                : LocalDateTime.ofEpochSecond(archived.getLastEpochSecond(), archived.getLastNano(), ZoneOffset.UTC);
+        return new CourierState(archived.getCourierId(), archived.getTotalDistance(),
+                archived.getLastLat(), archived.getLastLng(), lastTimestamp);
+    }
+}
@@ -0,0 +1,60 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.CourierStateEvictionProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Boşta kalan kuryelerin durumunu saklayıp bellekten çıkaran servis.
+ * <p>
+ * Böylece bellekte yalnızca aktif filo tutulur; sezonluk veya tek seferlik kuryeler süresiz yer kaplamaz.
+ * Durum önce veritabanına yazılır, sonra bellekten çıkarılır; arada güncellenen kurye bellekte kalır.
+ * Çıkarılan kurye bir sonraki konum bildiriminde {@link CourierStateArchive} üzerinden yeniden yüklenir.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourierStateEvictionService {
+
+    private final CourierStateStore courierStateStore;
+    private final CourierStateArchive courierStateArchive;
+    private final CourierStateEvictionProperties properties;
+
+    @Scheduled(fixedDelayString = "${courier.state.eviction.interval-ms:60000}",
+            initialDelayString = "${courier.state.eviction.interval-ms:60000}")
+    public void scheduledEviction() {
+        if (properties.isEnabled()) {
+            evictIdleCouriers();
+        }
+    }
+
+    /**
+     * Boşta kalan ve bellek sınırını aşan kuryeleri batch'ler halinde saklar ve bellekten çıkarır.
+     *
+     * @return Bellekten çıkarılan kurye sayısı
+     */
+    public int evictIdleCouriers() {
+        long start = System.nanoTime();
+        List<CourierState> candidates = courierStateStore.findEvictionCandidates(properties.getIdleTtl(),
+                properties.getMaxEntries());
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        int evicted = 0;
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < candidates.size(); from += batchSize) {
+            List<CourierState> batch = candidates.subList(from, Math.min(from + batchSize, candidates.size()));
+            courierStateArchive.saveAll(batch);
+            evicted += courierStateStore.evict(batch);
+        }
+
+        log.info("Boşta kalan kurye durumları bellekten çıkarıldı. Aday: {}, Çıkarılan: {}, Bellekte kalan: {}, Süre: {}ms",
+                candidates.size(), evicted, courierStateStore.size(), (System.nanoTime() - start) / 1_000_000);
+        return evicted;
+    }
+}
@@ -0,0 +1,235 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.CourierSnapshotProperties;
+import com.migros.courier.dto.LocationPoint;
+import com.migros.courier.exception.LocationTrackingException;
+import com.migros.courier.repository.CourierLocationRepository;
+import com.migros.courier.repository.LocationPartitionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Kurye toplam mesafelerinin ve son konumlarının periyodik snapshot'ını alan ve
+ * açılışta bu snapshot'tan hızlı kurtarma yapan servis.
+ * <p>
+ * Snapshot, alındığı anın zaman damgasını (watermark) ve her kurye için uygulanan son konumu içerir.
+ * Açılışta snapshot yüklenir ve yalnızca watermark sonrasında kaydedilen konumlar yeniden oynatılır;
+ * böylece kurtarma süresi tüm geçmişe değil, son snapshot'tan bu yana geçen süreye bağlı olur.
+ * Kuryenin son konumundan eski veya eşit zamanlı noktalar atlandığı için aynı segment iki kez sayılmaz.
+ * <p>
+ * Küme modunda kurtarma, düğüm kümeye katıldıktan sonra yapılır ve yalnızca bu düğüme ait kuryeler yüklenir;
+ * başka düğüme ait bir kurye burada yüklenirse sahibindeki durumla birleştirilirken geçmişi iki kez sayılır.
+ */
+@Slf4j
+@Service
+public class CourierStateSnapshotService {
+    private static final int SNAPSHOT_MAGIC = 0x43535331; // "CSS1"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final LocationTrackingService locationTrackingService;
+    private final CourierLocationRepository courierLocationRepository;
+    private final LocationPartitionRepository partitionRepository;
+    private final CourierClusterService clusterService;
+    private final CourierSnapshotProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CourierStateSnapshotService(LocationTrackingService locationTrackingService,
+                                       CourierLocationRepository courierLocationRepository,
+                                       LocationPartitionRepository partitionRepository,
+                                       CourierClusterService clusterService,
+                                       CourierSnapshotProperties properties,
+                                       PlatformTransactionManager transactionManager) {
+        this.locationTrackingService = locationTrackingService;
+        this.courierLocationRepository = courierLocationRepository;
+        this.partitionRepository = partitionRepository;
+        this.clusterService = clusterService;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Uygulama açılırken, istek kabul edilmeden önce kurye durumunu kurtarır.
+     */
+    @PostConstruct
+    public void recoverOnStartup() {
+        if (properties.isEnabled() && !clusterService.isEnabled()) {
+            recover();
+        }
+    }
+
+    /**
+     * Küme modunda kurye durumunu, düğüm kümeye katılıp sahiplik belli olduktan sonra kurtarır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverAfterJoin() {
+        if (properties.isEnabled() && clusterService.isEnabled()) {
+            recover();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${courier.snapshot.interval-ms:300000}",
+            initialDelayString = "${courier.snapshot.interval-ms:300000}")
+    public void scheduledSnapshot() {
+        if (properties.isEnabled()) {
+            writeSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        if (properties.isEnabled()) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Güncel kurye durumlarının snapshot'ını atomik olarak dosyaya yazar.
+     *
+     * @return Snapshot'a yazılan kurye sayısı
+     */
+    public int writeSnapshot() {
+        long start = System.nanoTime();
+        // Watermark durum okunmadan önce alınır: bu andan önce kaydedilen her konum okunan duruma zaten uygulanmıştır
+        LocalDateTime watermark = LocalDateTime.now();
+        List<CourierState> states = locationTrackingService.captureCourierStates();
+
+        Path target = Path.of(properties.getPath());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                writeTime(out, watermark);
+                out.writeInt(states.size());
+                for (CourierState state : states) {
+                    out.writeUTF(state.courierId());
+                    out.writeDouble(state.totalDistance());
+                    out.writeDouble(state.lastLat());
+                    out.writeDouble(state.lastLng());
+                    writeTime(out, state.lastTimestamp());
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Kurye durum snapshot'ı yazılamadı. Dosya: {}", target, e);
+            throw new LocationTrackingException("Kurye durum snapshot'ı yazılamadı", e);
+        }
+
+        log.info("Kurye durum snapshot'ı yazıldı. Kurye sayısı: {}, Süre: {}ms",
+                states.size(), (System.nanoTime() - start) / 1_000_000);
+        return states.size();
+    }
+
+    /**
+     * Snapshot'ı yükler ve watermark sonrasında kaydedilen konumları yeniden oynatır.
+     * Snapshot yoksa tüm konum geçmişi yeniden oynatılır.
+     *
+     * @return Kurtarma özeti
+     */
+    public RecoveryResult recover() {
+        long start = System.nanoTime();
+        Path path = Path.of(properties.getPath());
+
+        LocalDateTime watermark = LocalDateTime.of(1970, 1, 1, 0, 0);
+        int restoredCouriers = 0;
+        if (Files.exists(path)) {
+            Snapshot snapshot = readSnapshot(path);
+            for (CourierState state : snapshot.states()) {
+                if (isOwned(state.courierId())) {
+                    locationTrackingService.restoreCourierState(state);
+                    restoredCouriers++;
+                }
+            }
+            watermark = snapshot.watermark();
+        } else {
+            log.info("Kurye durum snapshot'ı bulunamadı, tüm konum geçmişi yeniden oynatılacak. Dosya: {}", path);
+        }
+
+        AtomicLong replayed = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        LocalDateTime since = watermark;
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<LocationPoint> points = partitionRepository.isEnabled()
+                    ? partitionRepository.streamCreatedSince(since)
+                    : courierLocationRepository.streamCreatedSince(since)) {
+                points.forEach(point -> {
+                    if (isOwned(point.courierId()) && locationTrackingService.replayLocation(point)) {
+                        replayed.incrementAndGet();
+                    } else {
+                        skipped.incrementAndGet();
+                    }
+                });
+            }
+        });
+
+        RecoveryResult result = new RecoveryResult(restoredCouriers, replayed.get(), skipped.get(),
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Kurye durumu kurtarıldı. Snapshot'tan: {} kurye, Yeniden oynatılan: {}, Atlanan: {}, Süre: {}ms",
+                result.restoredCouriers(), result.replayedLocations(), result.skippedLocations(), result.durationMillis());
+        return result;
+    }
+
+    private boolean isOwned(String courierId) {
+        return clusterService.remoteOwner(courierId).isEmpty();
+    }
+
+    private Snapshot readSnapshot(Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Tanınmayan snapshot formatı");
+            }
+            LocalDateTime watermark = readTime(in);
+            int count = in.readInt();
+            List<CourierState> states = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                states.add(new CourierState(in.readUTF(), in.readDouble(), in.readDouble(), in.readDouble(), readTime(in)));
+            }
+            return new Snapshot(watermark, states);
+        } catch (IOException e) {
+            log.error("Kurye durum snapshot'ı okunamadı. Dosya: {}", path, e);
+            throw new LocationTrackingException("Kurye durum snapshot'ı okunamadı", e);
+        }
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private record Snapshot(LocalDateTime watermark, List<CourierState> states) {
+    }
+
+    public record RecoveryResult(int restoredCouriers, long replayedLocations, long skippedLocations,
+                                 long durationMillis) {
+    }
+}
@@ -0,0 +1,730 @@
+package com.migros.courier.service;
+
+import com.migros.courier.util.DistanceCalculator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Kurye başına son konumu ve toplam mesafeyi ilkel dizilerde tutan bellek içi durum deposu.
+ * <p>
+ * Kurye ID'leri, kilitle korunan {@value #SEGMENT_COUNT} segmentten birine hash ile dağıtılır ve segment içinde
+ * açık adreslemeli bir tabloyla bir {@code int} yuvaya eşlenir. Yuvanın enlem, boylam, toplam mesafe ve zaman
+ * bilgisi paralel {@code double[]}/{@code long[]}/{@code int[]} dizilerinde tutulur; böylece kurye başına
+ * entity, {@code LocalDateTime} veya kutulanmış {@code Double} nesnesi oluşmaz. Kurye başına maliyet ID
+ * metni ve dizi büyüme payı hariç yaklaşık 55 bayttır.
+ * <p>
+ * Bir kuryenin okuma ve güncellemeleri segment kilidi altında yapılır; son konum ve toplam mesafe her zaman
+ * birlikte tutarlı görünür. Farklı segmentlerdeki kuryeler birbirini beklemez.
+ * <p>
+ * Her yuvanın son erişim zamanı tutulur; boşta kalan kuryeler {@link #findEvictionCandidates} ve {@link #evict}
+ * ile bellekten çıkarılabilir. Bellekte olmayan bir kurye için {@link Loader} tanımlıysa durum ilk erişimde
+ * oradan yüklenir; yükleme segment kilidi dışında yapılır.
+ * <p>
+ * Küme modunda sahipliği başka düğüme geçen kuryeler {@link #detach} ile çıkarılır, saklanan kopyaya göre fark
+ * olarak ({@link #relativeToStored}) gönderilir ve yeni sahibinde {@link #merge} ile eklenir.
+ */
+@Component
+public class CourierStateStore {
+    private static final int SEGMENT_COUNT = 64; // 2'nin kuvveti
+    private static final int SEGMENT_SHIFT = Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+    private static final int INITIAL_CAPACITY = 16;
+    // Yuva başına dizi maliyeti: ID referansı + 3 double + long + int; tablo yuva başına iki kova tutar
+    private static final int BYTES_PER_SLOT = 4 + 3 * 8 + 8 + 4 + 4;
+    private static final int BYTES_PER_BUCKET = 4;
+    // Yalnızca mesafesi bilinen, henüz konumu olmayan kuryenin zaman değeri
+    private static final long NO_LOCATION = Long.MIN_VALUE;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Loader loader;
+
+    /**
+     * Bellekte olmayan bir kuryenin kalıcı durumunu okur.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * @return Kuryenin saklanan durumu; yoksa {@code null}
+         */
+        CourierState load(String courierId);
+    }
+
+    public CourierStateStore() {
+        this(courierId -> null, System::nanoTime);
+    }
+
+    @Autowired
+    public CourierStateStore(Loader loader) {
+        this(loader, System::nanoTime);
+    }
+
+    CourierStateStore(Loader loader, LongSupplier nanoClock) {
+        this.loader = loader;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Kuryenin son konumunu günceller ve önceki konumdan bu yana kat edilen mesafeyi toplam mesafeye ekler.
+     *
+     * @return Eklenen mesafe (metre); kuryenin ilk konumu için 0
+     */
+    public double advance(String courierId, double lat, double lng, LocalDateTime timestamp) {
+        return advance(courierId, lat, lng, timestamp, false);
+    }
+
+    /**
+     * Konum, kuryenin son konumundan daha yeniyse {@link #advance} ile uygular; değilse hiçbir şey yapmaz.
+     *
+     * @return true: konum uygulandı, false: son konumdan eski veya eşit zamanlı olduğu için atlandı
+     */
+    public boolean advanceIfNewer(String courierId, double lat, double lng, LocalDateTime timestamp) {
+        return !Double.isNaN(advance(courierId, lat, lng, timestamp, true));
+    }
+
+    private double advance(String courierId, double lat, double lng, LocalDateTime timestamp, boolean onlyIfNewer) {
+        int hash = hash(courierId);
+        Segment segment = segmentFor(hash);
+        long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+        int nano = timestamp.getNano();
+        segment.lock.lock();
+        try {
+            int slot = segment.find(courierId, hash);
+            if (slot >= 0) {
+                hits.increment();
+                return segment.apply(slot, lat, lng, epochSecond, nano, onlyIfNewer, currentTick());
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        CourierState stored = loadMissing(courierId);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(courierId, hash);
+            if (slot < 0) {
+                if (stored == null) {
+                    segment.insert(courierId, hash, lat, lng, 0, epochSecond, nano, currentTick());
+                    return 0;
+                }
+                slot = segment.insert(stored, hash, currentTick());
+            }
+            return segment.apply(slot, lat, lng, epochSecond, nano, onlyIfNewer, currentTick());
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Kuryenin toplam mesafesine ekleme yapar; son konumu değiştirmez.
+     */
+    public void addDistance(String courierId, double distance) {
+        int hash = hash(courierId);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(courierId, hash);
+            if (slot >= 0) {
+                hits.increment();
+                segment.distances[slot] += distance;
+                segment.accessTicks[slot] = currentTick();
+                return;
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        CourierState stored = loadMissing(courierId);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(courierId, hash);
+            if (slot < 0) {
+                slot = stored == null
+                        ? segment.insert(courierId, hash, 0, 0, 0, NO_LOCATION, 0, currentTick())
+                        : segment.insert(stored, hash, currentTick());
+            }
+            segment.distances[slot] += distance;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Kuryenin toplam mesafesini döndürür. Bellekte olmayan kurye yükleyiciden okunur ancak belleğe alınmaz.
+     *
+     * @return Toplam mesafe (metre); bilinmeyen kurye için 0
+     */
+    public double getTotalDistance(String courierId) {
+        int hash = hash(courierId);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(courierId, hash);
+            if (slot >= 0) {
+                hits.increment();
+                segment.accessTicks[slot] = currentTick();
+                return segment.distances[slot];
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        CourierState stored = loadMissing(courierId);
+        return stored == null ? 0 : stored.totalDistance();
+    }
+
+    private CourierState loadMissing(String courierId) {
+        misses.increment();
+        CourierState stored = loader.load(courierId);
+        if (stored != null) {
+            loads.increment();
+        }
+        return stored;
+    }
+
+    /**
+     * Snapshot'tan okunan kurye durumunu yazar; kurye zaten varsa durumu değiştirilir.
+     */
+    public void restore(CourierState state) {
+        int hash = hash(state.courierId());
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(state.courierId(), hash);
+            if (slot < 0) {
+                segment.insert(state, hash, currentTick());
+            } else {
+                segment.write(slot, state);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Geçmişten yeniden hesaplanan kurye durumunu, bellekteki son konum yeniden hesaplanandan daha yeni değilse
+     * yazar. Bellekteki son konum daha yeniyse kuryenin henüz veritabanına yazılmamış konumları vardır; durum
+     * değiştirilmez ve bu konumların mesafesi kaybolmaz.
+     *
+     * @return Durum yazıldıysa {@code true}
+     */
+    public boolean restoreIfNotNewer(CourierState state) {
+        int hash = hash(state.courierId());
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(state.courierId(), hash);
+            if (slot < 0) {
+                segment.insert(state, hash, currentTick());
+                return true;
+            }
+            if (segment.epochSeconds[slot] != NO_LOCATION) {
+                LocalDateTime timestamp = state.lastTimestamp();
+                if (timestamp == null || segment.isAfter(slot, timestamp.toEpochSecond(ZoneOffset.UTC),
+                        timestamp.getNano())) {
+                    return false;
+                }
+            }
+            segment.write(slot, state);
+            return true;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Kuryenin bellekteki durumunu döndürür. Yükleyiciye bakılmaz ve son erişim zamanı değişmez.
+     *
+     * @return Kurye durumu; kurye bellekte değilse {@code null}
+     */
+    public CourierState peek(String courierId) {
+        int hash = hash(courierId);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(courierId, hash);
+            return slot < 0 ? null : segment.read(slot);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Kuryenin durumunu {@link #peek} ile okunmuş önceki haline döndürür. Önceki durum {@code null} ise
+     * kurye bellekten çıkarılır; sonraki erişimde yükleyiciden yeniden okunur.
+     */
+    public void revert(String courierId, CourierState previous) {
+        if (previous != null) {
+            restore(previous);
+            return;
+        }
+        int hash = hash(courierId);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(courierId, hash);
+            if (slot >= 0) {
+                segment.remove(slot, hash);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Son konumu bilinen tüm kuryelerin durumunu okur. Her kurye kendi segment kilidi altında, tutarlı okunur.
+     *
+     * @return Kurye durumları
+     */
+    public List<CourierState> capture() {
+        List<CourierState> states = new ArrayList<>(size());
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                for (int slot = 0; slot < segment.size; slot++) {
+                    if (segment.epochSeconds[slot] != NO_LOCATION) {
+                        states.add(segment.read(slot));
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Filtreye uyan kuryeleri bellekten çıkarır ve çıkarıldıkları andaki durumlarını döndürür.
+     * Her segmentte okuma ve silme aynı kilit altında yapılır; arada gelen güncelleme kaybolmaz.
+     *
+     * @return Çıkarılan kurye durumları; konumu olmayan kuryelerde {@code lastTimestamp} {@code null}
+     */
+    public List<CourierState> detach(Predicate<String> courierFilter) {
+        List<CourierState> detached = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                for (int slot = segment.size - 1; slot >= 0; slot--) {
+                    if (courierFilter.test(segment.ids[slot])) {
+                        detached.add(segment.read(slot));
+                        // Son yuva silinen yuvaya taşınır; geriye doğru gezildiği için atlanmaz
+                        segment.remove(slot, hash(segment.ids[slot]));
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Kurye durumunu, saklanan kopyasına göre fark olarak döndürür: toplam mesafeden saklanan kopyanın mesafesi
+     * çıkarılır. Devredilen durum bu farkla gönderilir; yeni sahip, saklanan kopyayı kendisi de yüklemiş olsa
+     * bile aynı geçmişi iki kez saymaz. Yükleyici veritabanına gidiyorsa kurye başına bir okuma yapılır.
+     */
+    public CourierState relativeToStored(CourierState state) {
+        CourierState stored = loader.load(state.courierId());
+        if (stored == null) {
+            return state;
+        }
+        return new CourierState(state.courierId(), state.totalDistance() - stored.totalDistance(),
+                state.lastLat(), state.lastLng(), state.lastTimestamp());
+    }
+
+    /**
+     * {@link #relativeToStored} ile fark olarak alınmış kurye durumunu ekler. Kurye bellekte değilse önce
+     * yükleyiciden okunur; ardından mesafe farkı eklenir ve daha yeni olan son konum korunur. Devir tamamlanmadan
+     * bu düğümde işlenen bildirimler ve yüklenen saklanan kopya korunur, aynı geçmiş iki kez sayılmaz.
+     */
+    public void merge(CourierState delta) {
+        String courierId = delta.courierId();
+        int hash = hash(courierId);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(courierId, hash);
+            if (slot >= 0) {
+                mergeInto(segment, slot, delta);
+                return;
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        CourierState stored = loadMissing(courierId);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(courierId, hash);
+            if (slot < 0) {
+                slot = stored == null
+                        ? segment.insert(courierId, hash, 0, 0, 0, NO_LOCATION, 0, currentTick())
+                        : segment.insert(stored, hash, currentTick());
+            }
+            mergeInto(segment, slot, delta);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private void mergeInto(Segment segment, int slot, CourierState delta) {
+        segment.distances[slot] += delta.totalDistance();
+        LocalDateTime timestamp = delta.lastTimestamp();
+        if (timestamp != null && (segment.epochSeconds[slot] == NO_LOCATION
+                || segment.isBefore(slot, timestamp.toEpochSecond(ZoneOffset.UTC), timestamp.getNano()))) {
+            segment.lats[slot] = delta.lastLat();
+            segment.lngs[slot] = delta.lastLng();
+            segment.epochSeconds[slot] = timestamp.toEpochSecond(ZoneOffset.UTC);
+            segment.nanos[slot] = timestamp.getNano();
+        }
+        segment.accessTicks[slot] = currentTick();
+    }
+
+    /**
+     * Son erişimi {@code idleTtl} süresinden eski olan kuryeleri ve bellekteki kurye sayısı {@code maxEntries}
+     * değerini aşıyorsa en uzun süredir erişilmeyen fazlalığı seçer. Kuryeler bellekten çıkarılmaz;
+     * seçilen durumlar saklandıktan sonra {@link #evict} çağrılmalıdır.
+     *
+     * @return Çıkarılacak kuryelerin o anki durumu; konumu olmayan kuryelerde {@code lastTimestamp} {@code null}
+     */
+    public List<CourierState> findEvictionCandidates(Duration idleTtl, int maxEntries) {
+        int now = currentTick();
+        int limit = now - (int) Math.min(idleTtl.toSeconds(), Integer.MAX_VALUE);
+        int excess = size() - maxEntries;
+        if (excess > 0) {
+            limit = Math.max(limit, lruTick(excess));
+        }
+
+        List<CourierState> candidates = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                for (int slot = 0; slot < segment.size; slot++) {
+                    if (segment.accessTicks[slot] <= limit) {
+                        candidates.add(segment.read(slot));
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * En eski {@code count} erişimin sonuncusunun zamanı. Aynı zamanlı erişimler nedeniyle biraz fazla kurye seçilebilir.
+     */
+    private int lruTick(int count) {
+        int[] ticks = new int[0];
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                if (size + segment.size > ticks.length) {
+                    ticks = Arrays.copyOf(ticks, Math.max(ticks.length * 2, size + segment.size));
+                }
+                System.arraycopy(segment.accessTicks, 0, ticks, size, segment.size);
+                size += segment.size;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        if (size == 0) {
+            return Integer.MIN_VALUE;
+        }
+        Arrays.sort(ticks, 0, size);
+        return ticks[Math.min(count, size) - 1];
+    }
+
+    /**
+     * Verilen kuryeleri bellekten çıkarır. Seçildikten sonra durumu değişen kurye (yeni konum veya mesafe)
+     * çıkarılmaz; böylece saklanan kopyadan yeni bir güncelleme kaybolmaz.
+     *
+     * @param states {@link #findEvictionCandidates} ile seçilip saklanan durumlar
+     * @return Bellekten çıkarılan kurye sayısı
+     */
+    public int evict(List<CourierState> states) {
+        int evicted = 0;
+        for (CourierState state : states) {
+            int hash = hash(state.courierId());
+            Segment segment = segmentFor(hash);
+            segment.lock.lock();
+            try {
+                int slot = segment.find(state.courierId(), hash);
+                if (slot >= 0 && segment.read(slot).equals(state)) {
+                    segment.remove(slot, hash);
+                    evicted++;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    /**
+     * Bellekte bulunan kurye erişimi sayısı.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Bellekte bulunmayan kurye erişimi sayısı.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Bellekte bulunmayıp yükleyiciden okunan kurye sayısı.
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * Bellekten çıkarılan kurye sayısı.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Durumu tutulan kurye sayısı.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Dizilerin kapladığı yaklaşık bellek (bayt). Kurye ID metinleri dahil değildir.
+     */
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                bytes += (long) segment.ids.length * BYTES_PER_SLOT + (long) segment.table.length * BYTES_PER_BUCKET;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return bytes;
+    }
+
+    private int currentTick() {
+        return (int) TimeUnit.NANOSECONDS.toSeconds(nanoClock.getAsLong() - startNanos);
+    }
+
+    private static int hash(String courierId) {
+        int h = courierId.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private Segment segmentFor(int hash) {
+        // Segment üst bitlerle, segment içindeki kova alt bitlerle seçilir
+        return segments[(hash >>> (Integer.SIZE - SEGMENT_SHIFT)) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Kendi açık adresleme tablosu ve yuva dizileri olan segment. Tüm erişimler segment kilidi altında yapılır.
+     */
+    private static final class Segment {
+        // Monitor yerine ReentrantLock: beklerken sanal iş parçacığı taşıyıcıya sabitlenmez
+        private final ReentrantLock lock = new ReentrantLock();
+        // Kova başına yuva numarası + 1; 0 boş kova demektir
+        private int[] table = new int[INITIAL_CAPACITY * 2];
+        private String[] ids = new String[INITIAL_CAPACITY];
+        private double[] lats = new double[INITIAL_CAPACITY];
+        private double[] lngs = new double[INITIAL_CAPACITY];
+        private double[] distances = new double[INITIAL_CAPACITY];
+        private long[] epochSeconds = new long[INITIAL_CAPACITY];
+        private int[] nanos = new int[INITIAL_CAPACITY];
+        // Son erişim zamanı (deponun oluşturulmasından bu yana saniye)
+        private int[] accessTicks = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private int find(String courierId, int hash) {
+            int mask = table.length - 1;
+            for (int bucket = hash & mask; ; bucket = (bucket + 1) & mask) {
+                int entry = table[bucket];
+                if (entry == 0) {
+                    return -1;
+                }
+                if (courierId.equals(ids[entry - 1])) {
+                    return entry - 1;
+                }
+            }
+        }
+
+        private int insert(String courierId, int hash, double lat, double lng, double distance,
+                           long epochSecond, int nano, int tick) {
+            if (size == ids.length) {
+                grow();
+            }
+            int slot = size++;
+            ids[slot] = courierId;
+            lats[slot] = lat;
+            lngs[slot] = lng;
+            distances[slot] = distance;
+            epochSeconds[slot] = epochSecond;
+            nanos[slot] = nano;
+            accessTicks[slot] = tick;
+            place(slot, hash);
+            return slot;
+        }
+
+        private int insert(CourierState state, int hash, int tick) {
+            int slot = insert(state.courierId(), hash, 0, 0, 0, NO_LOCATION, 0, tick);
+            write(slot, state);
+            return slot;
+        }
+
+        private void write(int slot, CourierState state) {
+            lats[slot] = state.lastLat();
+            lngs[slot] = state.lastLng();
+            distances[slot] = state.totalDistance();
+            if (state.lastTimestamp() == null) {
+                epochSeconds[slot] = NO_LOCATION;
+                nanos[slot] = 0;
+            } else {
+                epochSeconds[slot] = state.lastTimestamp().toEpochSecond(ZoneOffset.UTC);
+                nanos[slot] = state.lastTimestamp().getNano();
+            }
+        }
+
+        private CourierState read(int slot) {
+            LocalDateTime lastTimestamp = epochSeconds[slot] == NO_LOCATION ? null
+                    : LocalDateTime.ofEpochSecond(epochSeconds[slot], nanos[slot], ZoneOffset.UTC);
+            return new CourierState(ids[slot], distances[slot], lats[slot], lngs[slot], lastTimestamp);
+        }
+
+        /**
+         * Konumu yuvaya uygular ve önceki konumdan bu yana kat edilen mesafeyi toplam mesafeye ekler.
+         *
+         * @return Eklenen mesafe; {@code onlyIfNewer} ile atlandıysa {@code NaN}
+         */
+        private double apply(int slot, double lat, double lng, long epochSecond, int nano, boolean onlyIfNewer,
+                             int tick) {
+            accessTicks[slot] = tick;
+            if (onlyIfNewer && !isBefore(slot, epochSecond, nano)) {
+                return Double.NaN;
+            }
+            double distance = epochSeconds[slot] == NO_LOCATION ? 0
+                    : DistanceCalculator.calculateDistance(lats[slot], lngs[slot], lat, lng);
+            if (distance > 0) {
+                distances[slot] += distance;
+            }
+            lats[slot] = lat;
+            lngs[slot] = lng;
+            epochSeconds[slot] = epochSecond;
+            nanos[slot] = nano;
+            return Math.max(distance, 0);
+        }
+
+        /**
+         * Yuvayı siler. Son yuva boşalan yuvaya taşınır, böylece yuvalar sıkışık kalır; tablodaki kova
+         * geri kaydırmalı silme ile boşaltılır, mezar taşı bırakılmaz.
+         */
+        private void remove(int slot, int hash) {
+            int mask = table.length - 1;
+            int bucket = hash & mask;
+            while (table[bucket] != slot + 1) {
+                bucket = (bucket + 1) & mask;
+            }
+            clearBucket(bucket);
+
+            int last = --size;
+            if (slot != last) {
+                int lastBucket = hash(ids[last]) & mask;
+                while (table[lastBucket] != last + 1) {
+                    lastBucket = (lastBucket + 1) & mask;
+                }
+                table[lastBucket] = slot + 1;
+                ids[slot] = ids[last];
+                lats[slot] = lats[last];
+                lngs[slot] = lngs[last];
+                distances[slot] = distances[last];
+                epochSeconds[slot] = epochSeconds[last];
+                nanos[slot] = nanos[last];
+                accessTicks[slot] = accessTicks[last];
+            }
+            ids[last] = null;
+        }
+
+        private void clearBucket(int bucket) {
+            int mask = table.length - 1;
+            int hole = bucket;
+            for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+                int home = hash(ids[table[next] - 1]) & mask;
+                // Boşluk, girişin ana kovası ile bulunduğu kova arasındaysa giriş boşluğa kaydırılır
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    table[hole] = table[next];
+                    hole = next;
+                }
+            }
+            table[hole] = 0;
+        }
+
+        private void place(int slot, int hash) {
+            int mask = table.length - 1;
+            int bucket = hash & mask;
+            while (table[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            table[bucket] = slot + 1;
+        }
+
+        private boolean isBefore(int slot, long epochSecond, int nano) {
+            long lastSecond = epochSeconds[slot];
+            return lastSecond < epochSecond || (lastSecond == epochSecond && nanos[slot] < nano);
+        }
+
+        private boolean isAfter(int slot, long epochSecond, int nano) {
+            long lastSecond = epochSeconds[slot];
+            return lastSecond > epochSecond || (lastSecond == epochSecond && nanos[slot] > nano);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            lats = Arrays.copyOf(lats, capacity);
+            lngs = Arrays.copyOf(lngs, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            accessTicks = Arrays.copyOf(accessTicks, capacity);
+            table = new int[capacity * 2];
+            for (int slot = 0; slot < size; slot++) {
+                place(slot, hash(ids[slot]));
+            }
+        }
+    }
+}
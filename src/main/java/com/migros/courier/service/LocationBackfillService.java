@@ -0,0 +1,328 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.LocationBackfillProperties;
+import com.migros.courier.dto.BackfillProgress;
+import com.migros.courier.dto.BackfillProgress.Status;
+import com.migros.courier.dto.LocationPoint;
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.model.BackfillCheckpoint;
+import com.migros.courier.model.CourierEntry;
+import com.migros.courier.repository.BackfillCheckpointRepository;
+import com.migros.courier.repository.CourierEntryRepository;
+import com.migros.courier.repository.CourierLocationHourlySummaryRepository;
+import com.migros.courier.repository.CourierLocationRepository;
+import com.migros.courier.repository.LocationPartitionRepository;
+import com.migros.courier.repository.StoreRepository;
+import com.migros.courier.util.DistanceCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Konum geçmişinden kuryelerin toplam mesafesini ve mağaza girişlerini yeniden hesaplayan geri doldurma işi.
+ * <p>
+ * Mağaza eklendiğinde, giriş yarıçapı veya ziyaret aralığı değiştiğinde ya da bir kesintiden sonra
+ * kullanılır. Kuryeler bir {@link ForkJoinPool} üzerinde paralel işlenir; her kuryenin konumları veritabanından
+ * zaman sırasıyla akış olarak okunur, giriş kuralı canlı akıştakiyle aynı uygulanır ve kuryenin eski girişleri
+ * silinip yenileri JDBC batch ile yazılır. Girişler ve kuryenin tamamlandığını gösteren checkpoint aynı
+ * transaction'da yazılır; iş aynı ID ile yeniden başlatıldığında tamamlanan kuryeler atlanır.
+ * <p>
+ * Yeniden hesaplama ve durumun belleğe yazılması kuryenin shard'ında tek görev olarak yapılır; kuryenin
+ * canlı konumları bu görevle sıralandığından arada işlenip kaybolan konum olmaz. Bellekteki son konum
+ * veritabanındakinden yeniyse (ör. write-behind tamponunda bekleyen konumlar) kurye hatalı sayılır,
+ * transaction geri alınır ve iş yeniden başlatıldığında tekrar denenir. Küme modunda başka düğüme ait kuryelerin
+ * girişleri yeniden yazılır ancak durumu belleğe alınmaz. Saklama süresi dolup özete indirgenen
+ * saatlerin mesafesi özetlerden alınır; bu günlerin girişleri silinmez.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LocationBackfillService {
+
+    private final CourierLocationRepository courierLocationRepository;
+    private final LocationPartitionRepository partitionRepository;
+    private final CourierLocationHourlySummaryRepository summaryRepository;
+    private final CourierEntryRepository courierEntryRepository;
+    private final StoreRepository storeRepository;
+    private final BackfillCheckpointRepository checkpointRepository;
+    private final StoreService storeService;
+    private final CourierStateStore courierStateStore;
+    private final CourierShardExecutor shardExecutor;
+    private final CourierClusterService clusterService;
+    private final BackgroundThreadFactory threadFactory;
+    private final LocationBackfillProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${store.visit.min-interval-minutes}")
+    private int minVisitIntervalMinutes;
+
+    private final AtomicReference<BackfillJob> currentJob = new AtomicReference<>();
+
+    /**
+     * Geri doldurma işini arka planda başlatır.
+     *
+     * @param resumeJobId Yarıda kalan işin ID'si; {@code null} ise yeni iş başlatılır
+     * @return İşin başlangıç durumu
+     * @throws IllegalStateException başka bir iş çalışıyorsa
+     */
+    public BackfillProgress start(String resumeJobId) {
+        BackfillJob job = claim(resumeJobId);
+        threadFactory.newThread("location-backfill", () -> execute(job)).start();
+        return job.progress();
+    }
+
+    /**
+     * Geri doldurma işini çağıran iş parçacığında çalıştırır ve bitmesini bekler.
+     *
+     * @param resumeJobId Yarıda kalan işin ID'si; {@code null} ise yeni iş başlatılır
+     * @return İşin son durumu
+     * @throws IllegalStateException başka bir iş çalışıyorsa
+     */
+    public BackfillProgress run(String resumeJobId) {
+        BackfillJob job = claim(resumeJobId);
+        execute(job);
+        return job.progress();
+    }
+
+    /**
+     * Çalışan veya son çalışan işin durumu.
+     */
+    public Optional<BackfillProgress> getProgress() {
+        return Optional.ofNullable(currentJob.get()).map(BackfillJob::progress);
+    }
+
+    private BackfillJob claim(String resumeJobId) {
+        BackfillJob job = new BackfillJob(resumeJobId != null ? resumeJobId : UUID.randomUUID().toString());
+        BackfillJob previous = currentJob.get();
+        if ((previous != null && previous.status == Status.RUNNING) || !currentJob.compareAndSet(previous, job)) {
+            throw new IllegalStateException("Çalışan bir geri doldurma işi var: " + currentJob.get().id);
+        }
+        return job;
+    }
+
+    private void execute(BackfillJob job) {
+        try {
+            Set<String> courierIds = new TreeSet<>(partitionRepository.isEnabled()
+                    ? partitionRepository.findCourierIds()
+                    : courierLocationRepository.findDistinctCourierIds());
+            courierIds.addAll(summaryRepository.findDistinctCourierIds());
+            Set<String> completed = new HashSet<>(checkpointRepository.findCourierIdsByJobId(job.id));
+            List<String> pending = courierIds.stream().filter(id -> !completed.contains(id)).toList();
+            job.totalCouriers = courierIds.size();
+            job.skippedCouriers = courierIds.size() - pending.size();
+            log.info("Geri doldurma başladı. İş: {}, Kurye: {}, Önceden tamamlanan: {}",
+                    job.id, job.totalCouriers, job.skippedCouriers);
+
+            int parallelism = properties.getParallelism() > 0
+                    ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new CourierRangeTask(job, storeService.getCatalog(), pending, 0, pending.size()));
+            } finally {
+                pool.shutdown();
+            }
+            // Yeniden yazılan girişlerle mükerrer giriş kontrolü tutarlı kalsın
+            storeService.warmUpVisitRegistry();
+            job.finish(job.failedCouriers.sum() == 0 ? Status.COMPLETED : Status.FAILED);
+        } catch (Exception e) {
+            log.error("Geri doldurma başarısız. İş: {}", job.id, e);
+            job.finish(Status.FAILED);
+        }
+
+        BackfillProgress progress = job.progress();
+        log.info("Geri doldurma bitti. İş: {}, Durum: {}, Tamamlanan: {}, Hatalı: {}, Nokta: {}, Giriş: {}, " +
+                        "Süre: {}ms, Verim: {} nokta/sn", progress.jobId(), progress.status(),
+                progress.processedCouriers(), progress.failedCouriers(), progress.points(), progress.entries(),
+                progress.elapsedMillis(), Math.round(progress.pointsPerSecond()));
+    }
+
+    private void processCourier(BackfillJob job, StoreCatalog catalog, String courierId) {
+        try {
+            RebuiltCourier rebuilt = shardExecutor.execute(courierId, () -> transactionTemplate.execute(status -> {
+                RebuiltCourier result = rebuild(job.id, catalog, courierId);
+                // Başka düğüme ait kuryenin durumu sahibinde tutulur; burada yazılırsa devirde iki kez sayılır
+                if (clusterService.remoteOwner(courierId).isEmpty()
+                        && !courierStateStore.restoreIfNotNewer(result.state())) {
+                    throw new IllegalStateException("Kuryenin veritabanına henüz yazılmamış konumları var");
+                }
+                return result;
+            }));
+            job.completed(rebuilt);
+        } catch (Exception e) {
+            job.failedCouriers.increment();
+            log.error("Kurye geri doldurulamadı, iş yeniden başlatıldığında tekrar denenecek. İş: {}, Kurye: {}",
+                    job.id, courierId, e);
+        }
+    }
+
+    /**
+     * Kuryenin konumlarını zaman sırasıyla okuyup toplam mesafeyi ve mağaza girişlerini hesaplar,
+     * okunan ilk ve son konum arasındaki eski girişleri yenileriyle değiştirir ve checkpoint yazar. Transaction içinde çağrılmalıdır.
+     */
+    private RebuiltCourier rebuild(String jobId, StoreCatalog catalog, String courierId) {
+        double distance = summaryRepository.sumDistanceByCourierId(courierId);
+        Map<UUID, LocalDateTime> lastEntries = new HashMap<>();
+        List<VisitedStore> visits = new ArrayList<>();
+        LocationPoint first = null;
+        LocationPoint previous = null;
+        long points = 0;
+
+        try (Stream<LocationPoint> history = partitionRepository.isEnabled()
+                ? partitionRepository.streamCourierHistory(courierId)
+                : courierLocationRepository.streamByCourierId(courierId)) {
+            for (LocationPoint point : (Iterable<LocationPoint>) history::iterator) {
+                if (previous != null) {
+                    distance += DistanceCalculator.calculateDistance(previous.lat(), previous.lng(),
+                            point.lat(), point.lng());
+                }
+                // Canlı akıştaki kural: ziyaret aralığı içinde aynı mağazaya giriş yoksa yeni giriş
+                LocalDateTime threshold = point.timestamp().minusMinutes(minVisitIntervalMinutes);
+                for (StoreInfo store : catalog.findNearby(point.lat(), point.lng())) {
+                    LocalDateTime lastEntry = lastEntries.get(store.id());
+                    if (lastEntry == null || !lastEntry.isAfter(threshold)) {
+                        lastEntries.put(store.id(), point.timestamp());
+                        visits.add(new VisitedStore(store.id(), point.timestamp()));
+                    }
+                }
+                if (first == null) {
+                    first = point;
+                }
+                previous = point;
+                points++;
+            }
+        }
+
+        // Yalnızca konumları okunan aralığın girişleri değiştirilir; saklama süresi dolup ham konumları silinmiş
+        // günlerin girişleri yeniden üretilemeyeceği için korunur
+        if (previous != null) {
+            courierEntryRepository.deleteByCourierIdBetween(courierId, first.timestamp(), previous.timestamp());
+            saveEntries(courierId, visits);
+        }
+        checkpointRepository.save(new BackfillCheckpoint(jobId, courierId, points, visits.size(), distance));
+
+        CourierState state = previous == null
+                ? new CourierState(courierId, distance, 0, 0, null)
+                : new CourierState(courierId, distance, previous.lat(), previous.lng(), previous.timestamp());
+        return new RebuiltCourier(state, points, visits.size());
+    }
+
+    /**
+     * Girişleri parçalar halinde kaydeder; Hibernate JDBC batch ayarı ile insert'ler toplu gönderilir.
+     */
+    private void saveEntries(String courierId, List<VisitedStore> visits) {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < visits.size(); from += batchSize) {
+            List<CourierEntry> entries = new ArrayList<>(Math.min(batchSize, visits.size() - from));
+            for (VisitedStore visit : visits.subList(from, Math.min(from + batchSize, visits.size()))) {
+                CourierEntry entry = new CourierEntry();
+                entry.setCourierId(courierId);
+                entry.setStore(storeRepository.getReferenceById(visit.storeId()));
+                entry.setTimestamp(visit.timestamp());
+                entries.add(entry);
+            }
+            courierEntryRepository.saveAll(entries);
+            courierEntryRepository.flush();
+        }
+    }
+
+    /**
+     * Kurye listesini ikiye bölerek paralel işleyen görev; küçük parçalar sırayla işlenir.
+     */
+    private final class CourierRangeTask extends RecursiveAction {
+        private final BackfillJob job;
+        private final StoreCatalog catalog;
+        private final List<String> courierIds;
+        private final int from;
+        private final int to;
+
+        private CourierRangeTask(BackfillJob job, StoreCatalog catalog, List<String> courierIds, int from, int to) {
+            this.job = job;
+            this.catalog = catalog;
+            this.courierIds = courierIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= Math.max(1, properties.getCouriersPerTask())) {
+                for (int i = from; i < to; i++) {
+                    processCourier(job, catalog, courierIds.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CourierRangeTask(job, catalog, courierIds, from, middle),
+                    new CourierRangeTask(job, catalog, courierIds, middle, to));
+        }
+    }
+
+    /**
+     * Bir geri doldurma çalıştırmasının sayaçları.
+     */
+    private final class BackfillJob {
+        private final String id;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong processedCouriers = new AtomicLong();
+        private final LongAdder failedCouriers = new LongAdder();
+        private final LongAdder points = new LongAdder();
+        private final LongAdder entries = new LongAdder();
+        private volatile long totalCouriers;
+        private volatile long skippedCouriers;
+        private volatile Status status = Status.RUNNING;
+        private volatile long elapsedMillis = -1;
+
+        private BackfillJob(String id) {
+            this.id = id;
+        }
+
+        private void completed(RebuiltCourier rebuilt) {
+            points.add(rebuilt.points());
+            entries.add(rebuilt.entries());
+            long processed = processedCouriers.incrementAndGet();
+            if (processed % Math.max(1, properties.getProgressLogInterval()) == 0) {
+                BackfillProgress progress = progress();
+                log.info("Geri doldurma ilerlemesi. İş: {}, Kurye: {}/{}, Nokta: {}, Giriş: {}, Verim: {} nokta/sn",
+                        id, progress.skippedCouriers() + processed, progress.totalCouriers(), progress.points(),
+                        progress.entries(), Math.round(progress.pointsPerSecond()));
+            }
+        }
+
+        private void finish(Status finalStatus) {
+            elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            status = finalStatus;
+        }
+
+        private BackfillProgress progress() {
+            long elapsed = elapsedMillis >= 0 ? elapsedMillis : (System.nanoTime() - startNanos) / 1_000_000;
+            return new BackfillProgress(id, status, totalCouriers, skippedCouriers, processedCouriers.get(),
+                    failedCouriers.sum(), points.sum(), entries.sum(), elapsed);
+        }
+    }
+
+    private record VisitedStore(UUID storeId, LocalDateTime timestamp) {
+    }
+
+    private record RebuiltCourier(CourierState state, long points, int entries) {
+    }
+}
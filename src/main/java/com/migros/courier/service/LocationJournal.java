@@ -0,0 +1,566 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.LocationJournalProperties;
+import com.migros.courier.config.LocationJournalProperties.Fsync;
+import com.migros.courier.config.LocationPersistenceProperties;
+import com.migros.courier.config.LocationPersistenceProperties.Mode;
+import com.migros.courier.exception.LocationTrackingException;
+import com.migros.courier.model.CourierLocation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Kurye konumlarının yalnızca-ekleme (append-only) günlüğü.
+ * <p>
+ * Günlük, {@code segment-<sıra>.journal} adlı sabit boyutlu dosyalardan oluşur; etkin segment belleğe eşlenir
+ * (memory-mapped) ve kayıtlar doğrudan sayfa önbelleğine yazılır. Segment dolduğunda diske zorlanır ve bir
+ * sonrakine geçilir. Segment düzeni (big-endian):
+ * <pre>
+ * int    magic   0x434C4A31 ("CLJ1")
+ * int    version
+ * kayıtlar:
+ *   int    payloadLength
+ *   int    crc     payload'ın CRC32C değeri
+ *   ushort idLength
+ *   byte[] id      kurye ID'si (UTF-8)
+ *   double lat
+ *   double lng
+ *   long   epochSecond   konum zamanı (UTC kabul edilerek)
+ *   int    nano
+ * </pre>
+ * Dosyanın yazılmamış kısmı sıfırdır; uzunluğu sıfır olan veya CRC'si tutmayan kayıt günlüğün sonu sayılır.
+ * Açılışta son segmentin yarım kalmış kuyruğu silinir.
+ * <p>
+ * Yazmalar tek kilit altında sıralanır. {@link Fsync#ALWAYS} modunda çağıran, kendi kaydını kapsayan fsync
+ * bitene kadar bekler; aynı anda bekleyen çağıranlar tek fsync'i paylaşır (group commit).
+ * <p>
+ * Yalnızca {@code courier.location.persistence.mode=journal} olduğunda etkindir. Günlüğün yeniden oynatılması ve
+ * veritabanına yazılması {@link LocationJournalService} tarafından yapılır.
+ */
+@Slf4j
+@Component
+public class LocationJournal {
+    private static final String METRIC_PREFIX = "courier.location.journal";
+    private static final int SEGMENT_MAGIC = 0x434C4A31; // "CLJ1"
+    private static final int SEGMENT_VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int FIXED_PAYLOAD_BYTES = Short.BYTES + 2 * Double.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int MIN_SEGMENT_BYTES = 64 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final LocationPersistenceProperties persistenceProperties;
+    private final LocationJournalProperties properties;
+    private final BackgroundThreadFactory threadFactory;
+    private final ConcurrentSkipListSet<Long> segmentIndexes = new ConcurrentSkipListSet<>();
+    // fsync ve segment geçişi sanal iş parçacığını taşıyıcıya sabitlememek için monitor yerine bu kilitler altında yapılır
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Counter appendedCounter;
+    private final Timer fsyncTimer;
+
+    private Path directory;
+    private volatile Segment active;
+    private volatile boolean running;
+    private Thread syncThread;
+
+    public LocationJournal(LocationPersistenceProperties persistenceProperties,
+                           LocationJournalProperties properties,
+                           BackgroundThreadFactory threadFactory,
+                           MeterRegistry meterRegistry) {
+        this.persistenceProperties = persistenceProperties;
+        this.properties = properties;
+        this.threadFactory = threadFactory;
+
+        Gauge.builder(METRIC_PREFIX + ".segments", segmentIndexes, ConcurrentSkipListSet::size)
+                .description("Diskteki günlük segmenti sayısı")
+                .register(meterRegistry);
+        this.appendedCounter = Counter.builder(METRIC_PREFIX + ".appended")
+                .description("Günlüğe yazılan konum sayısı")
+                .register(meterRegistry);
+        this.fsyncTimer = Timer.builder(METRIC_PREFIX + ".fsync")
+                .description("Günlüğün diske zorlanma süresi")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return persistenceProperties.getMode() == Mode.JOURNAL;
+    }
+
+    /**
+     * Segmentleri bulur, son segmentin geçerli sonunu belirler ve yazmaya hazırlar.
+     */
+    @PostConstruct
+    public void open() {
+        if (!isEnabled()) {
+            return;
+        }
+        long segmentSize = properties.getSegmentSize().toBytes();
+        if (segmentSize < MIN_SEGMENT_BYTES || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Günlük segment boyutu 64KB ile 2GB arasında olmalıdır: " + segmentSize);
+        }
+        directory = Path.of(properties.getDirectory()).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                        .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length())))
+                        .forEach(segmentIndexes::add);
+            }
+            active = segmentIndexes.isEmpty() ? createSegment(0) : recoverSegment(segmentIndexes.last());
+        } catch (IOException e) {
+            throw new LocationTrackingException("Konum günlüğü açılamadı. Dizin: " + directory, e);
+        }
+        running = true;
+        if (properties.getFsync() == Fsync.INTERVAL) {
+            syncThread = threadFactory.newThread("location-journal-fsync", this::runSyncer);
+            syncThread.start();
+        }
+        log.info("Konum günlüğü açıldı. Dizin: {}, Segment sayısı: {}, Segment boyutu: {}, Fsync: {}",
+                directory, segmentIndexes.size(), properties.getSegmentSize(), properties.getFsync());
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Konumu günlüğe ekler. Fsync ayarı {@code always} ise kayıt diske zorlanana kadar bekler.
+     *
+     * @param location Eklenecek konum
+     * @throws LocationTrackingException günlüğe yazılamadığında
+     */
+    public void append(CourierLocation location) {
+        appendAll(List.of(location));
+    }
+
+    /**
+     * Konumları verilen sırayla ve kesintisiz olarak günlüğe ekler. Fsync ayarı {@code always} ise
+     * tüm kayıtlar diske zorlanana kadar bekler.
+     *
+     * @param locations Eklenecek konumlar
+     * @throws LocationTrackingException günlüğe yazılamadığında
+     */
+    public void appendAll(List<CourierLocation> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        // Kodlama kilit dışında yapılır; kilit altında yalnızca kopyalama kalır
+        List<byte[]> ids = new ArrayList<>(locations.size());
+        for (CourierLocation location : locations) {
+            ids.add(encodeId(location.getCourierId()));
+        }
+        Segment segment;
+        int end;
+        writeLock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Konum günlüğü açık değil");
+            }
+            for (int i = 0; i < locations.size(); i++) {
+                write(locations.get(i), ids.get(i));
+            }
+            segment = active;
+            end = segment.end;
+        } finally {
+            writeLock.unlock();
+        }
+        appendedCounter.increment(locations.size());
+        if (properties.getFsync() == Fsync.ALWAYS) {
+            // Toplu yazma sırasında dolan segmentler geçişte zaten diske zorlanmıştır
+            sync(segment, end);
+        }
+    }
+
+    private byte[] encodeId(String courierId) {
+        byte[] id = courierId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > 0xFFFF) {
+            throw new IllegalArgumentException("Kurye ID 65535 bayttan uzun olamaz");
+        }
+        if (SEGMENT_HEADER_BYTES + RECORD_HEADER_BYTES + FIXED_PAYLOAD_BYTES + id.length
+                > properties.getSegmentSize().toBytes()) {
+            throw new IllegalArgumentException("Kurye ID günlük segmentine sığmayacak kadar uzun");
+        }
+        return id;
+    }
+
+    private void write(CourierLocation location, byte[] id) {
+        int payloadLength = FIXED_PAYLOAD_BYTES + id.length;
+        int recordLength = RECORD_HEADER_BYTES + payloadLength;
+        Segment segment = active;
+        if (segment.end + recordLength > segment.buffer.capacity()) {
+            segment = rotate();
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = segment.end;
+        int position = offset + RECORD_HEADER_BYTES;
+        buffer.putShort(position, (short) id.length);
+        buffer.put(position + Short.BYTES, id);
+        position += Short.BYTES + id.length;
+        buffer.putDouble(position, location.getLat());
+        buffer.putDouble(position + Double.BYTES, location.getLng());
+        buffer.putLong(position + 2 * Double.BYTES, location.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(position + 2 * Double.BYTES + Long.BYTES, location.getTimestamp().getNano());
+        buffer.putInt(offset + Integer.BYTES, crc(buffer, offset + RECORD_HEADER_BYTES, payloadLength));
+        buffer.putInt(offset, payloadLength);
+        segment.end = offset + recordLength;
+    }
+
+    /**
+     * Dolan segmenti diske zorlar ve yeni segmente geçer. Yazma kilidi altında çağrılır.
+     */
+    private Segment rotate() {
+        Segment previous = active;
+        if (properties.getFsync() != Fsync.NEVER) {
+            sync(previous, previous.end);
+        }
+        try {
+            active = createSegment(previous.index + 1);
+        } catch (IOException e) {
+            throw new LocationTrackingException("Yeni günlük segmenti oluşturulamadı. Sıra: " + (previous.index + 1), e);
+        }
+        log.debug("Günlük segmenti değişti. Yeni segment: {}", active.index);
+        return active;
+    }
+
+    /**
+     * Segmentin verilen konuma kadar olan kısmını diske zorlar. Zorlama sırasında başka çağıranların eklediği
+     * kayıtlar da kapsanır; onlar kilidi aldığında yeniden fsync yapmaz.
+     */
+    private void sync(Segment segment, int upTo) {
+        syncLock.lock();
+        try {
+            if (segment.synced >= upTo) {
+                return;
+            }
+            int end = segment.end;
+            long start = System.nanoTime();
+            segment.buffer.force(segment.synced, end - segment.synced);
+            fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            segment.synced = end;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void runSyncer() {
+        long intervalNanos = properties.getFsyncInterval().toNanos();
+        while (running) {
+            LockSupport.parkNanos(intervalNanos);
+            try {
+                Segment segment = active;
+                sync(segment, segment.end);
+            } catch (Exception e) {
+                log.error("Konum günlüğü diske zorlanamadı", e);
+            }
+        }
+    }
+
+    /**
+     * Günlükteki en eski kaydın konumu.
+     */
+    public Position getStartPosition() {
+        return new Position(segmentIndexes.first(), SEGMENT_HEADER_BYTES);
+    }
+
+    /**
+     * Günlüğe yazılan son kaydın hemen sonrası.
+     */
+    public Position getEndPosition() {
+        Segment segment = active;
+        return new Position(segment.index, segment.end);
+    }
+
+    /**
+     * Verilen konumdan günlük sonuna kadar kalan yaklaşık bayt sayısı.
+     */
+    public long bytesBehind(Position position) {
+        Position end = getEndPosition();
+        return (end.segment() - position.segment()) * properties.getSegmentSize().toBytes()
+                + end.offset() - position.offset();
+    }
+
+    /**
+     * Verilen konumdan itibaren kayıtları okuyan bir okuyucu açar. Okuyucu yazmalarla eşzamanlı kullanılabilir,
+     * ancak kendisi thread-safe değildir.
+     *
+     * @param from Okumaya başlanacak konum
+     * @return Okuyucu
+     */
+    public Cursor openCursor(Position from) {
+        return new Cursor(from);
+    }
+
+    /**
+     * Veritabanına tamamen yazılmış en eski segmentleri, saklanacak segment sayısı aşılmayacak kadar siler.
+     *
+     * @param appliedSegment Veritabanı yazıcısının bulunduğu segment; bundan öncekiler tamamen yazılmıştır
+     * @return Silinen segment sayısı
+     */
+    public int deleteAppliedSegments(long appliedSegment) {
+        int deleted = 0;
+        while (segmentIndexes.size() > Math.max(1, properties.getRetainedSegments())) {
+            long oldest = segmentIndexes.first();
+            if (oldest >= appliedSegment) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segmentPath(oldest));
+            } catch (IOException e) {
+                log.warn("Günlük segmenti silinemedi. Segment: {}", oldest, e);
+                break;
+            }
+            segmentIndexes.remove(oldest);
+            deleted++;
+        }
+        if (deleted > 0) {
+            log.debug("{} günlük segmenti silindi", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Yeni yazmaları durdurur ve etkin segmenti diske zorlar.
+     */
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            writeLock.unlock();
+        }
+        if (syncThread != null) {
+            LockSupport.unpark(syncThread);
+            try {
+                syncThread.join(properties.getFsyncInterval().toMillis() + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Segment segment = active;
+        sync(segment, segment.end);
+        log.info("Konum günlüğü kapatıldı. Son konum: {}", getEndPosition());
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(SEGMENT_PREFIX + "%020d".formatted(index) + SEGMENT_SUFFIX);
+    }
+
+    private Segment createSegment(long index) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, properties.getSegmentSize().toBytes());
+        }
+        buffer.putInt(0, SEGMENT_MAGIC);
+        buffer.putInt(Integer.BYTES, SEGMENT_VERSION);
+        segmentIndexes.add(index);
+        return new Segment(index, buffer, SEGMENT_HEADER_BYTES);
+    }
+
+    /**
+     * Son segmenti eşler, geçerli kayıtların sonunu bulur ve yarım kalmış kuyruğu sıfırlar.
+     * Segment boyutu ayarı değişmiş olsa bile dosya kendi boyutuyla kullanılır.
+     */
+    private Segment recoverSegment(long index) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segmentPath(index), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        checkHeader(buffer, index);
+        int end = SEGMENT_HEADER_BYTES;
+        int length;
+        while ((length = recordLength(buffer, end)) > 0) {
+            end += length;
+        }
+        if (end + Integer.BYTES <= buffer.capacity() && buffer.getInt(end) != 0) {
+            log.warn("Günlüğün son segmentinde yarım kalmış kayıt bulundu, kuyruk temizleniyor. Segment: {}, Konum: {}",
+                    index, end);
+            for (int i = end; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        return new Segment(index, buffer, end);
+    }
+
+    private static void checkHeader(ByteBuffer buffer, long index) {
+        if (buffer.capacity() < SEGMENT_HEADER_BYTES || buffer.getInt(0) != SEGMENT_MAGIC
+                || buffer.getInt(Integer.BYTES) != SEGMENT_VERSION) {
+            throw new IllegalStateException("Tanınmayan günlük segmenti. Segment: " + index);
+        }
+    }
+
+    /**
+     * Konumdaki kaydın başlık dahil uzunluğunu döner; kayıt yoksa veya bozuksa -1 döner.
+     */
+    private static int recordLength(ByteBuffer buffer, int offset) {
+        if (offset + RECORD_HEADER_BYTES + FIXED_PAYLOAD_BYTES > buffer.capacity()) {
+            return -1;
+        }
+        int payloadLength = buffer.getInt(offset);
+        if (payloadLength < FIXED_PAYLOAD_BYTES
+                || payloadLength > buffer.capacity() - offset - RECORD_HEADER_BYTES
+                || Short.toUnsignedInt(buffer.getShort(offset + RECORD_HEADER_BYTES)) + FIXED_PAYLOAD_BYTES != payloadLength
+                || crc(buffer, offset + RECORD_HEADER_BYTES, payloadLength) != buffer.getInt(offset + Integer.BYTES)) {
+            return -1;
+        }
+        return RECORD_HEADER_BYTES + payloadLength;
+    }
+
+    private static CourierLocation decode(ByteBuffer buffer, int offset) {
+        int position = offset + RECORD_HEADER_BYTES;
+        byte[] id = new byte[Short.toUnsignedInt(buffer.getShort(position))];
+        buffer.get(position + Short.BYTES, id);
+        position += Short.BYTES + id.length;
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(position + 2 * Double.BYTES),
+                buffer.getInt(position + 2 * Double.BYTES + Long.BYTES), ZoneOffset.UTC);
+        return new CourierLocation(new String(id, StandardCharsets.UTF_8),
+                buffer.getDouble(position), buffer.getDouble(position + Double.BYTES), timestamp);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Günlükteki bir kaydın başlangıcı: segment sırası ve segment içindeki bayt konumu.
+     */
+    public record Position(long segment, int offset) implements Comparable<Position> {
+        private static final Comparator<Position> ORDER =
+                Comparator.comparingLong(Position::segment).thenComparingInt(Position::offset);
+
+        @Override
+        public int compareTo(Position other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * Günlüğü sırayla okuyan okuyucu. Etkin segmentte yalnızca yazılması tamamlanmış kayıtları görür;
+     * kapanmış bir segmentin sonuna gelince sonraki segmente geçer.
+     */
+    public final class Cursor {
+        private long segment;
+        private int offset;
+        private ByteBuffer buffer;
+
+        private Cursor(Position from) {
+            this.segment = from.segment();
+            this.offset = from.offset();
+        }
+
+        /**
+         * Son okunan kaydın hemen sonrası.
+         */
+        public Position position() {
+            return new Position(segment, offset);
+        }
+
+        /**
+         * En fazla verilen sayıda kaydı okur. Günlüğün sonuna gelindiğinde daha az kayıt döner.
+         *
+         * @param maxRecords Okunacak en fazla kayıt sayısı
+         * @return Okunan konumlar, günlük sırasıyla
+         */
+        public List<CourierLocation> read(int maxRecords) {
+            List<CourierLocation> locations = new ArrayList<>(Math.min(maxRecords, 1024));
+            while (locations.size() < maxRecords) {
+                Segment current = active;
+                if (segment > current.index) {
+                    break;
+                }
+                boolean sealed = segment < current.index;
+                int limit = sealed ? Integer.MAX_VALUE : current.end;
+                if (offset >= limit) {
+                    break;
+                }
+                ByteBuffer segmentBuffer = buffer(current);
+                int length = recordLength(segmentBuffer, offset);
+                if (length > 0) {
+                    locations.add(decode(segmentBuffer, offset));
+                    offset += length;
+                    continue;
+                }
+                if (!sealed) {
+                    // Etkin segmentte yazılması tamamlanan kayıtlar her zaman geçerlidir
+                    throw new IllegalStateException("Günlük kaydı okunamadı. Konum: " + position());
+                }
+                if (offset + Integer.BYTES <= segmentBuffer.capacity() && segmentBuffer.getInt(offset) != 0) {
+                    log.warn("Bozuk günlük kaydı, segmentin kalanı atlanıyor. Konum: {}", position());
+                }
+                segment++;
+                offset = SEGMENT_HEADER_BYTES;
+                buffer = null;
+            }
+            return locations;
+        }
+
+        private ByteBuffer buffer(Segment current) {
+            if (buffer != null) {
+                return buffer;
+            }
+            if (segment == current.index) {
+                buffer = current.buffer.asReadOnlyBuffer();
+                return buffer;
+            }
+            try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new LocationTrackingException("Günlük segmenti okunamadı. Segment: " + segment, e);
+            }
+            checkHeader(buffer, segment);
+            return buffer;
+        }
+    }
+
+    private static final class Segment {
+        private final long index;
+        private final MappedByteBuffer buffer;
+        private volatile int end;
+        // syncLock altında güncellenir
+        private int synced;
+
+        private Segment(long index, MappedByteBuffer buffer, int end) {
+            this.index = index;
+            this.buffer = buffer;
+            this.end = end;
+        }
+    }
+}
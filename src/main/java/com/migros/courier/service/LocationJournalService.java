@@ -0,0 +1,226 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.LocationJournalProperties;
+import com.migros.courier.dto.LocationPoint;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.model.LocationJournalCheckpoint;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
+import com.migros.courier.repository.LocationJournalCheckpointRepository;
+import com.migros.courier.service.LocationJournal.Cursor;
+import com.migros.courier.service.LocationJournal.Position;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Konum günlüğünü açılışta yeniden oynatan ve arka planda veritabanına yazan servis.
+ * <p>
+ * Açılışta saklanan tüm segmentler baştan okunur ve kurye toplam mesafeleri ile son konumları yeniden kurulur.
+ * Servis snapshot kurtarmasından sonra başlatılır; kuryenin son konumundan eski veya eşit zamanlı noktalar
+ * atlandığı için snapshot'ın ya da veritabanının zaten kapsadığı noktalar iki kez sayılmaz.
+ * <p>
+ * Veritabanı yazıcısı günlüğü kaldığı yerden okur; her batch, günlükteki yeni konumla birlikte tek transaction'da
+ * yazılır. Tamamen yazılmış segmentler, saklanacak segment sayısını aşanlar silinerek temizlenir.
+ */
+@Slf4j
+@Service
+@DependsOn("courierStateSnapshotService")
+public class LocationJournalService {
+    private static final String METRIC_PREFIX = "courier.location.journal";
+
+    private final LocationJournal journal;
+    private final LocationTrackingService locationTrackingService;
+    private final CourierLocationJdbcWriter jdbcWriter;
+    private final LocationJournalCheckpointRepository checkpointRepository;
+    private final LocationJournalProperties properties;
+    private final BackgroundThreadFactory threadFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter appliedCounter;
+    private final Counter failedCounter;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Position appliedPosition;
+    private volatile boolean running;
+    private Thread applierThread;
+
+    public LocationJournalService(LocationJournal journal,
+                                  LocationTrackingService locationTrackingService,
+                                  CourierLocationJdbcWriter jdbcWriter,
+                                  LocationJournalCheckpointRepository checkpointRepository,
+                                  LocationJournalProperties properties,
+                                  BackgroundThreadFactory threadFactory,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.locationTrackingService = locationTrackingService;
+        this.jdbcWriter = jdbcWriter;
+        this.checkpointRepository = checkpointRepository;
+        this.properties = properties;
+        this.threadFactory = threadFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.appliedCounter = Counter.builder(METRIC_PREFIX + ".applied")
+                .description("Günlükten veritabanına yazılan konum sayısı")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder(METRIC_PREFIX + ".apply.failed")
+                .description("Günlükten veritabanına yazılamayan batch sayısı")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Uygulama açılırken, istek kabul edilmeden önce kurye durumunu günlükten kurar ve
+     * veritabanı yazıcısını başlatır.
+     */
+    @PostConstruct
+    public void start() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        replay();
+        appliedPosition = loadCheckpoint();
+        Gauge.builder(METRIC_PREFIX + ".apply.lag", this, service -> journal.bytesBehind(service.appliedPosition))
+                .description("Günlükte veritabanına yazılmayı bekleyen yaklaşık bayt sayısı")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        running = true;
+        applierThread = threadFactory.newThread("location-journal-applier", this::runApplier);
+        applierThread.start();
+    }
+
+    /**
+     * Saklanan tüm günlük kayıtlarını kurye durumuna uygular.
+     *
+     * @return Yeniden oynatma özeti
+     */
+    public ReplayResult replay() {
+        long start = System.nanoTime();
+        Cursor cursor = journal.openCursor(journal.getStartPosition());
+        int records = 0;
+        int applied = 0;
+        List<CourierLocation> batch;
+        while (!(batch = cursor.read(properties.getApplyBatchSize())).isEmpty()) {
+            for (CourierLocation location : batch) {
+                records++;
+                if (locationTrackingService.replayLocation(new LocationPoint(location.getCourierId(),
+                        location.getLat(), location.getLng(), location.getTimestamp()))) {
+                    applied++;
+                }
+            }
+        }
+        ReplayResult result = new ReplayResult(records, applied, (System.nanoTime() - start) / 1_000_000);
+        log.info("Konum günlüğü yeniden oynatıldı. Okunan: {}, Uygulanan: {}, Süre: {}ms",
+                result.records(), result.applied(), result.durationMillis());
+        return result;
+    }
+
+    public Position getAppliedPosition() {
+        return appliedPosition;
+    }
+
+    /**
+     * Veritabanına en son yazılan konumu okur. Kayıt yoksa (ör. in-memory veritabanı yeniden başladıysa)
+     * saklanan günlüğün tamamı yeniden yazılır.
+     */
+    private Position loadCheckpoint() {
+        Position start = journal.getStartPosition();
+        LocationJournalCheckpoint checkpoint = checkpointRepository.findByJournal(journalName()).orElse(null);
+        if (checkpoint == null) {
+            return start;
+        }
+        Position position = new Position(checkpoint.getSegment(), checkpoint.getOffset());
+        if (position.compareTo(start) < 0 || position.compareTo(journal.getEndPosition()) > 0) {
+            log.warn("Günlük checkpoint'i günlük aralığı dışında, günlük baştan yazılacak. Checkpoint: {}", position);
+            return start;
+        }
+        log.info("Konum günlüğü veritabanına {} konumundan itibaren yazılacak", position);
+        return position;
+    }
+
+    private String journalName() {
+        return journal.getDirectory().toString();
+    }
+
+    private void runApplier() {
+        Cursor cursor = journal.openCursor(appliedPosition);
+        long intervalNanos = properties.getApplyInterval().toNanos();
+        while (running) {
+            try {
+                if (applyNext(cursor) == 0) {
+                    LockSupport.parkNanos(intervalNanos);
+                }
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("Günlük kayıtları veritabanına yazılamadı. Konum: {}", appliedPosition, e);
+                // Geri alınan batch, son checkpoint'ten yeniden okunur
+                cursor = journal.openCursor(appliedPosition);
+                LockSupport.parkNanos(intervalNanos);
+            }
+        }
+        // Kapanışta günlükte kalan kayıtlar yazılır
+        try {
+            while (applyNext(cursor) > 0) {
+                // Günlük sonuna kadar devam edilir
+            }
+        } catch (Exception e) {
+            log.warn("Kapanışta günlüğün kalanı veritabanına yazılamadı, sonraki açılışta yazılacak. Konum: {}",
+                    appliedPosition, e);
+        }
+    }
+
+    /**
+     * Sıradaki batch'i ve yeni checkpoint'i tek transaction'da yazar.
+     *
+     * @return Yazılan konum sayısı
+     */
+    private int applyNext(Cursor cursor) {
+        List<CourierLocation> batch = cursor.read(properties.getApplyBatchSize());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Position next = cursor.position();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcWriter.insertAll(batch);
+            LocationJournalCheckpoint checkpoint = checkpointRepository.findByJournal(journalName())
+                    .orElseGet(() -> new LocationJournalCheckpoint(journalName()));
+            checkpoint.setSegment(next.segment());
+            checkpoint.setOffset(next.offset());
+            checkpointRepository.save(checkpoint);
+        });
+        appliedPosition = next;
+        appliedCounter.increment(batch.size());
+        journal.deleteAppliedSegments(next.segment());
+        return batch.size();
+    }
+
+    /**
+     * Veritabanı yazıcısını durdurur; yazıcı günlükte kalan kayıtları yazdıktan sonra kapanır.
+     */
+    @PreDestroy
+    public void stop() {
+        if (applierThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(applierThread);
+        try {
+            applierThread.join(30_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Günlük veritabanı yazıcısı kapatıldı. Son konum: {}", appliedPosition);
+    }
+
+    public record ReplayResult(int records, int applied, long durationMillis) {
+    }
+}
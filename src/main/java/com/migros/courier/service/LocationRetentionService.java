@@ -0,0 +1,211 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.LocationPartitioningProperties;
+import com.migros.courier.dto.CourierHourlySummaryResponse;
+import com.migros.courier.dto.LocationPoint;
+import com.migros.courier.model.CourierLocationHourlySummary;
+import com.migros.courier.model.LocationPartitionRollup;
+import com.migros.courier.repository.CourierLocationHourlySummaryJdbcWriter;
+import com.migros.courier.repository.CourierLocationHourlySummaryRepository;
+import com.migros.courier.repository.LocationPartitionRepository;
+import com.migros.courier.repository.LocationPartitionRollupRepository;
+import com.migros.courier.util.DistanceCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Günlük konum tablolarının bakımını yapan servis.
+ * <p>
+ * Saklama penceresindeki günlerin ve yarının tabloları önceden hazırlanır; yazma yolunda DDL çalıştırılmaz.
+ * Saklama süresi dolan her gün önce kurye/saat özetlerine eklenir, ardından tablosu silinir. Süresi dolmuş
+ * bir güne sonradan gelen konumlar tablo açılmadan aynı özetlere eklenir; özetler hiçbir zaman silinip
+ * yeniden üretilmez. Özetlenen gün, özetlerle aynı transaction'da işaretlenir; tablo silinmeden önce
+ * yarıda kalan bir bakım, sonraki çalışmada günü ikinci kez eklemez. Saklama penceresi, günler özetlenmeden
+ * önce ilerletilir; yazıcıların kilidi beklendiği için özetlenen tabloya sonradan satır eklenmez. Tablosu
+ * hazırlanmamış günler için ana tabloya yazılan konumlar da süresi dolunca aynı transaction'da özetlenip silinir.
+ * <p>
+ * Mesafe, aynı gün içindeki ardışık noktalar arasında hesaplanır ve segmentin bittiği saate yazılır;
+ * gece yarısını geçen tek segment, iki gün ayrı tablolarda olduğu için özete katılmaz.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LocationRetentionService {
+    private final LocationPartitionRepository partitionRepository;
+    private final CourierLocationHourlySummaryRepository summaryRepository;
+    private final CourierLocationHourlySummaryJdbcWriter summaryWriter;
+    private final LocationPartitionRollupRepository rollupRepository;
+    private final LocationPartitioningProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${courier.location.partitioning.maintenance-interval-ms:3600000}",
+            initialDelayString = "${courier.location.partitioning.maintenance-interval-ms:3600000}")
+    public void scheduledMaintenance() {
+        if (properties.isEnabled()) {
+            runMaintenance(LocalDate.now());
+        }
+    }
+
+    /**
+     * Tabloları hazırlar, saklama süresi dolan günleri özetleyip siler.
+     *
+     * @param today Bakımın referans günü
+     * @return Bakım sonucu
+     */
+    public MaintenanceResult runMaintenance(LocalDate today) {
+        LocalDate cutoff = partitionRepository.preparePartitions(today);
+        int droppedPartitions = 0;
+        int summaries = 0;
+        for (LocalDate day : partitionRepository.findPartitions()) {
+            if (!day.isBefore(cutoff)) {
+                break;
+            }
+            summaries += rollUp(day);
+            partitionRepository.dropPartition(day);
+            transactionTemplate.executeWithoutResult(status -> rollupRepository.deleteByPartitionDay(day));
+            droppedPartitions++;
+        }
+        if (droppedPartitions > 0) {
+            log.info("Saklama süresi dolan {} günlük konum tablosu {} saatlik özete indirgenip silindi",
+                    droppedPartitions, summaries);
+        }
+        summaries += rollUpBaseTable(cutoff.atStartOfDay());
+        return new MaintenanceResult(droppedPartitions, summaries);
+    }
+
+    /**
+     * Bir günün ham konumlarını kurye/saat özetlerine ekler. Gün daha önce özetlenmişse tekrar eklenmez.
+     * Konumlar kurye sırasıyla okunduğu için bellekte aynı anda yalnızca bir kuryenin saatleri tutulur.
+     *
+     * @param day Gün
+     * @return Eklenen özet sayısı
+     */
+    public int rollUp(LocalDate day) {
+        Integer count = transactionTemplate.execute(status -> {
+            if (rollupRepository.existsByPartitionDay(day)) {
+                return 0;
+            }
+            HourlyAccumulator accumulator = new HourlyAccumulator();
+            try (Stream<LocationPoint> points = partitionRepository.streamPartition(day)) {
+                points.forEach(accumulator::add);
+            }
+            rollupRepository.save(new LocationPartitionRollup(day));
+            return accumulator.finish();
+        });
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Ana tablodaki saklama süresi dolmuş konumları özetlere ekler ve siler. İkisi aynı transaction'da
+     * yapıldığı için konumlar iki kez eklenmez.
+     *
+     * @param cutoff Bu zamandan eski konumlar özetlenir
+     * @return Eklenen özet sayısı
+     */
+    private int rollUpBaseTable(LocalDateTime cutoff) {
+        Integer count = transactionTemplate.execute(status -> {
+            HourlyAccumulator accumulator = new HourlyAccumulator();
+            try (Stream<LocationPoint> points = partitionRepository.streamBaseTableBefore(cutoff)) {
+                points.forEach(accumulator::add);
+            }
+            int summaries = accumulator.finish();
+            int deleted = partitionRepository.deleteBaseTableBefore(cutoff);
+            if (deleted > 0) {
+                log.info("Ana tablodaki saklama süresi dolan {} konum {} saatlik özete indirgenip silindi",
+                        deleted, summaries);
+            }
+            return summaries;
+        });
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Kuryenin verilen aralıktaki saatlik özetlerini getirir.
+     *
+     * @param courierId Kurye ID
+     * @param from      Başlangıç (dahil)
+     * @param to        Bitiş (hariç)
+     * @return Saat sırasıyla özetler
+     */
+    public List<CourierHourlySummaryResponse> getHourlySummaries(String courierId, LocalDateTime from,
+                                                                 LocalDateTime to) {
+        return summaryRepository
+                .findByCourierIdAndHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStart(courierId, from, to)
+                .stream()
+                .map(summary -> new CourierHourlySummaryResponse(summary.getHourStart(), summary.getPointCount(),
+                        summary.getDistanceMeters(), summary.getMinLat(), summary.getMaxLat(),
+                        summary.getMinLng(), summary.getMaxLng(),
+                        summary.getFirstTimestamp(), summary.getLastTimestamp()))
+                .toList();
+    }
+
+    /**
+     * Kurye ve konum zamanı sırasıyla gelen noktalardan saatlik özetler üretir.
+     * Kurye değiştiğinde önceki kuryenin özetleri kaydedilir.
+     */
+    private final class HourlyAccumulator {
+        private final Map<LocalDateTime, CourierLocationHourlySummary> hours = new LinkedHashMap<>();
+        private LocationPoint previous;
+        private int saved;
+
+        void add(LocationPoint point) {
+            if (previous != null && !previous.courierId().equals(point.courierId())) {
+                flush();
+            }
+            LocalDateTime hourStart = point.timestamp().truncatedTo(ChronoUnit.HOURS);
+            CourierLocationHourlySummary summary = hours.get(hourStart);
+            if (summary == null) {
+                summary = new CourierLocationHourlySummary();
+                summary.setCourierId(point.courierId());
+                summary.setHourStart(hourStart);
+                summary.setMinLat(point.lat());
+                summary.setMaxLat(point.lat());
+                summary.setMinLng(point.lng());
+                summary.setMaxLng(point.lng());
+                summary.setFirstTimestamp(point.timestamp());
+                hours.put(hourStart, summary);
+            } else {
+                summary.setMinLat(Math.min(summary.getMinLat(), point.lat()));
+                summary.setMaxLat(Math.max(summary.getMaxLat(), point.lat()));
+                summary.setMinLng(Math.min(summary.getMinLng(), point.lng()));
+                summary.setMaxLng(Math.max(summary.getMaxLng(), point.lng()));
+            }
+            summary.setPointCount(summary.getPointCount() + 1);
+            summary.setLastTimestamp(point.timestamp());
+            if (previous != null) {
+                summary.setDistanceMeters(summary.getDistanceMeters() + DistanceCalculator.calculateDistance(
+                        previous.lat(), previous.lng(), point.lat(), point.lng()));
+            }
+            previous = point;
+        }
+
+        int finish() {
+            flush();
+            return saved;
+        }
+
+        private void flush() {
+            if (!hours.isEmpty()) {
+                summaryWriter.mergeAll(new ArrayList<>(hours.values()));
+                saved += hours.size();
+                hours.clear();
+            }
+            previous = null;
+        }
+    }
+
+    public record MaintenanceResult(int droppedPartitions, int summaries) {
+    }
+}
@@ -1,18 +1,32 @@
 package com.migros.courier.service;
 
+import com.migros.courier.dto.LocationBatchItemResult;
+import com.migros.courier.dto.LocationPoint;
+import com.migros.courier.dto.StoreInfo;
 import com.migros.courier.exception.LocationTrackingException;
 import com.migros.courier.model.CourierLocation;
-import com.migros.courier.model.Store;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
 import com.migros.courier.repository.CourierLocationRepository;
-import com.migros.courier.util.DistanceCalculator;
+import com.migros.courier.service.TrackingMetrics.Source;
+import com.migros.courier.service.TrackingMetrics.Stage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Kurye lokasyon takibi ve mağaza ziyaretlerini yöneten servis.
@@ -22,45 +36,80 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 @RequiredArgsConstructor
 public class LocationTrackingService {
-    private static final double STORE_RADIUS_METERS = 100.0;
 
     private final StoreService storeService;
     private final CourierLocationRepository courierLocationRepository;
+    private final LocationWriteBehindBuffer writeBehindBuffer;
+    private final LocationJournal locationJournal;
+    private final CourierLocationJdbcWriter jdbcWriter;
+    private final TrackingMetrics trackingMetrics;
+    private final CourierShardExecutor shardExecutor;
+    private final TrajectorySimplifier trajectorySimplifier;
+    private final TransactionTemplate transactionTemplate;
+    private final CourierStateStore courierStateStore;
+    private final CourierClusterService clusterService;
 
-    // Thread-safe önbellekler
-    private final Map<String, CourierLocation> lastLocations = new ConcurrentHashMap<>();
+    @PostConstruct
+    public void registerGauges() {
+        trackingMetrics.registerSizeGauge("courier_states.size", "Son konumu ve toplam mesafesi bellekte tutulan kurye sayısı",
+                courierStateStore, CourierStateStore::size);
+        trackingMetrics.registerSizeGauge("courier_states.bytes", "Kurye durum dizilerinin yaklaşık bellek kullanımı (bayt)",
+                courierStateStore, CourierStateStore::estimatedBytes);
+        trackingMetrics.registerFunctionCounter("courier_states.hits", "Bellekte bulunan kurye durumu erişimleri",
+                courierStateStore, CourierStateStore::getHitCount);
+        trackingMetrics.registerFunctionCounter("courier_states.misses", "Bellekte bulunmayan kurye durumu erişimleri",
+                courierStateStore, CourierStateStore::getMissCount);
+        trackingMetrics.registerFunctionCounter("courier_states.loads", "Veritabanından yeniden yüklenen kurye durumları",
+                courierStateStore, CourierStateStore::getLoadCount);
+        trackingMetrics.registerFunctionCounter("courier_states.evictions", "Boşta kaldığı için bellekten çıkarılan kuryeler",
+                courierStateStore, CourierStateStore::getEvictionCount);
+    }
 
     /**
      * Kurye lokasyonunu takip eder ve ilgili işlemleri gerçekleştirir.
      * 1. Toplam mesafeyi günceller
      * 2. Mağaza ziyaretlerini kontrol eder
      * 3. Lokasyonu veritabanına kaydeder
+     * <p>
+     * Sharding etkinse bu adımlar kuryenin shard iş parçacığında, kendi transaction'ı içinde çalışır;
+     * aynı kuryenin eşzamanlı bildirimleri böylece sırayla işlenir. Write-behind ve günlük modlarında
+     * tampona veya günlüğe ekleme, shard'ı bekletmemek için çağıran iş parçacığında yapılır.
+     * <p>
+     * Küme modunda kurye başka bir düğüme aitse konum o düğüme iletilir.
      *
      * @param location Kurye lokasyon bilgisi
      * @throws RuntimeException lokasyon takibi başarısız olduğunda
      */
-    @Transactional
     public void trackLocation(CourierLocation location) {
+        trackingMetrics.incrementPings(Source.SINGLE);
+        long validationStart = System.nanoTime();
         validateCoordinates(location);  // Koordinat validasyonu eklendi
+        trackingMetrics.recordStage(Stage.VALIDATION, validationStart);
         try {
+            Optional<String> owner = clusterService.remoteOwner(location.getCourierId());
+            if (owner.isPresent()) {
+                clusterService.forward(owner.get(), List.of(location));
+                return;
+            }
             log.debug("Konum takibi başladı - Kurye: {}", location.getCourierId());
 
-            // Toplam mesafeyi güncelle
-            updateTotalDistance(location);
-
-            // Yakındaki mağazaları kontrol et
-            List<Store> nearbyStores = findNearbyStores(location);
+            boolean deferred = isPersistenceDeferred();
+            List<CourierLocation> retained = shardExecutor.execute(location.getCourierId(), () ->
+                    executeReverting(List.of(location.getCourierId()), () -> transactionTemplate.execute(status -> {
+                        // Mesafe ve mağaza ziyaretlerini her ham konumla işle
+                        processLocation(location);
 
-            // Yakında mağaza varsa ziyaretleri işle
-            if (!nearbyStores.isEmpty()) {
-                log.debug("Kurye {} için {} mağaza yakında bulundu",
-                        location.getCourierId(), nearbyStores.size());
-                processStoreVisits(nearbyStores, location);
+                        // Sadeleştirme sonrası kalan konumları kaydet
+                        List<CourierLocation> toStore = trajectorySimplifier.simplify(location);
+                        if (!deferred) {
+                            toStore.forEach(this::saveLocation);
+                        }
+                        return toStore;
+                    })));
+            if (deferred) {
+                retained.forEach(this::saveLocation);
             }
 
-            // Konumu kaydet
-            saveLocation(location);
-
         } catch (Exception e) {
             log.error("Konum takibi başarısız - Kurye: {}", location.getCourierId(), e);
             throw new LocationTrackingException(
@@ -70,6 +119,261 @@ public class LocationTrackingService {
         }
     }
 
+    /**
+     * Birden fazla kuryeye ait konumları tek seferde işler.
+     * Noktalar kuryeye göre gruplanır, her kuryenin noktaları zaman sırasına dizilir ve
+     * mesafe/mağaza ziyareti adımlarından geçirilir. Geçerli konumlar toplu olarak kaydedilir.
+     * <p>
+     * Sharding etkinse kuryeler shard'larına göre bölünür ve her shard kendi kuryelerini kendi
+     * transaction'ında işler. Bir shard başarısız olursa yalnızca o shard'ın transaction'ı geri alınır,
+     * kuryelerinin bellekteki durumu işlem öncesine döndürülür ve noktaları {@code FAILED} olarak işaretlenir;
+     * diğer shard'ların noktaları kaydedilmiş kalır. İstemci yalnızca {@code FAILED} noktaları yeniden
+     * göndermelidir. Sharding kapalıyken tüm grup tek transaction'dadır.
+     * <p>
+     * Geçersiz noktalar tüm isteği bozmaz; ilgili sonuç {@code REJECTED} olarak işaretlenir.
+     * <p>
+     * Küme modunda başka düğümlere ait kuryelerin noktaları, yerel shard'lar çalışırken sahip düğümlere
+     * düğüm başına tek istekle iletilir; sonuçları aynı sırayla bu yanıta eklenir. İletilemeyen noktalar
+     * {@code FAILED} olarak işaretlenir.
+     *
+     * @param locations Kurye konumları (farklı kuryelere ait olabilir, sırasız gelebilir)
+     * @return Her nokta için istek sırasıyla işlem sonucu
+     * @throws LocationTrackingException kayıt sırasında hata oluştuğunda
+     */
+    public List<LocationBatchItemResult> trackLocations(List<CourierLocation> locations) {
+        return trackLocations(locations, true);
+    }
+
+    /**
+     * Başka bir küme düğümünün bu düğüme ilettiği konumları işler. Görünümler arasında geçici bir fark olsa
+     * bile konumlar yeniden iletilmez; böylece düğümler arasında döngü oluşmaz.
+     *
+     * @param locations Kurye konumları
+     * @return Her nokta için istek sırasıyla işlem sonucu
+     * @throws LocationTrackingException kayıt sırasında hata oluştuğunda
+     */
+    public List<LocationBatchItemResult> trackForwardedLocations(List<CourierLocation> locations) {
+        return trackLocations(locations, false);
+    }
+
+    private List<LocationBatchItemResult> trackLocations(List<CourierLocation> locations, boolean route) {
+        LocationBatchItemResult[] results = new LocationBatchItemResult[locations.size()];
+        Map<String, List<Integer>> indexesByCourier = groupByCourier(locations, results);
+        Map<String, List<Integer>> indexesByRemoteOwner = route ? takeRemoteCouriers(indexesByCourier) : Map.of();
+
+        Map<Integer, List<List<Integer>>> groupsByShard = new LinkedHashMap<>();
+        indexesByCourier.forEach((courierId, courierIndexes) -> groupsByShard
+                .computeIfAbsent(shardExecutor.shardOf(courierId), k -> new ArrayList<>())
+                .add(courierIndexes));
+
+        List<CourierLocation> retained = new ArrayList<>(locations.size());
+        try {
+            boolean deferred = isPersistenceDeferred();
+            Map<Integer, CompletableFuture<List<CourierLocation>>> shardResults = new LinkedHashMap<>();
+            groupsByShard.forEach((shard, courierGroups) -> shardResults.put(shard, submitShard(shard, () ->
+                    executeReverting(courierIds(locations, courierGroups), () -> transactionTemplate.execute(status ->
+                            processCourierGroups(locations, courierGroups, results, !deferred))))));
+            // Uzak düğümlere iletim, yerel shard'lar çalışırken bu iş parçacığında yapılır
+            indexesByRemoteOwner.forEach((owner, indexes) -> forwardLocations(owner, locations, indexes, results));
+            // Her shard'ın sonucu ayrı beklenir; başarısız shard yalnızca kendi noktalarını etkiler
+            for (Map.Entry<Integer, CompletableFuture<List<CourierLocation>>> shardResult : shardResults.entrySet()) {
+                try {
+                    retained.addAll(CourierShardExecutor.await(shardResult.getValue()));
+                } catch (RuntimeException e) {
+                    List<List<Integer>> courierGroups = groupsByShard.get(shardResult.getKey());
+                    log.error("Shard konumları işlenemedi - Shard: {}, Kurye sayısı: {}",
+                            shardResult.getKey(), courierGroups.size(), e);
+                    courierGroups.forEach(indexes -> markFailed(locations, indexes, results));
+                }
+            }
+
+            if (deferred) {
+                saveLocations(retained);
+            }
+
+        } catch (Exception e) {
+            log.error("Toplu konum takibi başarısız - Nokta sayısı: {}", locations.size(), e);
+            throw new LocationTrackingException(
+                    String.format("Toplu konum takibi başarısız. Nokta sayısı: %d", locations.size()),
+                    e
+            );
+        }
+
+        log.debug("Toplu konum takibi tamamlandı - Toplam: {}, Kaydedilen: {}, Kurye sayısı: {}",
+                locations.size(), retained.size(), indexesByCourier.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Başka düğümlere ait kuryeleri gruptan çıkarır ve noktalarını sahip düğüme göre döndürür.
+     */
+    private Map<String, List<Integer>> takeRemoteCouriers(Map<String, List<Integer>> indexesByCourier) {
+        Map<String, List<Integer>> indexesByOwner = new LinkedHashMap<>();
+        indexesByCourier.entrySet().removeIf(courier -> {
+            Optional<String> owner = clusterService.remoteOwner(courier.getKey());
+            owner.ifPresent(node -> indexesByOwner.computeIfAbsent(node, k -> new ArrayList<>())
+                    .addAll(courier.getValue()));
+            return owner.isPresent();
+        });
+        return indexesByOwner;
+    }
+
+    /**
+     * Noktaları sahip düğüme iletir ve dönen sonuçları istekteki sıralarıyla yerleştirir.
+     */
+    private void forwardLocations(String owner, List<CourierLocation> locations, List<Integer> indexes,
+                                  LocationBatchItemResult[] results) {
+        List<CourierLocation> forwarded = new ArrayList<>(indexes.size());
+        indexes.forEach(index -> forwarded.add(locations.get(index)));
+        List<LocationBatchItemResult> forwardedResults;
+        try {
+            forwardedResults = clusterService.forward(owner, forwarded);
+        } catch (RuntimeException e) {
+            log.error("Konumlar sahip düğüme iletilemedi - Düğüm: {}, Nokta sayısı: {}", owner, indexes.size(), e);
+            markFailed(locations, indexes, results);
+            return;
+        }
+        for (LocationBatchItemResult result : forwardedResults) {
+            int index = indexes.get(result.getIndex());
+            result.setIndex(index);
+            results[index] = result;
+        }
+    }
+
+    private <T> CompletableFuture<T> submitShard(int shard, Supplier<T> task) {
+        try {
+            return shardExecutor.submit(shard, task);
+        } catch (RuntimeException e) {
+            // Sharding kapalıyken görev burada çalışır; kuyruk doluysa da hata yalnızca bu shard'ı etkiler
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Görevi çalıştırır; görev başarısız olursa kuryelerin bellekteki durumunu (son konum, toplam mesafe) ve
+     * rota sadeleştirme durumunu görevden önceki haline döndürür. Geri alınan transaction'ın noktaları yeniden
+     * gönderildiğinde mesafe iki kez eklenmez, sadeleştiricinin kaydedilmemiş noktaları da kaybolmaz. Görev
+     * kuryelerin shard iş parçacığında çalıştığı için arada başka güncelleme olmaz.
+     */
+    private <T> T executeReverting(List<String> courierIds, Supplier<T> task) {
+        Map<String, CourierState> previous = new HashMap<>();
+        courierIds.forEach(courierId -> previous.put(courierId, courierStateStore.peek(courierId)));
+        TrajectorySimplifier.Snapshot tracks = trajectorySimplifier.snapshot(courierIds);
+        try {
+            return task.get();
+        } catch (RuntimeException e) {
+            previous.forEach(courierStateStore::revert);
+            trajectorySimplifier.restore(tracks);
+            throw e;
+        }
+    }
+
+    private static List<String> courierIds(List<CourierLocation> locations, List<List<Integer>> courierGroups) {
+        return courierGroups.stream().map(indexes -> locations.get(indexes.getFirst()).getCourierId()).toList();
+    }
+
+    private static void markFailed(List<CourierLocation> locations, List<Integer> indexes,
+                                   LocationBatchItemResult[] results) {
+        for (int index : indexes) {
+            results[index] = LocationBatchItemResult.failed(index, locations.get(index).getCourierId(),
+                    "Konum işlenemedi, yeniden gönderilebilir");
+        }
+    }
+
+    /**
+     * Aynı shard'a düşen kuryelerin noktalarını zaman sırasıyla işler.
+     *
+     * @param persist true ise sadeleştirme sonrası kalan konumlar bu transaction içinde kaydedilir
+     * @return Sadeleştirme sonrası kaydedilecek konumlar
+     */
+    private List<CourierLocation> processCourierGroups(List<CourierLocation> locations,
+                                                       List<List<Integer>> courierGroups,
+                                                       LocationBatchItemResult[] results,
+                                                       boolean persist) {
+        List<CourierLocation> retained = new ArrayList<>();
+        for (List<Integer> courierIndexes : courierGroups) {
+            // Aynı kuryenin noktaları zaman sırasıyla işlenmelidir; sıralama kararlıdır
+            courierIndexes.sort(Comparator.comparing(i -> locations.get(i).getTimestamp()));
+            for (int index : courierIndexes) {
+                CourierLocation location = locations.get(index);
+                int storeEntries = processLocation(location);
+                retained.addAll(trajectorySimplifier.simplify(location));
+                results[index] = LocationBatchItemResult.accepted(index, location.getCourierId(), storeEntries);
+            }
+        }
+        if (persist) {
+            saveLocations(retained);
+        }
+        return retained;
+    }
+
+    /**
+     * Geçerli noktaların indekslerini kuryeye göre gruplar; geçersiz noktalar için
+     * sonuç dizisine doğrudan {@code REJECTED} yazar.
+     */
+    private Map<String, List<Integer>> groupByCourier(List<CourierLocation> locations,
+                                                      LocationBatchItemResult[] results) {
+        Map<String, List<Integer>> indexesByCourier = new LinkedHashMap<>();
+        for (int i = 0; i < locations.size(); i++) {
+            CourierLocation location = locations.get(i);
+            trackingMetrics.incrementPings(Source.BATCH);
+            long validationStart = System.nanoTime();
+            String rejection = validateBatchItem(location);
+            trackingMetrics.recordStage(Stage.VALIDATION, validationStart);
+            if (rejection != null) {
+                results[i] = LocationBatchItemResult.rejected(i,
+                        location == null ? null : location.getCourierId(), rejection);
+                continue;
+            }
+            indexesByCourier.computeIfAbsent(location.getCourierId(), k -> new ArrayList<>()).add(i);
+        }
+        return indexesByCourier;
+    }
+
+    private String validateBatchItem(CourierLocation location) {
+        if (location == null) {
+            return "Konum bilgisi boş olamaz";
+        }
+        if (location.getCourierId() == null || location.getCourierId().isBlank()) {
+            return "Kurye ID boş olamaz";
+        }
+        if (location.getTimestamp() == null) {
+            return "Zaman bilgisi boş olamaz";
+        }
+        try {
+            validateCoordinates(location);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * Tek bir konum için mesafe güncellemesi ve mağaza ziyareti kontrolünü yapar.
+     *
+     * @param location Kurye konumu
+     * @return Bu konum için kaydedilen mağaza girişi sayısı
+     */
+    private int processLocation(CourierLocation location) {
+        // Toplam mesafeyi güncelle
+        long start = System.nanoTime();
+        updateTotalDistance(location);
+        trackingMetrics.recordStage(Stage.UPDATE_TOTAL_DISTANCE, start);
+
+        // Yakındaki mağazaları kontrol et
+        start = System.nanoTime();
+        List<StoreInfo> nearbyStores = findNearbyStores(location);
+        trackingMetrics.recordStage(Stage.FIND_NEARBY_STORES, start);
+
+        // Yakında mağaza varsa ziyaretleri işle
+        if (nearbyStores.isEmpty()) {
+            return 0;
+        }
+        log.debug("Kurye {} için {} mağaza yakında bulundu",
+                location.getCourierId(), nearbyStores.size());
+        return processStoreVisits(nearbyStores, location);
+    }
+
     /**
      * Kuryenin kat ettiği toplam mesafeyi günceller.
      * Son konum ile yeni konum arasındaki mesafeyi hesaplar.
@@ -77,77 +381,182 @@ public class LocationTrackingService {
      * @param currentLocation Güncel kurye konumu
      */
     private void updateTotalDistance(CourierLocation currentLocation) {
-        CourierLocation previousLocation = lastLocations.get(currentLocation.getCourierId());
+        // Son konum ve toplam mesafe aynı segment kilidi altında birlikte güncellenir
+        double distance = courierStateStore.advance(currentLocation.getCourierId(),
+                currentLocation.getLat(), currentLocation.getLng(), currentLocation.getTimestamp());
+        if (distance > 0) {
+            log.debug("Mesafe güncellendi - Kurye: {}, Ek mesafe: {}m", currentLocation.getCourierId(), distance);
+        }
+    }
 
-        if (previousLocation != null) {
-            double distance = DistanceCalculator.calculateDistance(
-                    previousLocation.getLat(), previousLocation.getLng(),
-                    currentLocation.getLat(), currentLocation.getLng()
-            );
+    /**
+     * Snapshot sonrasında kaydedilmiş bir konumu yeniden oynatır. Yalnızca toplam mesafe ve
+     * son konum güncellenir; mağaza girişleri zaten veritabanında olduğu için tekrar işlenmez.
+     * Kuryenin son uygulanan konumundan eski veya ona eşit zamanlı noktalar atlanır.
+     *
+     * @param point Yeniden oynatılacak konum
+     * @return true: konum uygulandı, false: zaten uygulanmış olduğu için atlandı
+     */
+    public boolean replayLocation(LocationPoint point) {
+        return courierStateStore.advanceIfNewer(point.courierId(), point.lat(), point.lng(), point.timestamp());
+    }
 
-            if (distance > 0) {
-                storeService.updateTotalDistance(currentLocation.getCourierId(), distance);
-                log.debug("Mesafe güncellendi - Kurye: {}, Ek mesafe: {}m",
-                        currentLocation.getCourierId(), distance);
-            }
-        }
+    /**
+     * Her kuryenin toplam mesafesini ve son konumunu tutarlı olarak okur.
+     * Kurye bazında okuma, aynı kuryenin mesafe güncellemesiyle aynı anda yapılmaz.
+     *
+     * @return Kurye durumları
+     */
+    public List<CourierState> captureCourierStates() {
+        return courierStateStore.capture();
+    }
 
-        lastLocations.put(currentLocation.getCourierId(), currentLocation);
+    /**
+     * Snapshot'tan okunan kurye durumunu belleğe yükler.
+     *
+     * @param state Kurye durumu
+     */
+    public void restoreCourierState(CourierState state) {
+        courierStateStore.restore(state);
     }
 
     /**
      * Kurye konumuna yakın mağazaları kontrol eder ve ziyaretleri işler.
      *
      * @param location Kurye konumu
+     * @return Kaydedilen mağaza girişi sayısı
      */
-    private void processStoreVisits(List<Store> nearbyStores, CourierLocation location) {
-        for (Store store : nearbyStores) {
-            if (!storeService.hasRecentEntry(store, location.getCourierId(), location.getTimestamp())) {
-                storeService.logStoreEntry(store, location);
-                log.info("Mağaza ziyareti kaydedildi - Kurye: {}, Mağaza: {}, Zaman: {}",
-                        location.getCourierId(), store.getName(), location.getTimestamp());
+    private int processStoreVisits(List<StoreInfo> nearbyStores, CourierLocation location) {
+        int entries = 0;
+        for (StoreInfo store : nearbyStores) {
+            long start = System.nanoTime();
+            boolean recentEntry = storeService.hasRecentEntry(store, location.getCourierId(), location.getTimestamp());
+            trackingMetrics.recordStage(Stage.HAS_RECENT_ENTRY, start);
+            if (recentEntry) {
+                trackingMetrics.incrementSuppressedEntries();
+                continue;
             }
+
+            start = System.nanoTime();
+            storeService.logStoreEntry(store, location);
+            trackingMetrics.recordStage(Stage.LOG_STORE_ENTRY, start);
+            trackingMetrics.incrementStoreEntries();
+            entries++;
+            log.info("Mağaza ziyareti kaydedildi - Kurye: {}, Mağaza: {}, Zaman: {}",
+                    location.getCourierId(), store.name(), location.getTimestamp());
         }
+        return entries;
     }
 
     /**
      * Kurye konumuna yakın (100m yarıçap içindeki) mağazaları bulur.
+     * Mağaza kataloğunun mekânsal indeksinden yalnızca komşu hücrelerdeki adaylara bakılır.
      *
      * @param location Kurye konumu
      * @return Yakındaki mağazaların listesi
      */
-    private List<Store> findNearbyStores(CourierLocation location) {
-        return storeService.getAllStores().stream()
-                .filter(store -> isWithinRadius(location, store))
-                .toList();
+    private List<StoreInfo> findNearbyStores(CourierLocation location) {
+        return storeService.getCatalog().findNearby(location.getLat(), location.getLng());
     }
 
     /**
-     * Kurye konumunun mağaza yarıçapı (100m) içinde olup olmadığını kontrol eder.
-     *
-     * @param location Kurye konumu
-     * @param store    Mağaza
-     * @return true: yarıçap içinde, false: yarıçap dışında
+     * Uzun süredir konum göndermeyen kuryelerin sadeleştirme penceresinde bekleyen son noktalarını kaydeder.
+     */
+    @Scheduled(fixedDelayString = "${courier.location.simplification.idle-flush-interval-ms:60000}")
+    public void flushIdleTrajectories() {
+        if (trajectorySimplifier.isEnabled()) {
+            persistFlushed(trajectorySimplifier.flushIdle());
+        }
+    }
+
+    /**
+     * Kapanışta sadeleştirme penceresinde bekleyen tüm noktaları kaydeder.
+     */
+    @PreDestroy
+    public void flushPendingTrajectories() {
+        if (trajectorySimplifier.isEnabled()) {
+            persistFlushed(trajectorySimplifier.flushAll());
+        }
+    }
+
+    private void persistFlushed(List<CourierLocation> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        transactionTemplate.execute(status -> {
+            saveLocations(locations);
+            return null;
+        });
+        log.debug("Sadeleştirme penceresinde bekleyen {} konum kaydedildi", locations.size());
+    }
+
+    /**
+     * Konumların shard transaction'ı dışında, çağıran iş parçacığında kaydedilip kaydedilmeyeceği.
      */
-    private boolean isWithinRadius(CourierLocation location, Store store) {
-        double distance = DistanceCalculator.calculateDistance(
-                location.getLat(), location.getLng(),
-                store.getLat(), store.getLng()
-        );
-        return distance <= STORE_RADIUS_METERS;
+    private boolean isPersistenceDeferred() {
+        return writeBehindBuffer.isEnabled() || locationJournal.isEnabled();
     }
 
     /**
      * Kurye konumunu veritabanına kaydeder.
+     * Günlük modu etkinse konum günlüğe eklenir; veritabanına günlükten asenkron yazılır.
+     * Write-behind modu etkinse konum tampona alınır ve arka planda toplu yazılır.
+     * Günlük tablolara bölme etkinse konum, gününe ait tabloya JDBC ile yazılır.
      *
      * @param location Kaydedilecek kurye konumu
      */
     private void saveLocation(CourierLocation location) {
-        courierLocationRepository.save(location);
+        long start = System.nanoTime();
+        if (locationJournal.isEnabled()) {
+            locationJournal.append(location);
+            trackingMetrics.recordStage(Stage.SAVE_LOCATION, start);
+            return;
+        }
+        if (writeBehindBuffer.isEnabled()) {
+            writeBehindBuffer.enqueue(location);
+            trackingMetrics.recordStage(Stage.SAVE_LOCATION, start);
+            return;
+        }
+        if (jdbcWriter.isPartitioned()) {
+            jdbcWriter.insertAll(List.of(location));
+        } else {
+            courierLocationRepository.save(location);
+        }
+        trackingMetrics.recordStage(Stage.SAVE_LOCATION, start);
         log.debug("Konum kaydedildi - Kurye: {}, Zaman: {}",
                 location.getCourierId(), location.getTimestamp());
     }
 
+    /**
+     * Kurye konumlarını tek seferde kaydeder. Hibernate JDBC batch ayarı ile
+     * insert'ler toplu olarak gönderilir.
+     *
+     * @param locations Kaydedilecek kurye konumları
+     */
+    private void saveLocations(List<CourierLocation> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (locationJournal.isEnabled()) {
+            locationJournal.appendAll(locations);
+            trackingMetrics.recordStage(Stage.SAVE_LOCATION, start);
+            return;
+        }
+        if (writeBehindBuffer.isEnabled()) {
+            writeBehindBuffer.enqueueAll(locations);
+            trackingMetrics.recordStage(Stage.SAVE_LOCATION, start);
+            return;
+        }
+        if (jdbcWriter.isPartitioned()) {
+            jdbcWriter.insertAll(locations);
+        } else {
+            courierLocationRepository.saveAll(locations);
+        }
+        trackingMetrics.recordStage(Stage.SAVE_LOCATION, start);
+        log.debug("{} konum toplu olarak kaydedildi", locations.size());
+    }
+
     /**
      * Kurye konum koordinatlarının geçerliliğini kontrol eder.
      * Enlem değeri -90° ile +90° arasında,
@@ -157,10 +566,11 @@ public class LocationTrackingService {
      * @throws IllegalArgumentException koordinatlar geçerli aralıkta değilse
      */
     private void validateCoordinates(CourierLocation location) {
-        if (location.getLat() < -90 || location.getLat() > 90) {
+        // Ters koşul NaN değerlerini de reddeder; ikili formatta NaN taşınabilir
+        if (!(location.getLat() >= -90 && location.getLat() <= 90)) {
             throw new IllegalArgumentException("Enlem değeri -90 ile 90 derece arasında olmalıdır");
         }
-        if (location.getLng() < -180 || location.getLng() > 180) {
+        if (!(location.getLng() >= -180 && location.getLng() <= 180)) {
             throw new IllegalArgumentException("Boylam değeri -180 ile 180 derece arasında olmalıdır");
         }
     }
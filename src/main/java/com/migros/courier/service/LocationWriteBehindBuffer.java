@@ -0,0 +1,241 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.LocationPersistenceProperties;
+import com.migros.courier.config.LocationPersistenceProperties.Durability;
+import com.migros.courier.config.LocationPersistenceProperties.Mode;
+import com.migros.courier.exception.LocationTrackingException;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Kurye konumları için write-behind tamponu.
+ * <p>
+ * Konumlar sınırlı bir kuyruğa alınır; tek bir arka plan yazıcısı kuyruğu
+ * batch boyutu dolduğunda veya flush süresi dolduğunda JDBC batch insert ile boşaltır.
+ * {@link Durability#FLUSH_BEFORE_ACK} modunda çağıran, kendi konumunu içeren batch
+ * yazılana kadar bekler (group commit); {@link Durability#ACK_BEFORE_FLUSH} modunda hemen döner.
+ * <p>
+ * Yalnızca {@code courier.location.persistence.mode=write-behind} olduğunda etkindir.
+ */
+@Slf4j
+@Component
+public class LocationWriteBehindBuffer {
+    private static final String METRIC_PREFIX = "courier.location.write_behind";
+
+    private final CourierLocationJdbcWriter jdbcWriter;
+    private final LocationPersistenceProperties properties;
+    private final BackgroundThreadFactory threadFactory;
+    private final BlockingQueue<PendingLocation> queue;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread flusherThread;
+
+    public LocationWriteBehindBuffer(CourierLocationJdbcWriter jdbcWriter,
+                                     LocationPersistenceProperties properties,
+                                     BackgroundThreadFactory threadFactory,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcWriter = jdbcWriter;
+        this.properties = properties;
+        this.threadFactory = threadFactory;
+        this.queue = new ArrayBlockingQueue<>(properties.getBufferCapacity());
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", queue, BlockingQueue::size)
+                .description("Veritabanına yazılmayı bekleyen konum sayısı")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder(METRIC_PREFIX + ".flush")
+                .description("Bir batch'in veritabanına yazılma süresi")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Her flush'ta yazılan konum sayısı")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder(METRIC_PREFIX + ".failed")
+                .description("Yazılamayan konum sayısı")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() == Mode.WRITE_BEHIND;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        flusherThread = threadFactory.newThread("location-write-behind", this::runFlusher);
+        flusherThread.start();
+        log.info("Konum write-behind modu etkin. Kapasite: {}, Batch: {}, Flush aralığı: {}, Dayanıklılık: {}",
+                properties.getBufferCapacity(), properties.getBatchSize(),
+                properties.getFlushInterval(), properties.getDurability());
+    }
+
+    /**
+     * Konumu yazma kuyruğuna ekler. Dayanıklılık ayarı {@code flush-before-ack} ise
+     * konum veritabanına yazılana kadar bekler.
+     *
+     * @param location Yazılacak konum
+     * @throws LocationTrackingException tampon dolu olduğunda veya yazma başarısız olduğunda
+     */
+    public void enqueue(CourierLocation location) {
+        awaitIfRequired(List.of(offer(location)));
+    }
+
+    /**
+     * Konumları yazma kuyruğuna ekler. Dayanıklılık ayarı {@code flush-before-ack} ise
+     * tüm konumlar veritabanına yazılana kadar bekler.
+     *
+     * @param locations Yazılacak konumlar
+     * @throws LocationTrackingException tampon dolu olduğunda veya yazma başarısız olduğunda
+     */
+    public void enqueueAll(List<CourierLocation> locations) {
+        List<CompletableFuture<Void>> acks = new ArrayList<>(locations.size());
+        for (CourierLocation location : locations) {
+            acks.add(offer(location));
+        }
+        awaitIfRequired(acks);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private CompletableFuture<Void> offer(CourierLocation location) {
+        if (!running) {
+            throw new IllegalStateException("Konum write-behind tamponu çalışmıyor");
+        }
+        PendingLocation pending = new PendingLocation(location, new CompletableFuture<>());
+        try {
+            if (!queue.offer(pending, properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new LocationTrackingException("Konum yazma tamponu dolu. Kurye ID: " + location.getCourierId(), null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LocationTrackingException("Konum yazma tamponuna eklenirken kesildi", e);
+        }
+        return pending.ack();
+    }
+
+    private void awaitIfRequired(List<CompletableFuture<Void>> acks) {
+        if (properties.getDurability() != Durability.FLUSH_BEFORE_ACK) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                    .get(properties.getAckTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LocationTrackingException("Konum yazma onayı beklenirken kesildi", e);
+        } catch (ExecutionException e) {
+            throw new LocationTrackingException("Konum veritabanına yazılamadı", e.getCause());
+        } catch (TimeoutException e) {
+            throw new LocationTrackingException("Konum yazma onayı zaman aşımına uğradı", e);
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingLocation> batch = new ArrayList<>(properties.getBatchSize());
+        while (running) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                // stop() yazıcıyı kesince eldeki batch yazılır, kuyrukta kalanları stop() boşaltır
+                running = false;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * İlk kayıt gelene kadar bekler; ardından batch dolana ya da flush süresi dolana kadar kayıt toplar.
+     */
+    private void collectBatch(List<PendingLocation> batch) throws InterruptedException {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        PendingLocation first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + intervalNanos;
+        int batchSize = properties.getBatchSize();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            PendingLocation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingLocation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<CourierLocation> locations = batch.stream().map(PendingLocation::location).toList();
+        long start = System.nanoTime();
+        try {
+            jdbcWriter.insertAll(locations);
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(locations.size());
+            batch.forEach(pending -> pending.ack().complete(null));
+            log.debug("{} konum veritabanına yazıldı", locations.size());
+        } catch (Exception e) {
+            failedCounter.increment(locations.size());
+            log.error("Konum batch'i veritabanına yazılamadı. Konum sayısı: {}", locations.size(), e);
+            batch.forEach(pending -> pending.ack().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Yeni kayıt kabulünü durdurur ve kuyrukta kalan tüm konumları yazar.
+     */
+    @PreDestroy
+    public void stop() {
+        if (flusherThread == null) {
+            return;
+        }
+        running = false;
+        flusherThread.interrupt();
+        try {
+            flusherThread.join(properties.getAckTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingLocation> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        flush(remaining);
+        log.info("Konum write-behind tamponu kapatıldı");
+    }
+
+    private record PendingLocation(CourierLocation location, CompletableFuture<Void> ack) {
+    }
+}
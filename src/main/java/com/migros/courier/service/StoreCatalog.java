@@ -0,0 +1,81 @@
+package com.migros.courier.service;
+
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.util.StoreSpatialIndex;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mağaza verisinin değişmez, sürümlü anlık görüntüsü.
+ * <p>
+ * Mağaza listesi ve mekânsal indeks oluşturulduktan sonra değişmez; konum bildirimleri katalogdan
+ * kilitsiz okur ve JPA'ya hiç dokunmaz. Mağazalar eklendiğinde, güncellendiğinde veya yeniden
+ * yüklendiğinde {@link StoreService} yeni bir katalog oluşturup referansı tek adımda değiştirir;
+ * o anda işlenen bildirimler eski katalogla tutarlı şekilde tamamlanır.
+ */
+public final class StoreCatalog {
+    /**
+     * Mağaza girişi sayılan en büyük mesafe (metre).
+     */
+    public static final double ENTRY_RADIUS_METERS = 100.0;
+
+    static final StoreCatalog EMPTY = new StoreCatalog(0, List.of());
+
+    private final long version;
+    private final List<StoreInfo> stores;
+    private final Map<UUID, StoreInfo> storesById;
+    private final StoreSpatialIndex index;
+
+    private StoreCatalog(long version, Collection<StoreInfo> stores) {
+        this.version = version;
+        this.stores = List.copyOf(stores);
+        this.storesById = this.stores.stream()
+                .filter(store -> store.id() != null)
+                .collect(Collectors.toUnmodifiableMap(StoreInfo::id, Function.identity(), (first, second) -> second));
+        this.index = StoreSpatialIndex.of(this.stores, ENTRY_RADIUS_METERS);
+    }
+
+    /**
+     * Verilen mağazalardan yeni bir katalog oluşturur.
+     *
+     * @param version Katalog sürümü
+     * @param stores  Mağazalar
+     * @return Katalog
+     */
+    public static StoreCatalog of(long version, Collection<StoreInfo> stores) {
+        return new StoreCatalog(version, stores);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return stores.size();
+    }
+
+    public List<StoreInfo> getStores() {
+        return stores;
+    }
+
+    public Optional<StoreInfo> findById(UUID storeId) {
+        return Optional.ofNullable(storesById.get(storeId));
+    }
+
+    /**
+     * Verilen noktaya {@value #ENTRY_RADIUS_METERS} metre içindeki mağazaları bulur.
+     *
+     * @param lat Noktanın enlemi
+     * @param lng Noktanın boylamı
+     * @return Yakındaki mağazalar
+     */
+    public List<StoreInfo> findNearby(double lat, double lng) {
+        return index.findWithinRadius(lat, lng);
+    }
+}
@@ -0,0 +1,191 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.StoreEntryStreamProperties;
+import com.migros.courier.dto.StoreEntryEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mağaza girişi olaylarını Server-Sent Events abonelerine dağıtır.
+ * <p>
+ * Her abonenin sınırlı bir olay kuyruğu ve kendi gönderici iş parçacığı vardır. Olaylar giriş transaction'ı
+ * commit edildikten sonra kuyruklara yalnızca {@code offer} ile bırakılır; konum işleyen iş parçacığı hiçbir
+ * zaman bir abonenin ağ yazmasını beklemez. Kuyruğu dolan (olayları yeterince hızlı okumayan) abone
+ * düşürülür ve bağlantısı kapatılır; istemci yeniden bağlanarak güncel akışa katılabilir.
+ */
+@Slf4j
+@Component
+public class StoreEntryBroadcaster {
+    private static final String EVENT_NAME = "store-entry";
+
+    private final StoreEntryStreamProperties properties;
+    private final BackgroundThreadFactory threadFactory;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong subscriberSequence = new AtomicLong();
+    private final Counter droppedCounter;
+
+    public StoreEntryBroadcaster(StoreEntryStreamProperties properties, BackgroundThreadFactory threadFactory,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.threadFactory = threadFactory;
+        Gauge.builder("courier.entries.stream.subscribers", subscribers, Set::size)
+                .description("Bağlı mağaza girişi akışı abone sayısı")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("courier.entries.stream.dropped")
+                .description("Olay kuyruğu dolduğu için düşürülen abone sayısı")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Yeni bir abone kaydeder. Filtreler {@code null} ise o alana göre filtreleme yapılmaz.
+     *
+     * @param storeId   Yalnızca bu mağazanın girişleri
+     * @param courierId Yalnızca bu kuryenin girişleri
+     * @return Aboneye ait emitter; abone sınırı doluysa boş
+     */
+    public Optional<SseEmitter> subscribe(UUID storeId, String courierId) {
+        // Zaman aşımı yok; bağlantı istemci kapatana, hata oluşana veya abone düşürülene kadar açık kalır
+        return subscribe(storeId, courierId, new SseEmitter(0L));
+    }
+
+    Optional<SseEmitter> subscribe(UUID storeId, String courierId, SseEmitter emitter) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            log.warn("Mağaza girişi akışı abone sınırına ulaştı: {}", properties.getMaxSubscribers());
+            return Optional.empty();
+        }
+        Subscriber subscriber = new Subscriber(emitter, storeId, courierId, properties.getBufferSize());
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        subscriber.start("store-entry-stream-" + subscriberSequence.incrementAndGet());
+        log.debug("Mağaza girişi akışına abone bağlandı. Mağaza: {}, Kurye: {}", storeId, courierId);
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Giriş kaydı commit edildikten sonra olayı filtreye uyan abonelerin kuyruklarına bırakır.
+     * Transaction dışında yayınlanan olaylar hemen iletilir.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreEntry(StoreEntryEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(event) && !subscriber.offer(event)) {
+                droppedCounter.increment();
+                log.warn("Mağaza girişi akışı abonesi olayları yeterince hızlı okumadığı için düşürüldü. " +
+                        "Mağaza: {}, Kurye: {}", subscriber.storeId, subscriber.courierId);
+                subscriber.close();
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+    }
+
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final UUID storeId;
+        private final String courierId;
+        private final BlockingQueue<StoreEntryEvent> queue;
+        private volatile boolean closed;
+        private volatile Thread sender;
+
+        private Subscriber(SseEmitter emitter, UUID storeId, String courierId, int bufferSize) {
+            this.emitter = emitter;
+            this.storeId = storeId;
+            this.courierId = courierId;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void start(String name) {
+            sender = threadFactory.newThread(name, this);
+            sender.start();
+        }
+
+        private boolean matches(StoreEntryEvent event) {
+            return (storeId == null || storeId.equals(event.storeId()))
+                    && (courierId == null || courierId.equals(event.courierId()));
+        }
+
+        private boolean offer(StoreEntryEvent event) {
+            return !closed && queue.offer(event);
+        }
+
+        /**
+         * Aboneyi kaldırır ve gönderici iş parçacığını uyandırır. Emitter'ı gönderici kapatır;
+         * böylece bu metodu çağıran iş parçacığı, emitter'da süren bir yazmayı beklemez.
+         */
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            Thread thread = sender;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            long heartbeatNanos = properties.getHeartbeatInterval().toNanos();
+            boolean writeFailed = false;
+            try {
+                while (!closed) {
+                    StoreEntryEvent event = queue.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+                    if (closed) {
+                        break;
+                    }
+                    emitter.send(event == null ? SseEmitter.event().comment("heartbeat") : toSseEvent(event));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // İstemci bağlantıyı kapatmış veya emitter tamamlanmış; sunucu bağlantıyı kendisi sonlandırır
+                writeFailed = true;
+                log.debug("Mağaza girişi akışı abonesine yazılamadı: {}", e.getMessage());
+            } finally {
+                close();
+                if (!writeFailed) {
+                    emitter.complete();
+                }
+            }
+        }
+
+        private SseEmitter.SseEventBuilder toSseEvent(StoreEntryEvent event) {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .data(event, MediaType.APPLICATION_JSON);
+            if (event.entryId() != null) {
+                builder.id(event.entryId().toString());
+            }
+            return builder;
+        }
+    }
+}
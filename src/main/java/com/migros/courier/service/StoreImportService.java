@@ -0,0 +1,142 @@
+package com.migros.courier.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migros.courier.config.StoreImportProperties;
+import com.migros.courier.dto.StoreImportResult;
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.exception.StoreInitializationException;
+import com.migros.courier.repository.StoreJdbcWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mağaza dosyasını Jackson akış ayrıştırıcısıyla kayıt kayıt okuyup parçalar halinde veritabanına yazar.
+ * <p>
+ * Dosyanın tamamı belleğe alınmaz; aynı anda en fazla {@code chunk-size} kayıt tutulur ve her parça kendi
+ * transaction'ı içinde tek JDBC batch'i olarak yazılır. Kayıtlar ada göre eklenir veya güncellenir, bu yüzden
+ * içe aktarım her açılışta güvenle tekrarlanabilir. Geçersiz kayıtlar atlanır ve sayılır.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StoreImportService {
+    private final StoreImportProperties properties;
+    private final StoreJdbcWriter storeJdbcWriter;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Ayarlanan konumdaki mağaza dosyasını içe aktarır.
+     *
+     * @return İçe aktarım özeti
+     * @throws StoreInitializationException dosya okunamadığında veya geçerli bir JSON dizisi olmadığında
+     */
+    public StoreImportResult importStores() {
+        Resource resource = new DefaultResourceLoader().getResource(properties.getLocation());
+        try (InputStream in = resource.getInputStream()) {
+            return importStores(in);
+        } catch (IOException e) {
+            log.error("Mağaza dosyası içe aktarılamadı: {}", properties.getLocation(), e);
+            throw new StoreInitializationException("Mağaza verileri yüklenemedi", e);
+        }
+    }
+
+    /**
+     * Verilen akıştaki {@code [{"name", "lat", "lng"}, ...]} dizisini içe aktarır.
+     *
+     * @param in Mağaza JSON akışı
+     * @return İçe aktarım özeti
+     * @throws IOException akış okunamadığında veya JSON dizisi değilse
+     */
+    public StoreImportResult importStores(InputStream in) throws IOException {
+        long startNanos = System.nanoTime();
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        List<StoreInfo> chunk = new ArrayList<>(chunkSize);
+        long read = 0;
+        long upserted = 0;
+        long skipped = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Mağaza dosyası bir JSON dizisi olmalıdır");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Mağaza dosyası beklenmedik şekilde bitti");
+                }
+                read++;
+                StoreInfo store = token == JsonToken.START_OBJECT ? readStore(parser) : skipValue(parser);
+                if (store == null) {
+                    skipped++;
+                    continue;
+                }
+                chunk.add(store);
+                if (chunk.size() == chunkSize) {
+                    upserted += writeChunk(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        upserted += writeChunk(chunk);
+
+        StoreImportResult result = new StoreImportResult(read, upserted, skipped,
+                (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("Mağaza içe aktarımı tamamlandı. Okunan: {}, Eklenen/güncellenen: {}, Atlanan: {}, Süre: {} ms, " +
+                        "Hız: {} kayıt/sn", result.read(), result.upserted(), result.skipped(), result.elapsedMillis(),
+                Math.round(result.recordsPerSecond()));
+        return result;
+    }
+
+    private int writeChunk(List<StoreInfo> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Integer changed = transactionTemplate.execute(status -> storeJdbcWriter.upsertAll(chunk));
+        return changed == null ? 0 : changed;
+    }
+
+    /**
+     * Ayrıştırıcı bir nesnenin başındayken mağaza alanlarını okur. Nesne geçersizse {@code null} döner;
+     * her iki durumda da ayrıştırıcı nesnenin sonunda bırakılır.
+     */
+    private static StoreInfo readStore(JsonParser parser) throws IOException {
+        String name = null;
+        double lat = Double.NaN;
+        double lng = Double.NaN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> name = value == JsonToken.VALUE_STRING ? parser.getText().trim() : null;
+                case "lat" -> lat = value.isNumeric() ? parser.getDoubleValue() : Double.NaN;
+                case "lng" -> lng = value.isNumeric() ? parser.getDoubleValue() : Double.NaN;
+                default -> {
+                }
+            }
+            // Nesne veya dizi değerleri atlanır; skaler değerlerde etkisizdir
+            parser.skipChildren();
+        }
+        if (name == null || name.isEmpty() || !(lat >= -90 && lat <= 90) || !(lng >= -180 && lng <= 180)) {
+            log.debug("Geçersiz mağaza kaydı atlandı. Ad: {}, Enlem: {}, Boylam: {}", name, lat, lng);
+            return null;
+        }
+        return new StoreInfo(null, name, lat, lng);
+    }
+
+    private static StoreInfo skipValue(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+}
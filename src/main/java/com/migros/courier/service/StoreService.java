@@ -1,10 +1,15 @@
 package com.migros.courier.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migros.courier.dto.CourierEntryCursor;
+import com.migros.courier.dto.CourierEntryPage;
 import com.migros.courier.dto.CourierEntryResponse;
+import com.migros.courier.dto.LatestStoreEntryView;
+import com.migros.courier.dto.RecentStoreVisit;
+import com.migros.courier.dto.StoreCatalogResponse;
+import com.migros.courier.dto.StoreEntryEvent;
+import com.migros.courier.dto.StoreImportResult;
+import com.migros.courier.dto.StoreInfo;
 import com.migros.courier.exception.StoreEntryException;
-import com.migros.courier.exception.StoreInitializationException;
 import com.migros.courier.model.CourierEntry;
 import com.migros.courier.model.CourierLocation;
 import com.migros.courier.model.Store;
@@ -14,17 +19,22 @@ import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Mağaza işlemlerini ve kurye mesafe takibini yöneten servis.
@@ -34,67 +44,88 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 @RequiredArgsConstructor
 public class StoreService {
-    private static final String STORES_JSON_PATH = "stores.json";
-    private static final String STORES_CACHE_NAME = "stores";
+    public static final int MAX_ENTRY_PAGE_SIZE = 1_000;
+    private static final LocalDateTime MIN_ENTRY_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_ENTRY_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     private final StoreRepository storeRepository;
     private final CourierEntryRepository courierEntryRepository;
-    private final ObjectMapper objectMapper;
+    private final StoreImportService storeImportService;
+    private final CourierStateStore courierStateStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${store.visit.min-interval-minutes}")
     private int minVisitIntervalMinutes;
 
-    // Thread-safe mesafe takibi için ConcurrentHashMap
-    private final Map<String, Double> courierDistances = new ConcurrentHashMap<>();
+    // Mükerrer giriş kontrolü için kurye-mağaza bazında son giriş zamanları
+    private final StoreVisitRegistry visitRegistry = new StoreVisitRegistry();
+
+    // Konum bildirimlerinin okuduğu mağaza kataloğu; değişikliklerde tümüyle yenisiyle değiştirilir
+    private final AtomicReference<StoreCatalog> catalog = new AtomicReference<>(StoreCatalog.EMPTY);
 
     /**
-     * Uygulama başlatıldığında mağaza verilerini JSON dosyasından yükler.
-     * Veritabanı boşsa mağazaları kaydeder.
+     * Uygulama başlatıldığında mağaza dosyasını içe aktarır ve mağaza kataloğunu oluşturur.
+     * İçe aktarım ada göre ekleme/güncelleme yaptığı için her açılışta dosyadaki değişiklikler de uygulanır.
      */
     @PostConstruct
     public void initializeStores() {
-        try {
-            if (isStoreDataEmpty()) {
-                List<Store> stores = loadStoresFromJson();
-                saveStores(stores);
-                log.info("Mağaza verileri başarıyla yüklendi. Toplam {} mağaza.", stores.size());
-            }
-        } catch (IOException e) {
-            log.error("Mağaza verileri yüklenirken hata oluştu", e);
-            throw new StoreInitializationException("Mağaza verileri yüklenemedi", e);
-        }
+        storeImportService.importStores();
+        refreshCatalog();
     }
 
-    private boolean isStoreDataEmpty() {
-        return storeRepository.count() == 0;
+    /**
+     * Tüm mağazaları getirir. Liste bellekteki katalogdan okunur, veritabanına gidilmez.
+     *
+     * @return Mağaza listesi
+     */
+    public List<StoreInfo> getAllStores() {
+        return catalog.get().getStores();
     }
 
-    private List<Store> loadStoresFromJson() throws IOException {
-        return objectMapper.readValue(
-                new ClassPathResource(STORES_JSON_PATH).getInputStream(),
-                new TypeReference<>() {
-                }
-        );
+    /**
+     * Etkin mağaza kataloğunu döndürür.
+     *
+     * @return Mağaza kataloğu
+     */
+    public StoreCatalog getCatalog() {
+        return catalog.get();
     }
 
-    private void saveStores(List<Store> stores) {
-        storeRepository.saveAll(stores);
+    /**
+     * Mağaza dosyasını yeniden içe aktarır; yeni mağazaları ekler, koordinatı değişenleri günceller
+     * ve kataloğu yenisiyle değiştirir. Dosyada bulunmayan mağazalar, geçmiş girişler onlara bağlı olduğu
+     * için silinmez.
+     *
+     * @return Yeni katalog sürümü ve içe aktarım özeti
+     */
+    public synchronized StoreCatalogResponse reloadStores() {
+        StoreImportResult result = storeImportService.importStores();
+        StoreCatalog next = refreshCatalog();
+        return new StoreCatalogResponse(next.getVersion(), next.size(), result);
     }
 
     /**
-     * Tüm mağazaları getirir. Performans için cache kullanır.
+     * Aynı adlı mağaza varsa koordinatlarını günceller, yoksa yeni mağaza ekler ve kataloğu yeniler.
      *
-     * @return Mağaza listesi
+     * @param name Mağaza adı
+     * @param lat  Enlem
+     * @param lng  Boylam
+     * @return Kaydedilen mağaza
      */
-    @Cacheable(STORES_CACHE_NAME)
-    @Transactional(readOnly = true)
-    public List<Store> getAllStores() {
-        try {
-            return storeRepository.findAll();
-        } catch (Exception e) {
-            log.error("Mağaza verileri getirilirken hata oluştu", e);
-            return Collections.emptyList();
-        }
+    public synchronized StoreInfo saveStore(String name, double lat, double lng) {
+        Store store = storeRepository.findFirstByName(name).orElseGet(() -> new Store(name, lat, lng));
+        store.setLat(lat);
+        store.setLng(lng);
+        StoreInfo saved = StoreInfo.from(storeRepository.save(store));
+        refreshCatalog();
+        return saved;
+    }
+
+    private StoreCatalog refreshCatalog() {
+        List<StoreInfo> stores = storeRepository.findAllInfo();
+        StoreCatalog next = catalog.updateAndGet(current -> StoreCatalog.of(current.getVersion() + 1, stores));
+        log.info("Mağaza kataloğu güncellendi. Sürüm: {}, Mağaza sayısı: {}", next.getVersion(), next.size());
+        return next;
     }
 
     /**
@@ -114,13 +145,8 @@ public class StoreService {
             return;
         }
 
-        courierDistances.compute(courierId.trim(), (k, v) -> {
-            double currentDistance = (v == null) ? 0 : v;
-            double newDistance = currentDistance + additionalDistance;
-            log.debug("Kurye {} için mesafe güncellendi: {} -> {}",
-                    courierId, currentDistance, newDistance);
-            return newDistance;
-        });
+        courierStateStore.addDistance(courierId.trim(), additionalDistance);
+        log.debug("Kurye {} için mesafe güncellendi. Ek mesafe: {}", courierId, additionalDistance);
     }
 
     /**
@@ -129,64 +155,190 @@ public class StoreService {
      * @param courierId Kurye ID
      * @return Toplam mesafe (metre)
      */
-    @Transactional(readOnly = true)
     public Double getTotalTravelDistance(String courierId) {
-        return courierDistances.getOrDefault(courierId, 0.0);
+        return courierStateStore.getTotalDistance(courierId);
     }
 
     /**
-     * Kurye'nin mağaza ziyaretini kaydeder.
+     * Kurye'nin mağaza ziyaretini kaydeder ve transaction commit edildikten sonra
+     * canlı akış abonelerine iletilmek üzere {@link StoreEntryEvent} yayınlar.
      *
      * @param store    Ziyaret edilen mağaza
      * @param location Kurye konumu
      */
     @Transactional
-    public void logStoreEntry(Store store, CourierLocation location) {
+    public void logStoreEntry(StoreInfo store, CourierLocation location) {
         try {
             CourierEntry entry = createCourierEntry(store, location);
             courierEntryRepository.save(entry);
+            visitRegistry.record(location.getCourierId(), store.id(), location.getTimestamp());
+            forgetVisitOnRollback(location.getCourierId(), store.id(), location.getTimestamp());
+            eventPublisher.publishEvent(new StoreEntryEvent(entry.getId(), location.getCourierId(),
+                    store.id(), store.name(), location.getTimestamp()));
 
             log.info("Kurye {} {} mağazasına girdi. Zaman: {}",
                     location.getCourierId(),
-                    store.getName(),
+                    store.name(),
                     location.getTimestamp());
 
         } catch (Exception e) {
             log.error("Mağaza girişi kaydedilirken hata oluştu. Kurye: {}, Mağaza: {}",
-                    location.getCourierId(), store.getName(), e);
+                    location.getCourierId(), store.name(), e);
             throw new StoreEntryException("Mağaza girişi kaydedilemedi", e);
         }
     }
 
-    private CourierEntry createCourierEntry(Store store, CourierLocation location) {
+    /**
+     * Giriş, aynı transaction'daki sonraki bildirimlerin mükerrer kontrolünde görünmesi için hemen belleğe yazılır;
+     * transaction geri alınırsa bellekten de silinir ki konum yeniden gönderildiğinde giriş tekrar kaydedilebilsin.
+     */
+    private void forgetVisitOnRollback(String courierId, UUID storeId, LocalDateTime entryTime) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    visitRegistry.forget(courierId, storeId, entryTime);
+                }
+            }
+        });
+    }
+
+    private CourierEntry createCourierEntry(StoreInfo store, CourierLocation location) {
         CourierEntry entry = new CourierEntry();
         entry.setCourierId(location.getCourierId());
-        entry.setStore(store);
+        // Mağaza satırı okunmadan yalnızca yabancı anahtar için referans kullanılır
+        entry.setStore(storeRepository.getReferenceById(store.id()));
         entry.setTimestamp(location.getTimestamp());
         return entry;
     }
 
-    public boolean hasRecentEntry(Store store, String courierId, LocalDateTime currentTime) {
-        return courierEntryRepository.existsByStoreAndCourierIdAndTimestampAfter(
-                store,
-                courierId,
-                currentTime.minusMinutes(minVisitIntervalMinutes)
-        );
+    /**
+     * Kuryenin mağazaya minimum ziyaret aralığı içinde girişi olup olmadığını kontrol eder.
+     * Kontrol bellekteki son giriş zamanları üzerinden yapılır. Bellekte giriş yoksa ve aralık belleğin kapsadığı
+     * zamandan eskiyse (ör. sonradan yüklenen eski bir rota) veritabanına bakılır.
+     *
+     * @param store       Mağaza
+     * @param courierId   Kurye ID
+     * @param currentTime Kurye konumunun zamanı
+     * @return true: yakın zamanda giriş var, false: yok
+     */
+    public boolean hasRecentEntry(StoreInfo store, String courierId, LocalDateTime currentTime) {
+        LocalDateTime threshold = currentTime.minusMinutes(minVisitIntervalMinutes);
+        if (visitRegistry.hasEntryAfter(courierId, store.id(), threshold)) {
+            return true;
+        }
+        return !visitRegistry.isCompleteAfter(threshold)
+                && courierEntryRepository.existsByStoreIdAndCourierIdAndTimestampAfter(store.id(), courierId, threshold);
     }
 
     /**
-     * Belirli bir kuryenin mağaza giriş kayıtlarını getirir
+     * Uygulama hazır olduğunda, ziyaret aralığı içindeki son girişleri veritabanından
+     * belleğe yükler. Böylece yeniden başlatma sonrasında da mükerrer giriş kontrolü tutarlı kalır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpVisitRegistry() {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(minVisitIntervalMinutes);
+        List<LatestStoreEntryView> latestEntries = courierEntryRepository.findLatestEntriesSince(since);
+        latestEntries.forEach(entry ->
+                visitRegistry.record(entry.getCourierId(), entry.getStoreId(), entry.getLastEntryTime()));
+        visitRegistry.markLoadedAfter(since);
+        log.info("Mağaza ziyaret kaydı yüklendi. Kayıt sayısı: {}", latestEntries.size());
+    }
+
+    /**
+     * Filtreye uyan kuryelerin bellekteki son mağaza girişlerini döndürür.
+     * Küme modunda kurye başka düğüme devredilirken mükerrer giriş kontrolü için taşınır.
+     *
+     * @param courierFilter Kurye ID filtresi
+     * @return Ziyaret aralığından henüz temizlenmemiş son girişler
+     */
+    public List<RecentStoreVisit> findRecentVisits(Predicate<String> courierFilter) {
+        return visitRegistry.findByCourier(courierFilter);
+    }
+
+    /**
+     * Başka bir düğümden devralınan son mağaza girişlerini kaydeder; daha yeni kayıtlar korunur.
+     *
+     * @param visits Son girişler
+     */
+    public void recordRecentVisits(List<RecentStoreVisit> visits) {
+        visits.forEach(visit -> visitRegistry.record(visit.courierId(), visit.storeId(), visit.entryTime()));
+    }
+
+    /**
+     * Ziyaret aralığından daha eski girişleri bellekten temizler. Zamanı bu eşikten eski konumların kontrolü
+     * veritabanından yapılır.
+     */
+    @Scheduled(fixedDelayString = "${store.visit.eviction-interval-ms:60000}")
+    public void evictExpiredVisits() {
+        int evicted = visitRegistry.evictOlderThan(LocalDateTime.now().minusMinutes(minVisitIntervalMinutes));
+        if (evicted > 0) {
+            log.debug("{} eski mağaza ziyaret kaydı bellekten silindi", evicted);
+        }
+    }
+
+    /**
+     * Belirli bir kuryenin mağaza giriş kayıtlarının bir sayfasını getirir.
+     * Kayıtlar {@code (timestamp, id)} sırasıyla, mağaza adı tek sorguda birleştirilerek okunur.
+     *
+     * @param courierId Kurye ID
+     * @param from      Başlangıç zamanı (dahil), {@code null} ise sınırsız
+     * @param to        Bitiş zamanı (hariç), {@code null} ise sınırsız
+     * @param after     Önceki sayfanın imleci, ilk sayfa için {@code null}
+     * @param limit     Sayfa boyutu, {@value #MAX_ENTRY_PAGE_SIZE} ile sınırlanır
+     * @return Giriş kayıtları ve sonraki sayfanın imleci
+     */
+    @Transactional(readOnly = true)
+    public CourierEntryPage getCourierEntries(String courierId, LocalDateTime from, LocalDateTime to,
+                                              CourierEntryCursor after, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_ENTRY_PAGE_SIZE);
+        // Bir fazla kayıt okunarak sonraki sayfanın olup olmadığı ek bir COUNT sorgusu olmadan anlaşılır
+        List<CourierEntryResponse> entries = findEntryPage(courierId, from, to, after, pageSize + 1);
+        if (entries.size() <= pageSize) {
+            return new CourierEntryPage(entries, null);
+        }
+        List<CourierEntryResponse> page = entries.subList(0, pageSize);
+        return new CourierEntryPage(List.copyOf(page), CourierEntryCursor.after(page.getLast()).encode());
+    }
+
+    /**
+     * Kuryenin aralıktaki tüm giriş kayıtlarını sırayla tüketiciye verir.
+     * Kayıtlar keyset sayfaları halinde okunduğu için bellekte en fazla bir sayfa tutulur ve
+     * yavaş bir tüketici veritabanı bağlantısını sayfalar arasında meşgul etmez.
      *
      * @param courierId Kurye ID
-     * @return Kurye giriş kayıtları listesi
+     * @param from      Başlangıç zamanı (dahil), {@code null} ise sınırsız
+     * @param to        Bitiş zamanı (hariç), {@code null} ise sınırsız
+     * @param consumer  Kayıtları alan tüketici
+     * @return Verilen kayıt sayısı
      */
-    public List<CourierEntryResponse> getCourierEntries(String courierId) {
-        List<CourierEntry> entries = courierEntryRepository.findByCourierId(courierId);
+    public long forEachCourierEntry(String courierId, LocalDateTime from, LocalDateTime to,
+                                    Consumer<CourierEntryResponse> consumer) {
+        long count = 0;
+        CourierEntryCursor after = null;
+        List<CourierEntryResponse> entries;
+        do {
+            entries = findEntryPage(courierId, from, to, after, MAX_ENTRY_PAGE_SIZE);
+            entries.forEach(consumer);
+            count += entries.size();
+            if (!entries.isEmpty()) {
+                after = CourierEntryCursor.after(entries.getLast());
+            }
+        } while (entries.size() == MAX_ENTRY_PAGE_SIZE);
+        return count;
+    }
 
-        return entries.stream()
-                .map(entry -> new CourierEntryResponse(
-                        entry.getId().toString(),
-                        entry.getStore().getName(),
-                        entry.getTimestamp())).toList();
+    private List<CourierEntryResponse> findEntryPage(String courierId, LocalDateTime from, LocalDateTime to,
+                                                     CourierEntryCursor after, int limit) {
+        LocalDateTime upper = to != null ? to : MAX_ENTRY_TIME;
+        if (after == null) {
+            return courierEntryRepository.findEntryPage(courierId, from != null ? from : MIN_ENTRY_TIME, upper,
+                    Limit.of(limit));
+        }
+        return courierEntryRepository.findEntryPageAfter(courierId, after.timestamp(), after.id(), upper,
+                Limit.of(limit));
     }
 }
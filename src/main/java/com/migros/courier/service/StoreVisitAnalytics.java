@@ -0,0 +1,528 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.StoreVisitStatsProperties;
+import com.migros.courier.dto.BusiestStoreResponse;
+import com.migros.courier.dto.StoreEntryEvent;
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.dto.StoreVisitBucket;
+import com.migros.courier.dto.StoreVisitStatsResponse;
+import com.migros.courier.model.StoreVisitStats;
+import com.migros.courier.model.StoreVisitStats.Granularity;
+import com.migros.courier.repository.StoreVisitStatsJdbcWriter;
+import com.migros.courier.repository.StoreVisitStatsRepository;
+import com.migros.courier.util.HyperLogLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mağaza girişlerinden saatlik, günlük ve toplam ziyaret sayaçlarını artımlı olarak tutan servis.
+ * <p>
+ * Her giriş commit edildikten sonra mağazanın sayaçlarına eklenir. Saatlik ve günlük sayaçlar, son
+ * {@code retained-hours}/{@code retained-days} dilimi tutan döngüsel dizilerdedir; günlük ve toplam dilimlerde
+ * farklı kuryeler {@link HyperLogLog} taslağıyla sayılır. Değişen dilimler periyodik olarak ve kapanışta
+ * {@code store_visit_stats} tablosuna yazılır, açılışta pencere içindeki dilimler tablodan yüklenir. Yazımda
+ * giriş sayısının yalnızca son yazımdan bu yana artan kısmı tablodakine eklenir ve taslaklar birleştirilir;
+ * küme modunda her düğüm kendi girişlerini ekler, tablo tüm düğümlerin toplamını tutar. Bir düğümün bellekteki
+ * sayaçları, açılışta yüklenen toplamın üzerine yalnızca kendi girişlerini ekler.
+ * <p>
+ * Taslak, dilimin ilk girişinde oluşturulur; giriş almayan günler taslak tutmaz. Bellek kullanımı mağaza başına
+ * en fazla {@code retained-days + 1} taslakla (her biri 4KB; 30 gün için yaklaşık 124KB) sınırlıdır.
+ * <p>
+ * Sorgular yalnızca bellekteki dilimleri okur; yanıt süresi giriş geçmişinin boyutundan bağımsızdır.
+ * Pencereden daha geç gelen girişler ilgili dilime eklenmez, toplam sayaçlara eklenir. Pencereler giriş zamanıyla
+ * ilerler; sunucu saatinin {@code future-tolerance-seconds} kadarından ileri zamanlı girişler, pencereleri ileri
+ * kaydırıp gerçek dilimleri silmemesi için de yalnızca toplam sayaçlara eklenir.
+ * Geri doldurma işinin yeniden hesapladığı girişler olay yayınlamadığı için sayaçlara yansımaz.
+ */
+@Slf4j
+@Service
+public class StoreVisitAnalytics {
+
+    private final StoreService storeService;
+    private final StoreVisitStatsRepository statsRepository;
+    private final StoreVisitStatsJdbcWriter statsWriter;
+    private final StoreVisitStatsProperties properties;
+    private final Map<UUID, StoreCounters> countersByStore = new ConcurrentHashMap<>();
+    private final AtomicLong lateEntries = new AtomicLong();
+    private final AtomicLong futureEntries = new AtomicLong();
+
+    public StoreVisitAnalytics(StoreService storeService,
+                               StoreVisitStatsRepository statsRepository,
+                               StoreVisitStatsJdbcWriter statsWriter,
+                               StoreVisitStatsProperties properties,
+                               TrackingMetrics trackingMetrics) {
+        this.storeService = storeService;
+        this.statsRepository = statsRepository;
+        this.statsWriter = statsWriter;
+        this.properties = properties;
+        trackingMetrics.registerFunctionCounter("store_stats.late", "Saatlik veya günlük penceresi geçmiş girişler",
+                lateEntries, AtomicLong::get);
+        trackingMetrics.registerFunctionCounter("store_stats.future", "Sunucu saatinden ileri zamanlı girişler",
+                futureEntries, AtomicLong::get);
+    }
+
+    /**
+     * Pencere içindeki saatlik ve günlük dilimleri ile toplam sayaçları tablodan yükler.
+     */
+    @PostConstruct
+    public void loadStats() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime hoursFrom = hourStart(now).minusHours(properties.getRetainedHours() - 1L);
+        LocalDateTime daysFrom = dayStart(now).minusDays(properties.getRetainedDays() - 1L);
+        List<StoreVisitStats> rows = new ArrayList<>();
+        rows.addAll(statsRepository.findByGranularityAndBucketStartGreaterThanEqual(Granularity.HOUR, hoursFrom));
+        rows.addAll(statsRepository.findByGranularityAndBucketStartGreaterThanEqual(Granularity.DAY, daysFrom));
+        rows.addAll(statsRepository.findByGranularityAndBucketStartGreaterThanEqual(Granularity.TOTAL,
+                StoreVisitStats.TOTAL_BUCKET_START));
+        for (StoreVisitStats row : rows) {
+            counters(row.getStoreId()).load(row);
+        }
+        log.info("Mağaza ziyaret istatistikleri yüklendi. Mağaza sayısı: {}, Dilim sayısı: {}",
+                countersByStore.size(), rows.size());
+    }
+
+    /**
+     * Mağaza girişi commit edildikten sonra sayaçları artırır.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoreEntry(StoreEntryEvent event) {
+        record(event.storeId(), event.courierId(), event.entryTime());
+    }
+
+    /**
+     * Girişi mağazanın saatlik, günlük ve toplam sayaçlarına ekler.
+     *
+     * @param storeId   Mağaza ID
+     * @param courierId Kurye ID
+     * @param entryTime Giriş zamanı
+     */
+    public void record(UUID storeId, String courierId, LocalDateTime entryTime) {
+        if (entryTime.isAfter(LocalDateTime.now().plusSeconds(properties.getFutureToleranceSeconds()))) {
+            log.warn("Mağaza girişi sunucu saatinden ileri zamanlı, dilimlere eklenmedi. Kurye: {}, Zaman: {}",
+                    courierId, entryTime);
+            counters(storeId).recordTotal(courierId);
+            futureEntries.incrementAndGet();
+            return;
+        }
+        if (!counters(storeId).record(courierId, entryTime)) {
+            lateEntries.incrementAndGet();
+        }
+    }
+
+    /**
+     * Mağazanın toplam, son {@code days} günlük ve son {@code hours} saatlik istatistiklerini döndürür.
+     * Dilim sayıları bellekte tutulan pencereyle sınırlanır.
+     *
+     * @param storeId Mağaza ID
+     * @param hours   Saatlik dilim sayısı
+     * @param days    Günlük dilim sayısı
+     * @return İstatistikler; mağaza katalogda yoksa boş
+     */
+    public Optional<StoreVisitStatsResponse> getStats(UUID storeId, int hours, int days) {
+        return storeService.getCatalog().findById(storeId).map(store -> {
+            StoreCounters counters = countersByStore.get(storeId);
+            LocalDateTime now = LocalDateTime.now();
+            int hourCount = Math.clamp(hours, 1, properties.getRetainedHours());
+            int dayCount = Math.clamp(days, 1, properties.getRetainedDays());
+            if (counters == null) {
+                return new StoreVisitStatsResponse(store.id(), store.name(), 0, 0,
+                        emptyBuckets(hourStart(now), hourCount, ChronoUnit.HOURS, null),
+                        emptyBuckets(dayStart(now), dayCount, ChronoUnit.DAYS, 0L));
+            }
+            return counters.toResponse(store, now, hourCount, dayCount);
+        });
+    }
+
+    /**
+     * Güncel saatte, bugün veya tüm zamanlarda en çok giriş alan mağazaları döndürür.
+     *
+     * @param granularity Sıralama dilimi
+     * @param limit       En fazla mağaza sayısı
+     * @return Giriş sayısına göre azalan sırada mağazalar
+     */
+    public List<BusiestStoreResponse> getBusiestStores(Granularity granularity, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BusiestStoreResponse> ranking = new ArrayList<>(countersByStore.size());
+        countersByStore.forEach((storeId, counters) -> {
+            BusiestStoreResponse row = counters.current(granularity, now);
+            if (row.visits() > 0) {
+                ranking.add(row);
+            }
+        });
+        return ranking.stream()
+                .sorted(Comparator.comparingLong(BusiestStoreResponse::visits).reversed()
+                        .thenComparing(row -> String.valueOf(row.storeName())))
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+
+    /**
+     * Son yazımdan bu yana değişen dilimlerin giriş farkını ve taslağını tabloya ekler. Yazım başarısız olursa
+     * fark korunur ve dilimler bir sonraki denemede yeniden yazılır.
+     *
+     * @return Yazılan dilim sayısı
+     */
+    @Scheduled(fixedDelayString = "${courier.stores.stats.flush-interval-ms:60000}",
+            initialDelayString = "${courier.stores.stats.flush-interval-ms:60000}")
+    public int flush() {
+        List<DirtyBucket> dirty = new ArrayList<>();
+        countersByStore.values().forEach(counters -> counters.drainDirty(dirty));
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        try {
+            statsWriter.addAll(dirty.stream().map(DirtyBucket::row).toList());
+        } catch (Exception e) {
+            log.error("Mağaza ziyaret istatistikleri yazılamadı. Dilim sayısı: {}", dirty.size(), e);
+            dirty.forEach(bucket -> bucket.counters().restoreDirty(bucket.bucket()));
+            return 0;
+        }
+        dirty.forEach(bucket -> bucket.counters().markFlushed(bucket.bucket(), bucket.row().getVisitCount()));
+        log.debug("{} mağaza ziyaret istatistiği dilimi yazıldı", dirty.size());
+        return dirty.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private StoreCounters counters(UUID storeId) {
+        return countersByStore.computeIfAbsent(storeId, id -> new StoreCounters(id,
+                properties.getRetainedHours(), properties.getRetainedDays()));
+    }
+
+    private String storeName(UUID storeId) {
+        return storeService.getCatalog().findById(storeId).map(StoreInfo::name).orElse(null);
+    }
+
+    private static LocalDateTime hourStart(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static LocalDateTime dayStart(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private static List<StoreVisitBucket> emptyBuckets(LocalDateTime last, int count, ChronoUnit unit, Long unique) {
+        List<StoreVisitBucket> buckets = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            buckets.add(new StoreVisitBucket(last.minus(i, unit), 0, unique));
+        }
+        return buckets;
+    }
+
+    private record DirtyBucket(StoreCounters counters, Bucket bucket, StoreVisitStats row) {
+    }
+
+    /**
+     * Tek bir dilimin sayacı. Sahibi olan {@link StoreCounters} kilidi altında değiştirilir.
+     * Günlük ve toplam dilimlerin kurye taslağı ilk kez gerektiğinde oluşturulur.
+     */
+    private static final class Bucket {
+        private final Granularity granularity;
+        private final LocalDateTime start;
+        private HyperLogLog couriers;
+        private long visits;
+        // Tabloya yazılmış (veya tablodan yüklenmiş) giriş sayısı; yazımda yalnızca aradaki fark gönderilir
+        private long flushedVisits;
+        private long uniqueEstimate = -1;
+        private boolean dirty;
+
+        private Bucket(Granularity granularity, LocalDateTime start) {
+            this.granularity = granularity;
+            this.start = start;
+        }
+
+        private void add(String courierId) {
+            visits++;
+            if (granularity != Granularity.HOUR && couriers().add(courierId)) {
+                uniqueEstimate = -1;
+            }
+            dirty = true;
+        }
+
+        private void mergeCouriers(HyperLogLog sketch) {
+            couriers().merge(sketch);
+            uniqueEstimate = -1;
+        }
+
+        private HyperLogLog couriers() {
+            if (couriers == null) {
+                couriers = new HyperLogLog();
+            }
+            return couriers;
+        }
+
+        private Long uniqueCouriers() {
+            if (granularity == Granularity.HOUR) {
+                return null;
+            }
+            if (couriers == null) {
+                return 0L;
+            }
+            if (uniqueEstimate < 0) {
+                uniqueEstimate = couriers.estimate();
+            }
+            return uniqueEstimate;
+        }
+    }
+
+    /**
+     * Bir mağazanın döngüsel saatlik/günlük dilimleri ve toplam sayacı.
+     * Dilim, başlangıcının epoch saat/gün sırasının dizi uzunluğuna göre modu olan yuvadadır. Yuvada daha eski
+     * bir dilim varsa yenisiyle değiştirilir; yazılmamış eski dilim bir sonraki yazım için ayrılır.
+     * Shard ve istek iş parçacıkları sanal olduğundan taşıyıcı iş parçacığını sabitlememek için
+     * {@code synchronized} yerine {@link ReentrantLock} kullanılır.
+     */
+    private final class StoreCounters {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final UUID storeId;
+        private final Bucket[] hours;
+        private final Bucket[] days;
+        private final Bucket total;
+        private final List<Bucket> evicted = new ArrayList<>();
+        // Bu sıradan eski dilimler pencere dışındadır; açılışta tablodan yüklenen pencereyle başlar
+        private long hourFloor;
+        private long dayFloor;
+
+        private StoreCounters(UUID storeId, int retainedHours, int retainedDays) {
+            this.storeId = storeId;
+            this.hours = new Bucket[retainedHours];
+            this.days = new Bucket[retainedDays];
+            this.total = new Bucket(Granularity.TOTAL, StoreVisitStats.TOTAL_BUCKET_START);
+            LocalDateTime now = LocalDateTime.now();
+            this.hourFloor = hourIndex(now) - retainedHours + 1;
+            this.dayFloor = dayIndex(now) - retainedDays + 1;
+        }
+
+        private void load(StoreVisitStats row) {
+            lock.lock();
+            try {
+                HyperLogLog sketch = row.getCourierSketch() == null
+                        ? null : HyperLogLog.fromByteArray(row.getCourierSketch());
+                switch (row.getGranularity()) {
+                    case TOTAL -> {
+                        total.visits = row.getVisitCount();
+                        total.flushedVisits = row.getVisitCount();
+                        if (sketch != null) {
+                            total.mergeCouriers(sketch);
+                        }
+                    }
+                    case HOUR -> {
+                        Bucket bucket = slot(hours, hourIndex(row.getBucketStart()), Granularity.HOUR,
+                                row.getBucketStart());
+                        if (bucket != null) {
+                            bucket.visits = row.getVisitCount();
+                            bucket.flushedVisits = row.getVisitCount();
+                        }
+                    }
+                    case DAY -> {
+                        Bucket bucket = slot(days, dayIndex(row.getBucketStart()), Granularity.DAY,
+                                row.getBucketStart());
+                        if (bucket != null) {
+                            bucket.visits = row.getVisitCount();
+                            bucket.flushedVisits = row.getVisitCount();
+                            if (sketch != null) {
+                                bucket.mergeCouriers(sketch);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void recordTotal(String courierId) {
+            lock.lock();
+            try {
+                total.add(courierId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return false: giriş saatlik veya günlük pencerenin dışında kaldı
+         */
+        private boolean record(String courierId, LocalDateTime entryTime) {
+            lock.lock();
+            try {
+                total.add(courierId);
+                long hour = hourIndex(entryTime);
+                long day = dayIndex(entryTime);
+                boolean inWindow = true;
+                if (hour >= hourFloor) {
+                    hourFloor = Math.max(hourFloor, hour - hours.length + 1);
+                    slot(hours, hour, Granularity.HOUR, hourStart(entryTime)).add(courierId);
+                } else {
+                    inWindow = false;
+                }
+                if (day >= dayFloor) {
+                    dayFloor = Math.max(dayFloor, day - days.length + 1);
+                    slot(days, day, Granularity.DAY, dayStart(entryTime)).add(courierId);
+                } else {
+                    inWindow = false;
+                }
+                return inWindow;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Dilimi yuvasında bulur veya yuvadaki eski dilimi yenisiyle değiştirir.
+         * Yuvada daha yeni bir dilim varsa (yalnızca açılışta yüklenirken) {@code null} döner.
+         */
+        private Bucket slot(Bucket[] ring, long index, Granularity granularity, LocalDateTime start) {
+            int position = (int) Math.floorMod(index, (long) ring.length);
+            Bucket current = ring[position];
+            if (current != null && current.start.equals(start)) {
+                return current;
+            }
+            if (current != null && current.start.isAfter(start)) {
+                return null;
+            }
+            if (current != null && current.dirty) {
+                evicted.add(current);
+            }
+            Bucket next = new Bucket(granularity, start);
+            ring[position] = next;
+            return next;
+        }
+
+        private Bucket find(Bucket[] ring, long index, LocalDateTime start) {
+            Bucket bucket = ring[(int) Math.floorMod(index, (long) ring.length)];
+            return bucket != null && bucket.start.equals(start) ? bucket : null;
+        }
+
+        private StoreVisitStatsResponse toResponse(StoreInfo store, LocalDateTime now,
+                                                   int hourCount, int dayCount) {
+            lock.lock();
+            try {
+                List<StoreVisitBucket> hourly = new ArrayList<>(hourCount);
+                LocalDateTime currentHour = hourStart(now);
+                for (int i = hourCount - 1; i >= 0; i--) {
+                    LocalDateTime start = currentHour.minusHours(i);
+                    Bucket bucket = find(hours, hourIndex(start), start);
+                    hourly.add(new StoreVisitBucket(start, bucket == null ? 0 : bucket.visits, null));
+                }
+                List<StoreVisitBucket> daily = new ArrayList<>(dayCount);
+                LocalDateTime today = dayStart(now);
+                for (int i = dayCount - 1; i >= 0; i--) {
+                    LocalDateTime start = today.minusDays(i);
+                    Bucket bucket = find(days, dayIndex(start), start);
+                    daily.add(bucket == null
+                            ? new StoreVisitBucket(start, 0, 0L)
+                            : new StoreVisitBucket(start, bucket.visits, bucket.uniqueCouriers()));
+                }
+                return new StoreVisitStatsResponse(store.id(), store.name(), total.visits, total.uniqueCouriers(),
+                        hourly, daily);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private BusiestStoreResponse current(Granularity granularity, LocalDateTime now) {
+            lock.lock();
+            try {
+                Bucket bucket = switch (granularity) {
+                    case HOUR -> find(hours, hourIndex(now), hourStart(now));
+                    case DAY -> find(days, dayIndex(now), dayStart(now));
+                    case TOTAL -> total;
+                };
+                if (bucket == null) {
+                    return new BusiestStoreResponse(storeId, null, 0, null);
+                }
+                return new BusiestStoreResponse(storeId, storeName(storeId), bucket.visits, bucket.uniqueCouriers());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void drainDirty(List<DirtyBucket> out) {
+            lock.lock();
+            try {
+                evicted.forEach(bucket -> out.add(snapshot(bucket)));
+                evicted.clear();
+                drainRing(hours, out);
+                drainRing(days, out);
+                if (total.dirty) {
+                    out.add(snapshot(total));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void drainRing(Bucket[] ring, List<DirtyBucket> out) {
+            for (Bucket bucket : ring) {
+                if (bucket != null && bucket.dirty) {
+                    out.add(snapshot(bucket));
+                }
+            }
+        }
+
+        private DirtyBucket snapshot(Bucket bucket) {
+            bucket.dirty = false;
+            byte[] sketch = bucket.couriers == null ? null : bucket.couriers.toByteArray();
+            return new DirtyBucket(this, bucket, new StoreVisitStats(storeId, bucket.granularity, bucket.start,
+                    bucket.visits - bucket.flushedVisits, sketch));
+        }
+
+        private void markFlushed(Bucket bucket, long written) {
+            lock.lock();
+            try {
+                bucket.flushedVisits += written;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void restoreDirty(Bucket bucket) {
+            lock.lock();
+            try {
+                if (bucket.dirty) {
+                    return;
+                }
+                bucket.dirty = true;
+                boolean inRing = switch (bucket.granularity) {
+                    case HOUR -> find(hours, hourIndex(bucket.start), bucket.start) == bucket;
+                    case DAY -> find(days, dayIndex(bucket.start), bucket.start) == bucket;
+                    case TOTAL -> true;
+                };
+                if (!inRing) {
+                    evicted.add(bucket);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static long hourIndex(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600L);
+    }
+
+    private static long dayIndex(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay();
+    }
+}
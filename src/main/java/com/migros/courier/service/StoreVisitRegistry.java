@@ -0,0 +1,101 @@
+package com.migros.courier.service;
+
+import com.migros.courier.dto.RecentStoreVisit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Kurye ve mağaza çifti için son giriş zamanını bellekte tutan kayıt.
+ * Mükerrer giriş kontrolünün her konum bildiriminde veritabanına gitmeden yapılmasını sağlar.
+ * Kayıt yalnızca {@link #isCompleteAfter(LocalDateTime) kapsadığı} zamandan sonraki girişler için eksiksizdir;
+ * daha eski girişler yüklenmemiş ya da temizlenmiş olabilir.
+ * Thread-safe implementasyon ile concurrent işlemleri destekler.
+ */
+class StoreVisitRegistry {
+
+    private final Map<VisitKey, LocalDateTime> lastEntries = new ConcurrentHashMap<>();
+    // Bu zamandan sonraki tüm girişler kayıttadır; yüklenmeden önce hiçbir aralık kapsanmaz
+    private volatile LocalDateTime completeAfter = LocalDateTime.MAX;
+
+    /**
+     * Verilen zamandan sonraki girişlerin tümünün kayıtta olup olmadığını döndürür.
+     */
+    boolean isCompleteAfter(LocalDateTime threshold) {
+        return !threshold.isBefore(completeAfter);
+    }
+
+    /**
+     * Verilen zamandan sonraki girişlerin yüklendiğini işaretler.
+     */
+    void markLoadedAfter(LocalDateTime since) {
+        if (since.isBefore(completeAfter)) {
+            completeAfter = since;
+        }
+    }
+
+    /**
+     * Kuryenin mağazaya verilen süre içinde girişi olup olmadığını kontrol eder.
+     *
+     * @param courierId Kurye ID
+     * @param storeId   Mağaza ID
+     * @param threshold Bu zamandan sonra yapılan girişler yakın zamanlı sayılır
+     * @return true: eşik sonrasında giriş var, false: yok
+     */
+    boolean hasEntryAfter(String courierId, UUID storeId, LocalDateTime threshold) {
+        LocalDateTime lastEntry = lastEntries.get(new VisitKey(courierId, storeId));
+        return lastEntry != null && lastEntry.isAfter(threshold);
+    }
+
+    /**
+     * Girişi kaydeder. Aynı çift için daha yeni bir giriş zaten varsa değişiklik yapmaz.
+     */
+    void record(String courierId, UUID storeId, LocalDateTime entryTime) {
+        lastEntries.merge(new VisitKey(courierId, storeId), entryTime,
+                (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+
+    /**
+     * Kaydedilen girişi siler; giriş sonradan daha yenisiyle değiştirildiyse değişiklik yapmaz.
+     */
+    void forget(String courierId, UUID storeId, LocalDateTime entryTime) {
+        lastEntries.remove(new VisitKey(courierId, storeId), entryTime);
+    }
+
+    /**
+     * Son girişi verilen zamandan eski olan çiftleri siler.
+     *
+     * @param threshold Eşik zamanı
+     * @return Silinen kayıt sayısı
+     */
+    int evictOlderThan(LocalDateTime threshold) {
+        // Kapsam silmeden önce daraltılır; silinmekte olan girişler için kontrol veritabanına gider
+        if (threshold.isAfter(completeAfter)) {
+            completeAfter = threshold;
+        }
+        int before = lastEntries.size();
+        lastEntries.values().removeIf(entryTime -> !entryTime.isAfter(threshold));
+        return Math.max(0, before - lastEntries.size());
+    }
+
+    /**
+     * Filtreye uyan kuryelerin kayıtlarını döndürür.
+     */
+    List<RecentStoreVisit> findByCourier(Predicate<String> courierFilter) {
+        return lastEntries.entrySet().stream()
+                .filter(entry -> courierFilter.test(entry.getKey().courierId()))
+                .map(entry -> new RecentStoreVisit(entry.getKey().courierId(), entry.getKey().storeId(), entry.getValue()))
+                .toList();
+    }
+
+    int size() {
+        return lastEntries.size();
+    }
+
+    private record VisitKey(String courierId, UUID storeId) {
+    }
+}
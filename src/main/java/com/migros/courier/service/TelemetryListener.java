@@ -0,0 +1,342 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.TelemetryListenerProperties;
+import com.migros.courier.dto.LocationBatchItemResult;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.util.TelemetryLineDecoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GPS cihazlarından TCP ve UDP üzerinden satır tabanlı konum mesajlarını alan NIO dinleyicisi.
+ * <p>
+ * Tek bir selector iş parçacığı bağlantıları kabul eder, okur ve satırları {@link TelemetryLineDecoder} ile
+ * doğrudan okuma tamponu üzerinden çözer. Çözülen konumlar batch'ler halinde sınırlı bir kuyruğa bırakılır ve
+ * tek bir dağıtıcı iş parçacığı tarafından {@link LocationTrackingService#trackLocations} ile işlenir.
+ * Batch'ler geliş sırasıyla işlendiği için bir kuryenin mesajları sırasını korur.
+ * <p>
+ * Kuyruk dolduğunda selector okumayı bekletir: TCP'de işletim sistemi tamponları dolarak göndericiyi
+ * yavaşlatır, UDP'de fazla datagramlar düşürülür. Bağlantı sınırı aşıldığında yeni bağlantı hemen kapatılır.
+ */
+@Slf4j
+@Component
+public class TelemetryListener {
+    private static final String METRIC_PREFIX = "courier.telemetry";
+    private static final int UDP_BUFFER_BYTES = 65_507;
+
+    private final TelemetryListenerProperties properties;
+    private final LocationTrackingService locationTrackingService;
+    private final BackgroundThreadFactory threadFactory;
+    private final TelemetryLineDecoder decoder = new TelemetryLineDecoder();
+    private final BlockingQueue<List<CourierLocation>> dispatchQueue;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter tcpMessages;
+    private final Counter udpMessages;
+    private final Counter malformedMessages;
+    private final Counter rejectedConnections;
+    private final Counter rejectedLocations;
+
+    private volatile boolean running;
+    private volatile boolean dispatching;
+    private Selector selector;
+    private ServerSocketChannel tcpChannel;
+    private DatagramChannel udpChannel;
+    private Thread selectorThread;
+    private Thread dispatcherThread;
+    private List<CourierLocation> pending = new ArrayList<>();
+
+    public TelemetryListener(TelemetryListenerProperties properties,
+                             LocationTrackingService locationTrackingService,
+                             BackgroundThreadFactory threadFactory,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.locationTrackingService = locationTrackingService;
+        this.threadFactory = threadFactory;
+        this.dispatchQueue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        Gauge.builder(METRIC_PREFIX + ".connections", connections, AtomicInteger::get)
+                .description("Açık TCP bağlantısı sayısı")
+                .register(meterRegistry);
+        this.tcpMessages = messageCounter(meterRegistry, "tcp");
+        this.udpMessages = messageCounter(meterRegistry, "udp");
+        this.malformedMessages = Counter.builder(METRIC_PREFIX + ".messages.malformed")
+                .description("Çözülemediği için atlanan mesaj sayısı")
+                .register(meterRegistry);
+        this.rejectedConnections = Counter.builder(METRIC_PREFIX + ".connections.rejected")
+                .description("Bağlantı sınırı nedeniyle kapatılan bağlantı sayısı")
+                .register(meterRegistry);
+        this.rejectedLocations = Counter.builder(METRIC_PREFIX + ".locations.rejected")
+                .description("Takip servisi tarafından reddedilen veya işlenemeyen konum sayısı")
+                .register(meterRegistry);
+    }
+
+    private static Counter messageCounter(MeterRegistry meterRegistry, String transport) {
+        return Counter.builder(METRIC_PREFIX + ".messages")
+                .description("Çözülen konum mesajı sayısı")
+                .tag("transport", transport)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Uygulama istek almaya hazır olduğunda portları açar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+            if (properties.getTcpPort() >= 0) {
+                tcpChannel = ServerSocketChannel.open();
+                tcpChannel.bind(new InetSocketAddress(properties.getBindAddress(), properties.getTcpPort()));
+                tcpChannel.configureBlocking(false);
+                tcpChannel.register(selector, SelectionKey.OP_ACCEPT);
+            }
+            if (properties.getUdpPort() >= 0) {
+                udpChannel = DatagramChannel.open();
+                udpChannel.setOption(StandardSocketOptions.SO_RCVBUF, 4 * 1024 * 1024);
+                udpChannel.bind(new InetSocketAddress(properties.getBindAddress(), properties.getUdpPort()));
+                udpChannel.configureBlocking(false);
+                udpChannel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(UDP_BUFFER_BYTES));
+            }
+        } catch (IOException e) {
+            closeQuietly();
+            throw new UncheckedIOException("Telemetri dinleyicisi başlatılamadı", e);
+        }
+        running = true;
+        dispatching = true;
+        dispatcherThread = threadFactory.newThread("telemetry-dispatcher", this::runDispatcher);
+        dispatcherThread.start();
+        selectorThread = threadFactory.newThread("telemetry-selector", this::runSelector);
+        selectorThread.start();
+        log.info("Telemetri dinleyicisi başlatıldı. TCP: {}, UDP: {}, En fazla bağlantı: {}",
+                getTcpPort(), getUdpPort(), properties.getMaxConnections());
+    }
+
+    /**
+     * Dinlenen TCP portu; TCP kapalıysa -1.
+     */
+    public int getTcpPort() {
+        return tcpChannel == null ? -1 : tcpChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Dinlenen UDP portu; UDP kapalıysa -1.
+     */
+    public int getUdpPort() {
+        return udpChannel == null ? -1 : udpChannel.socket().getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    private void runSelector() {
+        while (running) {
+            try {
+                selector.select(1_000);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.channel() == udpChannel) {
+                        readDatagrams(key);
+                    } else {
+                        readStream(key);
+                    }
+                    if (pending.size() >= properties.getMaxBatchSize()) {
+                        dispatchPending();
+                    }
+                }
+                dispatchPending();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                if (running) {
+                    log.error("Telemetri dinleyicisinde beklenmeyen hata", e);
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = tcpChannel.accept()) != null) {
+            if (connections.get() >= properties.getMaxConnections()) {
+                rejectedConnections.increment();
+                channel.close();
+                continue;
+            }
+            connections.incrementAndGet();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            // Tampon en az bir tam satır ve birkaç satırlık okuma payı alır
+            channel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(properties.getMaxLineLength() * 4));
+        }
+    }
+
+    private void readStream(SelectionKey key) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer buffer = (ByteBuffer) key.attachment();
+        try {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                closeConnection(key);
+                return;
+            }
+            buffer.flip();
+            int before = pending.size();
+            malformedMessages.increment(decoder.decode(buffer, false, pending));
+            tcpMessages.increment(pending.size() - before);
+            buffer.compact();
+            // Satır sonu gelmeden sınırdan uzun veri birikmişse bağlantı protokol dışıdır ve kapatılır
+            if (buffer.position() > properties.getMaxLineLength()) {
+                malformedMessages.increment();
+                log.warn("Telemetri bağlantısı satır uzunluğu sınırını aştığı için kapatıldı: {}",
+                        channel.getRemoteAddress());
+                closeConnection(key);
+            }
+        } catch (IOException e) {
+            log.debug("Telemetri bağlantısı okunamadı: {}", e.getMessage());
+            closeConnection(key);
+        }
+    }
+
+    private void readDatagrams(SelectionKey key) throws IOException {
+        ByteBuffer buffer = (ByteBuffer) key.attachment();
+        buffer.clear();
+        while (udpChannel.receive(buffer) != null) {
+            buffer.flip();
+            int before = pending.size();
+            malformedMessages.increment(decoder.decode(buffer, true, pending));
+            udpMessages.increment(pending.size() - before);
+            buffer.clear();
+            if (pending.size() >= properties.getMaxBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            log.debug("Telemetri bağlantısı kapatılamadı: {}", e.getMessage());
+        }
+        connections.decrementAndGet();
+    }
+
+    private void dispatchPending() throws InterruptedException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        dispatchQueue.put(pending);
+        pending = new ArrayList<>();
+    }
+
+    private void runDispatcher() {
+        while (dispatching || !dispatchQueue.isEmpty()) {
+            List<CourierLocation> batch;
+            try {
+                batch = dispatchQueue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // Kapanışta kuyruğu boşaltmaya devam edilir
+                continue;
+            }
+            if (batch == null) {
+                continue;
+            }
+            try {
+                for (LocationBatchItemResult result : locationTrackingService.trackLocations(batch)) {
+                    if (result.getStatus() != LocationBatchItemResult.Status.ACCEPTED) {
+                        rejectedLocations.increment();
+                    }
+                }
+            } catch (RuntimeException e) {
+                rejectedLocations.increment(batch.size());
+                log.error("Telemetri konumları işlenemedi. Konum sayısı: {}", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Yeni mesaj kabulünü durdurur, portları kapatır ve kuyrukta bekleyen konumları işler.
+     */
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        join(selectorThread);
+        closeQuietly();
+        if (!pending.isEmpty() && !dispatchQueue.offer(pending)) {
+            log.warn("Kapanışta kuyruk dolu olduğu için {} telemetri konumu işlenemedi", pending.size());
+        }
+        dispatching = false;
+        join(dispatcherThread);
+        log.info("Telemetri dinleyicisi kapatıldı");
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            if (selector != null) {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            }
+            if (tcpChannel != null) {
+                tcpChannel.close();
+            }
+            if (udpChannel != null) {
+                udpChannel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Telemetri kanalları kapatılırken hata oluştu: {}", e.getMessage());
+        }
+        connections.set(0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.migros.courier.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Konum takibi akışının Micrometer metrikleri.
+ * <p>
+ * Her aşama için {@code courier.tracking.stage} timer'ı {@code stage} etiketiyle histogram olarak yayınlanır;
+ * böylece gecikme artışlarında hangi aşamanın yavaşladığı ayırt edilebilir. Etiketler düşük kardinaliteli
+ * tutulur, kurye ID gibi sınırsız değerler etiket olarak kullanılmaz.
+ */
+@Component
+public class TrackingMetrics {
+    private static final String METRIC_PREFIX = "courier.tracking";
+
+    /**
+     * {@code trackLocation} akışının ölçülen aşamaları.
+     */
+    public enum Stage {
+        VALIDATION("validation"),
+        UPDATE_TOTAL_DISTANCE("update_total_distance"),
+        FIND_NEARBY_STORES("find_nearby_stores"),
+        HAS_RECENT_ENTRY("has_recent_entry"),
+        LOG_STORE_ENTRY("log_store_entry"),
+        SAVE_LOCATION("save_location");
+
+        private final String tagValue;
+
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    /**
+     * Konum bildiriminin geldiği yol.
+     */
+    public enum Source {
+        SINGLE("single"),
+        BATCH("batch");
+
+        private final String tagValue;
+
+        Source(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Source, Counter> pingCounters = new EnumMap<>(Source.class);
+    private final Counter storeEntryCounter;
+    private final Counter suppressedEntryCounter;
+
+    public TrackingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder(METRIC_PREFIX + ".stage")
+                    .description("Konum takibi aşamalarının süresi")
+                    .tag("stage", stage.tagValue)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (Source source : Source.values()) {
+            pingCounters.put(source, Counter.builder(METRIC_PREFIX + ".pings")
+                    .description("İşlenen konum bildirimi sayısı")
+                    .tag("source", source.tagValue)
+                    .register(meterRegistry));
+        }
+        this.storeEntryCounter = Counter.builder(METRIC_PREFIX + ".store_entries")
+                .description("Kaydedilen mağaza girişi sayısı")
+                .register(meterRegistry);
+        this.suppressedEntryCounter = Counter.builder(METRIC_PREFIX + ".store_entries.suppressed")
+                .description("Ziyaret aralığı içinde olduğu için kaydedilmeyen mükerrer giriş sayısı")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Bir aşamanın süresini kaydeder.
+     *
+     * @param stage      Aşama
+     * @param startNanos Aşamanın başında alınan {@link System#nanoTime()} değeri
+     */
+    public void recordStage(Stage stage, long startNanos) {
+        stageTimers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void incrementPings(Source source) {
+        pingCounters.get(source).increment();
+    }
+
+    public void incrementStoreEntries() {
+        storeEntryCounter.increment();
+    }
+
+    public void incrementSuppressedEntries() {
+        suppressedEntryCounter.increment();
+    }
+
+    /**
+     * Bir nesnenin anlık boyutunu gösteren gauge kaydeder.
+     *
+     * @param name        Metrik adı ({@code courier.tracking.} önekinden sonraki kısım)
+     * @param description Açıklama
+     * @param target      Ölçülecek nesne
+     * @param size        Nesneden boyut okuyan fonksiyon
+     */
+    public <T> void registerSizeGauge(String name, String description, T target, ToDoubleFunction<T> size) {
+        Gauge.builder(METRIC_PREFIX + "." + name, target, size)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Bir nesnenin kendi tuttuğu, yalnızca artan sayacı okuyan counter kaydeder.
+     *
+     * @param name        Metrik adı ({@code courier.tracking.} önekinden sonraki kısım)
+     * @param description Açıklama
+     * @param target      Ölçülecek nesne
+     * @param count       Nesneden sayaç değerini okuyan fonksiyon
+     */
+    public <T> void registerFunctionCounter(String name, String description, T target, ToDoubleFunction<T> count) {
+        FunctionCounter.builder(METRIC_PREFIX + "." + name, target, count)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
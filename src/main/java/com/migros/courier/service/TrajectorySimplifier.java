@@ -0,0 +1,254 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.LocationSimplificationProperties;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.util.DistanceCalculator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Kurye rotalarını kayıttan önce akış halinde sadeleştirir.
+ * <p>
+ * Her kurye için son kaydedilen nokta (çapa) ve henüz kaydedilmemiş noktalardan oluşan sınırlı bir pencere tutulur.
+ * Yeni nokta geldiğinde penceredeki tüm noktalar çapadan yeni noktaya çizilen doğru parçasına
+ * {@code tolerance-meters} mesafeden yakınsa nokta pencereye eklenir; değilse penceredeki son nokta kaydedilir ve
+ * yeni çapa olur (Douglas-Peucker benzeri açılan pencere yöntemi). Son noktaya {@code dead-band-meters}
+ * içinde kalan noktalar duran kurye kabul edilerek atılır.
+ * <p>
+ * Bir nokta, kendisinden sonraki bir nokta geldiğinde kaydedilebilir; bu yüzden metot 0, 1 veya 2 nokta döndürebilir.
+ * Döndürülen noktalar kaydedilemezse rota durumu {@link #snapshot}/{@link #restore} ile geri alınmalıdır; aksi halde
+ * pencereden çıkan noktalar bir daha döndürülmez.
+ */
+@Component
+public class TrajectorySimplifier {
+    private static final String METRIC_PREFIX = "courier.location.simplification";
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+
+    private final LocationSimplificationProperties properties;
+    private final Map<String, Track> tracks = new ConcurrentHashMap<>();
+    private final Counter receivedCounter;
+    private final Counter storedCounter;
+
+    public TrajectorySimplifier(LocationSimplificationProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getMaxWindow() < 1) {
+            throw new IllegalArgumentException("Sadeleştirme penceresi en az 1 olmalıdır");
+        }
+        this.properties = properties;
+        this.receivedCounter = Counter.builder(METRIC_PREFIX + ".received")
+                .description("Sadeleştirmeye giren konum sayısı")
+                .register(meterRegistry);
+        this.storedCounter = Counter.builder(METRIC_PREFIX + ".stored")
+                .description("Sadeleştirme sonrasında kaydedilen konum sayısı")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".reduction.ratio", this, TrajectorySimplifier::getReductionRatio)
+                .description("Kaydedilmeyen konumların gelen konumlara oranı")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Yeni konumu kuryenin rotasına ekler ve kaydedilmesi gereken konumları döndürür.
+     *
+     * @param location Ham kurye konumu
+     * @return Kaydedilecek konumlar (zaman sırasıyla); sadeleştirme kapalıysa yalnızca verilen konum
+     */
+    public List<CourierLocation> simplify(CourierLocation location) {
+        if (!properties.isEnabled()) {
+            return List.of(location);
+        }
+        receivedCounter.increment();
+        List<CourierLocation> retained = new ArrayList<>(2);
+        tracks.compute(location.getCourierId(), (courierId, track) -> {
+            if (track == null) {
+                retained.add(location);
+                return new Track(location);
+            }
+            track.accept(location, retained);
+            return track;
+        });
+        storedCounter.increment(retained.size());
+        return retained;
+    }
+
+    /**
+     * Kuryelerin rota durumunun kopyasını alır. Kuryenin noktaları işlenip kaydedilemezse {@link #restore}
+     * ile bu hale döndürülür.
+     *
+     * @param courierIds Kurye ID'leri
+     * @return Rota durumlarının kopyası; sadeleştirme kapalıysa boş
+     */
+    public Snapshot snapshot(List<String> courierIds) {
+        Map<String, Track[]> copies = new HashMap<>();
+        if (properties.isEnabled()) {
+            for (String courierId : courierIds) {
+                Track track = tracks.get(courierId);
+                copies.put(courierId, new Track[]{track, track == null ? null : track.copy()});
+            }
+        }
+        return new Snapshot(copies);
+    }
+
+    /**
+     * Kuryelerin rota durumunu kopyanın alındığı hale döndürür. Arada boşta kaldığı için bekleyen noktası
+     * kaydedilip silinen rotalar, nokta ikinci kez kaydedilmesin diye geri yüklenmez.
+     *
+     * @param snapshot {@link #snapshot} ile alınan kopya
+     */
+    public void restore(Snapshot snapshot) {
+        snapshot.tracks.forEach((courierId, pair) -> tracks.compute(courierId, (id, current) -> {
+            Track original = pair[0];
+            if (original == null) {
+                return null;
+            }
+            return current == original ? pair[1] : current;
+        }));
+    }
+
+    /**
+     * {@code max-gap} süresince konum göndermeyen kuryelerin bekleyen son noktalarını döndürür
+     * ve bu kuryelerin rota durumunu bellekten siler.
+     *
+     * @return Kaydedilecek konumlar
+     */
+    public List<CourierLocation> flushIdle() {
+        long cutoffNanos = System.nanoTime() - properties.getMaxGap().toNanos();
+        return flush(track -> track.lastSeenNanos - cutoffNanos < 0);
+    }
+
+    /**
+     * Tüm kuryelerin bekleyen son noktalarını döndürür ve rota durumlarını siler (kapanışta kullanılır).
+     *
+     * @return Kaydedilecek konumlar
+     */
+    public List<CourierLocation> flushAll() {
+        return flush(track -> true);
+    }
+
+    public double getReductionRatio() {
+        double received = receivedCounter.count();
+        return received == 0 ? 0.0 : 1.0 - storedCounter.count() / received;
+    }
+
+    private List<CourierLocation> flush(Predicate<Track> shouldFlush) {
+        List<CourierLocation> retained = new ArrayList<>();
+        for (String courierId : tracks.keySet()) {
+            tracks.computeIfPresent(courierId, (id, track) -> {
+                if (!shouldFlush.test(track)) {
+                    return track;
+                }
+                if (!track.window.isEmpty()) {
+                    retained.add(track.window.getLast());
+                }
+                return null;
+            });
+        }
+        storedCounter.increment(retained.size());
+        return retained;
+    }
+
+    /**
+     * {@link #snapshot} ile alınan rota durumları. Kurye başına {alındığı andaki rota, kopyası} tutulur.
+     */
+    public static final class Snapshot {
+        private final Map<String, Track[]> tracks;
+
+        private Snapshot(Map<String, Track[]> tracks) {
+            this.tracks = tracks;
+        }
+    }
+
+    /**
+     * Tek bir kuryenin sadeleştirme durumu. Yalnızca {@code tracks.compute} içinden değiştirilir.
+     */
+    private final class Track {
+        private CourierLocation anchor;
+        private final List<CourierLocation> window = new ArrayList<>();
+        private long lastSeenNanos;
+
+        private Track(CourierLocation anchor) {
+            this.anchor = anchor;
+            this.lastSeenNanos = System.nanoTime();
+        }
+
+        private Track copy() {
+            Track copy = new Track(anchor);
+            copy.window.addAll(window);
+            copy.lastSeenNanos = lastSeenNanos;
+            return copy;
+        }
+
+        private void accept(CourierLocation location, List<CourierLocation> retained) {
+            lastSeenNanos = System.nanoTime();
+            CourierLocation reference = window.isEmpty() ? anchor : window.getLast();
+
+            if (!location.getTimestamp().isAfter(reference.getTimestamp())) {
+                // Sırası bozuk gelen nokta rotayı bozmadan olduğu gibi kaydedilir
+                retained.add(location);
+                return;
+            }
+            if (Duration.between(anchor.getTimestamp(), location.getTimestamp()).compareTo(properties.getMaxGap()) >= 0) {
+                closeWindow(retained);
+                anchor = location;
+                retained.add(location);
+                return;
+            }
+            if (DistanceCalculator.calculateDistance(reference.getLat(), reference.getLng(),
+                    location.getLat(), location.getLng()) <= properties.getDeadBandMeters()) {
+                return;
+            }
+            if (window.size() >= properties.getMaxWindow() || !windowFitsSegmentTo(location)) {
+                closeWindow(retained);
+            }
+            window.add(location);
+        }
+
+        private void closeWindow(List<CourierLocation> retained) {
+            if (window.isEmpty()) {
+                return;
+            }
+            anchor = window.getLast();
+            retained.add(anchor);
+            window.clear();
+        }
+
+        private boolean windowFitsSegmentTo(CourierLocation end) {
+            for (CourierLocation point : window) {
+                if (distanceToSegment(point, anchor, end) > properties.getToleranceMeters()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Noktanın [start, end] doğru parçasına uzaklığını, start etrafındaki yerel eş dikdörtgen
+     * izdüşümde metre cinsinden hesaplar. Pencere kısa olduğu için izdüşüm hatası ihmal edilebilir.
+     */
+    static double distanceToSegment(CourierLocation point, CourierLocation start, CourierLocation end) {
+        double cosLat = Math.cos(Math.toRadians(start.getLat()));
+        double ex = Math.toRadians(end.getLng() - start.getLng()) * cosLat * EARTH_RADIUS_METERS;
+        double ey = Math.toRadians(end.getLat() - start.getLat()) * EARTH_RADIUS_METERS;
+        double px = Math.toRadians(point.getLng() - start.getLng()) * cosLat * EARTH_RADIUS_METERS;
+        double py = Math.toRadians(point.getLat() - start.getLat()) * EARTH_RADIUS_METERS;
+
+        double lengthSquared = ex * ex + ey * ey;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * ex + py * ey) / lengthSquared));
+        double dx = px - t * ex;
+        double dy = py - t * ey;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
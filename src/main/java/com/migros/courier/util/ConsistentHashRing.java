@@ -0,0 +1,107 @@
+package com.migros.courier.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Kurye ID'lerini küme düğümlerine dağıtan tutarlı hash (consistent hashing) halkası.
+ * <p>
+ * Her düğüm halkaya {@code virtualNodes} noktayla yerleşir; bir kurye, ID hash'inden sonra gelen ilk noktanın
+ * düğümüne aittir. Düğüm eklendiğinde yalnızca yeni düğüme düşen kuryelerin, çıkarıldığında yalnızca o düğümün
+ * kuryelerinin sahibi değişir; diğer kuryeler yerinde kalır. Sanal noktalar yükün düğümler arasında dengeli
+ * dağılmasını sağlar.
+ * <p>
+ * Halka değişmezdir ve aynı düğüm listesiyle her düğümde aynı sonucu verir; üyelik değiştiğinde yeniden
+ * oluşturulmalıdır.
+ */
+public final class ConsistentHashRing {
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    private ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Halkada en az bir düğüm olmalıdır");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Sanal düğüm sayısı pozitif olmalıdır");
+        }
+        this.nodes = nodes.stream().distinct().sorted().toList();
+
+        long[][] entries = new long[this.nodes.size() * virtualNodes][];
+        int count = 0;
+        for (int node = 0; node < this.nodes.size(); node++) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                entries[count++] = new long[]{hash(this.nodes.get(node) + "#" + replica), node};
+            }
+        }
+        // Aynı noktaya düşen sanal düğümler düğüm sırasıyla ayrılır; böylece her düğümde sonuç aynıdır
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compareUnsigned(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[count];
+        this.owners = new String[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = entries[i][0];
+            owners[i] = this.nodes.get((int) entries[i][1]);
+        }
+    }
+
+    /**
+     * Verilen düğümlerle halka oluşturur. Düğüm sırası sonucu etkilemez; tekrarlanan düğümler bir kez sayılır.
+     *
+     * @param nodes        Düğüm adları (küme modunda düğüm adresleri)
+     * @param virtualNodes Düğüm başına halkadaki nokta sayısı
+     */
+    public static ConsistentHashRing of(Collection<String> nodes, int virtualNodes) {
+        return new ConsistentHashRing(nodes, virtualNodes);
+    }
+
+    /**
+     * Anahtarın sahibi olan düğümü döndürür.
+     *
+     * @param key Kurye ID
+     * @return Düğüm adı
+     */
+    public String ownerOf(String key) {
+        long hash = hash(key);
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[mid], hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // Son noktadan sonra halka başa döner
+        return owners[low == points.length ? 0 : low];
+    }
+
+    /**
+     * Sıralı düğüm listesi.
+     */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * UTF-8 baytları üzerinde 64 bit FNV-1a ve ardından MurmurHash3 karıştırma adımı.
+     * {@link String#hashCode} yerine kullanılır; benzer ID'ler ve düğüm adları halkaya düzgün dağılır.
+     * {@link HyperLogLog} de kurye ID'lerini aynı hash ile kaydeder.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
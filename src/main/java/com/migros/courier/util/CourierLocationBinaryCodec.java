@@ -0,0 +1,123 @@
+package com.migros.courier.util;
+
+import com.migros.courier.model.CourierLocation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kurye konumlarının sabit düzenli ikili (binary) gösterimi.
+ * <p>
+ * Tüm sayılar big-endian'dır:
+ * <pre>
+ * int    magic   0x434C4231 ("CLB1")
+ * int    count   kayıt sayısı
+ * count kez:
+ *   ushort idLength  kurye ID'sinin UTF-8 bayt uzunluğu
+ *   byte[] id        kurye ID'si (UTF-8)
+ *   double lat
+ *   double lng
+ *   long   time      epoch milisaniye
+ * </pre>
+ * Zaman, uygulamanın diğer yerlerinde kullanılan {@link LocalDateTime#now()} ile tutarlı olması için
+ * sunucunun varsayılan saat dilimine çevrilir. Çözümleme JSON ayrıştırmasını ve bean validation'ı atlar;
+ * koordinat kontrolleri takip akışının doğrulama adımında yapılır.
+ */
+public final class CourierLocationBinaryCodec {
+    public static final String MEDIA_TYPE_VALUE = "application/x-courier-location";
+
+    private static final int MAGIC = 0x434C4231; // "CLB1"
+    private static final int FIXED_RECORD_BYTES = Short.BYTES + 3 * Long.BYTES;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private CourierLocationBinaryCodec() {
+    }
+
+    /**
+     * İkili gövdeyi konum listesine çözer.
+     *
+     * @param body     İstek gövdesi
+     * @param maxCount Kabul edilecek en fazla kayıt sayısı
+     * @return Konumlar, gövdedeki sırayla
+     * @throws IllegalArgumentException Gövde bozuk, eksik veya fazla kayıt içeriyorsa
+     * @throws UncheckedIOException     Gövde okunamazsa
+     */
+    public static List<CourierLocation> decode(InputStream body, int maxCount) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(body));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Tanınmayan konum formatı");
+            }
+            int count = in.readInt();
+            if (count < 0 || count > maxCount) {
+                throw new IllegalArgumentException("Kayıt sayısı 0 ile " + maxCount + " arasında olmalıdır: " + count);
+            }
+            List<CourierLocation> locations = new ArrayList<>(count);
+            byte[] idBuffer = new byte[64];
+            for (int i = 0; i < count; i++) {
+                int idLength = in.readUnsignedShort();
+                if (idLength == 0) {
+                    throw new IllegalArgumentException("Kurye ID boş olamaz. Kayıt: " + i);
+                }
+                if (idLength > idBuffer.length) {
+                    idBuffer = new byte[idLength];
+                }
+                in.readFully(idBuffer, 0, idLength);
+                String courierId = new String(idBuffer, 0, idLength, StandardCharsets.UTF_8);
+                double lat = in.readDouble();
+                double lng = in.readDouble();
+                LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZONE);
+                locations.add(new CourierLocation(courierId, lat, lng, timestamp));
+            }
+            if (in.read() != -1) {
+                throw new IllegalArgumentException("Gövdede bildirilen " + count + " kayıttan fazla veri var");
+            }
+            return locations;
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Konum gövdesi eksik", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Konum gövdesi okunamadı", e);
+        }
+    }
+
+    /**
+     * Konumları ikili gösterime çevirir.
+     *
+     * @param locations Konumlar
+     * @return Kodlanmış gövde
+     */
+    public static byte[] encode(List<CourierLocation> locations) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2 * Integer.BYTES +
+                locations.size() * (FIXED_RECORD_BYTES + 16));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(locations.size());
+            for (CourierLocation location : locations) {
+                byte[] id = location.getCourierId().getBytes(StandardCharsets.UTF_8);
+                if (id.length > 0xFFFF) {
+                    throw new IllegalArgumentException("Kurye ID 65535 bayttan uzun olamaz");
+                }
+                out.writeShort(id.length);
+                out.write(id);
+                out.writeDouble(location.getLat());
+                out.writeDouble(location.getLng());
+                out.writeLong(location.getTimestamp().atZone(ZONE).toInstant().toEpochMilli());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -7,9 +7,23 @@ package com.migros.courier.util;
  * <p>
  * Haversine formülü, dünyanın küresel şeklini dikkate alarak
  * iki nokta arasındaki kuş uçuşu mesafeyi hesaplamak için kullanılır.
+ * <p>
+ * Bir noktadan çok sayıda mağazaya olan mesafeler için {@code double[]} dizileri üzerinde çalışan
+ * toplu (bulk) API'ler de sunar. JVM {@code --add-modules jdk.incubator.vector} ile başlatıldıysa
+ * toplu hesaplama JDK Vector API ile yapılır, aksi halde skaler koda düşülür.
  */
 public class DistanceCalculator {
     private static final double EARTH_RADIUS = 6371; // Dünya'nın yarıçapı (km)
+    private static final double EARTH_RADIUS_METERS = EARTH_RADIUS * 1000;
+
+    // Vektör sonucunun yarıçap sınırına bu kadar yakın olduğu durumlarda karar skaler formülle verilir (metre)
+    private static final double RADIUS_TIE_BREAK_METERS = 1e-6;
+    // Bu boyutun altındaki dizilerde vektör hazırlık maliyeti kazancı aşar
+    private static final int VECTOR_MIN_LENGTH = 16;
+
+    private static final boolean VECTOR_API_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                    && !Boolean.getBoolean("courier.distance.vector.disabled");
 
     /**
      * İki koordinat noktası arasındaki mesafeyi metre cinsinden hesaplar.
@@ -32,4 +46,136 @@ public class DistanceCalculator {
 
         return EARTH_RADIUS * c * 1000;
     }
+
+    /**
+     * Eş dikdörtgen (equirectangular) izdüşüm ile yaklaşık mesafeyi metre cinsinden hesaplar.
+     * Tek bir {@code cos} ve {@code sqrt} çağrısı yapar.
+     * <p>
+     * Hata sınırı: 10 km'ye kadar mesafelerde ve |enlem| ≤ 80° için Haversine sonucuna göre
+     * bağıl hata 1e-4'ün (10 km'de 1 metre) altındadır. Mesafe büyüdükçe ve kutuplara
+     * yaklaştıkça hata hızla artar; bu aralık dışında kesin sonuç gereken yerlerde kullanılmamalıdır.
+     * {@link StoreSpatialIndex}, yarıçap kontrolünde adayları önce bu formülle eler.
+     *
+     * @return Yaklaşık mesafe (metre cinsinden)
+     */
+    public static double approximateDistance(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(wrapLongitudeDelta(lon2 - lon1));
+        double x = dLon * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        return EARTH_RADIUS_METERS * Math.sqrt(x * x + dLat * dLat);
+    }
+
+    /**
+     * Bir noktadan, dizilerde verilen koordinatlara olan Haversine mesafelerini hesaplar.
+     * Vector API kullanılabiliyorsa hesaplama vektörel yapılır; sonuçlar skaler formülden
+     * en fazla birkaç ULP farklıdır.
+     *
+     * @param lat  Noktanın enlemi
+     * @param lng  Noktanın boylamı
+     * @param lats Hedef enlemleri
+     * @param lngs Hedef boylamları
+     * @param out  Mesafelerin yazılacağı dizi (metre), en az {@code lats.length} uzunluğunda
+     */
+    public static void calculateDistances(double lat, double lng, double[] lats, double[] lngs, double[] out) {
+        if (lats.length != lngs.length || out.length < lats.length) {
+            throw new IllegalArgumentException("Koordinat ve sonuç dizilerinin boyutları uyumsuz");
+        }
+        if (VECTOR_API_AVAILABLE && lats.length >= VECTOR_MIN_LENGTH) {
+            VectorDistanceKernel.haversine(lat, lng, lats, lngs, out, lats.length, EARTH_RADIUS_METERS);
+        } else {
+            calculateDistancesScalar(lat, lng, lats, lngs, out, lats.length);
+        }
+    }
+
+    /**
+     * Bir noktaya yarıçap mesafesi içindeki koordinatların indekslerini bulur.
+     * <p>
+     * Skaler yolda her hedef önce sınırlayıcı kutu (bounding box) kontrolünden geçer:
+     * küre üzerinde yarıçap içindeki bir noktanın enlem farkı en fazla {@code r/R} radyan,
+     * boylam farkı en fazla {@code asin(sin(r/R) / cos(enlem))} radyan olabilir. Bu sınırlar
+     * kesin olduğundan kontrol yarıçap içindeki hiçbir noktayı elemez; yalnızca uzak noktalar için
+     * trigonometrik hesaplamayı atlar. Vektör yolunda tüm dizi dallanmadan hesaplanır.
+     * Sonuç, {@link #calculateDistance} ile yapılan doğrusal taramayla aynıdır.
+     *
+     * @param lat          Noktanın enlemi
+     * @param lng          Noktanın boylamı
+     * @param lats         Hedef enlemleri
+     * @param lngs         Hedef boylamları
+     * @param radiusMeters Yarıçap (metre)
+     * @param matches      Eşleşen indekslerin artan sırayla yazılacağı dizi
+     * @return Eşleşen hedef sayısı
+     */
+    public static int filterWithinRadius(double lat, double lng, double[] lats, double[] lngs,
+                                         double radiusMeters, int[] matches) {
+        if (lats.length != lngs.length || matches.length < lats.length) {
+            throw new IllegalArgumentException("Koordinat ve sonuç dizilerinin boyutları uyumsuz");
+        }
+        int count = 0;
+        if (VECTOR_API_AVAILABLE && lats.length >= VECTOR_MIN_LENGTH) {
+            double[] distances = new double[lats.length];
+            VectorDistanceKernel.haversine(lat, lng, lats, lngs, distances, lats.length, EARTH_RADIUS_METERS);
+            for (int i = 0; i < lats.length; i++) {
+                if (isWithinRadius(distances[i], lat, lng, lats[i], lngs[i], radiusMeters)) {
+                    matches[count++] = i;
+                }
+            }
+            return count;
+        }
+
+        double maxDeltaLat = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        double maxDeltaLng = maxLongitudeDelta(lat, radiusMeters);
+        for (int i = 0; i < lats.length; i++) {
+            if (Math.abs(lats[i] - lat) > maxDeltaLat
+                    || Math.abs(wrapLongitudeDelta(lngs[i] - lng)) > maxDeltaLng) {
+                continue;
+            }
+            if (calculateDistance(lat, lng, lats[i], lngs[i]) <= radiusMeters) {
+                matches[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    static boolean isVectorApiAvailable() {
+        return VECTOR_API_AVAILABLE;
+    }
+
+    static void calculateDistancesScalar(double lat, double lng, double[] lats, double[] lngs, double[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = calculateDistance(lat, lng, lats[i], lngs[i]);
+        }
+    }
+
+    private static boolean isWithinRadius(double distance, double lat, double lng, double targetLat, double targetLng,
+                                          double radiusMeters) {
+        if (Math.abs(distance - radiusMeters) <= RADIUS_TIE_BREAK_METERS) {
+            // Sınırdaki değerlerde skaler formülle aynı kararı vermek için yeniden hesaplanır
+            return calculateDistance(lat, lng, targetLat, targetLng) <= radiusMeters;
+        }
+        return distance <= radiusMeters;
+    }
+
+    /**
+     * Verilen enlemdeki bir noktadan yarıçap mesafesindeki noktaların alabileceği en büyük boylam farkı (derece).
+     * Kutba yarıçaptan daha yakın noktalarda tüm boylamlar mümkündür.
+     */
+    private static double maxLongitudeDelta(double lat, double radiusMeters) {
+        double angularRadius = radiusMeters / EARTH_RADIUS_METERS;
+        double latRad = Math.toRadians(Math.abs(lat));
+        if (latRad + angularRadius >= Math.PI / 2) {
+            return 180.0;
+        }
+        // Kayan nokta yuvarlamalarına karşı küçük bir pay eklenir
+        return Math.toDegrees(Math.asin(Math.min(1.0, Math.sin(angularRadius) / Math.cos(latRad)))) + 1e-9;
+    }
+
+    private static double wrapLongitudeDelta(double delta) {
+        if (delta > 180) {
+            return delta - 360;
+        }
+        if (delta < -180) {
+            return delta + 360;
+        }
+        return delta;
+    }
 }
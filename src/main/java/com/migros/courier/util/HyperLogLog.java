@@ -0,0 +1,111 @@
+package com.migros.courier.util;
+
+import java.util.Arrays;
+
+/**
+ * Farklı eleman sayısını sabit bellekle yaklaşık olarak tahmin eden HyperLogLog taslağı.
+ * <p>
+ * 2<sup>12</sup> adet bir baytlık yazmaç kullanır (4KB); tahminin standart hatası yaklaşık %1,6'dır.
+ * Küçük sayılarda doğrusal sayım (linear counting) düzeltmesi uygulanır. İki taslak yazmaçlarının
+ * büyüğü alınarak birleştirilebilir; bu sayede saatlik/günlük taslaklar kayıpsız toplanır.
+ * <p>
+ * Thread-safe değildir; eşzamanlı erişim çağıran tarafından senkronize edilmelidir.
+ */
+public final class HyperLogLog {
+    public static final int PRECISION = 12;
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTER_COUNT];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * {@link #toByteArray()} ile yazılmış taslağı okur.
+     *
+     * @param bytes Yazmaçlar
+     * @return Taslak
+     * @throws IllegalArgumentException uzunluk {@value #REGISTER_COUNT} değilse
+     */
+    public static HyperLogLog fromByteArray(byte[] bytes) {
+        if (bytes.length != REGISTER_COUNT) {
+            throw new IllegalArgumentException("HyperLogLog taslağı " + REGISTER_COUNT + " bayt olmalıdır: " + bytes.length);
+        }
+        return new HyperLogLog(bytes.clone());
+    }
+
+    /**
+     * Elemanı taslağa ekler.
+     *
+     * @param value Eleman
+     * @return true: taslak değişti
+     */
+    public boolean add(String value) {
+        long hash = ConsistentHashRing.hash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Kalan bitlerde ilk 1'in sırası; tüm bitler sıfırsa en büyük değer alınır
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), Long.SIZE - PRECISION) + 1;
+        if (rank <= registers[index]) {
+            return false;
+        }
+        registers[index] = (byte) rank;
+        return true;
+    }
+
+    /**
+     * Diğer taslağın elemanlarını bu taslağa ekler.
+     *
+     * @param other Birleştirilecek taslak
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Eklenen farklı eleman sayısının tahmini.
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(registers.clone());
+    }
+
+    public byte[] toByteArray() {
+        return registers.clone();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HyperLogLog sketch && Arrays.equals(registers, sketch.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+}
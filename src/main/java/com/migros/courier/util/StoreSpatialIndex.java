@@ -0,0 +1,212 @@
+package com.migros.courier.util;
+
+import com.migros.courier.dto.StoreInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mağazaları sabit boyutlu enlem/boylam hücrelerine yerleştiren bellek içi mekânsal indeks.
+ * <p>
+ * Hücre kenarı, arama yarıçapının derece karşılığı kadardır. Bir sorgu yalnızca noktanın
+ * bulunduğu hücre ile yarıçapın kapsadığı komşu hücrelerdeki mağazaları Haversine ile kontrol eder;
+ * böylece her konum bildirimi tüm mağazaları taramak yerine birkaç adaya bakar.
+ * Sonuçlar, doğrusal taramayla aynı mağazaları aynı sırada döndürür.
+ * <p>
+ * Hücre adayları önce {@link DistanceCalculator#approximateDistance} ile elenir; yaklaşık mesafe yarıçaptan
+ * belgelenen hata payından daha uzak ya da daha yakınsa karar doğrudan verilir, yalnızca sınıra yakın adaylar
+ * Haversine ile hesaplanır. Yaklaşım, hata sınırının geçerli olduğu {@value #APPROXIMATION_MAX_LATITUDE}°
+ * enlemine kadar ve {@value #APPROXIMATION_MAX_RADIUS_METERS} metreye kadar yarıçaplarda kullanılır.
+ * <p>
+ * Mağaza koordinatları ayrıca {@code double[]} dizilerinde tutulur; hücre gezmenin taramadan
+ * pahalı olduğu durumlarda {@link DistanceCalculator#filterWithinRadius} ile toplu tarama yapılır.
+ * <p>
+ * İndeks değişmezdir; mağaza listesi değiştiğinde yeniden oluşturulmalıdır.
+ */
+public final class StoreSpatialIndex {
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    // Kayan nokta yuvarlamalarına karşı sorgu sınırlarına eklenen pay (derece)
+    private static final double BOUNDARY_EPSILON_DEGREES = 1e-9;
+    // Yaklaşık mesafenin belgelenen 1e-4 bağıl hata sınırına eklenen güvenlik payı
+    private static final double APPROXIMATION_RELATIVE_MARGIN = 1e-3;
+    private static final double APPROXIMATION_MAX_LATITUDE = 80.0;
+    // Adaylar en fazla birkaç hücre uzakta olduğundan bu yarıçapta aday mesafeleri 10 km'nin altında kalır
+    private static final double APPROXIMATION_MAX_RADIUS_METERS = 2_000.0;
+
+    private final double radiusMeters;
+    private final boolean approximationEnabled;
+    private final double cellSizeDegrees;
+    private final double columnWidthDegrees;
+    private final int columnCount;
+    private final int rowCount;
+    private final Map<Long, int[]> cells;
+    private final StoreInfo[] stores;
+    private final double[] lats;
+    private final double[] lngs;
+
+    private StoreSpatialIndex(Collection<StoreInfo> stores, double radiusMeters) {
+        if (radiusMeters <= 0) {
+            throw new IllegalArgumentException("Arama yarıçapı pozitif olmalıdır");
+        }
+        this.radiusMeters = radiusMeters;
+        this.approximationEnabled = radiusMeters <= APPROXIMATION_MAX_RADIUS_METERS;
+        this.cellSizeDegrees = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        this.columnCount = (int) Math.ceil(360.0 / cellSizeDegrees);
+        // Sütun genişliği 360 dereceyi tam bölecek şekilde seçilir; böylece sarma işlemi kaymasız olur
+        this.columnWidthDegrees = 360.0 / columnCount;
+        this.rowCount = (int) Math.ceil(180.0 / cellSizeDegrees);
+
+        this.stores = stores.toArray(StoreInfo[]::new);
+        this.lats = new double[this.stores.length];
+        this.lngs = new double[this.stores.length];
+
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        for (int ordinal = 0; ordinal < this.stores.length; ordinal++) {
+            StoreInfo store = this.stores[ordinal];
+            lats[ordinal] = store.lat();
+            lngs[ordinal] = store.lng();
+            grid.computeIfAbsent(cellKey(rowOf(store.lat()), columnOf(store.lng())), k -> new ArrayList<>(2))
+                    .add(ordinal);
+        }
+        this.cells = new HashMap<>(grid.size() * 2);
+        grid.forEach((key, ordinals) -> cells.put(key, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Verilen mağazalardan yeni bir indeks oluşturur.
+     *
+     * @param stores       İndekslenecek mağazalar
+     * @param radiusMeters Sorgularda kullanılacak yarıçap (metre)
+     * @return Mağaza indeksi
+     */
+    public static StoreSpatialIndex of(Collection<StoreInfo> stores, double radiusMeters) {
+        return new StoreSpatialIndex(stores, radiusMeters);
+    }
+
+    public int size() {
+        return stores.length;
+    }
+
+    public double getRadiusMeters() {
+        return radiusMeters;
+    }
+
+    /**
+     * Verilen noktaya yarıçap mesafesi içindeki mağazaları bulur.
+     *
+     * @param lat Noktanın enlemi
+     * @param lng Noktanın boylamı
+     * @return Yarıçap içindeki mağazalar (indekse eklenme sırasıyla)
+     */
+    public List<StoreInfo> findWithinRadius(double lat, double lng) {
+        if (stores.length == 0) {
+            return Collections.emptyList();
+        }
+
+        double deltaLat = cellSizeDegrees + BOUNDARY_EPSILON_DEGREES;
+        double deltaLng = longitudeSpan(lat);
+
+        int minRow = rowOf(Math.max(-90.0, lat - deltaLat));
+        int maxRow = rowOf(Math.min(90.0, lat + deltaLat));
+        int minColumn = rawColumnOf(lng - deltaLng);
+        int maxColumn = rawColumnOf(lng + deltaLng);
+        long cellsToVisit = (long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1);
+
+        if (deltaLng >= 180.0 || maxColumn - minColumn + 1 >= columnCount || cellsToVisit > stores.length) {
+            // Kutuplara yakın noktalarda ya da küçük kataloglarda hücre gezmek taramadan pahalıdır
+            int[] matches = new int[stores.length];
+            int count = DistanceCalculator.filterWithinRadius(lat, lng, lats, lngs, radiusMeters, matches);
+            return toStores(matches, count);
+        }
+
+        boolean approximate = approximationEnabled && Math.abs(lat) <= APPROXIMATION_MAX_LATITUDE;
+        int[] matches = null;
+        int count = 0;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                // Tarih değiştirme çizgisini aşan sorgular için sütunlar sarılır
+                int[] cell = cells.get(cellKey(row, Math.floorMod(column, columnCount)));
+                if (cell == null) {
+                    continue;
+                }
+                for (int ordinal : cell) {
+                    if (isWithinRadius(lat, lng, ordinal, approximate)) {
+                        if (matches == null) {
+                            matches = new int[4];
+                        } else if (count == matches.length) {
+                            matches = Arrays.copyOf(matches, count * 2);
+                        }
+                        matches[count++] = ordinal;
+                    }
+                }
+            }
+        }
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(matches, 0, count);
+        return toStores(matches, count);
+    }
+
+    private boolean isWithinRadius(double lat, double lng, int ordinal, boolean approximate) {
+        if (approximate) {
+            double distance = DistanceCalculator.approximateDistance(lat, lng, lats[ordinal], lngs[ordinal]);
+            double margin = distance * APPROXIMATION_RELATIVE_MARGIN;
+            if (distance - margin > radiusMeters) {
+                return false;
+            }
+            if (distance + margin < radiusMeters) {
+                return true;
+            }
+        }
+        // Sınıra yakın adaylar kesin formülle karar verilir
+        return DistanceCalculator.calculateDistance(lat, lng, lats[ordinal], lngs[ordinal]) <= radiusMeters;
+    }
+
+    private List<StoreInfo> toStores(int[] ordinals, int count) {
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        List<StoreInfo> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(stores[ordinals[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Küre üzerinde verilen enlemdeki bir noktadan yarıçap mesafesindeki noktaların
+     * alabileceği en büyük boylam farkını (derece) hesaplar.
+     */
+    private double longitudeSpan(double lat) {
+        double angularRadius = radiusMeters / EARTH_RADIUS_METERS;
+        double latRad = Math.toRadians(Math.abs(lat));
+        if (latRad + angularRadius >= Math.PI / 2) {
+            return 180.0;
+        }
+        double ratio = Math.sin(angularRadius) / Math.cos(latRad);
+        return Math.toDegrees(Math.asin(Math.min(1.0, ratio))) + BOUNDARY_EPSILON_DEGREES;
+    }
+
+    private int rowOf(double lat) {
+        int row = (int) Math.floor((lat + 90.0) / cellSizeDegrees);
+        return Math.min(Math.max(row, 0), rowCount - 1);
+    }
+
+    private int columnOf(double lng) {
+        return Math.floorMod(rawColumnOf(lng), columnCount);
+    }
+
+    private int rawColumnOf(double lng) {
+        return (int) Math.floor((lng + 180.0) / columnWidthDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+}
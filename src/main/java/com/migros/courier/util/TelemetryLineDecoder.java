@@ -0,0 +1,229 @@
+package com.migros.courier.util;
+
+import com.migros.courier.model.CourierLocation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * {@code kuryeId,enlem,boylam,epochMilisaniye\n} satırlarını doğrudan {@link ByteBuffer} üzerinden çözer.
+ * <p>
+ * Ayrıştırma sırasında ara nesne (satır {@code String}'i, {@code split} dizisi, sayı metinleri) oluşturulmaz:
+ * sayılar bayt bayt okunur, kurye ID'leri küçük bir önbellekten yeniden kullanılır. Yalnızca takip akışının
+ * beklediği {@link CourierLocation} ve zaman nesneleri ile ilk kez görülen kurye ID'leri oluşturulur.
+ * <p>
+ * Ondalık değerler 15 anlamlı basamağa kadar {@code mantis / 10^ölçek} ile tam doğrulukla
+ * ({@link Double#parseDouble} ile aynı sonuç) hesaplanır; daha uzun değerlerde {@link Double#parseDouble}'a düşülür.
+ * Zaman, {@link CourierLocationBinaryCodec} ile aynı şekilde sunucunun saat dilimine çevrilir.
+ * <p>
+ * Önbellek ve tampon örneğe aittir; örnek tek bir iş parçacığında kullanılmalıdır.
+ */
+public final class TelemetryLineDecoder {
+    public static final int MAX_COURIER_ID_BYTES = 255;
+
+    private static final int ID_CACHE_SIZE = 4096; // 2'nin kuvveti
+    private static final long EXACT_MANTISSA_LIMIT = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final String[] idCache = new String[ID_CACHE_SIZE];
+    private final byte[] scratch = new byte[MAX_COURIER_ID_BYTES];
+
+    /**
+     * Tampondaki tamamlanmış satırları çözer ve tamponun konumunu işlenmemiş ilk bayta taşır.
+     * Boş satırlar (canlı tutma mesajları) atlanır.
+     *
+     * @param buffer     Okuma modundaki tampon
+     * @param endOfInput true ise sonda satır sonu olmayan kalan bayt da bir satır sayılır (UDP datagramı)
+     * @param out        Çözülen konumların ekleneceği liste
+     * @return Bozuk olduğu için atlanan satır sayısı
+     */
+    public int decode(ByteBuffer buffer, boolean endOfInput, List<CourierLocation> out) {
+        int malformed = 0;
+        int lineStart = buffer.position();
+        int limit = buffer.limit();
+        for (int i = lineStart; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                if (!decodeLine(buffer, lineStart, i, out)) {
+                    malformed++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        if (endOfInput && lineStart < limit) {
+            if (!decodeLine(buffer, lineStart, limit, out)) {
+                malformed++;
+            }
+            lineStart = limit;
+        }
+        buffer.position(lineStart);
+        return malformed;
+    }
+
+    private boolean decodeLine(ByteBuffer buffer, int start, int end, List<CourierLocation> out) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (start == end) {
+            return true;
+        }
+        int firstComma = indexOf(buffer, start, end);
+        int secondComma = firstComma < 0 ? -1 : indexOf(buffer, firstComma + 1, end);
+        int thirdComma = secondComma < 0 ? -1 : indexOf(buffer, secondComma + 1, end);
+        if (thirdComma < 0 || indexOf(buffer, thirdComma + 1, end) >= 0) {
+            return false;
+        }
+        int idLength = firstComma - start;
+        if (idLength == 0 || idLength > MAX_COURIER_ID_BYTES) {
+            return false;
+        }
+        double lat = parseDecimal(buffer, firstComma + 1, secondComma);
+        double lng = parseDecimal(buffer, secondComma + 1, thirdComma);
+        if (Double.isNaN(lat) || Double.isNaN(lng)) {
+            return false;
+        }
+        long epochMillis = parseLong(buffer, thirdComma + 1, end);
+        if (epochMillis == Long.MIN_VALUE) {
+            return false;
+        }
+        out.add(new CourierLocation(courierId(buffer, start, firstComma), lat, lng,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZONE)));
+        return true;
+    }
+
+    /**
+     * Kurye ID'sini önbellekten döndürür; önbellekte yoksa (veya ID ASCII değilse) yeni {@code String} oluşturur.
+     */
+    private String courierId(ByteBuffer buffer, int start, int end) {
+        int hash = 0;
+        boolean ascii = true;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            hash = 31 * hash + b;
+            ascii &= b >= 0;
+        }
+        int slot = (hash ^ (hash >>> 16)) & (ID_CACHE_SIZE - 1);
+        String cached = idCache[slot];
+        if (ascii && cached != null && asciiEquals(cached, buffer, start, end)) {
+            return cached;
+        }
+        int length = end - start;
+        buffer.get(start, scratch, 0, length);
+        String courierId = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        if (ascii) {
+            idCache[slot] = courierId;
+        }
+        return courierId;
+    }
+
+    private static boolean asciiEquals(String value, ByteBuffer buffer, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i - start) != buffer.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * İşaretli ondalık sayıyı çözer. Geçersiz biçimde {@link Double#NaN} döner.
+     */
+    static double parseDecimal(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && !fraction) {
+                fraction = true;
+            } else if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                // Baştaki sıfırlar anlamlı basamak sayılmaz
+                if (mantissa != 0 || b != '0') {
+                    if (++significantDigits > 18) {
+                        return parseDecimalSlow(buffer, start, end);
+                    }
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    scale++;
+                }
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!anyDigit) {
+            return Double.NaN;
+        }
+        if (mantissa >= EXACT_MANTISSA_LIMIT || scale >= POWERS_OF_TEN.length) {
+            return parseDecimalSlow(buffer, start, end);
+        }
+        // Mantis ve 10^ölçek double'da tam temsil edildiği için tek bölme doğru yuvarlanmış sonucu verir
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static double parseDecimalSlow(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * İşaretli tam sayıyı çözer. Geçersiz biçimde veya taşmada {@link Long#MIN_VALUE} döner.
+     */
+    static long parseLong(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == ',') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
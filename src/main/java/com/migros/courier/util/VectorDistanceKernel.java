@@ -0,0 +1,53 @@
+package com.migros.courier.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Haversine formülünün JDK Vector API ile yazılmış toplu sürümü.
+ * <p>
+ * Bu sınıf yalnızca {@code jdk.incubator.vector} modülü yüklüyse {@link DistanceCalculator}
+ * tarafından çağrılır; modül yoksa hiç yüklenmez.
+ */
+final class VectorDistanceKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double DEG_TO_RAD = Math.PI / 180.0;
+
+    private VectorDistanceKernel() {
+    }
+
+    /**
+     * {@code a = sin²(Δφ/2) + cos φ1 · cos φ2 · sin²(Δλ/2)}, {@code d = 2R · asin(√a)}.
+     * Skaler sürümdeki {@code atan2(√a, √(1−a))} ifadesi {@code a ∈ [0, 1]} için {@code asin(√a)} ile eşdeğerdir.
+     */
+    static void haversine(double lat, double lng, double[] lats, double[] lngs, double[] out, int length,
+                          double earthRadiusMeters) {
+        double latRad = lat * DEG_TO_RAD;
+        double cosLat = Math.cos(latRad);
+        double twoR = 2 * earthRadiusMeters;
+
+        int i = 0;
+        int upperBound = SPECIES.loopBound(length);
+        for (; i < upperBound; i += SPECIES.length()) {
+            DoubleVector targetLat = DoubleVector.fromArray(SPECIES, lats, i).mul(DEG_TO_RAD);
+            DoubleVector targetLng = DoubleVector.fromArray(SPECIES, lngs, i).mul(DEG_TO_RAD);
+
+            DoubleVector halfDLat = targetLat.sub(latRad).mul(0.5).lanewise(VectorOperators.SIN);
+            DoubleVector halfDLng = targetLng.sub(lng * DEG_TO_RAD).mul(0.5).lanewise(VectorOperators.SIN);
+            DoubleVector cosTarget = targetLat.lanewise(VectorOperators.COS);
+
+            DoubleVector a = halfDLat.mul(halfDLat)
+                    .add(cosTarget.mul(cosLat).mul(halfDLng.mul(halfDLng)))
+                    .min(1.0);
+            a.lanewise(VectorOperators.SQRT)
+                    .lanewise(VectorOperators.ASIN)
+                    .mul(twoR)
+                    .intoArray(out, i);
+        }
+
+        for (; i < length; i++) {
+            out[i] = DistanceCalculator.calculateDistance(lat, lng, lats[i], lngs[i]);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.migros.courier;
+
+import com.migros.courier.dto.ClusterView;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.service.CourierClusterService;
+import com.migros.courier.service.CourierStateStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aynı JVM'de, localhost üzerinde farklı portlarda iki düğüm başlatarak küme modunu uçtan uca test eder.
+ * Her düğümün kendi in-memory veritabanı vardır.
+ */
+class CourierClusterIntegrationTest {
+
+    private static final int COURIERS = 40;
+    // Ataşehir ve Novada mağazaları arası yaklaşık 982 metre
+    private static final double[] FIRST_POINT = {40.9923307, 29.1244229};
+    private static final double[] SECOND_POINT = {40.986106, 29.1161293};
+    private static final double LEG_METERS = 981.66;
+
+    private final RestClient restClient = RestClient.create();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    @DisplayName("Katılan düğüm kendi kuryelerini devralmalı, konumlar sahibine iletilmeli, ayrılan düğüm kuryelerini devretmelidir")
+    void whenNodesJoinAndLeave_thenCourierStateShouldFollowOwnership() throws IOException {
+        // Given - Tek düğümlü kümede kuryeler birer ayak yol almış
+        String firstUrl = "http://localhost:" + freePort();
+        String secondUrl = "http://localhost:" + freePort();
+        ConfigurableApplicationContext first = startNode(firstUrl, null);
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+        List<CourierLocation> batch = new ArrayList<>();
+        for (int c = 0; c < COURIERS; c++) {
+            batch.add(location(c, FIRST_POINT, start));
+            batch.add(location(c, SECOND_POINT, start.plusSeconds(10)));
+        }
+        post(firstUrl + "/api/v1/courier/locations/batch", batch);
+
+        // When - İkinci düğüm katılır
+        ConfigurableApplicationContext second = startNode(secondUrl, firstUrl);
+
+        // Then - Görünümler aynı, her kurye tek düğümde ve mesafe her iki düğümden aynı okunur
+        ClusterView view = first.getBean(CourierClusterService.class).getView();
+        assertEquals(view, second.getBean(CourierClusterService.class).getView());
+        assertEquals(Stream.of(firstUrl, secondUrl).sorted().toList(), view.members());
+        int firstSize = first.getBean(CourierStateStore.class).size();
+        int secondSize = second.getBean(CourierStateStore.class).size();
+        assertEquals(COURIERS, firstSize + secondSize);
+        assertTrue(firstSize > 0 && secondSize > 0, "Dağılım: " + firstSize + "/" + secondSize);
+        assertTotalDistances(firstUrl, LEG_METERS);
+        assertTotalDistances(secondUrl, LEG_METERS);
+
+        // When - Sonraki konumlar yalnızca ikinci düğüme gönderilir; birinci düğümün kuryeleri iletilir
+        for (int c = 0; c < COURIERS; c++) {
+            post(secondUrl + "/api/v1/courier/location", location(c, FIRST_POINT, start.plusSeconds(20)));
+        }
+
+        // Then
+        assertEquals(firstSize, first.getBean(CourierStateStore.class).size());
+        assertTotalDistances(firstUrl, 2 * LEG_METERS);
+
+        // When - İkinci düğüm kapanır
+        second.close();
+
+        // Then - Tüm kuryeler birinci düğüme geri döner
+        assertEquals(List.of(firstUrl), first.getBean(CourierClusterService.class).getView().members());
+        assertEquals(COURIERS, first.getBean(CourierStateStore.class).size());
+        assertTotalDistances(firstUrl, 2 * LEG_METERS);
+    }
+
+    private ConfigurableApplicationContext startNode(String url, String seed) {
+        String port = url.substring(url.lastIndexOf(':') + 1);
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:cluster-node-" + port,
+                "--courier.cluster.enabled=true",
+                "--courier.cluster.self-url=" + url,
+                "--courier.cluster.heartbeat-interval-ms=600000"));
+        if (seed != null) {
+            args.add("--courier.cluster.seeds=" + seed);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CourierApplication.class)
+                .run(args.toArray(String[]::new));
+        nodes.add(context);
+        return context;
+    }
+
+    private void assertTotalDistances(String nodeUrl, double expected) {
+        for (int c = 0; c < COURIERS; c++) {
+            Double distance = restClient.get()
+                    .uri(nodeUrl + "/api/v1/courier/{courierId}/total-distance", courierId(c))
+                    .retrieve()
+                    .body(Double.class);
+            assertEquals(expected, distance, 0.01, courierId(c) + " @ " + nodeUrl);
+        }
+    }
+
+    private void post(String uri, Object body) {
+        restClient.post().uri(uri).contentType(MediaType.APPLICATION_JSON).body(body).retrieve().toBodilessEntity();
+    }
+
+    private static CourierLocation location(int courier, double[] point, LocalDateTime time) {
+        return new CourierLocation(courierId(courier), point[0], point[1], time);
+    }
+
+    private static String courierId(int courier) {
+        return "cluster-courier-" + courier;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
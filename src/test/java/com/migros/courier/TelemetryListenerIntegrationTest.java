@@ -0,0 +1,89 @@
+package com.migros.courier;
+
+import com.migros.courier.service.StoreService;
+import com.migros.courier.service.TelemetryListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest(properties = {
+        "courier.telemetry.enabled=true",
+        "courier.telemetry.bind-address=127.0.0.1",
+        "courier.telemetry.tcp-port=0",
+        "courier.telemetry.udp-port=0",
+        "courier.telemetry.max-connections=1"
+})
+class TelemetryListenerIntegrationTest {
+
+    // Ataşehir ve Novada mağazaları arası yaklaşık 982 metre
+    private static final String FIRST_POINT = ",40.9923307,29.1244229,";
+    private static final String SECOND_POINT = ",40.986106,29.1161293,";
+
+    @Autowired
+    private TelemetryListener telemetryListener;
+
+    @Autowired
+    private StoreService storeService;
+
+    @Test
+    @DisplayName("TCP ve UDP üzerinden gelen satırlar takip servisine iletilmeli, bağlantı sınırı uygulanmalıdır")
+    void whenLinesSentOverTcpAndUdp_thenLocationsShouldBeTracked() throws Exception {
+        long now = System.currentTimeMillis();
+        InetAddress localhost = InetAddress.getByName("127.0.0.1");
+
+        try (Socket socket = new Socket(localhost, telemetryListener.getTcpPort())) {
+            // When - Satırlar parçalı yazılır
+            OutputStream out = socket.getOutputStream();
+            out.write(("tcp-courier" + FIRST_POINT + now + "\ntcp-cou").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            Thread.sleep(50);
+            out.write(("rier" + SECOND_POINT + (now + 10_000) + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            // Then
+            awaitTrue(() -> storeService.getTotalTravelDistance("tcp-courier") > 0);
+            assertEquals(981.66, storeService.getTotalTravelDistance("tcp-courier"), 0.01);
+
+            // Sınır aşıldığında ikinci bağlantı sunucu tarafından kapatılır
+            awaitTrue(() -> telemetryListener.getConnectionCount() == 1);
+            try (Socket rejected = new Socket(localhost, telemetryListener.getTcpPort())) {
+                rejected.setSoTimeout(5_000);
+                InputStream in = rejected.getInputStream();
+                assertEquals(-1, in.read());
+            }
+        }
+
+        try (DatagramSocket socket = new DatagramSocket()) {
+            byte[] datagram = ("udp-courier" + FIRST_POINT + now + "\nbozuk-satir\nudp-courier" + SECOND_POINT
+                    + (now + 10_000)).getBytes(StandardCharsets.UTF_8);
+            socket.send(new DatagramPacket(datagram, datagram.length, localhost, telemetryListener.getUdpPort()));
+        }
+        awaitTrue(() -> storeService.getTotalTravelDistance("udp-courier") > 0);
+        assertEquals(981.66, storeService.getTotalTravelDistance("udp-courier"), 0.01);
+        assertTrue(telemetryListener.getUdpPort() > 0);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Koşul 10 saniye içinde sağlanmadı");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
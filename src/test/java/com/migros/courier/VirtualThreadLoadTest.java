@@ -0,0 +1,192 @@
+package com.migros.courier;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Çok sayıda eşzamanlı kuryenin HTTP üzerinden konum gönderdiği yük testi.
+ * <p>
+ * Her kurye kendi sanal iş parçacığında sırayla {@code benchmark.pings} konum gönderir; tüm kuryeler aynı anda başlar.
+ * Test süresince bağlantı havuzu (aktif / boşta / bekleyen) ve platform iş parçacığı sayısı örneklenir ve raporlanır.
+ * Uygulama tarafındaki mod {@code benchmark.virtual} ile seçilir (varsayılan: sanal iş parçacıkları açık).
+ * Normal test çalıştırmasında atlanır; çalıştırmak için:
+ * <pre>
+ * mvn test -Dtest=VirtualThreadLoadTest -Dbenchmark=true -Dbenchmark.couriers=10000 -Dbenchmark.virtual=true
+ * </pre>
+ * 10.000 eşzamanlı bağlantı için dosya tanımlayıcı sınırı ({@code ulimit -n}) en az 25.000 olmalıdır.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=${benchmark.virtual:true}",
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=10000",
+        "courier.sharding.queue-capacity=20000",
+        "logging.level.com.migros.courier=WARN"
+})
+class VirtualThreadLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    @Test
+    @DisplayName("10.000 eşzamanlı kurye konum gönderdiğinde tüm istekler başarıyla yanıtlanmalıdır")
+    void whenThousandsOfCouriersSendConcurrently_thenAllRequestsShouldSucceed() throws Exception {
+        int couriers = Integer.getInteger("benchmark.couriers", 10_000);
+        int pingsPerCourier = Integer.getInteger("benchmark.pings", 3);
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/courier/location");
+        LocalDateTime start = LocalDateTime.now();
+
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        PoolSampler sampler = new PoolSampler(pool);
+        Thread samplerThread = Thread.ofPlatform().daemon(true).start(sampler);
+
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<String> firstFailure = new AtomicReference<>();
+        long[] latencies = new long[couriers * pingsPerCourier];
+        AtomicInteger latencyIndex = new AtomicInteger();
+
+        long startNanos = System.nanoTime();
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> runs = new ArrayList<>(couriers);
+            for (int c = 0; c < couriers; c++) {
+                String courierId = "load-courier-" + c;
+                runs.add(clients.submit(() -> {
+                    for (int p = 0; p < pingsPerCourier; p++) {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        String body = String.format(Locale.ROOT,
+                                "{\"courierId\":\"%s\",\"lat\":%.6f,\"lng\":%.6f,\"timestamp\":\"%s\"}",
+                                courierId, 40.9 + random.nextDouble() * 0.2, 29.0 + random.nextDouble() * 0.2,
+                                start.plusSeconds(p));
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .timeout(Duration.ofMinutes(2))
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build();
+                        long requestStart = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                                firstFailure.compareAndSet(null, "HTTP " + response.statusCode());
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                            firstFailure.compareAndSet(null, e.toString());
+                        }
+                        latencies[latencyIndex.getAndIncrement()] = System.nanoTime() - requestStart;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        sampler.stop();
+        samplerThread.join();
+
+        long[] measured = Arrays.copyOf(latencies, latencyIndex.get());
+        Arrays.sort(measured);
+        int requests = measured.length;
+        System.out.printf("""
+                        Yük testi (sanal iş parçacığı: %s)
+                          Kurye: %d, İstek: %d, Hatalı: %d%s
+                          Süre: %d ms, Verim: %.0f istek/sn
+                          Gecikme p50: %d ms, p99: %d ms, max: %d ms
+                          Bağlantı havuzu: boyut %d, en fazla aktif %d, en fazla bekleyen iş parçacığı %d
+                          Platform iş parçacığı: en yüksek %d
+                        """,
+                virtualThreads, couriers, requests, failures.get(),
+                firstFailure.get() == null ? "" : " (ilk hata: " + firstFailure.get() + ")",
+                elapsedMillis, requests * 1000.0 / Math.max(1, elapsedMillis),
+                percentileMillis(measured, 0.50), percentileMillis(measured, 0.99), percentileMillis(measured, 1.0),
+                pool.getTotalConnections(), sampler.maxActive.get(), sampler.maxPending.get(),
+                threads.getPeakThreadCount());
+
+        assertEquals(couriers * pingsPerCourier, requests);
+        assertEquals(0, failures.get(), "İlk hata: " + firstFailure.get());
+    }
+
+    private static long percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1);
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos[Math.max(0, index)]);
+    }
+
+    /**
+     * Bağlantı havuzunun aktif bağlantı ve bağlantı bekleyen iş parçacığı sayılarının en yüksek değerlerini örnekler.
+     */
+    private static final class PoolSampler implements Runnable {
+        private final HikariPoolMXBean pool;
+        private final AtomicLong maxActive = new AtomicLong();
+        private final AtomicLong maxPending = new AtomicLong();
+        private volatile boolean running = true;
+
+        private PoolSampler(HikariPoolMXBean pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                maxActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+                maxPending.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void stop() {
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.migros.courier.controller;
+
+import com.migros.courier.service.CourierClusterService;
+import com.migros.courier.service.LocationTrackingService;
+import com.migros.courier.service.StoreService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static com.migros.courier.service.TestConstants.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ClusterController.class)
+class ClusterControllerTest {
+
+    private static final String LOCATION_JSON = "{\"courierId\":\"" + COURIER_ID + "\",\"lat\":" + ATASEHIR_LAT
+            + ",\"lng\":" + ATASEHIR_LNG + ",\"timestamp\":\"2025-03-01T12:00:00\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CourierClusterService clusterService;
+    @MockitoBean
+    private LocationTrackingService locationTrackingService;
+    @MockitoBean
+    private StoreService storeService;
+
+    private static String batchJson(int size) {
+        return "[" + String.join(",", Collections.nCopies(size, LOCATION_JSON)) + "]";
+    }
+
+    @Test
+    @DisplayName("İletilen konumlar küme modu kapalıyken 409, sınırı aşan listede 400 ile reddedilmelidir")
+    void whenForwardedWhileDisabledOrTooLarge_thenShouldBeRejected() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/v1/cluster/locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson(1)))
+                .andExpect(status().isConflict());
+
+        when(clusterService.isEnabled()).thenReturn(true);
+        mockMvc.perform(post("/api/v1/cluster/locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson(CourierController.MAX_BATCH_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+        verify(locationTrackingService, never()).trackForwardedLocations(anyList());
+
+        mockMvc.perform(post("/api/v1/cluster/locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson(1)))
+                .andExpect(status().isOk());
+        verify(locationTrackingService).trackForwardedLocations(anyList());
+    }
+}
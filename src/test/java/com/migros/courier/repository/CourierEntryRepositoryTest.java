@@ -0,0 +1,79 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.dto.CourierEntryResponse;
+import com.migros.courier.model.CourierEntry;
+import com.migros.courier.model.Store;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CourierEntryRepositoryTest {
+
+    @Autowired
+    private CourierEntryRepository courierEntryRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Keyset sayfaları, aynı zamanlı kayıtlar dahil tüm girişleri tek sorguyla ve sırayla döndürmelidir")
+    void whenPagingByKeyset_thenShouldReturnAllEntriesInOrderWithOneQueryPerPage() {
+        // Given
+        Store store = storeRepository.save(new Store("Ataşehir MMM Migros", 40.9923307, 29.1244229));
+        LocalDateTime start = LocalDateTime.of(2024, 3, 3, 10, 0);
+        List<LocalDateTime> times = List.of(start, start.plusMinutes(2), start.plusMinutes(2), start.plusMinutes(2),
+                start.plusMinutes(5), start.plusMinutes(9));
+        for (LocalDateTime time : times) {
+            courierEntryRepository.save(entry("c1", store, time));
+        }
+        courierEntryRepository.save(entry("c2", store, start.plusMinutes(3)));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When - [10:00, 10:09) aralığı 2'şer kayıtlık sayfalarla okunur
+        LocalDateTime to = start.plusMinutes(9);
+        List<CourierEntryResponse> all = new ArrayList<>();
+        List<CourierEntryResponse> page = courierEntryRepository.findEntryPage("c1", start, to, Limit.of(2));
+        int pages = 1;
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            CourierEntryResponse last = page.getLast();
+            page = courierEntryRepository.findEntryPageAfter("c1", last.getEntryTime(), last.getEntryId(), to,
+                    Limit.of(2));
+            pages++;
+        }
+
+        // Then
+        assertEquals(times.subList(0, 5), all.stream().map(CourierEntryResponse::getEntryTime).toList());
+        assertEquals(5, all.stream().map(CourierEntryResponse::getEntryId).distinct().count());
+        assertEquals(store.getId().toString(), all.getFirst().getStoreId());
+        assertEquals("Ataşehir MMM Migros", all.getFirst().getStoreName());
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    private static CourierEntry entry(String courierId, Store store, LocalDateTime time) {
+        CourierEntry entry = new CourierEntry();
+        entry.setCourierId(courierId);
+        entry.setStore(store);
+        entry.setTimestamp(time);
+        return entry;
+    }
+}
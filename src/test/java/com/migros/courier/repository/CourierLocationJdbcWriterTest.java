@@ -0,0 +1,49 @@
+package com.migros.courier.repository;
+
+import com.migros.courier.config.LocationPartitioningProperties;
+import com.migros.courier.model.CourierLocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataJpaTest
+@Import({CourierLocationJdbcWriter.class, CourierLocationHourlySummaryJdbcWriter.class, LocationPartitionRepository.class,
+        LocationPartitioningProperties.class})
+class CourierLocationJdbcWriterTest {
+
+    @Autowired
+    private CourierLocationJdbcWriter jdbcWriter;
+
+    @Autowired
+    private CourierLocationRepository courierLocationRepository;
+
+    @Test
+    @DisplayName("JDBC batch insert ile yazılan konumlar JPA tarafından okunabilmelidir")
+    void whenInsertAll_thenLocationsShouldBeReadableThroughJpa() {
+        // Given
+        LocalDateTime time = LocalDateTime.of(2024, 3, 3, 10, 0);
+        CourierLocation first = new CourierLocation("c1", 40.9923307, 29.1244229, time);
+        CourierLocation second = new CourierLocation("c2", 40.986106, 29.1161293, time.plusSeconds(5));
+
+        // When
+        jdbcWriter.insertAll(List.of(first, second));
+
+        // Then
+        assertNotNull(first.getId());
+        List<CourierLocation> stored = courierLocationRepository.findAll();
+        assertEquals(2, stored.size());
+        CourierLocation storedFirst = stored.stream().filter(l -> l.getId().equals(first.getId())).findFirst().orElseThrow();
+        assertEquals("c1", storedFirst.getCourierId());
+        assertEquals(40.9923307, storedFirst.getLat());
+        assertEquals(time, storedFirst.getTimestamp());
+        assertNotNull(storedFirst.getCreated());
+    }
+}
@@ -0,0 +1,130 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.CourierShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CourierShardExecutorTest {
+
+    private CourierShardExecutor shardExecutor;
+
+    @AfterEach
+    void tearDown() {
+        if (shardExecutor != null) {
+            shardExecutor.shutdown();
+        }
+    }
+
+    private CourierShardExecutor newExecutor(boolean enabled, int shardCount) {
+        return newExecutor(enabled, shardCount, new MockEnvironment());
+    }
+
+    private CourierShardExecutor newExecutor(boolean enabled, int shardCount, MockEnvironment environment) {
+        CourierShardingProperties properties = new CourierShardingProperties();
+        properties.setEnabled(enabled);
+        properties.setShardCount(shardCount);
+        shardExecutor = new CourierShardExecutor(properties, new BackgroundThreadFactory(environment),
+                new SimpleMeterRegistry());
+        return shardExecutor;
+    }
+
+    @Test
+    @DisplayName("Aynı kuryenin eşzamanlı görevleri tek bir shard iş parçacığında sırayla çalışmalıdır")
+    void whenSameCourierSubmittedConcurrently_thenShouldRunSeriallyOnOneThread() throws Exception {
+        // Given
+        CourierShardExecutor executor = newExecutor(true, 4);
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        int[] counter = {0}; // Kilitsiz sayaç; yalnızca tek yazıcı varsa doğru kalır
+
+        // When
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            calls.add(CompletableFuture.runAsync(() -> executor.execute("courier-1", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                threadNames.add(Thread.currentThread().getName());
+                counter[0]++;
+                running.decrementAndGet();
+                return null;
+            }), callers));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        callers.shutdown();
+
+        // Then
+        assertEquals(2_000, executor.execute("courier-1", () -> counter[0]));
+        assertEquals(1, maxRunning.get());
+        assertEquals(Set.of("courier-shard-" + executor.shardOf("courier-1")), threadNames);
+    }
+
+    @Test
+    @DisplayName("Kuryeler shard'lara dağıtılmalı ve bir kurye her zaman aynı shard'a düşmelidir")
+    void whenManyCouriers_thenShouldSpreadAcrossShardsDeterministically() {
+        // Given
+        CourierShardExecutor executor = newExecutor(true, 4);
+        int[] perShard = new int[4];
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            String courierId = "courier-" + i;
+            assertEquals(executor.shardOf(courierId), executor.shardOf(courierId));
+            perShard[executor.shardOf(courierId)]++;
+        }
+
+        // Then
+        for (int count : perShard) {
+            assertTrue(count > 150, "Shard dağılımı dengesiz: " + count);
+        }
+    }
+
+    @Test
+    @DisplayName("Sharding kapalıyken görev çağıran iş parçacığında çalışmalı ve hata olduğu gibi iletilmelidir")
+    void whenShardingDisabled_thenShouldRunInlineAndPropagateException() {
+        // Given
+        CourierShardExecutor executor = newExecutor(false, 0);
+        Thread caller = Thread.currentThread();
+        IllegalStateException failure = new IllegalStateException("hata");
+
+        // When & Then
+        assertSame(caller, executor.execute("courier-1", Thread::currentThread));
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> executor.execute("courier-1", () -> {
+                    throw failure;
+                })));
+    }
+
+    @Test
+    @DisplayName("Sanal iş parçacığı modu etkinken shard görevleri sanal iş parçacığında çalışmalıdır")
+    void whenVirtualThreadsEnabled_thenShardsShouldRunOnVirtualThreads() {
+        // Given
+        CourierShardExecutor executor = newExecutor(true, 2,
+                new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true"));
+
+        // When
+        Thread shardThread = executor.execute("courier-1", Thread::currentThread);
+
+        // Then
+        assertTrue(shardThread.isVirtual());
+        assertEquals("courier-shard-" + executor.shardOf("courier-1"), shardThread.getName());
+    }
+}
@@ -0,0 +1,88 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.CourierStateEvictionProperties;
+import com.migros.courier.repository.ArchivedCourierStateJdbcWriter;
+import com.migros.courier.repository.ArchivedCourierStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@Import({CourierStateEvictionService.class, CourierStateArchive.class, CourierStateStore.class,
+        ArchivedCourierStateJdbcWriter.class, CourierStateEvictionProperties.class})
+class CourierStateEvictionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 10, 0, 0, 123_456_789);
+
+    @Autowired
+    private CourierStateEvictionService evictionService;
+    @Autowired
+    private CourierStateStore courierStateStore;
+    @Autowired
+    private CourierStateEvictionProperties properties;
+    @Autowired
+    private ArchivedCourierStateRepository archivedStateRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Bağlam testler arasında paylaşılır; depo her test sonunda boşaltılır, sayaçlar farkla karşılaştırılır
+        properties.setEnabled(true);
+        properties.setIdleTtl(Duration.ZERO);
+        properties.setBatchSize(2);
+    }
+
+    @Test
+    @DisplayName("Boşta kalan kuryeler saklanıp bellekten çıkarılmalı, sonraki konumda kaldığı yerden devam etmelidir")
+    void whenIdleCouriersEvicted_thenNextPingShouldResumeFromStoredState() {
+        // Given
+        courierStateStore.advance("courier-1", 40.9923307, 29.1244229, NOW);
+        courierStateStore.advance("courier-2", 40.9923307, 29.1244229, NOW);
+        courierStateStore.advance("courier-2", 40.986106, 29.1161293, NOW.plusSeconds(5));
+        courierStateStore.addDistance("courier-3", 250);
+        long loadsBefore = courierStateStore.getLoadCount();
+
+        // When
+        int evicted = evictionService.evictIdleCouriers();
+        boolean stale = courierStateStore.advanceIfNewer("courier-2", 40.9923307, 29.1244229, NOW.plusSeconds(5));
+        double added = courierStateStore.advance("courier-2", 40.9923307, 29.1244229, NOW.plusSeconds(10));
+
+        // Then
+        assertEquals(3, evicted);
+        assertEquals(3, archivedStateRepository.count());
+        assertNull(archivedStateRepository.findByCourierId("courier-3").orElseThrow().getLastEpochSecond());
+        assertFalse(stale);
+        assertEquals(981.66, added, 0.01);
+        assertEquals(1963.32, courierStateStore.getTotalDistance("courier-2"), 0.02);
+        assertEquals(250.0, courierStateStore.getTotalDistance("courier-3"));
+        assertEquals(1, courierStateStore.size());
+        assertEquals(2, courierStateStore.getLoadCount() - loadsBefore);
+        evictionService.evictIdleCouriers();
+    }
+
+    @Test
+    @DisplayName("Çıkarma kapalıyken veritabanından durum okunmamalıdır")
+    void whenEvictionDisabled_thenShouldNotLoadFromDatabase() {
+        // Given
+        courierStateStore.addDistance("courier-4", 100);
+        evictionService.evictIdleCouriers();
+        properties.setEnabled(false);
+        long loadsBefore = courierStateStore.getLoadCount();
+
+        // When
+        double distance = courierStateStore.getTotalDistance("courier-4");
+
+        // Then
+        assertEquals(0.0, distance);
+        assertEquals(loadsBefore, courierStateStore.getLoadCount());
+    }
+}
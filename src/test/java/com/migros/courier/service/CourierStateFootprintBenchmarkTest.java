@@ -0,0 +1,87 @@
+package com.migros.courier.service;
+
+import com.migros.courier.model.CourierLocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kurye durumunun bellek maliyetini eski {@code ConcurrentHashMap} tabanlı tutuluşla karşılaştıran ölçüm.
+ * <p>
+ * Kurye ID metinleri önceden oluşturulur ve iki ölçümde de aynı nesneler kullanılır; böylece yalnızca durum
+ * yapısının kendi maliyeti ölçülür. Normal test çalıştırmasında atlanır; çalıştırmak için:
+ * <pre>
+ * mvn test -Dtest=CourierStateFootprintBenchmarkTest -Dbenchmark=true -Dbenchmark.couriers=1000000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CourierStateFootprintBenchmarkTest {
+
+    @Test
+    @DisplayName("Kompakt durum deposu kurye başına eski yapının yarısından az bellek kullanmalıdır")
+    void whenCompactStoreUsed_thenFootprintShouldBeLessThanHalf() {
+        int couriers = Integer.getInteger("benchmark.couriers", 1_000_000);
+        String[] ids = new String[couriers];
+        for (int i = 0; i < couriers; i++) {
+            ids[i] = "courier-" + i;
+        }
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+        long baseline = usedHeap();
+        Map<String, CourierLocation> lastLocations = new ConcurrentHashMap<>();
+        Map<String, Double> distances = new ConcurrentHashMap<>();
+        for (int i = 0; i < couriers; i++) {
+            CourierLocation location = new CourierLocation();
+            location.setCourierId(ids[i]);
+            location.setLat(40.9 + i * 1e-7);
+            location.setLng(29.0 + i * 1e-7);
+            location.setTimestamp(start.plusSeconds(i));
+            lastLocations.put(ids[i], location);
+            distances.put(ids[i], (double) i);
+        }
+        long legacyBytes = usedHeap() - baseline;
+        assertEquals(couriers, lastLocations.size());
+        assertEquals(couriers, distances.size());
+        lastLocations = null;
+        distances = null;
+
+        baseline = usedHeap();
+        CourierStateStore store = new CourierStateStore();
+        for (int i = 0; i < couriers; i++) {
+            store.restore(new CourierState(ids[i], i, 40.9 + i * 1e-7, 29.0 + i * 1e-7, start.plusSeconds(i)));
+        }
+        long compactBytes = usedHeap() - baseline;
+        assertEquals(couriers, store.size());
+
+        System.out.printf("""
+                        Kurye durumu bellek ölçümü (%d kurye, ID metinleri hariç)
+                          ConcurrentHashMap + CourierLocation: %d bayt (%.1f bayt/kurye)
+                          CourierStateStore: %d bayt (%.1f bayt/kurye, tahmin %d bayt)
+                        """,
+                couriers, legacyBytes, (double) legacyBytes / couriers,
+                compactBytes, (double) compactBytes / couriers, store.estimatedBytes());
+
+        assertTrue(compactBytes * 2 < legacyBytes,
+                "Kompakt depo " + compactBytes + " bayt, eski yapı " + legacyBytes + " bayt");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,142 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.CourierSnapshotProperties;
+import com.migros.courier.repository.CourierEntryRepository;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
+import com.migros.courier.repository.CourierLocationRepository;
+import com.migros.courier.repository.LocationPartitionRepository;
+import com.migros.courier.repository.StoreRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Açılışta kurye durumunun kurtarılma süresini ölçen benchmark.
+ * Snapshot olmadan tüm geçmişin yeniden oynatılması ile snapshot + son konumların oynatılması karşılaştırılır.
+ * <p>
+ * Uzun sürdüğü için normal test çalışmasında atlanır:
+ * {@code mvn test -Dtest=CourierStateRecoveryBenchmarkTest -Dbenchmark=true -Dbenchmark.locations=2000000}
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CourierStateRecoveryBenchmarkTest {
+    private static final int LOCATIONS_PER_COURIER = 200;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private StoreImportService storeImportService;
+    @Autowired
+    private CourierEntryRepository courierEntryRepository;
+    @Autowired
+    private CourierLocationRepository courierLocationRepository;
+    @Autowired
+    private LocationWriteBehindBuffer writeBehindBuffer;
+    @Autowired
+    private LocationJournal locationJournal;
+    @Autowired
+    private CourierLocationJdbcWriter jdbcWriter;
+    @Autowired
+    private LocationPartitionRepository partitionRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CourierShardExecutor shardExecutor;
+    @Autowired
+    private TrajectorySimplifier trajectorySimplifier;
+    @Autowired
+    private CourierClusterService clusterService;
+
+    @TempDir
+    private Path tempDir;
+
+    private CourierStateSnapshotService newNode(CourierSnapshotProperties properties) {
+        CourierStateStore courierStateStore = new CourierStateStore();
+        StoreService storeService = new StoreService(storeRepository, courierEntryRepository, storeImportService,
+                courierStateStore, event -> {
+                });
+        LocationTrackingService trackingService =
+                new LocationTrackingService(storeService, courierLocationRepository, writeBehindBuffer, locationJournal,
+                        jdbcWriter,
+                        new TrackingMetrics(new SimpleMeterRegistry()), shardExecutor,
+                        trajectorySimplifier, new TransactionTemplate(transactionManager), courierStateStore,
+                        clusterService);
+        return new CourierStateSnapshotService(trackingService, courierLocationRepository, partitionRepository,
+                clusterService, properties, transactionManager);
+    }
+
+    private void insertLocations(int courierCount, int perCourier, LocalDateTime start, LocalDateTime created) {
+        String sql = "INSERT INTO courier_location (id, courier_id, lat, lng, timestamp, created, updated, deleted) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, FALSE)";
+        Timestamp createdTs = Timestamp.valueOf(created);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int step = 0; step < perCourier; step++) {
+            for (int courier = 0; courier < courierCount; courier++) {
+                batch.add(new Object[]{UUID.randomUUID(), "courier-" + courier,
+                        40.9 + courier * 1e-4 + step * 1e-5, 29.0 + step * 1e-5,
+                        Timestamp.valueOf(start.plusSeconds(step * 5L)), createdTs, createdTs});
+                if (batch.size() == INSERT_BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot ile kurtarma süresi, tüm geçmişin yeniden oynatılmasından bağımsız olmalıdır")
+    void measureRecoveryTime() {
+        int totalLocations = Integer.getInteger("benchmark.locations", 2_000_000);
+        int courierCount = Math.max(1, totalLocations / LOCATIONS_PER_COURIER);
+        LocalDateTime historyStart = LocalDateTime.now().minusDays(1);
+
+        long insertStart = System.nanoTime();
+        insertLocations(courierCount, LOCATIONS_PER_COURIER, historyStart, LocalDateTime.now().minusHours(1));
+        System.out.printf("Geçmiş yüklendi: %d konum, %d kurye, %d ms%n",
+                courierCount * LOCATIONS_PER_COURIER, courierCount, (System.nanoTime() - insertStart) / 1_000_000);
+
+        CourierSnapshotProperties properties = new CourierSnapshotProperties();
+        properties.setPath(tempDir.resolve("courier-state.snapshot").toString());
+
+        // 1) Snapshot yok: tüm geçmiş yeniden oynatılır
+        CourierStateSnapshotService fullReplayNode = newNode(properties);
+        CourierStateSnapshotService.RecoveryResult fullReplay = fullReplayNode.recover();
+        fullReplayNode.writeSnapshot();
+
+        // Snapshot sonrasında her kurye için birkaç yeni konum gelir
+        int newPerCourier = 2;
+        insertLocations(courierCount, newPerCourier, historyStart.plusHours(1), LocalDateTime.now().plusSeconds(1));
+
+        // 2) Snapshot var: yalnızca snapshot sonrası konumlar oynatılır
+        CourierStateSnapshotService.RecoveryResult snapshotReplay = newNode(properties).recover();
+
+        System.out.printf("Tam yeniden oynatma: %d konum, %d ms%n", fullReplay.replayedLocations(), fullReplay.durationMillis());
+        System.out.printf("Snapshot + oynatma: %d kurye, %d konum, %d ms%n",
+                snapshotReplay.restoredCouriers(), snapshotReplay.replayedLocations(), snapshotReplay.durationMillis());
+
+        assertEquals((long) courierCount * LOCATIONS_PER_COURIER, fullReplay.replayedLocations());
+        assertEquals((long) courierCount * newPerCourier, snapshotReplay.replayedLocations());
+    }
+}
@@ -0,0 +1,163 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.CourierShardingProperties;
+import com.migros.courier.config.CourierSnapshotProperties;
+import com.migros.courier.config.LocationSimplificationProperties;
+import com.migros.courier.dto.LocationPoint;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.repository.CourierEntryRepository;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
+import com.migros.courier.repository.CourierLocationRepository;
+import com.migros.courier.repository.LocationPartitionRepository;
+import com.migros.courier.repository.StoreRepository;
+import com.migros.courier.util.DistanceCalculator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.migros.courier.service.TestConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CourierStateSnapshotServiceTest {
+
+    @Mock
+    private StoreRepository storeRepository;
+    @Mock
+    private StoreImportService storeImportService;
+    @Mock
+    private CourierEntryRepository courierEntryRepository;
+    @Mock
+    private CourierLocationRepository courierLocationRepository;
+    @Mock
+    private LocationWriteBehindBuffer writeBehindBuffer;
+    @Mock
+    private LocationJournal locationJournal;
+    @Mock
+    private CourierLocationJdbcWriter jdbcWriter;
+    @Mock
+    private LocationPartitionRepository partitionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private CourierClusterService clusterService;
+
+    @TempDir
+    private Path tempDir;
+
+    private CourierSnapshotProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CourierSnapshotProperties();
+        properties.setEnabled(true);
+        properties.setPath(tempDir.resolve("courier-state.snapshot").toString());
+    }
+
+    private record Node(StoreService storeService, LocationTrackingService trackingService,
+                        CourierStateSnapshotService snapshotService) {
+    }
+
+    /**
+     * Yeniden başlatılmış bir uygulamayı temsil eden, boş bellekli yeni servis örnekleri oluşturur.
+     */
+    private Node newNode() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CourierShardingProperties sharding = new CourierShardingProperties();
+        sharding.setEnabled(false);
+        CourierStateStore courierStateStore = new CourierStateStore();
+        StoreService storeService = new StoreService(storeRepository, courierEntryRepository, storeImportService,
+                courierStateStore, event -> {
+                });
+        LocationTrackingService trackingService =
+                new LocationTrackingService(storeService, courierLocationRepository, writeBehindBuffer, locationJournal,
+                        jdbcWriter,
+                        new TrackingMetrics(meterRegistry), new CourierShardExecutor(sharding,
+                        new BackgroundThreadFactory(new MockEnvironment()), meterRegistry),
+                        new TrajectorySimplifier(new LocationSimplificationProperties(), meterRegistry),
+                        new TransactionTemplate(transactionManager), courierStateStore, clusterService);
+        CourierStateSnapshotService snapshotService = new CourierStateSnapshotService(
+                trackingService, courierLocationRepository, partitionRepository, clusterService, properties,
+                transactionManager);
+        return new Node(storeService, trackingService, snapshotService);
+    }
+
+    @Test
+    @DisplayName("Snapshot ve sonrasındaki konumların yeniden oynatılması, toplam mesafeyi birebir kurtarmalıdır")
+    void whenRecoveredFromSnapshot_thenShouldRestoreExactTotalDistance() {
+        // Given - Snapshot öncesi ve sonrası konumlar
+        LocalDateTime start = LocalDateTime.of(2024, 3, 3, 10, 0, 0, 123_456_789);
+        List<CourierLocation> beforeSnapshot = List.of(
+                new CourierLocation(COURIER_ID, 40.9900, 29.1200, start),
+                new CourierLocation(COURIER_ID, 40.9910, 29.1210, start.plusSeconds(10)),
+                new CourierLocation("c2", ATASEHIR_LAT - 0.01, ATASEHIR_LNG, start)
+        );
+        List<CourierLocation> afterSnapshot = List.of(
+                new CourierLocation(COURIER_ID, 40.9920, 29.1220, start.plusSeconds(20)),
+                new CourierLocation("c2", NOVADA_LAT, NOVADA_LNG, start.plusSeconds(20)),
+                new CourierLocation("c3", 41.0, 29.0, start.plusSeconds(20))
+        );
+        Node original = newNode();
+        beforeSnapshot.forEach(original.trackingService()::trackLocation);
+        original.snapshotService().writeSnapshot();
+        afterSnapshot.forEach(original.trackingService()::trackLocation);
+
+        // Watermark sonrası akışa, zaten uygulanmış bir konum da (c1'in son noktası) karışmış olsun
+        CourierLocation alreadyApplied = beforeSnapshot.get(1);
+        Stream<LocationPoint> replayStream = Stream.concat(Stream.of(alreadyApplied), afterSnapshot.stream())
+                .map(l -> new LocationPoint(l.getCourierId(), l.getLat(), l.getLng(), l.getTimestamp()));
+        when(courierLocationRepository.streamCreatedSince(any(LocalDateTime.class))).thenReturn(replayStream);
+
+        // When
+        Node restarted = newNode();
+        CourierStateSnapshotService.RecoveryResult result = restarted.snapshotService().recover();
+
+        // Then
+        assertEquals(2, result.restoredCouriers());
+        assertEquals(3, result.replayedLocations());
+        assertEquals(1, result.skippedLocations());
+        for (String courierId : List.of(COURIER_ID, "c2", "c3")) {
+            assertEquals(original.storeService().getTotalTravelDistance(courierId),
+                    restarted.storeService().getTotalTravelDistance(courierId), 1e-9,
+                    "Kurye " + courierId + " için toplam mesafe kurtarılmalıdır");
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot yoksa tüm konum geçmişi yeniden oynatılmalıdır")
+    void whenSnapshotMissing_thenShouldReplayFullHistory() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2024, 3, 3, 10, 0);
+        when(courierLocationRepository.streamCreatedSince(any(LocalDateTime.class))).thenReturn(Stream.of(
+                new LocationPoint(COURIER_ID, ATASEHIR_LAT, ATASEHIR_LNG, start),
+                new LocationPoint(COURIER_ID, NOVADA_LAT, NOVADA_LNG, start.plusMinutes(5))
+        ));
+
+        // When
+        Node node = newNode();
+        CourierStateSnapshotService.RecoveryResult result = node.snapshotService().recover();
+
+        // Then
+        assertEquals(0, result.restoredCouriers());
+        assertEquals(2, result.replayedLocations());
+        assertEquals(DistanceCalculator.calculateDistance(
+                        ATASEHIR_LAT, ATASEHIR_LNG, NOVADA_LAT, NOVADA_LNG),
+                node.storeService().getTotalTravelDistance(COURIER_ID), 1e-9);
+    }
+}
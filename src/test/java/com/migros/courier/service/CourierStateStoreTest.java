@@ -0,0 +1,186 @@
+package com.migros.courier.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CourierStateStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 10, 0, 0, 123_456_789);
+
+    @Test
+    @DisplayName("Ardışık konumlar arasındaki mesafe toplam mesafeye eklenmelidir")
+    void whenCourierAdvances_thenDistanceShouldAccumulate() {
+        // Given
+        CourierStateStore store = new CourierStateStore();
+
+        // When
+        double first = store.advance("courier-1", 40.9923307, 29.1244229, NOW);
+        double second = store.advance("courier-1", 40.986106, 29.1161293, NOW.plusSeconds(5));
+        store.addDistance("courier-1", 100);
+
+        // Then
+        assertEquals(0.0, first);
+        assertEquals(981.66, second, 0.01);
+        assertEquals(1081.66, store.getTotalDistance("courier-1"), 0.01);
+        assertEquals(0.0, store.getTotalDistance("unknown"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Son konumdan eski veya aynı zamanlı konum advanceIfNewer ile uygulanmamalıdır")
+    void whenLocationIsNotNewer_thenAdvanceIfNewerShouldSkip() {
+        // Given
+        CourierStateStore store = new CourierStateStore();
+        store.advance("courier-1", 40.9923307, 29.1244229, NOW);
+
+        // When & Then
+        assertFalse(store.advanceIfNewer("courier-1", 40.986106, 29.1161293, NOW));
+        assertFalse(store.advanceIfNewer("courier-1", 40.986106, 29.1161293, NOW.minusNanos(1)));
+        assertEquals(0.0, store.getTotalDistance("courier-1"));
+        assertTrue(store.advanceIfNewer("courier-1", 40.986106, 29.1161293, NOW.plusNanos(1)));
+        assertEquals(981.66, store.getTotalDistance("courier-1"), 0.01);
+    }
+
+    @Test
+    @DisplayName("Yakalanan durum nanosaniye hassasiyetiyle geri yüklenebilmelidir")
+    void whenStateCapturedAndRestored_thenShouldRoundTrip() {
+        // Given
+        CourierStateStore store = new CourierStateStore();
+        store.advance("courier-1", 40.9923307, 29.1244229, NOW);
+        store.advance("courier-1", 40.986106, 29.1161293, NOW.plusSeconds(5));
+        store.addDistance("courier-2", 50); // Konumu olmayan kurye yakalanmaz
+
+        // When
+        List<CourierState> states = store.capture();
+        CourierStateStore restored = new CourierStateStore();
+        states.forEach(restored::restore);
+
+        // Then
+        assertEquals(1, states.size());
+        assertEquals(states, restored.capture());
+        assertEquals(NOW.plusSeconds(5), states.get(0).lastTimestamp());
+        assertEquals(store.getTotalDistance("courier-1"), restored.getTotalDistance("courier-1"));
+    }
+
+    @Test
+    @DisplayName("Çok sayıda kurye eşzamanlı güncellendiğinde hiçbir güncelleme kaybolmamalıdır")
+    void whenManyCouriersUpdatedConcurrently_thenNoUpdateShouldBeLost() throws Exception {
+        // Given
+        CourierStateStore store = new CourierStateStore();
+        int couriers = 20_000;
+        int threads = 8;
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> runs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            runs.add(executor.submit(() -> {
+                for (int c = 0; c < couriers; c++) {
+                    store.addDistance("courier-" + c, 1);
+                }
+            }));
+        }
+        for (Future<?> run : runs) {
+            run.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(couriers, store.size());
+        for (int c = 0; c < couriers; c++) {
+            assertEquals(threads, store.getTotalDistance("courier-" + c));
+        }
+        assertTrue(store.estimatedBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Boşta kalan ve sınırı aşan kuryeler çıkarılmalı, seçildikten sonra güncellenen kurye bellekte kalmalıdır")
+    void whenCouriersIdleOrOverLimit_thenShouldBeEvictedUnlessUpdated() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        CourierStateStore store = new CourierStateStore(courierId -> null, clock::get);
+        for (int c = 0; c < 1_000; c++) {
+            store.addDistance("courier-" + c, c);
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        }
+
+        // When
+        List<CourierState> idle = store.findEvictionCandidates(Duration.ofSeconds(900), 10_000);
+        List<CourierState> overLimit = store.findEvictionCandidates(Duration.ofDays(1), 600);
+        store.addDistance("courier-0", 1); // Seçildikten sonra güncellenen kurye
+        int evicted = store.evict(overLimit);
+
+        // Then
+        assertEquals(101, idle.size()); // Tam 900 saniyedir boşta olan kurye de dahil
+        assertEquals(400, overLimit.size());
+        assertEquals(399, evicted);
+        assertEquals(601, store.size());
+        assertEquals(399, store.getEvictionCount());
+        assertEquals(1.0, store.getTotalDistance("courier-0"));
+        for (int c = 1; c < 1_000; c++) {
+            assertEquals(c < 400 ? 0.0 : c, store.getTotalDistance("courier-" + c), "courier-" + c);
+        }
+    }
+
+    @Test
+    @DisplayName("Bellekte olmayan kurye yükleyiciden okunmalı ve yeni konum saklanan durumun üzerine eklenmelidir")
+    void whenCourierNotInMemory_thenShouldLoadStoredStateLazily() {
+        // Given
+        Map<String, CourierState> archive = Map.of("courier-1",
+                new CourierState("courier-1", 500, 40.9923307, 29.1244229, NOW));
+        CourierStateStore store = new CourierStateStore(archive::get, System::nanoTime);
+
+        // When
+        double added = store.advance("courier-1", 40.986106, 29.1161293, NOW.plusSeconds(5));
+        store.advance("courier-1", 40.986106, 29.1161293, NOW.plusSeconds(10));
+        store.advance("courier-2", 40.986106, 29.1161293, NOW);
+
+        // Then
+        assertEquals(981.66, added, 0.01);
+        assertEquals(1481.66, store.getTotalDistance("courier-1"), 0.01);
+        assertEquals(2, store.getMissCount());
+        assertEquals(1, store.getLoadCount());
+        assertEquals(2, store.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Devredilen durum saklanan kopyaya göre fark olarak eklenmeli, yeni sahipte yüklenen geçmiş iki kez sayılmamalıdır")
+    void whenHandoffMergedAfterEarlyPing_thenStoredHistoryShouldNotBeCountedTwice() {
+        // Given - Saklanan kopya 500m; eski sahip sonrasında 300m daha yol almış
+        Map<String, CourierState> archive = Map.of("courier-1",
+                new CourierState("courier-1", 500, 40.9923307, 29.1244229, NOW));
+        CourierStateStore previousOwner = new CourierStateStore(archive::get, System::nanoTime);
+        CourierStateStore newOwner = new CourierStateStore(archive::get, System::nanoTime);
+        CourierState handedOff = previousOwner.relativeToStored(
+                new CourierState("courier-1", 800, 40.9923307, 29.1244229, NOW.plusSeconds(30)));
+        // Devir gelmeden yeni sahibe ulaşan bildirim saklanan kopyayı yükler
+        double early = newOwner.advance("courier-1", 40.986106, 29.1161293, NOW.plusSeconds(40));
+
+        // When
+        newOwner.merge(handedOff);
+        CourierStateStore emptyOwner = new CourierStateStore(archive::get, System::nanoTime);
+        emptyOwner.merge(handedOff);
+
+        // Then
+        assertEquals(300, handedOff.totalDistance(), 1e-9);
+        assertEquals(800 + early, newOwner.getTotalDistance("courier-1"), 1e-9);
+        assertEquals(NOW.plusSeconds(40), newOwner.peek("courier-1").lastTimestamp());
+        assertEquals(800, emptyOwner.getTotalDistance("courier-1"), 1e-9);
+        assertEquals(NOW.plusSeconds(30), emptyOwner.peek("courier-1").lastTimestamp());
+    }
+}
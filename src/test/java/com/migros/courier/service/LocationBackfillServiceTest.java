@@ -0,0 +1,142 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.LocationPartitioningProperties;
+import com.migros.courier.dto.BackfillProgress;
+import com.migros.courier.dto.CourierEntryResponse;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.repository.CourierLocationHourlySummaryRepository;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
+import com.migros.courier.repository.CourierLocationRepository;
+import com.migros.courier.repository.LocationPartitionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "courier.backfill.parallelism=2",
+        "courier.backfill.couriers-per-task=1"
+})
+class LocationBackfillServiceTest {
+
+    // Ataşehir ve Novada mağazaları arası yaklaşık 982 metre
+    private static final double ATASEHIR_LAT = 40.9923307;
+    private static final double ATASEHIR_LNG = 29.1244229;
+    private static final double NOVADA_LAT = 40.986106;
+    private static final double NOVADA_LNG = 29.1161293;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 10, 9, 0);
+
+    @Autowired
+    private LocationBackfillService backfillService;
+    @Autowired
+    private CourierLocationRepository courierLocationRepository;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private CourierStateStore courierStateStore;
+    @Autowired
+    private LocationRetentionService retentionService;
+    @Autowired
+    private LocationPartitionRepository partitionRepository;
+    @Autowired
+    private LocationPartitioningProperties partitioningProperties;
+    @Autowired
+    private CourierLocationJdbcWriter jdbcWriter;
+    @Autowired
+    private CourierLocationHourlySummaryRepository summaryRepository;
+
+    private static CourierLocation location(String courierId, double lat, double lng, LocalDateTime timestamp) {
+        return new CourierLocation(courierId, lat, lng, timestamp);
+    }
+
+    @Test
+    @DisplayName("Geri doldurma mesafeyi ve girişleri geçmişten yeniden hesaplamalı, aynı iş tekrar çalışınca kuryeleri atlamalıdır")
+    void whenBackfillRunsAndResumes_thenShouldRebuildOnceAndSkipCompletedCouriers() {
+        // Given - Ziyaret aralığı içindeki ikinci Ataşehir noktası giriş sayılmaz
+        courierLocationRepository.saveAll(List.of(
+                location("backfill-1", NOVADA_LAT, NOVADA_LNG, START.plusMinutes(2)),
+                location("backfill-1", ATASEHIR_LAT, ATASEHIR_LNG, START),
+                location("backfill-1", ATASEHIR_LAT, ATASEHIR_LNG, START.plusSeconds(30)),
+                location("backfill-1", ATASEHIR_LAT, ATASEHIR_LNG, START.plusMinutes(4)),
+                location("backfill-2", 41.5, 29.5, START),
+                location("backfill-2", 41.5, 29.5, START.plusMinutes(1))));
+        storeService.updateTotalDistance("backfill-1", 50_000); // Hatalı eski durum
+
+        // When
+        BackfillProgress first = backfillService.run(null);
+        BackfillProgress resumed = backfillService.run(first.jobId());
+
+        // Then
+        assertEquals(BackfillProgress.Status.COMPLETED, first.status());
+        assertEquals(0, first.failedCouriers());
+        assertEquals(first.totalCouriers(), first.processedCouriers());
+        assertEquals(1963.32, storeService.getTotalTravelDistance("backfill-1"), 0.02);
+        assertEquals(0.0, storeService.getTotalTravelDistance("backfill-2"));
+        List<LocalDateTime> entryTimes = storeService.getCourierEntries("backfill-1", null, null, null, 100)
+                .getEntries().stream().map(CourierEntryResponse::getEntryTime).toList();
+        assertEquals(List.of(START, START.plusMinutes(2), START.plusMinutes(4)), entryTimes);
+
+        assertEquals(BackfillProgress.Status.COMPLETED, resumed.status());
+        assertEquals(first.totalCouriers(), resumed.skippedCouriers());
+        assertEquals(0, resumed.processedCouriers());
+    }
+
+    @Test
+    @DisplayName("Bellekteki son konum veritabanındakinden yeniyse geri doldurma kuryenin durumunu ezmemelidir")
+    void whenMemoryHasNewerLocation_thenBackfillShouldKeepStateAndFailCourier() {
+        // Given - Son konum henüz veritabanına yazılmamış
+        List<CourierLocation> history = courierLocationRepository.saveAll(List.of(
+                location("backfill-3", ATASEHIR_LAT, ATASEHIR_LNG, START),
+                location("backfill-3", NOVADA_LAT, NOVADA_LNG, START.plusMinutes(1))));
+        courierStateStore.restore(new CourierState("backfill-3", 1500, ATASEHIR_LAT, ATASEHIR_LNG,
+                START.plusMinutes(5)));
+
+        // When
+        BackfillProgress progress = backfillService.run(null);
+        courierLocationRepository.deleteAll(history);
+
+        // Then
+        assertEquals(BackfillProgress.Status.FAILED, progress.status());
+        assertEquals(1, progress.failedCouriers());
+        CourierState state = courierStateStore.peek("backfill-3");
+        assertEquals(1500, state.totalDistance());
+        assertEquals(START.plusMinutes(5), state.lastTimestamp());
+    }
+
+    @Test
+    @DisplayName("Saklama süresi dolup tablosu silinen günlerin girişleri geri doldurmada silinmemelidir")
+    void whenPartitionDroppedBeforeBackfill_thenOlderEntriesShouldSurvive() {
+        // Given - Eski gün Ataşehir'de, saklanan gün Novada'da giriş; günler diğer testlerin konumlarından önce
+        LocalDateTime old = START.minusDays(60);
+        LocalDate expiredDay = old.toLocalDate();
+        LocalDateTime recent = expiredDay.plusDays(5).atTime(9, 0);
+        partitioningProperties.setEnabled(true);
+        try {
+            partitionRepository.preparePartitions(expiredDay.plusDays(30));
+            jdbcWriter.insertAll(List.of(
+                    location("backfill-4", ATASEHIR_LAT, ATASEHIR_LNG, old),
+                    location("backfill-4", NOVADA_LAT, NOVADA_LNG, recent)));
+            backfillService.run(null);
+            retentionService.runMaintenance(expiredDay.plusDays(31));
+
+            // When
+            BackfillProgress progress = backfillService.run(null);
+
+            // Then
+            assertEquals(BackfillProgress.Status.COMPLETED, progress.status());
+            List<LocalDateTime> entryTimes = storeService.getCourierEntries("backfill-4", null, null, null, 100)
+                    .getEntries().stream().map(CourierEntryResponse::getEntryTime).toList();
+            assertEquals(List.of(old, recent), entryTimes);
+        } finally {
+            partitionRepository.findPartitions().forEach(partitionRepository::dropPartition);
+            summaryRepository.deleteAllInBatch();
+            partitioningProperties.setEnabled(false);
+        }
+    }
+}
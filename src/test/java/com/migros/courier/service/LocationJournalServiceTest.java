@@ -0,0 +1,146 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.LocationJournalProperties;
+import com.migros.courier.config.LocationPersistenceProperties;
+import com.migros.courier.dto.LocationPoint;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.model.LocationJournalCheckpoint;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
+import com.migros.courier.repository.LocationJournalCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LocationJournalServiceTest {
+
+    @Mock
+    private LocationTrackingService locationTrackingService;
+    @Mock
+    private CourierLocationJdbcWriter jdbcWriter;
+    @Mock
+    private LocationJournalCheckpointRepository checkpointRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path tempDir;
+
+    private LocationJournal journal;
+    private LocationJournalService service;
+
+    private void start() {
+        LocationPersistenceProperties persistence = new LocationPersistenceProperties();
+        persistence.setMode(LocationPersistenceProperties.Mode.JOURNAL);
+        LocationJournalProperties properties = new LocationJournalProperties();
+        properties.setDirectory(tempDir.toString());
+        properties.setSegmentSize(DataSize.ofKilobytes(64));
+        properties.setApplyBatchSize(100);
+        properties.setApplyInterval(Duration.ofMillis(10));
+        BackgroundThreadFactory threadFactory = new BackgroundThreadFactory(new MockEnvironment());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        journal = new LocationJournal(persistence, properties, threadFactory, meterRegistry);
+        journal.open();
+        service = new LocationJournalService(journal, locationTrackingService, jdbcWriter, checkpointRepository,
+                properties, threadFactory, transactionManager, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.stop();
+            journal.close();
+        }
+    }
+
+    private static List<CourierLocation> locations(int count) {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 12, 0);
+        return IntStream.range(0, count)
+                .mapToObj(i -> new CourierLocation("kurye-" + (i % 3), 40.0 + i * 1e-5, 29.0, start.plusSeconds(i)))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Açılışta günlükteki tüm konumlar kurye durumuna yeniden oynatılmalıdır")
+    void whenStarted_thenJournalShouldBeReplayedIntoCourierState() {
+        // Given - Önceki çalışmadan kalan günlük
+        start();
+        journal.appendAll(locations(250));
+        journal.close();
+        when(locationTrackingService.replayLocation(any())).thenReturn(true);
+
+        // When
+        start();
+        LocationJournalService.ReplayResult result = service.replay();
+
+        // Then
+        assertEquals(250, result.records());
+        assertEquals(250, result.applied());
+        ArgumentCaptor<LocationPoint> points = ArgumentCaptor.forClass(LocationPoint.class);
+        verify(locationTrackingService, times(250)).replayLocation(points.capture());
+        assertEquals(new LocationPoint("kurye-0", 40.0 + 249 * 1e-5, 29.0,
+                LocalDateTime.of(2025, 3, 1, 12, 0).plusSeconds(249)), points.getValue());
+    }
+
+    @Test
+    @DisplayName("Günlüğe eklenen konumlar veritabanına yazılmalı ve checkpoint aynı transaction'da ilerlemelidir")
+    void whenAppended_thenLocationsShouldBeAppliedWithCheckpoint() {
+        // Given - Veritabanı önceki çalışmanın ilk 100 konumunu yazmış
+        start();
+        List<CourierLocation> all = locations(350);
+        journal.appendAll(all.subList(0, 100));
+        LocationJournalCheckpoint checkpoint = new LocationJournalCheckpoint(journal.getDirectory().toString());
+        checkpoint.setId(UUID.randomUUID());
+        checkpoint.setSegment(journal.getEndPosition().segment());
+        checkpoint.setOffset(journal.getEndPosition().offset());
+        when(checkpointRepository.findByJournal(anyString())).thenReturn(Optional.of(checkpoint));
+        List<String> applied = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<CourierLocation> batch = invocation.getArgument(0);
+            batch.forEach(location -> applied.add(location.getCourierId() + "@" + location.getTimestamp()));
+            return null;
+        }).when(jdbcWriter).insertAll(anyList());
+
+        // When
+        service.start();
+        journal.appendAll(all.subList(100, 350));
+
+        // Then
+        verify(checkpointRepository, timeout(2000).atLeast(3)).save(checkpoint);
+        verify(jdbcWriter, timeout(2000).atLeast(3)).insertAll(anyList());
+        service.stop();
+        assertEquals(all.subList(100, 350).stream()
+                .map(location -> location.getCourierId() + "@" + location.getTimestamp())
+                .toList(), applied);
+        assertEquals(journal.getEndPosition(), service.getAppliedPosition());
+        assertEquals(journal.getEndPosition().offset(), checkpoint.getOffset());
+    }
+}
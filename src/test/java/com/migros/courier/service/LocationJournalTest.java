@@ -0,0 +1,191 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.LocationJournalProperties;
+import com.migros.courier.config.LocationPersistenceProperties;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.service.LocationJournal.Position;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocationJournalTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123_456_789);
+
+    @TempDir
+    private Path tempDir;
+
+    private final List<LocationJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(LocationJournal::close);
+    }
+
+    private LocationJournal openJournal(LocationJournalProperties.Fsync fsync, int retainedSegments) {
+        LocationPersistenceProperties persistence = new LocationPersistenceProperties();
+        persistence.setMode(LocationPersistenceProperties.Mode.JOURNAL);
+        LocationJournalProperties properties = new LocationJournalProperties();
+        properties.setDirectory(tempDir.toString());
+        properties.setSegmentSize(DataSize.ofKilobytes(64));
+        properties.setFsync(fsync);
+        properties.setRetainedSegments(retainedSegments);
+        LocationJournal journal = new LocationJournal(persistence, properties,
+                new BackgroundThreadFactory(new MockEnvironment()), new SimpleMeterRegistry());
+        journal.open();
+        journals.add(journal);
+        return journal;
+    }
+
+    private static List<CourierLocation> locations(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new CourierLocation("kurye-" + (i % 7), 40.0 + i * 1e-5, 29.0 - i * 1e-5,
+                        START.plusSeconds(i)))
+                .toList();
+    }
+
+    private static List<CourierLocation> readAll(LocationJournal journal) {
+        LocationJournal.Cursor cursor = journal.openCursor(journal.getStartPosition());
+        List<CourierLocation> all = new ArrayList<>();
+        List<CourierLocation> batch;
+        while (!(batch = cursor.read(500)).isEmpty()) {
+            all.addAll(batch);
+        }
+        return all;
+    }
+
+    private static void assertSameLocations(List<CourierLocation> expected, List<CourierLocation> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getCourierId(), actual.get(i).getCourierId());
+            assertEquals(expected.get(i).getLat(), actual.get(i).getLat());
+            assertEquals(expected.get(i).getLng(), actual.get(i).getLng());
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".journal")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Segmentler arasına yayılan kayıtlar yeniden açılışta aynı sırayla okunmalıdır")
+    void whenReopened_thenAllRecordsShouldBeReadInOrderAcrossSegments() throws IOException {
+        // Given
+        LocationJournal journal = openJournal(LocationJournalProperties.Fsync.ALWAYS, 8);
+        List<CourierLocation> first = locations(3000);
+        journal.appendAll(first.subList(0, 1000));
+        first.subList(1000, 3000).forEach(journal::append);
+        journal.close();
+
+        // When
+        LocationJournal reopened = openJournal(LocationJournalProperties.Fsync.ALWAYS, 8);
+        List<CourierLocation> second = locations(10);
+        reopened.appendAll(second);
+
+        // Then
+        assertTrue(segmentCount() > 1, "Segment sayısı: " + segmentCount());
+        List<CourierLocation> expected = new ArrayList<>(first);
+        expected.addAll(second);
+        assertSameLocations(expected, readAll(reopened));
+    }
+
+    @Test
+    @DisplayName("Okuyucu kaldığı yerden devam etmeli ve sonradan eklenen kayıtları görmelidir")
+    void whenAppendedAfterRead_thenCursorShouldContinueFromPosition() {
+        // Given
+        LocationJournal journal = openJournal(LocationJournalProperties.Fsync.NEVER, 8);
+        List<CourierLocation> all = locations(2000);
+        journal.appendAll(all.subList(0, 500));
+        LocationJournal.Cursor cursor = journal.openCursor(journal.getStartPosition());
+        List<CourierLocation> read = new ArrayList<>(cursor.read(10_000));
+
+        // When
+        journal.appendAll(all.subList(500, 2000));
+        read.addAll(cursor.read(10_000));
+
+        // Then
+        assertSameLocations(all, read);
+        assertEquals(journal.getEndPosition(), cursor.position());
+        assertEquals(0, journal.bytesBehind(cursor.position()));
+    }
+
+    @Test
+    @DisplayName("Yarım kalmış son kayıt açılışta atılmalı ve yerine yeni kayıt yazılabilmelidir")
+    void whenTailIsTorn_thenReopenShouldTruncateAndContinue() throws IOException {
+        // Given - Son kaydın CRC'si bozulur ve arkasına rastgele bayt yazılır
+        LocationJournal journal = openJournal(LocationJournalProperties.Fsync.ALWAYS, 8);
+        List<CourierLocation> written = locations(5);
+        journal.appendAll(written.subList(0, 4));
+        Position lastRecord = journal.getEndPosition();
+        journal.append(written.get(4));
+        Position end = journal.getEndPosition();
+        journal.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            segment = files.filter(file -> file.getFileName().toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), lastRecord.offset() + 12);
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}), end.offset());
+        }
+
+        // When
+        LocationJournal reopened = openJournal(LocationJournalProperties.Fsync.ALWAYS, 8);
+        Position recoveredEnd = reopened.getEndPosition();
+        CourierLocation next = locations(6).get(5);
+        reopened.append(next);
+
+        // Then
+        assertEquals(lastRecord, recoveredEnd);
+        List<CourierLocation> expected = new ArrayList<>(written.subList(0, 4));
+        expected.add(next);
+        assertSameLocations(expected, readAll(reopened));
+    }
+
+    @Test
+    @DisplayName("Yalnızca veritabanına yazılmış ve saklama sınırını aşan segmentler silinmelidir")
+    void whenSegmentsApplied_thenOnlyAppliedSegmentsBeyondRetentionShouldBeDeleted() throws IOException {
+        // Given - 64KB segmentlerle en az 4 segment
+        LocationJournal journal = openJournal(LocationJournalProperties.Fsync.NEVER, 2);
+        journal.appendAll(locations(6000));
+        long segments = segmentCount();
+        assertTrue(segments >= 4, "Segment sayısı: " + segments);
+
+        // When - Yazıcı ikinci segmentte
+        int deleted = journal.deleteAppliedSegments(1);
+
+        // Then - Yalnızca ilk segment silinebilir
+        assertEquals(1, deleted);
+        assertEquals(segments - 1, segmentCount());
+        assertEquals(1, journal.getStartPosition().segment());
+
+        // When - Yazıcı günlüğün sonunda
+        journal.deleteAppliedSegments(journal.getEndPosition().segment());
+
+        // Then - Saklama sınırı kadar segment kalır
+        assertEquals(2, segmentCount());
+    }
+}
@@ -0,0 +1,232 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.LocationPartitioningProperties;
+import com.migros.courier.dto.CourierHourlySummaryResponse;
+import com.migros.courier.dto.LocationPoint;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.repository.CourierLocationHourlySummaryJdbcWriter;
+import com.migros.courier.repository.CourierLocationHourlySummaryRepository;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
+import com.migros.courier.repository.LocationPartitionRepository;
+import com.migros.courier.repository.LocationPartitionRollupRepository;
+import com.migros.courier.util.DistanceCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({LocationRetentionService.class, LocationPartitionRepository.class, CourierLocationJdbcWriter.class,
+        CourierLocationHourlySummaryJdbcWriter.class, LocationPartitioningProperties.class})
+// Konum yazan transaction bakımı bekletir; test metodları bu yüzden transaction dışında çalışır
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LocationRetentionServiceTest {
+
+    @Autowired
+    private LocationRetentionService retentionService;
+    @Autowired
+    private LocationPartitionRepository partitionRepository;
+    @Autowired
+    private CourierLocationJdbcWriter jdbcWriter;
+    @Autowired
+    private CourierLocationHourlySummaryRepository summaryRepository;
+    @Autowired
+    private LocationPartitionRollupRepository rollupRepository;
+    @Autowired
+    private LocationPartitioningProperties properties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setRetentionDays(30);
+        // Testler transaction dışında çalıştığı için önceki testlerin verileri temizlenir
+        partitionRepository.findPartitions().forEach(partitionRepository::dropPartition);
+        jdbcTemplate.update("DELETE FROM courier_location");
+        summaryRepository.deleteAllInBatch();
+        rollupRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Konumlar gününe ait tabloya yazılmalı ve kurtarma akışında tüm tablolardan okunmalıdır")
+    void whenPartitioned_thenLocationsShouldBeRoutedByDayAndStreamedTogether() {
+        // Given
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        LocalDateTime lateEvening = LocalDateTime.of(2024, 5, 10, 23, 59, 50);
+        CourierLocation first = new CourierLocation("c1", 40.99, 29.12, lateEvening);
+        CourierLocation second = new CourierLocation("c1", 40.991, 29.121, lateEvening.plusSeconds(20));
+        partitionRepository.preparePartitions(LocalDate.of(2024, 5, 10));
+
+        // When
+        jdbcWriter.insertAll(List.of(second, first));
+
+        // Then
+        assertEquals(1, count(LocationPartitionRepository.tableName(LocalDate.of(2024, 5, 10))));
+        assertEquals(1, count(LocationPartitionRepository.tableName(LocalDate.of(2024, 5, 11))));
+        assertEquals(0, count("courier_location"));
+        assertTrue(partitionRepository.findPartitions()
+                .containsAll(List.of(LocalDate.of(2024, 5, 10), LocalDate.of(2024, 5, 11))));
+        try (Stream<LocationPoint> points = partitionRepository.streamCreatedSince(before)) {
+            assertEquals(List.of(lateEvening, lateEvening.plusSeconds(20)),
+                    points.filter(p -> p.courierId().equals("c1")).map(LocationPoint::timestamp).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Saklama süresi dolan gün saatlik özetlere indirgenmeli ve tablosu silinmelidir")
+    void whenPartitionExpired_thenShouldRollUpAndDrop() {
+        // Given
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        LocalDate expiredDay = today.minusDays(31);
+        LocalDate retainedDay = today.minusDays(5);
+        LocalDateTime nine = expiredDay.atTime(9, 10);
+        partitionRepository.preparePartitions(expiredDay.plusDays(30));
+        jdbcWriter.insertAll(List.of(
+                new CourierLocation("c1", 40.990, 29.120, nine),
+                new CourierLocation("c1", 40.995, 29.125, nine.plusMinutes(20)),
+                new CourierLocation("c1", 40.992, 29.118, nine.plusMinutes(55)),
+                new CourierLocation("c2", 41.000, 29.000, nine.plusMinutes(5)),
+                new CourierLocation("c1", 40.990, 29.120, retainedDay.atTime(12, 0))));
+
+        // When
+        retentionService.rollUp(expiredDay); // Silinmeden önce yarıda kalan bir bakımı temsil eder
+        LocationRetentionService.MaintenanceResult result = retentionService.runMaintenance(today);
+
+        // Then
+        assertEquals(1, result.droppedPartitions());
+        assertEquals(0, result.summaries()); // Gün, yarıda kalan bakımda özetlenmişti
+        List<LocalDate> partitions = partitionRepository.findPartitions();
+        assertFalse(partitions.contains(expiredDay));
+        assertTrue(partitions.containsAll(List.of(retainedDay, today, today.plusDays(1))));
+        assertEquals(3, summaryRepository.count());
+
+        List<CourierHourlySummaryResponse> summaries = retentionService.getHourlySummaries("c1",
+                expiredDay.atStartOfDay(), expiredDay.plusDays(1).atStartOfDay());
+        assertEquals(2, summaries.size());
+        CourierHourlySummaryResponse nineOClock = summaries.get(0);
+        assertEquals(expiredDay.atTime(9, 0), nineOClock.getHourStart());
+        assertEquals(2, nineOClock.getPointCount());
+        assertEquals(DistanceCalculator.calculateDistance(40.990, 29.120, 40.995, 29.125),
+                nineOClock.getDistanceMeters(), 1e-6);
+        assertEquals(40.990, nineOClock.getMinLat());
+        assertEquals(40.995, nineOClock.getMaxLat());
+        assertEquals(nine.plusMinutes(20), nineOClock.getLastTimestamp());
+        // Saat sınırını geçen segment, bittiği saate yazılır
+        CourierHourlySummaryResponse tenOClock = summaries.get(1);
+        assertEquals(1, tenOClock.getPointCount());
+        assertEquals(DistanceCalculator.calculateDistance(40.995, 29.125, 40.992, 29.118),
+                tenOClock.getDistanceMeters(), 1e-6);
+        assertEquals(29.118, tenOClock.getMinLng());
+    }
+
+    @Test
+    @DisplayName("Süresi dolmuş güne gelen gecikmeli konum tablo açmadan mevcut özete eklenmelidir")
+    void whenLatePointForDroppedDay_thenShouldBeAddedToExistingSummary() {
+        // Given
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        LocalDate expiredDay = today.minusDays(31);
+        LocalDateTime nine = expiredDay.atTime(9, 10);
+        partitionRepository.preparePartitions(expiredDay.plusDays(30));
+        jdbcWriter.insertAll(List.of(
+                new CourierLocation("c1", 40.990, 29.120, nine),
+                new CourierLocation("c1", 40.995, 29.125, nine.plusMinutes(20))));
+        retentionService.runMaintenance(today);
+
+        // When
+        jdbcWriter.insertAll(List.of(new CourierLocation("c1", 40.980, 29.130, nine.minusMinutes(5))));
+        LocationRetentionService.MaintenanceResult result = retentionService.runMaintenance(today);
+
+        // Then
+        assertEquals(0, result.droppedPartitions());
+        assertFalse(partitionRepository.findPartitions().contains(expiredDay));
+        List<CourierHourlySummaryResponse> summaries = retentionService.getHourlySummaries("c1",
+                expiredDay.atStartOfDay(), expiredDay.plusDays(1).atStartOfDay());
+        assertEquals(1, summaries.size());
+        CourierHourlySummaryResponse nineOClock = summaries.get(0);
+        assertEquals(3, nineOClock.getPointCount());
+        assertEquals(DistanceCalculator.calculateDistance(40.990, 29.120, 40.995, 29.125),
+                nineOClock.getDistanceMeters(), 1e-6);
+        assertEquals(40.980, nineOClock.getMinLat());
+        assertEquals(29.130, nineOClock.getMaxLng());
+        assertEquals(nine.minusMinutes(5), nineOClock.getFirstTimestamp());
+        assertEquals(nine.plusMinutes(20), nineOClock.getLastTimestamp());
+    }
+
+    @Test
+    @DisplayName("Tablosu hazırlanmamış güne yazılan ileri zamanlı konum, saklama süresi dolunca ana tablodan özetlenip silinmelidir")
+    void whenFutureDatedPointInBaseTable_thenShouldBeRolledUpOnExpiry() {
+        // Given - Cihaz saati bir yıl ileri
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        LocalDateTime future = today.plusYears(1).atTime(9, 30);
+        partitionRepository.preparePartitions(today);
+        jdbcWriter.insertAll(List.of(new CourierLocation("c1", 40.99, 29.12, future)));
+        assertEquals(1, count("courier_location"));
+
+        // When
+        LocationRetentionService.MaintenanceResult kept = retentionService.runMaintenance(today);
+        LocationRetentionService.MaintenanceResult expired = retentionService.runMaintenance(
+                future.toLocalDate().plusDays(31));
+
+        // Then
+        assertEquals(0, kept.summaries());
+        assertEquals(1, expired.summaries());
+        assertEquals(0, count("courier_location"));
+        List<CourierHourlySummaryResponse> summaries = retentionService.getHourlySummaries("c1",
+                future.toLocalDate().atStartOfDay(), future.toLocalDate().plusDays(1).atStartOfDay());
+        assertEquals(1, summaries.size());
+        assertEquals(1, summaries.getFirst().getPointCount());
+    }
+
+    @Test
+    @DisplayName("Bakım, süresi dolacak güne yazan transaction bitene kadar beklemeli ve konumu özete katmalıdır")
+    void whenWriterInFlight_thenMaintenanceShouldWaitAndIncludeIt() throws Exception {
+        // Given
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        LocalDate expiringDay = today.minusDays(31);
+        partitionRepository.preparePartitions(expiringDay.plusDays(30));
+        CompletableFuture<LocationRetentionService.MaintenanceResult> maintenance = new CompletableFuture<>();
+
+        // When - Konum yazılmış ama transaction henüz commit edilmemişken bakım başlar
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcWriter.insertAll(List.of(new CourierLocation("c1", 40.99, 29.12, expiringDay.atTime(9, 0))));
+            assertThrows(IllegalStateException.class, () -> partitionRepository.preparePartitions(today));
+            Thread.ofVirtual().start(() -> maintenance.complete(retentionService.runMaintenance(today)));
+            assertThrows(TimeoutException.class,
+                    () -> maintenance.get(200, TimeUnit.MILLISECONDS));
+        });
+        LocationRetentionService.MaintenanceResult result = maintenance.get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(1, result.droppedPartitions());
+        List<CourierHourlySummaryResponse> summaries = retentionService.getHourlySummaries("c1",
+                expiringDay.atStartOfDay(), expiringDay.plusDays(1).atStartOfDay());
+        assertEquals(1, summaries.size());
+        assertEquals(1, summaries.getFirst().getPointCount());
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
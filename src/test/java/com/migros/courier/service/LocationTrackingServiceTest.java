@@ -1,23 +1,37 @@
 package com.migros.courier.service;
 
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.CourierShardingProperties;
+import com.migros.courier.config.LocationSimplificationProperties;
+import com.migros.courier.dto.LocationBatchItemResult;
+import com.migros.courier.dto.StoreInfo;
 import com.migros.courier.exception.LocationTrackingException;
 import com.migros.courier.model.CourierLocation;
-import com.migros.courier.model.Store;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
 import com.migros.courier.repository.CourierLocationRepository;
+import com.migros.courier.util.DistanceCalculator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static com.migros.courier.service.TestConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,18 +43,59 @@ class LocationTrackingServiceTest {
     @Mock
     private CourierLocationRepository courierLocationRepository;
 
+    @Mock
+    private LocationWriteBehindBuffer writeBehindBuffer;
+
+    @Mock
+    private LocationJournal locationJournal;
+
+    @Mock
+    private CourierLocationJdbcWriter jdbcWriter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private TrackingMetrics trackingMetrics = new TrackingMetrics(meterRegistry);
+
+    @Spy
+    private CourierShardExecutor shardExecutor = new CourierShardExecutor(disabledSharding(),
+            new BackgroundThreadFactory(new MockEnvironment()), meterRegistry);
+
+    private final LocationSimplificationProperties simplificationProperties = new LocationSimplificationProperties();
+
+    @Spy
+    private TrajectorySimplifier trajectorySimplifier =
+            new TrajectorySimplifier(simplificationProperties, meterRegistry);
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private CourierStateStore courierStateStore = new CourierStateStore();
+
+    @Mock
+    private CourierClusterService clusterService;
+
     @InjectMocks
     private LocationTrackingService locationTrackingService;
 
-    private List<Store> mockStores;
+    private List<StoreInfo> mockStores;
 
     @BeforeEach
     void setUp() {
         mockStores = Arrays.asList(
-                new Store("Ataşehir MMM Migros", ATASEHIR_LAT, ATASEHIR_LNG),
-                new Store("Novada MMM Migros", NOVADA_LAT, NOVADA_LNG)
+                new StoreInfo(null, "Ataşehir MMM Migros", ATASEHIR_LAT, ATASEHIR_LNG),
+                new StoreInfo(null, "Novada MMM Migros", NOVADA_LAT, NOVADA_LNG)
         );
-        lenient().when(storeService.getAllStores()).thenReturn(mockStores);
+        lenient().when(storeService.getCatalog()).thenReturn(StoreCatalog.of(1, mockStores));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static CourierShardingProperties disabledSharding() {
+        CourierShardingProperties properties = new CourierShardingProperties();
+        properties.setEnabled(false);
+        return properties;
     }
 
     private CourierLocation createLocation(double lat, double lng, LocalDateTime time) {
@@ -59,7 +114,7 @@ class LocationTrackingServiceTest {
         locationTrackingService.trackLocation(location2);
 
         // Then
-        verify(storeService, times(1)).updateTotalDistance(eq(COURIER_ID), anyDouble());
+        assertEquals(981.66, courierStateStore.getTotalDistance(COURIER_ID), 0.01);
     }
 
     @Test
@@ -67,7 +122,7 @@ class LocationTrackingServiceTest {
     void whenCourierNearStore_thenShouldLogEntry() {
         // Given
         CourierLocation location = createLocation(ATASEHIR_LAT, ATASEHIR_LNG, LocalDateTime.now());
-        Store store = mockStores.getFirst();
+        StoreInfo store = mockStores.getFirst();
 
         // When
         locationTrackingService.trackLocation(location);
@@ -86,21 +141,21 @@ class LocationTrackingServiceTest {
         locationTrackingService.trackLocation(location);
 
         // Then
-        verify(storeService, never()).logStoreEntry(any(Store.class), any(CourierLocation.class));
+        verify(storeService, never()).logStoreEntry(any(StoreInfo.class), any(CourierLocation.class));
     }
 
     @Test
     @DisplayName("Kurye aynı mağazaya 1 dakika içinde tekrar girdiğinde, ikinci giriş kaydedilmemelidir")
     void shouldNotTrackSameStore_WithinOneMinute() {
         // Given
-        Store store = mockStores.getFirst();
+        StoreInfo store = mockStores.getFirst();
         CourierLocation location = createLocation(ATASEHIR_LAT, ATASEHIR_LNG, LocalDateTime.now());
 
         // When
         locationTrackingService.trackLocation(location);
 
         // Then
-        verify(storeService, times(1)).logStoreEntry(any(Store.class), any(CourierLocation.class));
+        verify(storeService, times(1)).logStoreEntry(any(StoreInfo.class), any(CourierLocation.class));
         verify(storeService).hasRecentEntry(eq(store), eq(COURIER_ID), any(LocalDateTime.class));
     }
 
@@ -116,7 +171,7 @@ class LocationTrackingServiceTest {
         locationTrackingService.trackLocation(location2);
 
         // Then
-        verify(storeService, never()).updateTotalDistance(any(), anyDouble());
+        assertEquals(0.0, courierStateStore.getTotalDistance(COURIER_ID));
     }
 
     @Test
@@ -131,7 +186,7 @@ class LocationTrackingServiceTest {
         locationTrackingService.trackLocation(location2);
 
         // Then
-        verify(storeService, times(2)).logStoreEntry(any(Store.class), any(CourierLocation.class));
+        verify(storeService, times(2)).logStoreEntry(any(StoreInfo.class), any(CourierLocation.class));
     }
 
     @Test
@@ -176,5 +231,230 @@ class LocationTrackingServiceTest {
                 new CourierLocation(COURIER_ID, 40.0, 181.0, LocalDateTime.now())
             ), "Boylam 180 dereceden büyük olamaz"
         );
+
+        // When & Then - İkili formatta taşınabilen NaN değerleri
+        assertThrows(IllegalArgumentException.class, () ->
+            locationTrackingService.trackLocation(
+                new CourierLocation(COURIER_ID, Double.NaN, 29.0, LocalDateTime.now())
+            ), "Enlem NaN olamaz"
+        );
+    }
+
+    @Test
+    @DisplayName("Toplu gönderimde noktalar kurye bazında zaman sırasına göre işlenmeli ve tek seferde kaydedilmelidir")
+    void whenBatchTracked_thenShouldProcessInTimestampOrderAndSaveOnce() {
+        // Given - Aynı kuryenin noktaları ters sırada, araya başka bir kurye girmiş
+        LocalDateTime now = LocalDateTime.now();
+        CourierLocation later = new CourierLocation(COURIER_ID, NOVADA_LAT, NOVADA_LNG, now.plusMinutes(10));
+        CourierLocation other = new CourierLocation("c2", 41.0082, 28.9784, now);
+        CourierLocation earlier = new CourierLocation(COURIER_ID, ATASEHIR_LAT, ATASEHIR_LNG, now);
+
+        // When
+        List<LocationBatchItemResult> results = locationTrackingService.trackLocations(List.of(later, other, earlier));
+
+        // Then
+        assertEquals(3, results.size());
+        assertEquals(List.of(0, 1, 2), results.stream().map(LocationBatchItemResult::getIndex).toList());
+        assertEquals(1, results.get(0).getStoreEntries());
+        assertEquals(0, results.get(1).getStoreEntries());
+        assertEquals(1, results.get(2).getStoreEntries());
+        var inOrder = inOrder(storeService);
+        inOrder.verify(storeService).logStoreEntry(mockStores.get(0), earlier);
+        inOrder.verify(storeService).logStoreEntry(mockStores.get(1), later);
+        assertEquals(981.66, courierStateStore.getTotalDistance(COURIER_ID), 0.01);
+        verify(courierLocationRepository, times(1)).saveAll(anyList());
+        verify(courierLocationRepository, never()).save(any(CourierLocation.class));
+    }
+
+    @Test
+    @DisplayName("Küme modunda başka düğüme ait kuryenin noktaları sahibine iletilmeli, sonuçlar istek sırasıyla dönmelidir")
+    void whenCourierOwnedByAnotherNode_thenBatchItemsShouldBeForwarded() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        CourierLocation remoteFirst = new CourierLocation("remote", 41.0082, 28.9784, now);
+        CourierLocation local = new CourierLocation(COURIER_ID, ATASEHIR_LAT, ATASEHIR_LNG, now);
+        CourierLocation remoteSecond = new CourierLocation("remote", 41.0090, 28.9790, now.plusSeconds(5));
+        when(clusterService.remoteOwner("remote")).thenReturn(Optional.of("http://node-2"));
+        when(clusterService.forward("http://node-2", List.of(remoteFirst, remoteSecond))).thenReturn(List.of(
+                LocationBatchItemResult.accepted(0, "remote", 0),
+                LocationBatchItemResult.accepted(1, "remote", 2)));
+
+        // When
+        List<LocationBatchItemResult> results =
+                locationTrackingService.trackLocations(List.of(remoteFirst, local, remoteSecond));
+
+        // Then
+        assertEquals(List.of(0, 1, 2), results.stream().map(LocationBatchItemResult::getIndex).toList());
+        assertEquals(List.of("remote", COURIER_ID, "remote"),
+                results.stream().map(LocationBatchItemResult::getCourierId).toList());
+        assertEquals(2, results.get(2).getStoreEntries());
+        assertEquals(0.0, courierStateStore.getTotalDistance("remote"));
+        verify(courierLocationRepository).saveAll(List.of(local));
+    }
+
+    @Test
+    @DisplayName("Toplu gönderimde bir shard başarısız olursa yalnızca onun noktaları FAILED olmalı ve kurye durumu geri alınmalıdır")
+    void whenOneShardFails_thenOnlyItsItemsShouldFailAndStateShouldBeReverted() {
+        // Given - Kuryeler farklı shard'larda; c2'nin noktaları kaydedilirken veritabanı hatası oluşur
+        LocalDateTime now = LocalDateTime.now();
+        doReturn(0).when(shardExecutor).shardOf(COURIER_ID);
+        doReturn(1).when(shardExecutor).shardOf("c2");
+        courierStateStore.advance("c2", 41.0082, 28.9784, now.minusMinutes(1));
+        CourierState before = courierStateStore.peek("c2");
+        List<CourierLocation> failing = List.of(
+                new CourierLocation("c2", ATASEHIR_LAT, ATASEHIR_LNG, now),
+                new CourierLocation("c2", NOVADA_LAT, NOVADA_LNG, now.plusMinutes(10)));
+        lenient().doThrow(new IllegalStateException("Veritabanı hatası")).when(courierLocationRepository).saveAll(failing);
+        List<CourierLocation> batch = List.of(
+                new CourierLocation(COURIER_ID, ATASEHIR_LAT, ATASEHIR_LNG, now),
+                failing.get(0),
+                new CourierLocation(COURIER_ID, NOVADA_LAT, NOVADA_LNG, now.plusMinutes(10)),
+                failing.get(1));
+
+        // When
+        List<LocationBatchItemResult> results = locationTrackingService.trackLocations(batch);
+
+        // Then
+        assertEquals(List.of(LocationBatchItemResult.Status.ACCEPTED, LocationBatchItemResult.Status.FAILED,
+                        LocationBatchItemResult.Status.ACCEPTED, LocationBatchItemResult.Status.FAILED),
+                results.stream().map(LocationBatchItemResult::getStatus).toList());
+        assertEquals(981.66, courierStateStore.getTotalDistance(COURIER_ID), 0.01);
+        assertEquals(before, courierStateStore.peek("c2"));
+
+        // When - Yalnızca başarısız noktalar yeniden gönderilir
+        doReturn(failing).when(courierLocationRepository).saveAll(failing);
+        List<LocationBatchItemResult> retried = locationTrackingService.trackLocations(failing);
+
+        // Then - Mesafe bir kez sayılır
+        assertTrue(retried.stream().allMatch(result -> result.getStatus() == LocationBatchItemResult.Status.ACCEPTED));
+        assertEquals(before.totalDistance() + DistanceCalculator.calculateDistance(41.0082, 28.9784, ATASEHIR_LAT, ATASEHIR_LNG)
+                + 981.66, courierStateStore.getTotalDistance("c2"), 0.01);
+    }
+
+    @Test
+    @DisplayName("Küme modunda konumlar sahip düğüme iletilemezse yalnızca o noktalar FAILED olmalıdır")
+    void whenForwardingFails_thenForwardedItemsShouldFail() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        CourierLocation remote = new CourierLocation("remote", 41.0082, 28.9784, now);
+        CourierLocation local = new CourierLocation(COURIER_ID, ATASEHIR_LAT, ATASEHIR_LNG, now);
+        when(clusterService.remoteOwner("remote")).thenReturn(Optional.of("http://node-2"));
+        when(clusterService.forward("http://node-2", List.of(remote))).thenThrow(new IllegalStateException("Bağlantı reddedildi"));
+
+        // When
+        List<LocationBatchItemResult> results = locationTrackingService.trackLocations(List.of(remote, local));
+
+        // Then
+        assertEquals(LocationBatchItemResult.Status.FAILED, results.get(0).getStatus());
+        assertEquals(LocationBatchItemResult.Status.ACCEPTED, results.get(1).getStatus());
+        verify(courierLocationRepository).saveAll(List.of(local));
+    }
+
+    @Test
+    @DisplayName("Toplu gönderimde geçersiz noktalar reddedilmeli, geçerli noktalar işlenmeye devam etmelidir")
+    void whenBatchContainsInvalidItems_thenShouldRejectOnlyThoseItems() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        List<CourierLocation> batch = List.of(
+                new CourierLocation(COURIER_ID, 91.0, 29.0, now),
+                new CourierLocation(" ", 40.0, 29.0, now),
+                new CourierLocation(COURIER_ID, 40.0, 29.0, null),
+                new CourierLocation(COURIER_ID, 41.0082, 28.9784, now)
+        );
+
+        // When
+        List<LocationBatchItemResult> results = locationTrackingService.trackLocations(batch);
+
+        // Then
+        assertEquals(LocationBatchItemResult.Status.REJECTED, results.get(0).getStatus());
+        assertEquals(LocationBatchItemResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals(LocationBatchItemResult.Status.REJECTED, results.get(2).getStatus());
+        assertEquals(LocationBatchItemResult.Status.ACCEPTED, results.get(3).getStatus());
+        verify(courierLocationRepository).saveAll(List.of(batch.get(3)));
+    }
+
+    @Test
+    @DisplayName("Write-behind modu etkinken konum doğrudan kaydedilmemeli, yazma tamponuna alınmalıdır")
+    void whenWriteBehindEnabled_thenShouldEnqueueInsteadOfSave() {
+        // Given
+        when(writeBehindBuffer.isEnabled()).thenReturn(true);
+        CourierLocation location = createLocation(ATASEHIR_LAT, ATASEHIR_LNG, LocalDateTime.now());
+
+        // When
+        locationTrackingService.trackLocation(location);
+
+        // Then
+        verify(writeBehindBuffer).enqueue(location);
+        verify(courierLocationRepository, never()).save(any(CourierLocation.class));
+    }
+
+    @Test
+    @DisplayName("Konum takibinde bildirim, mağaza girişi ve mükerrer giriş sayaçları ile aşama süreleri kaydedilmelidir")
+    void whenLocationTracked_thenShouldRecordStageMetrics() {
+        // Given - Aynı mağaza için ikinci giriş ziyaret aralığı içinde
+        LocalDateTime now = LocalDateTime.now();
+        when(storeService.hasRecentEntry(eq(mockStores.getFirst()), eq(COURIER_ID), any(LocalDateTime.class)))
+                .thenReturn(false, true);
+
+        // When
+        locationTrackingService.trackLocation(createLocation(ATASEHIR_LAT, ATASEHIR_LNG, now));
+        locationTrackingService.trackLocation(createLocation(ATASEHIR_LAT, ATASEHIR_LNG, now.plusSeconds(30)));
+
+        // Then
+        assertEquals(2, meterRegistry.get("courier.tracking.pings").tag("source", "single").counter().count());
+        assertEquals(1, meterRegistry.get("courier.tracking.store_entries").counter().count());
+        assertEquals(1, meterRegistry.get("courier.tracking.store_entries.suppressed").counter().count());
+        assertEquals(2, meterRegistry.get("courier.tracking.stage").tag("stage", "find_nearby_stores").timer().count());
+        assertEquals(2, meterRegistry.get("courier.tracking.stage").tag("stage", "has_recent_entry").timer().count());
+        assertEquals(1, meterRegistry.get("courier.tracking.stage").tag("stage", "log_store_entry").timer().count());
+        assertEquals(2, meterRegistry.get("courier.tracking.stage").tag("stage", "save_location").timer().count());
+    }
+
+    @Test
+    @DisplayName("Rota sadeleştirme etkinken duran kuryenin noktaları kaydedilmemeli, mesafe ve girişler her noktayla işlenmelidir")
+    void whenSimplificationEnabled_thenShouldStoreFewerPointsButProcessAll() {
+        // Given - Mağaza önünde bekleyen, birkaç metre oynayan kurye
+        simplificationProperties.setEnabled(true);
+        LocalDateTime now = LocalDateTime.now();
+        List<CourierLocation> pings = List.of(
+                createLocation(ATASEHIR_LAT, ATASEHIR_LNG, now),
+                createLocation(ATASEHIR_LAT + 0.00002, ATASEHIR_LNG, now.plusSeconds(5)),
+                createLocation(ATASEHIR_LAT, ATASEHIR_LNG + 0.00002, now.plusSeconds(10)),
+                createLocation(ATASEHIR_LAT + 0.00002, ATASEHIR_LNG + 0.00002, now.plusSeconds(15))
+        );
+
+        // When
+        pings.forEach(locationTrackingService::trackLocation);
+
+        // Then
+        verify(courierLocationRepository, times(1)).save(any(CourierLocation.class));
+        verify(courierStateStore, times(4)).advance(eq(COURIER_ID), anyDouble(), anyDouble(), any(LocalDateTime.class));
+        assertTrue(courierStateStore.getTotalDistance(COURIER_ID) > 0);
+        verify(storeService, times(4)).hasRecentEntry(eq(mockStores.getFirst()), eq(COURIER_ID), any(LocalDateTime.class));
+        assertEquals(0.75, trajectorySimplifier.getReductionRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Kayıt başarısız olursa sadeleştiricinin pencereden çıkardığı nokta kaybolmamalı, yeniden gönderimde kaydedilmelidir")
+    void whenSaveFailsWithSimplification_thenTrackShouldBeRestored() {
+        // Given - Kuzeye giden kurye doğuya dönüyor; dönüş noktası ancak bir sonraki noktayla kaydedilir
+        simplificationProperties.setEnabled(true);
+        LocalDateTime now = LocalDateTime.now();
+        CourierLocation start = createLocation(ATASEHIR_LAT, ATASEHIR_LNG, now);
+        CourierLocation turn = createLocation(ATASEHIR_LAT + 0.0018, ATASEHIR_LNG, now.plusSeconds(10));
+        CourierLocation east = createLocation(ATASEHIR_LAT + 0.0018, ATASEHIR_LNG + 0.0024, now.plusSeconds(20));
+        lenient().when(courierLocationRepository.save(turn))
+                .thenThrow(new IllegalStateException("Veritabanı hatası"))
+                .thenReturn(turn);
+        locationTrackingService.trackLocation(start);
+        locationTrackingService.trackLocation(turn);
+
+        // When - Dönüş noktası kaydedilemiyor, son nokta yeniden gönderiliyor
+        assertThrows(LocationTrackingException.class, () -> locationTrackingService.trackLocation(east));
+        locationTrackingService.trackLocation(east);
+
+        // Then
+        verify(courierLocationRepository, times(2)).save(turn);
+        verify(courierLocationRepository, never()).save(east);
     }
 }
@@ -0,0 +1,135 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.LocationPersistenceProperties;
+import com.migros.courier.exception.LocationTrackingException;
+import com.migros.courier.model.CourierLocation;
+import com.migros.courier.repository.CourierLocationJdbcWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.migros.courier.service.TestConstants.COURIER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationWriteBehindBufferTest {
+
+    @Mock
+    private CourierLocationJdbcWriter jdbcWriter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LocationWriteBehindBuffer buffer;
+
+    private LocationWriteBehindBuffer startBuffer(LocationPersistenceProperties.Durability durability,
+                                                  int batchSize, Duration flushInterval) {
+        LocationPersistenceProperties properties = new LocationPersistenceProperties();
+        properties.setMode(LocationPersistenceProperties.Mode.WRITE_BEHIND);
+        properties.setDurability(durability);
+        properties.setBatchSize(batchSize);
+        properties.setFlushInterval(flushInterval);
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = new LocationWriteBehindBuffer(jdbcWriter, properties,
+                new BackgroundThreadFactory(new MockEnvironment()), meterRegistry);
+        buffer.start();
+        return buffer;
+    }
+
+    private static CourierLocation location(int second) {
+        return new CourierLocation(COURIER_ID, 40.0, 29.0, LocalDateTime.now().plusSeconds(second));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("flush-before-ack modunda konum veritabanına yazılmadan çağrı dönmemelidir")
+    void whenFlushBeforeAck_thenEnqueueShouldReturnAfterWrite() {
+        // Given
+        startBuffer(LocationPersistenceProperties.Durability.FLUSH_BEFORE_ACK, 100, Duration.ofMillis(20));
+        CourierLocation location = location(0);
+
+        // When
+        buffer.enqueue(location);
+
+        // Then
+        verify(jdbcWriter).insertAll(List.of(location));
+        assertEquals(1, meterRegistry.get("courier.location.write_behind.flush").timer().count());
+    }
+
+    @Test
+    @DisplayName("Batch boyutu dolduğunda konumlar tek seferde yazılmalıdır")
+    void whenBatchSizeReached_thenShouldFlushAsSingleBatch() {
+        // Given - Flush süresi uzun olduğundan yazma yalnızca boyut ile tetiklenebilir
+        startBuffer(LocationPersistenceProperties.Durability.FLUSH_BEFORE_ACK, 10, Duration.ofSeconds(3));
+        List<CourierLocation> locations = IntStream.range(0, 10).mapToObj(LocationWriteBehindBufferTest::location).toList();
+
+        // When
+        buffer.enqueueAll(locations);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CourierLocation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcWriter, times(1)).insertAll(captor.capture());
+        assertEquals(locations, captor.getValue());
+    }
+
+    @Test
+    @DisplayName("ack-before-flush modunda konumlar süre dolunca arka planda yazılmalıdır")
+    void whenAckBeforeFlush_thenShouldWriteInBackgroundOnInterval() {
+        // Given
+        startBuffer(LocationPersistenceProperties.Durability.ACK_BEFORE_FLUSH, 100, Duration.ofMillis(50));
+
+        // When
+        buffer.enqueue(location(0));
+        buffer.enqueue(location(1));
+
+        // Then
+        verify(jdbcWriter, timeout(2_000).atLeastOnce()).insertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Yazma başarısız olduğunda flush-before-ack modunda LocationTrackingException fırlatılmalıdır")
+    void whenWriteFails_thenShouldThrowLocationTrackingException() {
+        // Given
+        startBuffer(LocationPersistenceProperties.Durability.FLUSH_BEFORE_ACK, 100, Duration.ofMillis(20));
+        doThrow(new RuntimeException("DB error")).when(jdbcWriter).insertAll(anyList());
+
+        // When & Then
+        assertThrows(LocationTrackingException.class, () -> buffer.enqueue(location(0)));
+        assertEquals(1.0, meterRegistry.get("courier.location.write_behind.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Kapanışta kuyrukta kalan konumlar yazılmalıdır")
+    void whenStopped_thenShouldDrainRemainingLocations() {
+        // Given
+        startBuffer(LocationPersistenceProperties.Durability.ACK_BEFORE_FLUSH, 100, Duration.ofSeconds(10));
+        buffer.enqueue(location(0));
+
+        // When
+        buffer.stop();
+        buffer = null;
+
+        // Then
+        verify(jdbcWriter, atLeastOnce()).insertAll(anyList());
+    }
+}
@@ -0,0 +1,137 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.BackgroundThreadFactory;
+import com.migros.courier.config.StoreEntryStreamProperties;
+import com.migros.courier.dto.StoreEntryEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreEntryBroadcasterTest {
+    private static final UUID STORE_A = UUID.randomUUID();
+    private static final UUID STORE_B = UUID.randomUUID();
+
+    private StoreEntryStreamProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private StoreEntryBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StoreEntryStreamProperties();
+        properties.setBufferSize(2);
+        properties.setHeartbeatInterval(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new StoreEntryBroadcaster(properties, new BackgroundThreadFactory(new MockEnvironment()),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    private static StoreEntryEvent event(UUID storeId, String courierId) {
+        return new StoreEntryEvent(UUID.randomUUID(), courierId, storeId, "Mağaza", LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Abone yalnızca mağaza ve kurye filtresine uyan girişleri almalıdır")
+    void whenSubscribedWithFilter_thenShouldReceiveOnlyMatchingEvents() throws Exception {
+        // Given
+        properties.setBufferSize(16);
+        RecordingEmitter storeSubscriber = new RecordingEmitter(3);
+        RecordingEmitter courierSubscriber = new RecordingEmitter(2);
+        broadcaster.subscribe(STORE_A, null, storeSubscriber);
+        broadcaster.subscribe(null, "c2", courierSubscriber);
+
+        // When
+        broadcaster.onStoreEntry(event(STORE_A, "c1"));
+        broadcaster.onStoreEntry(event(STORE_B, "c2"));
+        broadcaster.onStoreEntry(event(STORE_A, "c2"));
+        broadcaster.onStoreEntry(event(STORE_A, "c3"));
+
+        // Then
+        assertTrue(storeSubscriber.received.await(5, TimeUnit.SECONDS));
+        assertTrue(courierSubscriber.received.await(5, TimeUnit.SECONDS));
+        assertEquals(3, storeSubscriber.sent.size());
+        assertEquals(2, courierSubscriber.sent.size());
+    }
+
+    @Test
+    @DisplayName("Olayları okumayan abone, yayını bekletmeden düşürülmeli ve diğer aboneler etkilenmemelidir")
+    void whenSubscriberIsSlow_thenShouldBeDroppedWithoutBlockingPublisher() throws Exception {
+        // Given - İlk yazmada süresiz bekleyen abone
+        CountDownLatch never = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(1) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                super.send(builder);
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    throw new IOException("Yazma kesildi", e);
+                }
+            }
+        };
+        RecordingEmitter fast = new RecordingEmitter(4);
+        broadcaster.subscribe(null, null, slow);
+        broadcaster.subscribe(null, null, fast);
+
+        // When - Yavaş abonenin 2 olaylık kuyruğu ilk olay yazılırken dolar, dördüncü olayda düşürülür
+        for (int i = 1; i <= 4; i++) {
+            assertTimeoutPreemptively(Duration.ofSeconds(1), () -> broadcaster.onStoreEntry(event(STORE_A, "c1")));
+            awaitSent(fast, i);
+            if (i == 1) {
+                assertTrue(slow.received.await(5, TimeUnit.SECONDS));
+            }
+        }
+
+        // Then
+        assertEquals(4, fast.sent.size());
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.get("courier.entries.stream.dropped").counter().count());
+    }
+
+    private static void awaitSent(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.sent.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, emitter.sent.size());
+    }
+
+    /**
+     * Gönderilen olayları kaydeden, servlet yanıtı olmadan çalışan emitter.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+
+        private RecordingEmitter(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sent.add(builder);
+            received.countDown();
+        }
+    }
+}
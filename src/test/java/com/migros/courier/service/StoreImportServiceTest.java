@@ -0,0 +1,108 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.StoreImportProperties;
+import com.migros.courier.dto.StoreImportResult;
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.repository.StoreJdbcWriter;
+import com.migros.courier.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import({StoreImportService.class, StoreJdbcWriter.class, StoreImportProperties.class, JacksonAutoConfiguration.class})
+class StoreImportServiceTest {
+
+    @Autowired
+    private StoreImportService storeImportService;
+    @Autowired
+    private StoreImportProperties properties;
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @BeforeEach
+    void setUp() {
+        properties.setChunkSize(100);
+    }
+
+    private static String catalog(int count, double latOffset) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\"name\":\"Migros %d\",\"lat\":%.6f,\"lng\":29.0,\"tags\":[\"market\",{\"x\":1}]}",
+                    i, 40.0 + i * 1e-4 + (i % 10 == 0 ? latOffset : 0)));
+        }
+        return json.append("]").toString();
+    }
+
+    private StoreImportResult importJson(String json) throws Exception {
+        return storeImportService.importStores(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Büyük mağaza dosyası parçalar halinde eklenmeli, tekrar içe aktarımda yalnızca değişenler güncellenmelidir")
+    void whenCatalogImportedTwice_thenShouldInsertThenUpsertOnlyChangedStores() throws Exception {
+        // When - İlk içe aktarım
+        StoreImportResult first = importJson(catalog(1_050, 0));
+
+        // Then
+        assertEquals(new StoreImportResult(1_050, 1_050, 0, first.elapsedMillis()), first);
+        Map<String, UUID> idsByName = storeRepository.findAllInfo().stream()
+                .collect(Collectors.toMap(StoreInfo::name, StoreInfo::id));
+        assertEquals(1_050, idsByName.size());
+
+        // When - Her onuncu mağazanın konumu değişmiş ve bir mağaza eklenmiş dosya
+        StoreImportResult second = importJson(catalog(1_051, 0.5));
+
+        // Then - Mevcut mağazaların ID'si korunur
+        assertEquals(1_051, second.read());
+        assertEquals(105 + 1, second.upserted());
+        Map<String, StoreInfo> stored = storeRepository.findAllInfo().stream()
+                .collect(Collectors.toMap(StoreInfo::name, Function.identity()));
+        assertEquals(1_051, stored.size());
+        assertEquals(idsByName.get("Migros 10"), stored.get("Migros 10").id());
+        assertEquals(40.501, stored.get("Migros 10").lat(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Geçersiz kayıtlar atlanmalı, dizi olmayan dosya reddedilmelidir")
+    void whenRecordsAreInvalid_thenShouldSkipThemAndRejectNonArray() throws Exception {
+        // Given
+        String json = """
+                [
+                  {"name": "Geçerli Migros", "lat": 41.0, "lng": 29.0},
+                  {"name": "", "lat": 41.0, "lng": 29.0},
+                  {"name": "Enlemsiz Migros", "lng": 29.0},
+                  {"name": "Sınır Dışı Migros", "lat": 91.0, "lng": 29.0},
+                  {"name": {"tr": "Nesne"}, "lat": 41.0, "lng": 29.0},
+                  "metin"
+                ]
+                """;
+
+        // When
+        StoreImportResult result = importJson(json);
+
+        // Then
+        assertEquals(6, result.read());
+        assertEquals(1, result.upserted());
+        assertEquals(5, result.skipped());
+        assertEquals(1, storeRepository.count());
+        assertThrows(IOException.class, () -> importJson("{\"name\": \"Migros\"}"));
+    }
+}
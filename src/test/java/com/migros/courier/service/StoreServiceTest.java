@@ -1,10 +1,16 @@
 package com.migros.courier.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migros.courier.dto.CourierEntryCursor;
+import com.migros.courier.dto.CourierEntryPage;
+import com.migros.courier.dto.CourierEntryResponse;
+import com.migros.courier.dto.LatestStoreEntryView;
+import com.migros.courier.dto.StoreCatalogResponse;
+import com.migros.courier.dto.StoreEntryEvent;
+import com.migros.courier.dto.StoreImportResult;
+import com.migros.courier.dto.StoreInfo;
 import com.migros.courier.exception.StoreEntryException;
 import com.migros.courier.model.CourierEntry;
 import com.migros.courier.model.CourierLocation;
-import com.migros.courier.model.Store;
 import com.migros.courier.repository.CourierEntryRepository;
 import com.migros.courier.repository.StoreRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,15 +19,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
 import static com.migros.courier.service.TestConstants.COURIER_ID;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,33 +44,68 @@ class StoreServiceTest {
     @Mock
     private CourierEntryRepository courierEntryRepository;
     @Mock
-    private ObjectMapper objectMapper;
+    private StoreImportService storeImportService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     private StoreService storeService;
 
     @BeforeEach
     void setUp() {
-        storeService = new StoreService(storeRepository, courierEntryRepository, objectMapper);
+        storeService = new StoreService(storeRepository, courierEntryRepository, storeImportService,
+                new CourierStateStore(), eventPublisher);
+        ReflectionTestUtils.setField(storeService, "minVisitIntervalMinutes", 1);
+    }
+
+    private static StoreInfo createStore(String name, double lat, double lng) {
+        return new StoreInfo(UUID.randomUUID(), name, lat, lng);
     }
 
     @Test
-    @DisplayName("Tüm Migros mağazaları başarıyla listelenmelidir")
-    void whenGetAllStores_thenReturnAllMigrosStores() {
+    @DisplayName("Tüm Migros mağazaları veritabanına tekrar gidilmeden katalogdan listelenmelidir")
+    void whenGetAllStores_thenReturnAllMigrosStoresFromCatalog() {
         // Given
-        List<Store> mockStores = Arrays.asList(
-                new Store("Ataşehir MMM Migros", 40.9923307, 29.1244229),
-                new Store("Novada MMM Migros", 40.986106, 29.1161293)
+        List<StoreInfo> mockStores = List.of(
+                createStore("Ataşehir MMM Migros", 40.9923307, 29.1244229),
+                createStore("Novada MMM Migros", 40.986106, 29.1161293)
         );
-        when(storeRepository.findAll()).thenReturn(mockStores);
+        when(storeRepository.findAllInfo()).thenReturn(mockStores);
+        storeService.initializeStores();
+
+        // When
+        List<StoreInfo> stores = storeService.getAllStores();
+        List<StoreInfo> nearby = storeService.getCatalog().findNearby(40.9923307, 29.1244229);
+
+        // Then
+        assertEquals(2, stores.size());
+        assertTrue(stores.stream().allMatch(store -> store.name().contains("Migros")));
+        assertEquals(List.of(mockStores.getFirst()), nearby);
+        assertEquals(1, storeService.getCatalog().getVersion());
+        verify(storeImportService).importStores();
+        verify(storeRepository, times(1)).findAllInfo();
+    }
+
+    @Test
+    @DisplayName("Mağazalar yeniden yüklendiğinde katalog yeni sürümle değişmeli, eski katalog etkilenmemelidir")
+    void whenStoresReloaded_thenShouldSwapCatalog() {
+        // Given
+        StoreInfo atasehir = createStore("Ataşehir MMM Migros", 40.9923307, 29.1244229);
+        StoreInfo added = createStore("Yeni Migros", 41.0, 29.5);
+        StoreImportResult importResult = new StoreImportResult(2, 1, 0, 5);
+        when(storeImportService.importStores()).thenReturn(importResult);
+        when(storeRepository.findAllInfo()).thenReturn(List.of(atasehir), List.of(atasehir, added));
+        storeService.initializeStores();
+        StoreCatalog before = storeService.getCatalog();
 
         // When
-        List<Store> stores = storeService.getAllStores();
+        StoreCatalogResponse response = storeService.reloadStores();
 
         // Then
-        assertNotNull(stores);
-        assertFalse(stores.isEmpty());
-        assertTrue(stores.stream().allMatch(store -> store.getName().contains("Migros")));
-        verify(storeRepository).findAll();
+        StoreCatalog after = storeService.getCatalog();
+        assertEquals(new StoreCatalogResponse(before.getVersion() + 1, 2, importResult), response);
+        assertEquals(List.of(added), after.findNearby(41.0, 29.5));
+        assertEquals(1, before.size(), "Eski katalog değişmemelidir");
+        assertTrue(before.findNearby(41.0, 29.5).isEmpty());
     }
 
     @Test
@@ -88,33 +134,94 @@ class StoreServiceTest {
     @DisplayName("Kurye mağaza ziyaretlerinde 1 dakika kuralı doğru şekilde uygulanmalıdır")
     void whenCourierVisitsStore_thenShouldApplyOneMinuteRule() {
         // Given
-        Store store = new Store("Test Migros", 40.0, 29.0);
+        StoreInfo store = createStore("Test Migros", 40.0, 29.0);
         LocalDateTime currentTime = LocalDateTime.now();
-        
+
         // When - İlk ziyaret (kayıt yok)
-        when(courierEntryRepository.existsByStoreAndCourierIdAndTimestampAfter(
-                eq(store), eq(COURIER_ID), any(LocalDateTime.class)
-        )).thenReturn(false);
         boolean firstVisit = storeService.hasRecentEntry(store, COURIER_ID, currentTime);
-        
+
         // Then
         assertFalse(firstVisit, "İlk ziyaret kaydedilmelidir");
-        
+
         // When - 30 saniye sonra tekrar ziyaret (1 dakika dolmadı)
-        when(courierEntryRepository.existsByStoreAndCourierIdAndTimestampAfter(
-                eq(store), eq(COURIER_ID), any(LocalDateTime.class)
-        )).thenReturn(true);
+        storeService.logStoreEntry(store, new CourierLocation(COURIER_ID, 40.0, 29.0, currentTime));
         boolean secondVisit = storeService.hasRecentEntry(store, COURIER_ID, currentTime.plusSeconds(30));
-        
+
         // Then
         assertTrue(secondVisit, "1 dakika dolmadan yapılan ziyaret engellenmeli");
+
+        // When - 2 dakika sonra tekrar ziyaret
+        boolean thirdVisit = storeService.hasRecentEntry(store, COURIER_ID, currentTime.plusMinutes(2));
+
+        // Then
+        assertFalse(thirdVisit, "1 dakika geçtikten sonraki ziyaret kaydedilmelidir");
+    }
+
+    @Test
+    @DisplayName("Mükerrer giriş kontrolü, başlangıçta veritabanından yüklenen girişleri dikkate almalıdır")
+    void whenVisitRegistryWarmedUp_thenShouldUseLoadedEntries() {
+        // Given
+        StoreInfo store = createStore("Test Migros", 40.0, 29.0);
+        LocalDateTime entryTime = LocalDateTime.now();
+        LatestStoreEntryView latestEntry = mock(LatestStoreEntryView.class);
+        when(latestEntry.getCourierId()).thenReturn(COURIER_ID);
+        when(latestEntry.getStoreId()).thenReturn(store.id());
+        when(latestEntry.getLastEntryTime()).thenReturn(entryTime);
+        when(courierEntryRepository.findLatestEntriesSince(any(LocalDateTime.class))).thenReturn(List.of(latestEntry));
+
+        // When
+        storeService.warmUpVisitRegistry();
+
+        // Then
+        assertTrue(storeService.hasRecentEntry(store, COURIER_ID, entryTime.plusSeconds(30)));
+        assertFalse(storeService.hasRecentEntry(store, "c2", entryTime.plusSeconds(30)));
+    }
+
+    @Test
+    @DisplayName("Ziyaret aralığından eski girişler bellekten temizlenmelidir")
+    void whenVisitsExpire_thenShouldBeEvicted() {
+        // Given
+        StoreInfo store = createStore("Test Migros", 40.0, 29.0);
+        LocalDateTime oldEntryTime = LocalDateTime.now().minusMinutes(5);
+        storeService.logStoreEntry(store, new CourierLocation(COURIER_ID, 40.0, 29.0, oldEntryTime));
+        assertTrue(storeService.hasRecentEntry(store, COURIER_ID, oldEntryTime.plusSeconds(10)));
+
+        // When
+        storeService.evictExpiredVisits();
+
+        // Then
+        assertFalse(storeService.hasRecentEntry(store, COURIER_ID, oldEntryTime.plusSeconds(10)));
+    }
+
+    @Test
+    @DisplayName("Bellekten temizlenmiş saatlere ait gecikmeli konumlarda mükerrer giriş veritabanından kontrol edilmelidir")
+    void whenLatePingAfterEviction_thenShouldFallBackToDatabase() {
+        // Given - Bir saat önceki tamponlanmış rota yükleniyor, arada temizleme çalışıyor
+        StoreInfo store = createStore("Test Migros", 40.0, 29.0);
+        LocalDateTime bufferedTime = LocalDateTime.now().minusHours(1);
+        when(courierEntryRepository.findLatestEntriesSince(any(LocalDateTime.class))).thenReturn(List.of());
+        storeService.warmUpVisitRegistry();
+        storeService.logStoreEntry(store, new CourierLocation(COURIER_ID, 40.0, 29.0, bufferedTime));
+        storeService.evictExpiredVisits();
+        when(courierEntryRepository.existsByStoreIdAndCourierIdAndTimestampAfter(
+                store.id(), COURIER_ID, bufferedTime.minusSeconds(30))).thenReturn(true);
+
+        // When
+        boolean latePing = storeService.hasRecentEntry(store, COURIER_ID, bufferedTime.plusSeconds(30));
+        boolean livePing = storeService.hasRecentEntry(store, COURIER_ID, LocalDateTime.now());
+
+        // Then - Güncel konumlar veritabanına gitmeden bellekten kontrol edilir
+        assertTrue(latePing, "Eski rotadaki ikinci nokta mükerrer giriş sayılmalı");
+        assertFalse(livePing);
+        verify(courierEntryRepository, times(1))
+                .existsByStoreIdAndCourierIdAndTimestampAfter(any(), any(), any());
     }
 
     @Test
     @DisplayName("Kurye mağaza girişi yapıldığında, giriş kaydı veritabanına başarıyla kaydedilmelidir")
     void whenLogStoreEntry_thenShouldSaveEntry() {
         // Given
-        Store store = new Store("Test Migros", 40.0, 29.0);
+        StoreInfo store = new StoreInfo(UUID.randomUUID(), "Test Migros", 40.0, 29.0);
         CourierLocation location = new CourierLocation(COURIER_ID, 40.0, 29.0, LocalDateTime.now());
 
         // When
@@ -122,13 +229,14 @@ class StoreServiceTest {
 
         // Then
         verify(courierEntryRepository).save(any(CourierEntry.class));
+        verify(eventPublisher).publishEvent(any(StoreEntryEvent.class));
     }
 
     @Test
     @DisplayName("Mağaza giriş kaydı oluşturulurken hata olursa, StoreEntryException fırlatılmalıdır")
     void whenEntryLogFails_thenShouldThrowException() {
         // Given
-        Store store = new Store("Test Migros", 40.0, 29.0);
+        StoreInfo store = new StoreInfo(UUID.randomUUID(), "Test Migros", 40.0, 29.0);
         CourierLocation location = new CourierLocation(COURIER_ID, 40.0, 29.0, LocalDateTime.now());
         when(courierEntryRepository.save(any(CourierEntry.class)))
                 .thenThrow(new RuntimeException("DB hatası"));
@@ -161,4 +269,27 @@ class StoreServiceTest {
         );
     }
 
+    @Test
+    @DisplayName("Sayfa boyutundan fazla kayıt varsa sonraki sayfanın imleci son kayıttan üretilmelidir")
+    void whenMoreEntriesThanLimit_thenShouldReturnCursorOfLastEntry() {
+        // Given
+        LocalDateTime time = LocalDateTime.of(2024, 3, 3, 10, 0);
+        List<CourierEntryResponse> rows = List.of(
+                new CourierEntryResponse("s1", "Mağaza", time, UUID.randomUUID()),
+                new CourierEntryResponse("s1", "Mağaza", time, UUID.randomUUID()),
+                new CourierEntryResponse("s1", "Mağaza", time.plusMinutes(1), UUID.randomUUID()));
+        when(courierEntryRepository.findEntryPage(eq(COURIER_ID), any(), any(), eq(Limit.of(3)))).thenReturn(rows);
+        when(courierEntryRepository.findEntryPageAfter(eq(COURIER_ID), eq(time), eq(rows.get(1).getEntryId()),
+                any(), eq(Limit.of(3)))).thenReturn(rows.subList(2, 3));
+
+        // When
+        CourierEntryPage first = storeService.getCourierEntries(COURIER_ID, null, null, null, 2);
+        CourierEntryPage second = storeService.getCourierEntries(COURIER_ID, null, null,
+                CourierEntryCursor.decode(first.getNextCursor()), 2);
+
+        // Then
+        assertEquals(rows.subList(0, 2), first.getEntries());
+        assertEquals(rows.subList(2, 3), second.getEntries());
+        assertNull(second.getNextCursor());
+    }
 }
@@ -0,0 +1,239 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.StoreVisitStatsProperties;
+import com.migros.courier.dto.BusiestStoreResponse;
+import com.migros.courier.dto.StoreInfo;
+import com.migros.courier.dto.StoreVisitBucket;
+import com.migros.courier.dto.StoreVisitStatsResponse;
+import com.migros.courier.model.StoreVisitStats;
+import com.migros.courier.model.StoreVisitStats.Granularity;
+import com.migros.courier.repository.StoreVisitStatsJdbcWriter;
+import com.migros.courier.repository.StoreVisitStatsRepository;
+import com.migros.courier.util.HyperLogLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.migros.courier.service.TestConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StoreVisitAnalyticsTest {
+
+    private static final StoreInfo ATASEHIR = new StoreInfo(UUID.randomUUID(), "Ataşehir MMM Migros", ATASEHIR_LAT, ATASEHIR_LNG);
+    private static final StoreInfo NOVADA = new StoreInfo(UUID.randomUUID(), "Novada MMM Migros", NOVADA_LAT, NOVADA_LNG);
+
+    @Mock
+    private StoreService storeService;
+    @Mock
+    private StoreVisitStatsRepository statsRepository;
+    @Mock
+    private StoreVisitStatsJdbcWriter statsWriter;
+
+    private StoreVisitStatsProperties properties;
+    private final List<StoreVisitStats> table = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new StoreVisitStatsProperties();
+        properties.setRetainedHours(4);
+        properties.setRetainedDays(3);
+        when(storeService.getCatalog()).thenReturn(StoreCatalog.of(1, List.of(ATASEHIR, NOVADA)));
+        // Yazılan dilimler basit bir tablo gibi tutulur; aynı anahtarlı satıra fark eklenir, taslaklar birleştirilir
+        doAnswer(invocation -> {
+            List<StoreVisitStats> deltas = invocation.getArgument(0);
+            for (StoreVisitStats delta : deltas) {
+                StoreVisitStats existing = table.stream()
+                        .filter(row -> row.getStoreId().equals(delta.getStoreId())
+                                && row.getGranularity() == delta.getGranularity()
+                                && row.getBucketStart().equals(delta.getBucketStart()))
+                        .findFirst().orElse(null);
+                byte[] sketch = delta.getCourierSketch();
+                long visits = delta.getVisitCount();
+                if (existing != null) {
+                    table.remove(existing);
+                    visits += existing.getVisitCount();
+                    if (sketch != null && existing.getCourierSketch() != null) {
+                        HyperLogLog merged = HyperLogLog.fromByteArray(existing.getCourierSketch());
+                        merged.merge(HyperLogLog.fromByteArray(sketch));
+                        sketch = merged.toByteArray();
+                    }
+                }
+                table.add(new StoreVisitStats(delta.getStoreId(), delta.getGranularity(), delta.getBucketStart(),
+                        visits, sketch));
+            }
+            return null;
+        }).when(statsWriter).addAll(anyList());
+        when(statsRepository.findByGranularityAndBucketStartGreaterThanEqual(any(), any())).thenAnswer(invocation ->
+                table.stream()
+                        .filter(row -> row.getGranularity() == invocation.getArgument(0))
+                        .filter(row -> !row.getBucketStart().isBefore(invocation.getArgument(1)))
+                        .toList());
+    }
+
+    private StoreVisitAnalytics newAnalytics() {
+        StoreVisitAnalytics analytics = new StoreVisitAnalytics(storeService, statsRepository, statsWriter, properties,
+                new TrackingMetrics(new SimpleMeterRegistry()));
+        analytics.loadStats();
+        return analytics;
+    }
+
+    @Test
+    @DisplayName("Girişler saatlik, günlük ve toplam dilimlere sayılmalı; farklı kuryeler tekrar sayılmamalıdır")
+    void whenEntriesRecorded_thenBucketsShouldBeCounted() {
+        // Given
+        StoreVisitAnalytics analytics = newAnalytics();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime currentHour = now.truncatedTo(ChronoUnit.HOURS);
+
+        // When - Bu saat 3 giriş (2 kurye), bir önceki saat 1 giriş, pencere dışı 1 giriş
+        analytics.record(ATASEHIR.id(), "c1", currentHour.plusMinutes(1));
+        analytics.record(ATASEHIR.id(), "c2", currentHour.plusMinutes(2));
+        analytics.record(ATASEHIR.id(), "c1", currentHour.plusMinutes(3));
+        analytics.record(ATASEHIR.id(), "c3", currentHour.minusHours(1));
+        analytics.record(ATASEHIR.id(), "c4", now.minusDays(10));
+        StoreVisitStatsResponse stats = analytics.getStats(ATASEHIR.id(), 2, 1).orElseThrow();
+
+        // Then
+        assertEquals(5, stats.totalVisits());
+        assertEquals(4, stats.uniqueCouriers());
+        assertEquals(List.of(new StoreVisitBucket(currentHour.minusHours(1), 1, null),
+                new StoreVisitBucket(currentHour, 3, null)), stats.hourly());
+        StoreVisitBucket today = stats.daily().getLast();
+        assertEquals(now.truncatedTo(ChronoUnit.DAYS), today.start());
+        assertEquals(now.getHour() == 0 ? 3 : 4, today.visits());
+        assertTrue(analytics.getStats(UUID.randomUUID(), 24, 7).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Saati ileri kurulu cihazdan gelen giriş pencereleri kaydırmamalı, yalnızca toplama eklenmelidir")
+    void whenEntryIsFarInFuture_thenWindowsShouldNotMove() {
+        // Given
+        StoreVisitAnalytics analytics = newAnalytics();
+        LocalDateTime now = LocalDateTime.now();
+        analytics.record(ATASEHIR.id(), "c1", now);
+
+        // When - Bir yıl ileri zamanlı giriş, ardından doğru zamanlı giriş
+        analytics.record(ATASEHIR.id(), "c2", now.plusYears(1));
+        analytics.record(ATASEHIR.id(), "c3", now);
+        StoreVisitStatsResponse stats = analytics.getStats(ATASEHIR.id(), 1, 1).orElseThrow();
+
+        // Then
+        assertEquals(3, stats.totalVisits());
+        assertEquals(3, stats.uniqueCouriers());
+        assertEquals(2, stats.hourly().getLast().visits());
+        assertEquals(2, stats.daily().getLast().visits());
+    }
+
+    @Test
+    @DisplayName("En yoğun mağazalar güncel dilimdeki giriş sayısına göre sıralanmalıdır")
+    void whenBusiestStoresRequested_thenShouldBeOrderedByVisits() {
+        // Given
+        StoreVisitAnalytics analytics = newAnalytics();
+        LocalDateTime now = LocalDateTime.now();
+        analytics.record(ATASEHIR.id(), "c1", now);
+        analytics.record(NOVADA.id(), "c1", now);
+        analytics.record(NOVADA.id(), "c2", now);
+
+        // When
+        List<BusiestStoreResponse> top = analytics.getBusiestStores(Granularity.HOUR, 10);
+        List<BusiestStoreResponse> first = analytics.getBusiestStores(Granularity.TOTAL, 1);
+
+        // Then
+        assertEquals(List.of(new BusiestStoreResponse(NOVADA.id(), NOVADA.name(), 2, null),
+                new BusiestStoreResponse(ATASEHIR.id(), ATASEHIR.name(), 1, null)), top);
+        assertEquals(List.of(new BusiestStoreResponse(NOVADA.id(), NOVADA.name(), 2, 2L)), first);
+    }
+
+    @Test
+    @DisplayName("Yazılan sayaçlar yeniden açılışta yüklenmeli ve yalnızca değişen dilimler tekrar yazılmalıdır")
+    void whenFlushedAndReloaded_thenCountersShouldContinue() {
+        // Given
+        StoreVisitAnalytics analytics = newAnalytics();
+        LocalDateTime now = LocalDateTime.now();
+        analytics.record(ATASEHIR.id(), "c1", now);
+        analytics.record(ATASEHIR.id(), "c2", now);
+
+        // When
+        int written = analytics.flush();
+        int rewritten = analytics.flush();
+        StoreVisitAnalytics restarted = newAnalytics();
+        restarted.record(ATASEHIR.id(), "c1", now);
+        StoreVisitStatsResponse stats = restarted.getStats(ATASEHIR.id(), 1, 1).orElseThrow();
+
+        // Then - Saat, gün ve toplam dilimleri
+        assertEquals(3, written);
+        assertEquals(0, rewritten);
+        assertEquals(3, stats.totalVisits());
+        assertEquals(2, stats.uniqueCouriers());
+        assertEquals(3, stats.hourly().getLast().visits());
+        assertEquals(2L, stats.daily().getLast().uniqueCouriers());
+    }
+
+    @Test
+    @DisplayName("Yazım başarısız olursa dilimler sonraki yazımda tekrar denenmelidir")
+    void whenFlushFails_thenBucketsShouldBeRetried() {
+        // Given
+        StoreVisitAnalytics analytics = newAnalytics();
+        analytics.record(ATASEHIR.id(), "c1", LocalDateTime.now());
+        doThrow(new IllegalStateException("Veritabanı hatası")).doCallRealMethod().when(statsWriter).addAll(anyList());
+
+        // When
+        int failed = analytics.flush();
+        reset(statsWriter);
+        int retried = analytics.flush();
+
+        // Then
+        assertEquals(0, failed);
+        assertEquals(3, retried);
+        ArgumentCaptor<List<StoreVisitStats>> rows = ArgumentCaptor.forClass(List.class);
+        verify(statsWriter).addAll(rows.capture());
+        assertEquals(1, rows.getValue().stream()
+                .filter(row -> row.getGranularity() == Granularity.TOTAL).findFirst().orElseThrow().getVisitCount());
+        verify(statsWriter, never()).addAll(eq(List.of()));
+    }
+
+    @Test
+    @DisplayName("İki düğümün yazdığı sayaçlar birbirini ezmemeli, tabloda toplanmalıdır")
+    void whenTwoNodesFlush_thenCountersShouldBeSummed() {
+        // Given - Aynı tablodan açılan iki düğüm
+        StoreVisitAnalytics first = newAnalytics();
+        StoreVisitAnalytics second = newAnalytics();
+        LocalDateTime now = LocalDateTime.now();
+
+        // When
+        first.record(ATASEHIR.id(), "c1", now);
+        first.record(ATASEHIR.id(), "c2", now);
+        second.record(ATASEHIR.id(), "c3", now);
+        first.flush();
+        second.flush();
+        first.record(ATASEHIR.id(), "c1", now);
+        first.flush();
+        StoreVisitStatsResponse stats = newAnalytics().getStats(ATASEHIR.id(), 1, 1).orElseThrow();
+
+        // Then
+        assertEquals(4, stats.totalVisits());
+        assertEquals(3, stats.uniqueCouriers());
+        assertEquals(4, stats.hourly().getLast().visits());
+        assertEquals(3L, stats.daily().getLast().uniqueCouriers());
+    }
+}
@@ -0,0 +1,132 @@
+package com.migros.courier.service;
+
+import com.migros.courier.config.LocationSimplificationProperties;
+import com.migros.courier.model.CourierLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.migros.courier.service.TestConstants.COURIER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrajectorySimplifierTest {
+    private static final double METERS_PER_DEGREE = 111_195.0;
+
+    private LocationSimplificationProperties properties;
+    private TrajectorySimplifier simplifier;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LocationSimplificationProperties();
+        properties.setEnabled(true);
+        properties.setDeadBandMeters(10);
+        properties.setToleranceMeters(15);
+        properties.setMaxWindow(20);
+        properties.setMaxGap(Duration.ofMinutes(5));
+        simplifier = new TrajectorySimplifier(properties, new SimpleMeterRegistry());
+        start = LocalDateTime.of(2024, 1, 1, 12, 0);
+    }
+
+    private CourierLocation point(double northMeters, double eastMeters, int second) {
+        return new CourierLocation(COURIER_ID, 41.0 + northMeters / METERS_PER_DEGREE,
+                29.0 + eastMeters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(41.0))), start.plusSeconds(second));
+    }
+
+    private List<CourierLocation> simplifyAll(List<CourierLocation> points) {
+        List<CourierLocation> stored = new ArrayList<>();
+        points.forEach(point -> stored.addAll(simplifier.simplify(point)));
+        stored.addAll(simplifier.flushAll());
+        return stored;
+    }
+
+    @Test
+    @DisplayName("Duran kuryenin dead-band içindeki noktaları atılmalı, max-gap dolduğunda bir nokta kaydedilmelidir")
+    void whenCourierStationary_thenShouldKeepOnePointPerMaxGap() {
+        // Given - 10 dakika boyunca her 5 saniyede bir, birkaç metre oynayan konum
+        Random random = new Random(1);
+        List<CourierLocation> points = new ArrayList<>();
+        for (int second = 0; second < 600; second += 5) {
+            points.add(point(random.nextDouble() * 4, random.nextDouble() * 4, second));
+        }
+
+        // When
+        List<CourierLocation> stored = simplifyAll(points);
+
+        // Then - İlk nokta ve 5. ile 10. dakikadaki zorunlu noktalar
+        assertEquals(List.of(points.get(0), points.get(60)), stored);
+        assertTrue(simplifier.getReductionRatio() > 0.98);
+    }
+
+    @Test
+    @DisplayName("Düz giden kuryenin ara noktaları atılmalı, pencere sınırı kadar nokta bekletilmelidir")
+    void whenCourierMovesStraight_thenShouldKeepOnlyWindowBoundaries() {
+        // Given - Doğuya doğru saniyede 20 metre, 100 nokta
+        List<CourierLocation> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            points.add(point(0, i * 20.0, i));
+        }
+
+        // When
+        List<CourierLocation> stored = simplifyAll(points);
+
+        // Then - Başlangıç, her 20 noktada bir pencere sınırı ve son nokta
+        assertEquals(List.of(points.get(0), points.get(20), points.get(40), points.get(60), points.get(80),
+                points.get(99)), stored);
+    }
+
+    @Test
+    @DisplayName("Sadeleştirilmiş rota, atılan her noktaya tolerans mesafesinden yakın olmalıdır")
+    void whenRandomWalk_thenEveryDroppedPointShouldStayWithinTolerance() {
+        // Given - Yön değiştiren rastgele yürüyüş
+        Random random = new Random(7);
+        List<CourierLocation> points = new ArrayList<>();
+        double north = 0;
+        double east = 0;
+        double heading = 0;
+        for (int i = 0; i < 2_000; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.6;
+            double step = random.nextDouble() < 0.2 ? random.nextDouble() * 3 : 5 + random.nextDouble() * 15;
+            north += Math.cos(heading) * step;
+            east += Math.sin(heading) * step;
+            points.add(point(north, east, i * 3));
+        }
+
+        // When
+        List<CourierLocation> stored = simplifyAll(points);
+
+        // Then
+        assertTrue(stored.size() < points.size() / 2, "Kaydedilen nokta sayısı: " + stored.size());
+        int segment = 0;
+        for (CourierLocation point : points) {
+            while (segment < stored.size() - 2 && point.getTimestamp().isAfter(stored.get(segment + 1).getTimestamp())) {
+                segment++;
+            }
+            double distance = TrajectorySimplifier.distanceToSegment(point, stored.get(segment), stored.get(segment + 1));
+            // Dead-band ile atılan noktalar son tutulan noktaya göre ölçüldüğü için sınır ikisinin toplamıdır
+            assertTrue(distance <= properties.getToleranceMeters() + properties.getDeadBandMeters(),
+                    "Sapma: " + distance);
+        }
+    }
+
+    @Test
+    @DisplayName("Sadeleştirme kapalıyken her konum olduğu gibi döndürülmelidir")
+    void whenDisabled_thenShouldReturnEveryPoint() {
+        // Given
+        properties.setEnabled(false);
+        CourierLocation location = point(0, 0, 0);
+
+        // When & Then
+        assertEquals(List.of(location), simplifier.simplify(location));
+        assertEquals(List.of(location), simplifier.simplify(location));
+        assertEquals(0.0, simplifier.getReductionRatio());
+    }
+}
@@ -0,0 +1,62 @@
+package com.migros.courier.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int COURIERS = 30_000;
+    private static final int VIRTUAL_NODES = 128;
+
+    @Test
+    @DisplayName("Kuryeler düğümlere dengeli dağılmalı ve düğüm sırası sonucu değiştirmemelidir")
+    void whenCouriersAssigned_thenShouldBeBalancedAndOrderIndependent() {
+        // Given
+        ConsistentHashRing ring = ConsistentHashRing.of(
+                List.of("http://localhost:8081", "http://localhost:8082", "http://localhost:8083"), VIRTUAL_NODES);
+        ConsistentHashRing reordered = ConsistentHashRing.of(
+                List.of("http://localhost:8083", "http://localhost:8081", "http://localhost:8082"), VIRTUAL_NODES);
+
+        // When
+        Map<String, Integer> counts = new HashMap<>();
+        for (int c = 0; c < COURIERS; c++) {
+            String owner = ring.ownerOf("courier-" + c);
+            counts.merge(owner, 1, Integer::sum);
+            assertEquals(owner, reordered.ownerOf("courier-" + c));
+        }
+
+        // Then - Her düğüm ortalamanın %20 yakınında
+        assertEquals(3, counts.size());
+        counts.values().forEach(count ->
+                assertTrue(Math.abs(count - COURIERS / 3) < COURIERS / 3 * 0.2, "Düğüm kurye sayısı: " + count));
+    }
+
+    @Test
+    @DisplayName("Düğüm eklendiğinde yalnızca yeni düğüme düşen kuryelerin sahibi değişmelidir")
+    void whenNodeJoins_thenOnlyCouriersOfNewNodeShouldMove() {
+        // Given
+        ConsistentHashRing before = ConsistentHashRing.of(List.of("node-1", "node-2", "node-3"), VIRTUAL_NODES);
+        ConsistentHashRing after = ConsistentHashRing.of(List.of("node-1", "node-2", "node-3", "node-4"), VIRTUAL_NODES);
+
+        // When
+        int moved = 0;
+        for (int c = 0; c < COURIERS; c++) {
+            String oldOwner = before.ownerOf("courier-" + c);
+            String newOwner = after.ownerOf("courier-" + c);
+            if (!oldOwner.equals(newOwner)) {
+                assertEquals("node-4", newOwner);
+                moved++;
+            }
+        }
+
+        // Then - Yaklaşık dörtte biri taşınır
+        assertTrue(moved > COURIERS / 4 * 0.8 && moved < COURIERS / 4 * 1.2, "Taşınan kurye: " + moved);
+    }
+}
@@ -0,0 +1,64 @@
+package com.migros.courier.util;
+
+import com.migros.courier.model.CourierLocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CourierLocationBinaryCodecTest {
+
+    @Test
+    @DisplayName("İkili formata kodlanan konumlar aynı değerlerle geri çözülmelidir")
+    void whenEncodedAndDecoded_thenShouldRoundTrip() {
+        // Given
+        LocalDateTime time = LocalDateTime.of(2024, 3, 3, 10, 0, 0, 123_000_000);
+        List<CourierLocation> locations = List.of(
+                new CourierLocation("courier-1", 40.9923307, 29.1244229, time),
+                new CourierLocation("kurye-ğüşiöç", -33.5, 151.25, time.plusSeconds(5)));
+
+        // When
+        byte[] body = CourierLocationBinaryCodec.encode(locations);
+        List<CourierLocation> decoded = CourierLocationBinaryCodec.decode(new ByteArrayInputStream(body), 10);
+
+        // Then
+        assertEquals(2, decoded.size());
+        for (int i = 0; i < locations.size(); i++) {
+            assertEquals(locations.get(i).getCourierId(), decoded.get(i).getCourierId());
+            assertEquals(locations.get(i).getLat(), decoded.get(i).getLat());
+            assertEquals(locations.get(i).getLng(), decoded.get(i).getLng());
+            assertEquals(locations.get(i).getTimestamp(), decoded.get(i).getTimestamp());
+        }
+        // 8 bayt başlık + kayıt başına 26 bayt + kurye ID
+        assertEquals(8 + 26 * 2 + "courier-1".length() + "kurye-ğüşiöç".getBytes(StandardCharsets.UTF_8).length, body.length);
+    }
+
+    @Test
+    @DisplayName("Eksik, fazla veya sınırı aşan gövdeler reddedilmelidir")
+    void whenBodyIsMalformed_thenShouldReject() {
+        // Given
+        byte[] body = CourierLocationBinaryCodec.encode(List.of(
+                new CourierLocation("courier-1", 40.99, 29.12, LocalDateTime.of(2024, 3, 3, 10, 0)),
+                new CourierLocation("courier-2", 40.98, 29.11, LocalDateTime.of(2024, 3, 3, 10, 0))));
+        byte[] truncated = Arrays.copyOf(body, body.length - 3);
+        byte[] trailing = Arrays.copyOf(body, body.length + 1);
+        byte[] json = "{\"courierId\":\"c1\"}".getBytes();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> CourierLocationBinaryCodec.decode(new ByteArrayInputStream(truncated), 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> CourierLocationBinaryCodec.decode(new ByteArrayInputStream(trailing), 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> CourierLocationBinaryCodec.decode(new ByteArrayInputStream(body), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> CourierLocationBinaryCodec.decode(new ByteArrayInputStream(json), 10));
+    }
+}
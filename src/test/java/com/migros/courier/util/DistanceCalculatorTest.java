@@ -0,0 +1,118 @@
+package com.migros.courier.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistanceCalculatorTest {
+
+    private static final double RADIUS_METERS = 100.0;
+
+    @Test
+    @DisplayName("Ataşehir ve Novada mağazaları arasındaki mesafe yaklaşık 982 metre olmalıdır")
+    void whenDistanceBetweenKnownStores_thenShouldBeAboutOneKilometer() {
+        double distance = DistanceCalculator.calculateDistance(40.9923307, 29.1244229, 40.986106, 29.1161293);
+
+        assertEquals(981.66, distance, 0.01);
+    }
+
+    @Test
+    @DisplayName("Toplu mesafe hesabı, tekil Haversine sonucuyla aynı olmalıdır")
+    void whenBulkDistancesCalculated_thenShouldMatchScalarFormula() {
+        // Given
+        Random random = new Random(11);
+        int count = 1_003; // Vektör uzunluğunun katı olmayan bir boyut, kalan döngüsünü de sınar
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = -89 + random.nextDouble() * 178;
+            lngs[i] = -180 + random.nextDouble() * 360;
+        }
+        double lat = 41.0;
+        double lng = 29.0;
+
+        // When
+        double[] bulk = new double[count];
+        DistanceCalculator.calculateDistances(lat, lng, lats, lngs, bulk);
+        double[] scalar = new double[count];
+        DistanceCalculator.calculateDistancesScalar(lat, lng, lats, lngs, scalar, count);
+
+        // Then - Dünya çevresi ölçeğindeki mesafelerde bile fark milimetrenin altında olmalıdır
+        for (int i = 0; i < count; i++) {
+            assertEquals(scalar[i], bulk[i], 1e-3, "İndeks: " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Yarıçap filtresi, doğrusal Haversine taramasıyla aynı indeksleri döndürmelidir")
+    void whenFilteredWithinRadius_thenShouldMatchLinearScan() {
+        // Given - Bir kısmı sınıra çok yakın olan mağazalar
+        Random random = new Random(5);
+        int count = 2_000;
+        double lat = 40.99;
+        double lng = 29.12;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            double bearing = random.nextDouble() * 2 * Math.PI;
+            double meters = i % 4 == 0 ? 99.9 + random.nextDouble() * 0.2 : random.nextDouble() * 400;
+            lats[i] = lat + Math.toDegrees(meters * Math.cos(bearing) / 6_371_000.0);
+            lngs[i] = lng + Math.toDegrees(meters * Math.sin(bearing) / 6_371_000.0 / Math.cos(Math.toRadians(lat)));
+        }
+
+        // When
+        int[] matches = new int[count];
+        int matchCount = DistanceCalculator.filterWithinRadius(lat, lng, lats, lngs, RADIUS_METERS, matches);
+
+        // Then
+        int[] expected = IntStream.range(0, count)
+                .filter(i -> DistanceCalculator.calculateDistance(lat, lng, lats[i], lngs[i]) <= RADIUS_METERS)
+                .toArray();
+        assertArrayEquals(expected, Arrays.copyOf(matches, matchCount));
+        assertTrue(matchCount > 100);
+
+        // Küçük dizilerde skaler yol ve sınırlayıcı kutu ön kontrolü kullanılır
+        double[] smallLats = Arrays.copyOf(lats, 15);
+        double[] smallLngs = Arrays.copyOf(lngs, 15);
+        int smallCount = DistanceCalculator.filterWithinRadius(lat, lng, smallLats, smallLngs, RADIUS_METERS, matches);
+        assertArrayEquals(Arrays.stream(expected).filter(i -> i < 15).toArray(), Arrays.copyOf(matches, smallCount));
+    }
+
+    @Test
+    @DisplayName("Yaklaşık mesafe, 10 km'ye kadar ve |enlem| ≤ 80° için belgelenen 1e-4 bağıl hata sınırında olmalıdır")
+    void whenApproximateDistance_thenShouldStayWithinDocumentedErrorBound() {
+        Random random = new Random(3);
+        double worstRelativeError = 0;
+        for (int i = 0; i < 100_000; i++) {
+            double lat1 = -80 + random.nextDouble() * 160;
+            double lng1 = -180 + random.nextDouble() * 360;
+            double bearing = random.nextDouble() * 2 * Math.PI;
+            double meters = 1 + random.nextDouble() * 10_000;
+            double lat2 = Math.max(-80, Math.min(80, lat1 + Math.toDegrees(meters * Math.cos(bearing) / 6_371_000.0)));
+            double lng2 = lng1 + Math.toDegrees(meters * Math.sin(bearing) / 6_371_000.0 / Math.cos(Math.toRadians(lat1)));
+            if (lng2 > 180) {
+                lng2 -= 360;
+            }
+
+            double exact = DistanceCalculator.calculateDistance(lat1, lng1, lat2, lng2);
+            double approximate = DistanceCalculator.approximateDistance(lat1, lng1, lat2, lng2);
+            worstRelativeError = Math.max(worstRelativeError, Math.abs(approximate - exact) / exact);
+        }
+
+        assertTrue(worstRelativeError < 1e-4, "En kötü bağıl hata: " + worstRelativeError);
+    }
+
+    @Test
+    @DisplayName("Test ortamında Vector API etkin olmalıdır")
+    void whenVectorModuleLoaded_thenVectorPathShouldBeUsed() {
+        assertTrue(DistanceCalculator.isVectorApiAvailable(),
+                "Testler --add-modules jdk.incubator.vector ile çalıştırılmalıdır");
+    }
+}
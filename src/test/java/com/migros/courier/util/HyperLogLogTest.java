@@ -0,0 +1,54 @@
+package com.migros.courier.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Farklı eleman sayısı küçük ve büyük kümelerde %5 hata içinde tahmin edilmeli, tekrarlar sayılmamalıdır")
+    void whenElementsAdded_thenEstimateShouldBeCloseToDistinctCount() {
+        for (int distinct : new int[]{10, 1_000, 100_000}) {
+            // Given
+            HyperLogLog sketch = new HyperLogLog();
+
+            // When - Her eleman iki kez eklenir
+            for (int repeat = 0; repeat < 2; repeat++) {
+                for (int c = 0; c < distinct; c++) {
+                    sketch.add("courier-" + c);
+                }
+            }
+
+            // Then
+            long estimate = sketch.estimate();
+            assertTrue(Math.abs(estimate - distinct) <= Math.max(1, distinct * 0.05),
+                    "Gerçek: " + distinct + ", Tahmin: " + estimate);
+        }
+    }
+
+    @Test
+    @DisplayName("Birleştirilen taslak, iki kümenin birleşimini tahmin etmeli ve bayt gösteriminden aynen okunmalıdır")
+    void whenMerged_thenShouldEstimateUnionAndRoundTrip() {
+        // Given - 5000 ortak olmak üzere 10000'er eleman
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int c = 0; c < 10_000; c++) {
+            first.add("courier-" + c);
+            second.add("courier-" + (c + 5_000));
+        }
+
+        // When
+        HyperLogLog union = first.copy();
+        union.merge(second);
+        HyperLogLog restored = HyperLogLog.fromByteArray(union.toByteArray());
+
+        // Then
+        assertTrue(Math.abs(union.estimate() - 15_000) < 15_000 * 0.05, "Tahmin: " + union.estimate());
+        assertEquals(union, restored);
+        assertFalse(restored.add("courier-42"));
+    }
+}
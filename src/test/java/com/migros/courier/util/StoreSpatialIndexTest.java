@@ -0,0 +1,129 @@
+package com.migros.courier.util;
+
+import com.migros.courier.dto.StoreInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreSpatialIndexTest {
+
+    private static final double RADIUS_METERS = 100.0;
+
+    private static List<StoreInfo> linearScan(List<StoreInfo> stores, double lat, double lng) {
+        return stores.stream()
+                .filter(store -> DistanceCalculator.calculateDistance(lat, lng, store.lat(), store.lng()) <= RADIUS_METERS)
+                .toList();
+    }
+
+    private static List<StoreInfo> randomStores(Random random, int count, double centerLat, double centerLng, double spreadDegrees) {
+        List<StoreInfo> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double lat = centerLat + (random.nextDouble() - 0.5) * spreadDegrees;
+            double lng = centerLng + (random.nextDouble() - 0.5) * spreadDegrees;
+            stores.add(new StoreInfo(null, "Migros " + i, lat, lng));
+        }
+        return stores;
+    }
+
+    @Test
+    @DisplayName("İndeks sonuçları, tüm mağazaların doğrusal taranmasıyla birebir aynı olmalıdır")
+    void whenQueried_thenShouldMatchLinearScan() {
+        // Given - İstanbul çevresine yoğun yerleştirilmiş mağazalar
+        Random random = new Random(42);
+        List<StoreInfo> stores = randomStores(random, 5_000, 41.0, 29.0, 0.2);
+        StoreSpatialIndex index = StoreSpatialIndex.of(stores, RADIUS_METERS);
+
+        int matchedQueries = 0;
+        for (int i = 0; i < 4_000; i++) {
+            // Sorguların bir kısmı doğrudan mağaza koordinatlarının çevresinde
+            double lat;
+            double lng;
+            if (i % 2 == 0) {
+                StoreInfo store = stores.get(random.nextInt(stores.size()));
+                lat = store.lat() + (random.nextDouble() - 0.5) * 0.003;
+                lng = store.lng() + (random.nextDouble() - 0.5) * 0.003;
+            } else {
+                lat = 41.0 + (random.nextDouble() - 0.5) * 0.2;
+                lng = 29.0 + (random.nextDouble() - 0.5) * 0.2;
+            }
+
+            // When
+            List<StoreInfo> expected = linearScan(stores, lat, lng);
+            List<StoreInfo> actual = index.findWithinRadius(lat, lng);
+
+            // Then
+            assertEquals(expected, actual, "Sorgu noktası: " + lat + "," + lng);
+            if (!expected.isEmpty()) {
+                matchedQueries++;
+            }
+        }
+        assertTrue(matchedQueries > 500, "Test sorgularının önemli bir kısmı mağaza bulmalıdır");
+    }
+
+    @Test
+    @DisplayName("Tarih değiştirme çizgisi ve kutup yakınındaki sorgular doğrusal taramayla aynı sonucu vermelidir")
+    void whenQueriedAtGridEdges_thenShouldMatchLinearScan() {
+        // Given
+        Random random = new Random(7);
+        List<StoreInfo> stores = new ArrayList<>();
+        stores.addAll(randomStores(random, 500, 0.0, 179.9995, 0.003));
+        stores.addAll(randomStores(random, 500, 0.0, -179.9995, 0.003));
+        stores.addAll(randomStores(random, 500, 89.9990, 0.0, 0.002));
+        StoreSpatialIndex index = StoreSpatialIndex.of(stores, RADIUS_METERS);
+
+        for (int i = 0; i < 5_000; i++) {
+            StoreInfo anchor = stores.get(random.nextInt(stores.size()));
+            double lat = Math.max(-90, Math.min(90, anchor.lat() + (random.nextDouble() - 0.5) * 0.002));
+            double lng = anchor.lng() + (random.nextDouble() - 0.5) * 0.002;
+            if (lng > 180) {
+                lng -= 360;
+            } else if (lng < -180) {
+                lng += 360;
+            }
+
+            // When & Then
+            assertEquals(linearScan(stores, lat, lng), index.findWithinRadius(lat, lng),
+                    "Sorgu noktası: " + lat + "," + lng);
+        }
+    }
+
+    @Test
+    @DisplayName("Yarıçap sınırına santimetreler mesafedeki mağazalar doğrusal taramayla aynı kararı almalıdır")
+    void whenStoresAreOnRadiusBoundary_thenShouldMatchLinearScan() {
+        // Given - Sorgu noktası çevresinde 99.99 - 100.01 metre halkasına yerleştirilmiş mağazalar
+        Random random = new Random(13);
+        double lat = 41.0;
+        double lng = 29.0;
+        List<StoreInfo> stores = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            double bearing = random.nextDouble() * 2 * Math.PI;
+            double meters = RADIUS_METERS - 0.01 + random.nextDouble() * 0.02;
+            stores.add(new StoreInfo(null, "Migros " + i,
+                    lat + Math.toDegrees(meters * Math.cos(bearing) / 6_371_000.0),
+                    lng + Math.toDegrees(meters * Math.sin(bearing) / 6_371_000.0 / Math.cos(Math.toRadians(lat)))));
+        }
+        StoreSpatialIndex index = StoreSpatialIndex.of(stores, RADIUS_METERS);
+
+        // When
+        List<StoreInfo> actual = index.findWithinRadius(lat, lng);
+
+        // Then
+        List<StoreInfo> expected = linearScan(stores, lat, lng);
+        assertEquals(expected, actual);
+        assertTrue(!expected.isEmpty() && expected.size() < stores.size(), "Eşleşen: " + expected.size());
+    }
+
+    @Test
+    @DisplayName("Boş mağaza listesinden oluşturulan indeks boş sonuç döndürmelidir")
+    void whenIndexIsEmpty_thenShouldReturnEmptyList() {
+        StoreSpatialIndex index = StoreSpatialIndex.of(List.of(), RADIUS_METERS);
+
+        assertTrue(index.findWithinRadius(41.0, 29.0).isEmpty());
+    }
+}
@@ -0,0 +1,105 @@
+package com.migros.courier.util;
+
+import com.migros.courier.model.CourierLocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TelemetryLineDecoderTest {
+
+    private static final long EPOCH_MILLIS = 1_709_460_000_123L;
+
+    @Test
+    @DisplayName("Parçalı gelen satırlar tampon sınırında beklemeli, tamamlandığında çözülmelidir")
+    void whenLinesArriveInFragments_thenShouldDecodeCompletedLinesOnly() {
+        // Given
+        TelemetryLineDecoder decoder = new TelemetryLineDecoder();
+        List<CourierLocation> out = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        buffer.put(bytes("courier-1,40.9923307,29.1244229," + EPOCH_MILLIS + "\r\ncourier-1,40.98"));
+
+        // When - İlk okumada yalnızca tamamlanan satır çözülür
+        buffer.flip();
+        int malformed = decoder.decode(buffer, false, out);
+        buffer.compact();
+        buffer.put(bytes("6106,-29.1161293," + (EPOCH_MILLIS + 5_000) + "\n\n"));
+        buffer.flip();
+        malformed += decoder.decode(buffer, false, out);
+
+        // Then
+        assertEquals(0, malformed);
+        assertEquals(0, buffer.remaining());
+        assertEquals(2, out.size());
+        assertEquals("courier-1", out.get(0).getCourierId());
+        assertEquals(40.9923307, out.get(0).getLat());
+        assertEquals(29.1244229, out.get(0).getLng());
+        assertEquals(LocalDateTime.ofInstant(Instant.ofEpochMilli(EPOCH_MILLIS), ZoneId.systemDefault()),
+                out.get(0).getTimestamp());
+        assertEquals(40.986106, out.get(1).getLat());
+        assertEquals(-29.1161293, out.get(1).getLng());
+        // Aynı kurye ID'si önbellekten yeniden kullanılır
+        assertSame(out.get(0).getCourierId(), out.get(1).getCourierId());
+    }
+
+    @Test
+    @DisplayName("Bozuk satırlar sayılıp atlanmalı, geçerli satırlar işlenmeye devam etmelidir")
+    void whenLinesAreMalformed_thenShouldSkipAndCount() {
+        // Given
+        TelemetryLineDecoder decoder = new TelemetryLineDecoder();
+        List<CourierLocation> out = new ArrayList<>();
+        String datagram = String.join("\n",
+                "courier-1,40.99,29.12",
+                "courier-1,40.99,29.12,1,2",
+                ",40.99,29.12,1",
+                "courier-1,40.9a,29.12,1",
+                "courier-1,-,29.12,1",
+                "courier-1,40.99,29.12,99999999999999999999",
+                "courier-1,1.2.3,29.12,1",
+                "kurye-ğ,40.99,29.12," + EPOCH_MILLIS);
+
+        // When - UDP datagramında son satırın satır sonu olmayabilir
+        int malformed = decoder.decode(ByteBuffer.wrap(bytes(datagram)), true, out);
+
+        // Then
+        assertEquals(7, malformed);
+        assertEquals(1, out.size());
+        assertEquals("kurye-ğ", out.get(0).getCourierId());
+    }
+
+    @Test
+    @DisplayName("Ondalık ayrıştırma, Double.parseDouble ile bit düzeyinde aynı sonucu vermelidir")
+    void whenDecimalsParsed_thenShouldMatchDoubleParseDouble() {
+        Random random = new Random(17);
+        List<String> values = new ArrayList<>(List.of("0", "-0.0", "+1.5", ".5", "5.", "180", "-90.000000",
+                "0.1", "12345678901234567890.5", "0.000000000000000000000001"));
+        for (int i = 0; i < 100_000; i++) {
+            int decimals = random.nextInt(17);
+            values.add(String.format(Locale.ROOT, "%." + decimals + "f", -180 + random.nextDouble() * 360));
+        }
+
+        for (String value : values) {
+            byte[] bytes = bytes(value);
+            double parsed = TelemetryLineDecoder.parseDecimal(ByteBuffer.wrap(bytes), 0, bytes.length);
+            assertEquals(Double.doubleToLongBits(Double.parseDouble(value)), Double.doubleToLongBits(parsed),
+                    "Değer: " + value);
+        }
+        assertTrue(Double.isNaN(TelemetryLineDecoder.parseDecimal(ByteBuffer.wrap(bytes(".")), 0, 1)));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}